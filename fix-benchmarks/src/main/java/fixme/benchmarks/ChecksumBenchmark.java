@@ -0,0 +1,50 @@
+package fixme.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fixme.common.message.ByteScanner;
+import fixme.common.message.FixMessage;
+import fixme.common.message.FixMessageDecoder;
+
+/**
+ * CheckSum(10): reading the running sum of a built message, checking the
+ * checksum of received bytes, and the raw byte sum behind both.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChecksumBenchmark {
+
+    private final FixMessageDecoder decoder = new FixMessageDecoder();
+
+    @Benchmark
+    public String calculateChecksum(MessageCorpus corpus) {
+        FixMessage message = corpus.parsed[corpus.next()];
+        return message.calculateChecksum();
+    }
+
+    @Benchmark
+    public boolean verifyReceived(MessageCorpus corpus) {
+        byte[] src = corpus.bytes[corpus.next()];
+        return decoder.wrap(src, 0, src.length).isChecksumValid();
+    }
+
+    @Benchmark
+    public int byteSum(MessageCorpus corpus) {
+        byte[] src = corpus.bytes[corpus.next()];
+        return ByteScanner.sum(src, 0, src.length);
+    }
+}
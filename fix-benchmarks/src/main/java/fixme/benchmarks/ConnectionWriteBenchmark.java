@@ -0,0 +1,124 @@
+package fixme.benchmarks;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fixme.router.ComponentType;
+import fixme.router.nio.ClientConnection;
+
+/**
+ * Flushing a backlog of forwarded frames (a market answering a burst of
+ * orders) from a ClientConnection to a loopback TCP socket, drained by a
+ * reader thread. Counts real write syscalls, unlike InMemorySocketChannel.
+ *
+ * The messages and write calls are reported with the results, as the
+ * flush:messages and flush:writeCalls counters; their ratio is the
+ * messages per write call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionWriteBenchmark {
+
+    @Param({"1", "50"})
+    public int backlog;
+
+    private ServerSocketChannel server;
+    private SocketChannel reader;
+    private Thread drain;
+    private ClientConnection connection;
+    private byte[][] frames;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(MessageCorpus corpus) throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        SocketChannel writer = SocketChannel.open(server.getLocalAddress());
+        reader = server.accept();
+        writer.configureBlocking(false);
+
+        drain = new Thread(() -> {
+            ByteBuffer sink = ByteBuffer.allocateDirect(64 * 1024);
+            try {
+                while (reader.read(sink) >= 0) {
+                    sink.clear();
+                }
+            } catch (IOException e) {
+                // Closed by tearDown
+            }
+        }, "drain");
+        drain.setDaemon(true);
+        drain.start();
+
+        connection = new ClientConnection("200001", writer, ComponentType.MARKET);
+        frames = new byte[corpus.raw.length][];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = ("[200001 > 100001] " + corpus.raw[i] + "\n").getBytes(StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        connection.close();
+        reader.close();
+        server.close();
+        drain.join(1000);
+    }
+
+    /**
+     * Messages and write calls of the measured iterations. JMH sums event
+     * counters over iterations, so a ratio cannot be reported directly.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WriteCounters {
+        public long messages;
+        public long writeCalls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            messages = 0;
+            writeCalls = 0;
+        }
+    }
+
+    @Benchmark
+    public void flush(WriteCounters counters) throws IOException {
+        long calls = connection.getWriteCalls();
+        for (int i = 0; i < backlog; i++) {
+            byte[] frame = frames[next];
+            next = next + 1 == frames.length ? 0 : next + 1;
+            connection.queueFrame(connection.allocateFrame(frame.length).put(frame));
+        }
+        while (connection.hasDataToWrite()) {
+            connection.write();
+        }
+        counters.messages += backlog;
+        counters.writeCalls += connection.getWriteCalls() - calls;
+    }
+}
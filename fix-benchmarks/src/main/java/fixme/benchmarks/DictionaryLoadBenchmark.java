@@ -0,0 +1,66 @@
+package fixme.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import fixme.common.config.FixConfig;
+
+/**
+ * Cold start of the FIX dictionary, once per fresh JVM: the bundled
+ * dictionary compiled at build time (what getInstance() loads) against
+ * parsing the same JSON with Gson, as every process did before.
+ *
+ * Logging is initialized in the setup so that only the dictionary is
+ * measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class DictionaryLoadBenchmark {
+
+    private Path json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        LoggerFactory.getLogger(DictionaryLoadBenchmark.class).debug("Logging initialized");
+        json = Files.createTempFile("fix-tags", ".json");
+        try (InputStream in = FixConfig.class.getClassLoader().getResourceAsStream("fix-tags.json")) {
+            Files.write(json, in.readAllBytes());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(json);
+    }
+
+    @Benchmark
+    public FixConfig compiled() {
+        return FixConfig.getInstance();
+    }
+
+    @Benchmark
+    public FixConfig json() throws IOException {
+        return FixConfig.load(json);
+    }
+}
@@ -0,0 +1,42 @@
+package fixme.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fixme.common.message.FixMessage;
+import fixme.common.validation.MessageValidator;
+
+/**
+ * Writing a parsed message: toString() as the clients send it, and
+ * encodeTo() into a reused buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodeBenchmark {
+
+    private final byte[] buffer = new byte[MessageValidator.MAX_MESSAGE_LENGTH];
+
+    @Benchmark
+    public String toString(MessageCorpus corpus) {
+        return corpus.parsed[corpus.next()].toString();
+    }
+
+    @Benchmark
+    public int encodeTo(MessageCorpus corpus) {
+        FixMessage message = corpus.parsed[corpus.next()];
+        return message.encodeTo(buffer, 0);
+    }
+}
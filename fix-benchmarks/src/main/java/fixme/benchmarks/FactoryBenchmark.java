@@ -0,0 +1,106 @@
+package fixme.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fixme.common.message.FixMessage;
+import fixme.common.message.FixMessageFactory;
+import fixme.common.message.FixTags;
+import fixme.common.message.FixedPoint;
+import fixme.common.message.HeaderTemplate;
+
+/**
+ * Building messages with FixMessageFactory, from plain sender/target ids
+ * and from a precomputed HeaderTemplate. Field values come from the
+ * corpus orders.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FactoryBenchmark {
+
+    private static final String BROKER = "100001";
+    private static final String MARKET = "200001";
+
+    private HeaderTemplate orderHeader;
+    private HeaderTemplate reportHeader;
+
+    private String[] symbols;
+    private String[] sides;
+    private int[] quantities;
+    private long[] prices;
+    private int next;
+
+    @Setup
+    public void setUp(MessageCorpus corpus) {
+        orderHeader = FixMessageFactory.createHeaderTemplate(BROKER, MARKET, FixTags.MSG_TYPE_NEW_ORDER);
+        reportHeader = FixMessageFactory.createHeaderTemplate(MARKET, BROKER, FixTags.MSG_TYPE_EXECUTION_REPORT);
+
+        int count = 0;
+        for (FixMessage message : corpus.parsed) {
+            if (FixTags.MSG_TYPE_NEW_ORDER.equals(message.getMsgType())) {
+                count++;
+            }
+        }
+        symbols = new String[count];
+        sides = new String[count];
+        quantities = new int[count];
+        prices = new long[count];
+
+        int i = 0;
+        for (FixMessage message : corpus.parsed) {
+            if (FixTags.MSG_TYPE_NEW_ORDER.equals(message.getMsgType())) {
+                symbols[i] = message.getSymbol();
+                sides[i] = message.getField(FixTags.TAG_SIDE);
+                quantities[i] = Integer.parseInt(message.getField(FixTags.TAG_ORDER_QTY));
+                prices[i] = FixedPoint.parse(message.getField(FixTags.TAG_PRICE));
+                i++;
+            }
+        }
+    }
+
+    private int nextOrder() {
+        int index = next;
+        next = index + 1 == symbols.length ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public FixMessage createNewOrderSingle() {
+        int i = nextOrder();
+        return FixMessageFactory.createNewOrderSingle(BROKER, MARKET, symbols[i], sides[i], quantities[i], prices[i]);
+    }
+
+    @Benchmark
+    public FixMessage createNewOrderSingleFromTemplate() {
+        int i = nextOrder();
+        return FixMessageFactory.createNewOrderSingle(orderHeader, symbols[i], sides[i], quantities[i], prices[i]);
+    }
+
+    @Benchmark
+    public FixMessage createFilledReport() {
+        int i = nextOrder();
+        return FixMessageFactory.createExecutionReport(MARKET, BROKER, symbols[i], FixTags.ORD_STATUS_FILLED,
+            quantities[i], prices[i], null);
+    }
+
+    @Benchmark
+    public FixMessage createFilledReportFromTemplate() {
+        int i = nextOrder();
+        return FixMessageFactory.createExecutionReport(reportHeader, symbols[i], FixTags.ORD_STATUS_FILLED,
+            quantities[i], prices[i], null);
+    }
+}
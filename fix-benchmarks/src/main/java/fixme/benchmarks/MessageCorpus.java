@@ -0,0 +1,86 @@
+package fixme.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import fixme.common.message.FixMessage;
+import fixme.common.validation.MessageValidator;
+import fixme.common.validation.ValidationResult;
+
+/**
+ * Messages the benchmarks run over, loaded from corpus.txt: NewOrderSingle
+ * orders and ExecutionReports (filled and rejected) as brokers and markets
+ * send them, one per line.
+ *
+ * Each benchmark invocation takes the next message with next(), so that
+ * branches and lengths vary the way they do on a live connection.
+ */
+@State(Scope.Thread)
+public class MessageCorpus {
+
+    private static final String RESOURCE = "/corpus.txt";
+
+    public String[] raw;
+    public byte[][] bytes;
+    public FixMessage[] parsed;
+
+    private int next;
+
+    @Setup
+    public void load() {
+        List<String> lines = readLines();
+        raw = lines.toArray(new String[0]);
+        bytes = new byte[raw.length][];
+        parsed = new FixMessage[raw.length];
+
+        for (int i = 0; i < raw.length; i++) {
+            ValidationResult result = MessageValidator.validate(raw[i]);
+            if (!result.isValid()) {
+                throw new IllegalStateException("Invalid corpus message " + raw[i] + ": " + result.getErrorMessage());
+            }
+            bytes[i] = raw[i].getBytes(StandardCharsets.US_ASCII);
+            parsed[i] = FixMessage.parse(raw[i]);
+        }
+    }
+
+    /**
+     * @return the index of the message to use for this invocation
+     */
+    public int next() {
+        int index = next;
+        next = index + 1 == raw.length ? 0 : index + 1;
+        return index;
+    }
+
+    private static List<String> readLines() {
+        InputStream in = MessageCorpus.class.getResourceAsStream(RESOURCE);
+        if (in == null) {
+            throw new IllegalStateException(RESOURCE + " not found on the classpath");
+        }
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    lines.add(line.trim());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (lines.isEmpty()) {
+            throw new IllegalStateException(RESOURCE + " is empty");
+        }
+        return lines;
+    }
+}
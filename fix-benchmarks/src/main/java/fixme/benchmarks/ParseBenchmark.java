@@ -0,0 +1,54 @@
+package fixme.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fixme.common.message.FixMessage;
+import fixme.common.message.FixMessageDecoder;
+
+/**
+ * Reading a raw message: eager parse into a new or a reused FixMessage,
+ * lazy wrap over the bytes, and the zero-copy decoder.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    private final FixMessage message = new FixMessage();
+    private final FixMessageDecoder decoder = new FixMessageDecoder();
+
+    @Benchmark
+    public FixMessage parse(MessageCorpus corpus) {
+        return FixMessage.parse(corpus.raw[corpus.next()]);
+    }
+
+    @Benchmark
+    public FixMessage parseReused(MessageCorpus corpus) {
+        return FixMessage.parse(corpus.raw[corpus.next()], message);
+    }
+
+    @Benchmark
+    public FixMessage wrap(MessageCorpus corpus) {
+        byte[] src = corpus.bytes[corpus.next()];
+        return FixMessage.wrap(src, 0, src.length, message);
+    }
+
+    @Benchmark
+    public FixMessageDecoder decode(MessageCorpus corpus) {
+        byte[] src = corpus.bytes[corpus.next()];
+        return decoder.wrap(src, 0, src.length);
+    }
+}
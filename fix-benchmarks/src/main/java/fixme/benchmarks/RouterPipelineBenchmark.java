@@ -0,0 +1,112 @@
+package fixme.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fixme.common.config.FixConfig;
+import fixme.common.message.FixMessage;
+import fixme.router.ComponentType;
+import fixme.router.nio.ClientConnection;
+import fixme.router.nio.MessageDispatcher;
+import fixme.router.processor.MessageProcessor;
+import fixme.router.routing.RoutingTable;
+
+/**
+ * The router's CPU cost per message, without sockets: MessageDispatcher,
+ * then MessageProcessor running ValidationHandler, RoutingHandler and
+ * ForwardingHandler on the calling thread, then the target connection
+ * writing its queued frame to an InMemorySocketChannel.
+ *
+ * Every sender and target of the corpus gets a ClientConnection in the
+ * RoutingTable, so every message is forwarded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterPipelineBenchmark {
+
+    private MessageProcessor processor;
+    private MessageDispatcher dispatcher;
+
+    // Per corpus message: the message as framed from the wire, and both ends
+    private ByteBuffer[] data;
+    private ClientConnection[] sources;
+    private ClientConnection[] targets;
+
+    @Setup
+    public void setUp(MessageCorpus corpus) throws IOException {
+        RoutingTable routingTable = new RoutingTable();
+        processor = new MessageProcessor(routingTable, Runnable::run);
+        dispatcher = new MessageDispatcher(FixConfig.getInstance().getDelimiter(), processor);
+
+        Map<String, ClientConnection> connections = new HashMap<>();
+        int count = corpus.raw.length;
+        data = new ByteBuffer[count];
+        sources = new ClientConnection[count];
+        targets = new ClientConnection[count];
+
+        for (int i = 0; i < count; i++) {
+            FixMessage message = corpus.parsed[i];
+            data[i] = ByteBuffer.wrap(corpus.raw[i].getBytes(StandardCharsets.ISO_8859_1));
+            sources[i] = connect(connections, routingTable, message.getSenderCompId());
+            targets[i] = connect(connections, routingTable, message.getTargetCompId());
+        }
+
+        // Every message must make it through the whole chain
+        for (int i = 0; i < count; i++) {
+            InMemorySocketChannel channel = (InMemorySocketChannel) targets[i].getChannel();
+            long before = channel.getBytesWritten();
+            route(i);
+            if (channel.getBytesWritten() == before) {
+                throw new IllegalStateException("Corpus message not forwarded: " + corpus.raw[i]);
+            }
+        }
+    }
+
+    private ClientConnection connect(Map<String, ClientConnection> connections, RoutingTable routingTable,
+                                     String clientId) {
+        return connections.computeIfAbsent(clientId, id -> {
+            ComponentType type = id.startsWith(ComponentType.BROKER.getPrefix()) ? ComponentType.BROKER : ComponentType.MARKET;
+            ClientConnection connection = new ClientConnection(id, new InMemorySocketChannel(), type);
+            connection.setIdentified(true);
+            routingTable.addRoute(id, connection);
+            return connection;
+        });
+    }
+
+    private boolean route(int i) throws IOException {
+        dispatcher.dispatch(data[i], 0, data[i].limit(), sources[i]);
+        ClientConnection target = targets[i];
+        target.write();
+        return target.hasDataToWrite();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        processor.shutdown();
+    }
+
+    @Benchmark
+    public boolean dispatch(MessageCorpus corpus) throws IOException {
+        return route(corpus.next());
+    }
+}
@@ -0,0 +1,108 @@
+package fixme.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fixme.common.message.ByteScanner;
+import fixme.common.message.ScanKernel;
+
+/**
+ * The ByteScanner kernels side by side, on slices of 100 to 400 bytes cut
+ * from the corpus: the byte sum of CheckSum(10), the '=' and delimiter
+ * search of indexing, the ASCII check of FixMessage.wrap(), and the
+ * delimiter or line feed search of framing over a direct read buffer.
+ *
+ * ByteScanner's auto mode uses the vector kernel only for the operations
+ * it wins here.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScanKernelBenchmark {
+
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    @Param({"100", "200", "400"})
+    public int length;
+
+    private ScanKernel scanner;
+    private byte[][] slices;
+    private ByteBuffer[] buffers;
+    private int[] positions;
+    private int next;
+
+    @Setup
+    public void setUp(MessageCorpus corpus) {
+        scanner = ByteScanner.kernel(kernel);
+        slices = new byte[corpus.bytes.length][];
+        buffers = new ByteBuffer[slices.length];
+        for (int i = 0; i < slices.length; i++) {
+            // Consecutive messages from the i-th on, cut to the length
+            byte[] slice = new byte[length];
+            for (int filled = 0, m = i; filled < length; m = (m + 1) % slices.length) {
+                byte[] message = corpus.bytes[m];
+                int count = Math.min(message.length, length - filled);
+                System.arraycopy(message, 0, slice, filled, count);
+                filled += count;
+            }
+            slices[i] = slice;
+            buffers[i] = ByteBuffer.allocateDirect(length).put(slice).flip();
+        }
+        positions = new int[length];
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == slices.length ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public int sum() {
+        byte[] src = slices[nextIndex()];
+        return scanner.sum(src, 0, src.length);
+    }
+
+    @Benchmark
+    public int findAll() {
+        byte[] src = slices[nextIndex()];
+        return scanner.findAll(src, 0, src.length, (byte) '=', (byte) '|', positions);
+    }
+
+    @Benchmark
+    public boolean isAscii() {
+        byte[] src = slices[nextIndex()];
+        return scanner.isAscii(src, 0, src.length);
+    }
+
+    /**
+     * Every delimiter or line feed of a read buffer, one call each, as
+     * MessageFramer steps through a message.
+     */
+    @Benchmark
+    public int frameScan() {
+        ByteBuffer src = buffers[nextIndex()];
+        int end = src.limit();
+        int found = 0;
+        for (int i = 0; (i = scanner.indexOfEither(src, i, end, (byte) '|', (byte) '\n')) >= 0; i++) {
+            found++;
+        }
+        return found;
+    }
+}
@@ -0,0 +1,45 @@
+package fixme.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fixme.common.message.FixMessageDecoder;
+import fixme.common.message.ValidatingParser;
+import fixme.common.validation.MessageValidator;
+import fixme.common.validation.ValidationResult;
+
+/**
+ * Validation of valid messages: MessageValidator on the raw String, and the
+ * single-pass ValidatingParser the router uses on bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidateBenchmark {
+
+    private final ValidatingParser parser = new ValidatingParser();
+    private final FixMessageDecoder decoder = new FixMessageDecoder();
+
+    @Benchmark
+    public ValidationResult validate(MessageCorpus corpus) {
+        return MessageValidator.validate(corpus.raw[corpus.next()]);
+    }
+
+    @Benchmark
+    public ValidationResult validatingParser(MessageCorpus corpus) {
+        byte[] src = corpus.bytes[corpus.next()];
+        return parser.parse(src, 0, src.length, decoder);
+    }
+}
@@ -3,10 +3,15 @@ package fixme.broker;
 import fixme.common.message.FixMessage;
 import fixme.common.message.FixMessageFactory;
 import fixme.common.message.FixTags;
+import fixme.common.message.FixedPoint;
+import fixme.common.message.HeaderTemplate;
+import fixme.common.pool.ObjectPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 
@@ -14,6 +19,13 @@ public class BrokerApplication {
     
     private static final Logger logger = LoggerFactory.getLogger(BrokerApplication.class);
     
+    // Incoming reports are parsed into recycled messages, released once displayed
+    private static final ObjectPool<FixMessage> reportPool =
+        new ObjectPool<>("BrokerReport", FixMessage::new, FixMessage::reset, 4);
+    
+    // Pre-encoded NewOrderSingle headers, one per market (orders are sent from the main thread)
+    private static final Map<String, HeaderTemplate> orderHeaders = new HashMap<>();
+    
     // Static broker ID for prompt redisplay
     private static volatile String currentBrokerId = null;
     
@@ -274,11 +286,14 @@ public class BrokerApplication {
     private static void sendOrder(BrokerClient client, String brokerId, String marketId,
                                  String side, String symbol, int qty, double price) throws IOException {
         
+        HeaderTemplate header = orderHeaders.computeIfAbsent(marketId, id ->
+            FixMessageFactory.createHeaderTemplate(brokerId, id, FixTags.MSG_TYPE_NEW_ORDER));
+        
         FixMessage order = FixMessageFactory.createNewOrderSingle(
-            brokerId, marketId, symbol, side, qty, price
+            header, symbol, side, qty, FixedPoint.fromDouble(price)
         );
         
-        client.sendMessage(order.toString());
+        client.sendMessage(order);
         
         String sideStr = "1".equals(side) ? "BUY" : "SELL";
         System.out.println(String.format("SENT %s: %s x%,d @ $%.2f → Market %s", 
@@ -327,8 +342,9 @@ public class BrokerApplication {
             if (idx > 0) rawMessage = rawMessage.substring(idx + 1).trim();
         }
         
+        FixMessage msg = reportPool.acquire();
         try {
-            FixMessage msg = FixMessage.parse(rawMessage);
+            FixMessage.parse(rawMessage, msg);
             
             if (FixTags.MSG_TYPE_EXECUTION_REPORT.equals(msg.getMsgType())) {
                 displayReport(msg);
@@ -341,6 +357,8 @@ public class BrokerApplication {
                 System.out.println("\nERROR: " + rawMessage);
                 redisplayPrompt();
             }
+        } finally {
+            reportPool.release(msg);
         }
     }
     
@@ -352,11 +370,11 @@ public class BrokerApplication {
     }
     
     private static void displayReport(FixMessage msg) {
-        String ordStatus = msg.getField(FixTags.ORD_STATUS);
+        String ordStatus = msg.getField(FixTags.TAG_ORD_STATUS);
         String symbol = msg.getSymbol();
-        String qty = msg.getField(FixTags.ORDER_QTY);
-        String price = msg.getField(FixTags.PRICE);
-        String text = msg.getField(FixTags.TEXT);
+        String qty = msg.getField(FixTags.TAG_ORDER_QTY);
+        String price = msg.getField(FixTags.TAG_PRICE);
+        String text = msg.getField(FixTags.TAG_TEXT);
         String marketId = msg.getSenderCompId();
         
         System.out.println("\n" + "─".repeat(60));
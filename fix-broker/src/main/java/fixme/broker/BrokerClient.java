@@ -1,6 +1,7 @@
 package fixme.broker;
 
 import fixme.common.client.FixClient;
+import fixme.common.client.NioClientEngine;
 
 /**
  * Broker client that connects to router on port 5000.
@@ -9,6 +10,24 @@ public class BrokerClient extends FixClient {
     
     private static final int BROKER_PORT = 5000;
     
+    /**
+     * Creates a client in the mode set by the fixme.client.mode property.
+     */
+    public BrokerClient() {
+        super();
+    }
+    
+    public BrokerClient(Mode mode) {
+        super(mode);
+    }
+    
+    /**
+     * Creates a client in NIO mode sharing the given engine's selector thread.
+     */
+    public BrokerClient(NioClientEngine engine) {
+        super(engine);
+    }
+    
     @Override
     protected int getRouterPort() {
         return BROKER_PORT;
@@ -0,0 +1,173 @@
+package fixme.common.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import fixme.common.message.FixMessage;
+
+/**
+ * Transport over a blocking Socket. Sends are encoded into a batch array
+ * that is written in one call on flush, or as soon as it holds the batch
+ * size; receive() blocks the calling thread on readLine().
+ */
+final class BlockingTransport implements ClientTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlockingTransport.class);
+
+
+    private Socket socket;
+    private BufferedReader reader;
+    private OutputStream output;
+
+    // Messages encoded since the last write; grown only for an oversized message
+    private byte[] batch = new byte[FixClient.DEFAULT_SEND_BUFFER_SIZE];
+    private int batchLength;
+    private int batchSize = FixClient.DEFAULT_SEND_BUFFER_SIZE;
+
+    @Override
+    public void connect(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        reader = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)
+        );
+        output = socket.getOutputStream();
+    }
+
+    @Override
+    public synchronized void send(byte[] data, int offset, int length, boolean flush) throws IOException {
+        checkConnected();
+        ensureCapacity(length);
+        System.arraycopy(data, offset, batch, batchLength, length);
+        batchLength += length;
+        afterSend(flush);
+    }
+
+    @Override
+    public synchronized void send(FixMessage message, boolean flush) throws IOException {
+        checkConnected();
+
+        ensureCapacity(message.encodedLength() + 1);
+        int length = message.encodeTo(batch, batchLength);
+        batch[batchLength + length] = '\n';
+        batchLength += length + 1;
+        afterSend(flush);
+    }
+
+    private void ensureCapacity(int length) {
+        if (batchLength + length > batch.length) {
+            batch = Arrays.copyOf(batch, Math.max(batchLength + length, batch.length * 2));
+        }
+    }
+
+    private void afterSend(boolean flush) throws IOException {
+        if (flush) {
+            flush();
+        } else if (batchLength >= batchSize) {
+            writeBatch();
+            output.flush();
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        checkConnected();
+        writeBatch();
+        output.flush();
+    }
+
+    private void writeBatch() throws IOException {
+        if (batchLength > 0) {
+            logger.debug("Sending {} bytes", batchLength);
+            output.write(batch, 0, batchLength);
+            batchLength = 0;
+        }
+    }
+
+    /**
+     * Sets the batch size; the batch array is resized when empty.
+     */
+    @Override
+    public synchronized void setBatchSize(int bytes) {
+        batchSize = bytes;
+        if (batchLength == 0) {
+            batch = new byte[bytes];
+        }
+    }
+
+    @Override
+    public String receive() throws IOException {
+        if (reader == null || socket.isClosed()) {
+            throw new IOException("Not connected");
+        }
+        return reader.readLine();
+    }
+
+    @Override
+    public boolean hasPendingInput() throws IOException {
+        return reader != null && reader.ready();
+    }
+
+    /**
+     * Starts a daemon thread that reads messages and hands them to the listener.
+     */
+    @Override
+    public void setListener(MessageListener listener) {
+        Thread readerThread = new Thread(() -> {
+            try {
+                String message;
+                while ((message = receive()) != null) {
+                    listener.onMessage(message);
+                }
+            } catch (IOException e) {
+                if (isConnected()) {
+                    logger.error("Error receiving", e);
+                }
+            }
+            listener.onDisconnect();
+        }, "fix-client-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return socket != null && socket.isConnected() && !socket.isClosed();
+    }
+
+    /**
+     * Writes the queued batch, then closes the socket before the reader:
+     * that unblocks a reader thread inside readLine(), which holds the
+     * reader's lock until it returns.
+     */
+    @Override
+    public void close() {
+        try {
+            synchronized (this) {
+                if (output != null && !socket.isClosed()) {
+                    writeBatch();
+                    output.flush();
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Error writing batch on close", e);
+        }
+        try {
+            if (socket != null) socket.close();
+            if (reader != null) reader.close();
+            if (output != null) output.close();
+        } catch (IOException e) {
+            logger.warn("Error closing connection", e);
+        }
+    }
+
+    private void checkConnected() throws IOException {
+        if (output == null || socket.isClosed()) {
+            throw new IOException("Not connected");
+        }
+    }
+}
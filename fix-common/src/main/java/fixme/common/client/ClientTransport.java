@@ -0,0 +1,63 @@
+package fixme.common.client;
+
+import java.io.IOException;
+
+import fixme.common.message.FixMessage;
+
+/**
+ * Connection used by a FixClient to exchange newline-terminated messages
+ * with the router.
+ *
+ * Implementations:
+ * - BlockingTransport: a Socket, one write per flush, receive on the caller's thread
+ * - NioTransport: a session on a NioClientEngine, sends coalesced by the engine thread
+ */
+interface ClientTransport {
+
+    void connect(String host, int port) throws IOException;
+
+    /**
+     * Queues bytes that already end with a newline.
+     *
+     * @param flush true to send them now, false to leave them in the batch
+     *              until flush() or until the batch is full
+     */
+    void send(byte[] data, int offset, int length, boolean flush) throws IOException;
+
+    /**
+     * Encodes a message followed by a newline and queues it, see send(byte[], int, int, boolean).
+     */
+    void send(FixMessage message, boolean flush) throws IOException;
+
+    /**
+     * Sends everything queued so far.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Number of queued bytes past which a batch is sent without waiting for flush().
+     */
+    void setBatchSize(int bytes);
+
+    /**
+     * Waits for the next message.
+     *
+     * @return the message without its newline, or null once the connection is closed
+     */
+    String receive() throws IOException;
+
+    /**
+     * True if receive() has a message, or the start of one, available
+     * without waiting for the network.
+     */
+    boolean hasPendingInput() throws IOException;
+
+    /**
+     * Delivers every following message to a listener instead of receive().
+     */
+    void setListener(MessageListener listener);
+
+    boolean isConnected();
+
+    void close();
+}
@@ -3,47 +3,103 @@ package fixme.common.client;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.*;
-import java.net.Socket;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import fixme.common.message.FixMessage;
 
 /**
  * Abstract base class for FIX protocol clients (Broker and Market).
- * Handles the common socket connection logic.
+ * Handles the common connection logic over one of two transports:
+ * - BLOCKING: a Socket; every sendMessage() is its own write, and messages
+ *   are read by a thread blocked in receiveMessage()
+ * - NIO: a session on a NioClientEngine; sends return immediately and are
+ *   coalesced into as few writes as possible, and many clients can share
+ *   one selector thread
+ *
+ * The mode defaults to the fixme.client.mode system property (blocking or
+ * nio), BLOCKING if unset. Messages are read either with receiveMessage()
+ * or by a MessageListener set with setMessageListener(), in both modes.
+ *
+ * sendMessage() sends at once. send() and sendAll() batch messages instead:
+ * a batch goes out in one write on flush(), once it reaches the send buffer
+ * size, or, if a max send latency is set, when its first message has waited
+ * that long.
  */
 public abstract class FixClient {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(FixClient.class);
-    
+
+    public static final String MODE_PROPERTY = "fixme.client.mode";
+
     private static final String ROUTER_HOST = "localhost";
-    
-    private Socket socket;
-    private BufferedReader reader;
-    private PrintWriter writer;
+
+    public static final int DEFAULT_SEND_BUFFER_SIZE = 16 * 1024;
+
+    // Runs the max-latency flushes of every client
+    private static ScheduledExecutorService autoFlusher;
+
+    public enum Mode {
+        BLOCKING,
+        NIO
+    }
+
+    private final Mode mode;
+    private final ClientTransport transport;
+
+    private MessageListener pendingListener;
     private String clientId;
-    
+
+    private volatile long maxSendLatencyMillis;
+    private final AtomicBoolean autoFlushScheduled = new AtomicBoolean(false);
+
+    protected FixClient() {
+        this(defaultMode());
+    }
+
+    protected FixClient(Mode mode) {
+        this.mode = mode;
+        this.transport = mode == Mode.NIO ? new NioTransport(null) : new BlockingTransport();
+    }
+
+    /**
+     * Creates a client in NIO mode running on the given engine.
+     */
+    protected FixClient(NioClientEngine engine) {
+        this.mode = Mode.NIO;
+        this.transport = new NioTransport(engine);
+    }
+
+    /**
+     * Mode selected by the fixme.client.mode system property.
+     *
+     * @throws IllegalArgumentException if the property is not blocking or nio
+     */
+    public static Mode defaultMode() {
+        return Mode.valueOf(System.getProperty(MODE_PROPERTY, "blocking").trim().toUpperCase(Locale.ROOT));
+    }
+
     protected abstract int getRouterPort();
-    
+
     protected abstract String getClientType();
-    
+
     public void connect() throws IOException {
         int port = getRouterPort();
-        
-        logger.info("Connecting to router at {}:{}", ROUTER_HOST, port);
-        
-        socket = new Socket(ROUTER_HOST, port);
-        reader = new BufferedReader(
-            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)
-        );
-        writer = new PrintWriter(
-            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8),
-            true
-        );
-        
+
+        logger.info("Connecting to router at {}:{} ({} mode)", ROUTER_HOST, port, mode);
+
+        transport.connect(ROUTER_HOST, port);
+
         logger.info("Connected, waiting for ID...");
-        
-        String idMessage = reader.readLine();
-        
+
+        String idMessage = transport.receive();
+
         if (idMessage != null && idMessage.startsWith("ID=") && idMessage.contains("|")) {
             int startIdx = 3;
             int endIdx = idMessage.indexOf('|');
@@ -52,46 +108,167 @@ public abstract class FixClient {
         } else {
             throw new IOException("Failed to receive " + getClientType() + " ID. Got: " + idMessage);
         }
+
+        synchronized (this) {
+            if (pendingListener != null) {
+                transport.setListener(pendingListener);
+                pendingListener = null;
+            }
+        }
     }
 
-    public void sendMessage(String message) throws IOException {
-        if (writer == null || socket.isClosed()) {
-            throw new IOException("Not connected");
+    /**
+     * Delivers every following message to a listener. receiveMessage()
+     * must not be used once a listener is set. Can be called before
+     * connect(); the ID message is never passed to the listener.
+     */
+    public synchronized void setMessageListener(MessageListener listener) {
+        if (clientId == null) {
+            pendingListener = listener;
+        } else {
+            transport.setListener(listener);
         }
-        
+    }
+
+    /**
+     * Sends a message at once, together with any batched messages.
+     */
+    public void sendMessage(String message) throws IOException {
         logger.debug("Sending: {}", message);
-        writer.println(message);
+        byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        transport.send(bytes, 0, bytes.length, true);
     }
-    
-    public String receiveMessage() throws IOException {
-        if (reader == null || socket.isClosed()) {
-            throw new IOException("Not connected");
+
+    /**
+     * Encodes a message straight into the transport's buffer and sends it
+     * newline-terminated, together with any batched messages. No
+     * intermediate String is built.
+     */
+    public void sendMessage(FixMessage message) throws IOException {
+        transport.send(message, true);
+    }
+
+    /**
+     * Adds a message to the current batch without sending it.
+     */
+    public void send(String message) throws IOException {
+        logger.debug("Batching: {}", message);
+        byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        transport.send(bytes, 0, bytes.length, false);
+        scheduleAutoFlush();
+    }
+
+    /**
+     * Encodes a message into the current batch without sending it.
+     */
+    public void send(FixMessage message) throws IOException {
+        transport.send(message, false);
+        scheduleAutoFlush();
+    }
+
+    /**
+     * Sends several messages with as few writes as the send buffer allows.
+     */
+    public void sendAll(Collection<? extends FixMessage> messages) throws IOException {
+        for (FixMessage message : messages) {
+            transport.send(message, false);
+        }
+        flush();
+    }
+
+    /**
+     * Sends every batched message.
+     */
+    public void flush() throws IOException {
+        transport.flush();
+    }
+
+    /**
+     * Sets the number of batched bytes past which a batch is sent without
+     * waiting for flush(). Defaults to DEFAULT_SEND_BUFFER_SIZE.
+     */
+    public void setSendBufferSize(int bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("Send buffer size must be positive: " + bytes);
         }
-        
-        String message = reader.readLine();
+        transport.setBatchSize(bytes);
+    }
+
+    /**
+     * Bounds how long a batched message may wait for flush(); 0, the
+     * default, lets it wait until flush() or a full buffer.
+     */
+    public void setMaxSendLatency(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Max send latency cannot be negative: " + millis);
+        }
+        maxSendLatencyMillis = millis;
+    }
+
+    private void scheduleAutoFlush() {
+        long delay = maxSendLatencyMillis;
+        if (delay > 0 && autoFlushScheduled.compareAndSet(false, true)) {
+            autoFlusher().schedule(this::autoFlush, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void autoFlush() {
+        // Cleared first so that messages batched during the flush schedule the next one
+        autoFlushScheduled.set(false);
+        try {
+            if (isConnected()) {
+                flush();
+            }
+        } catch (IOException e) {
+            logger.warn("Scheduled flush failed", e);
+        }
+    }
+
+    private static synchronized ScheduledExecutorService autoFlusher() {
+        if (autoFlusher == null) {
+            autoFlusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "fix-client-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return autoFlusher;
+    }
+
+    public String receiveMessage() throws IOException {
+        String message = transport.receive();
         if (message != null) {
             logger.debug("Received: {}", message);
         }
-        
+
         return message;
     }
-    
+
+    /**
+     * True if receiveMessage() can return a message without waiting for the
+     * network, e.g. to flush batched replies only once a burst is handled.
+     */
+    public boolean hasPendingInput() throws IOException {
+        return transport.hasPendingInput();
+    }
+
+    /**
+     * Sends batched messages, then closes the connection.
+     */
     public void close() {
-        try {
-            if (reader != null) reader.close();
-            if (writer != null) writer.close();
-            if (socket != null) socket.close();
-            logger.info("Disconnected from router");
-        } catch (IOException e) {
-            logger.warn("Error closing connection", e);
-        }
+        transport.close();
+        logger.info("Disconnected from router");
     }
-    
+
     public String getClientId() {
         return clientId;
     }
-    
+
+    public Mode getMode() {
+        return mode;
+    }
+
     public boolean isConnected() {
-        return socket != null && socket.isConnected() && !socket.isClosed();
+        return transport.isConnected();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package fixme.common.client;
+
+/**
+ * Callback receiving the inbound messages of a FixClient.
+ *
+ * With the NIO transport, callbacks run on the NioClientEngine thread that
+ * serves the session, so they must not block; sending from a callback is
+ * fine. With the blocking transport they run on a reader thread owned by
+ * the client.
+ */
+public interface MessageListener {
+
+    /**
+     * Called for each newline-terminated message, without the newline.
+     */
+    void onMessage(String message);
+
+    /**
+     * Called once when the connection is closed by either side.
+     */
+    default void onDisconnect() {
+    }
+}
@@ -0,0 +1,169 @@
+package fixme.common.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Event loop running any number of NIO client sessions on one selector
+ * thread.
+ *
+ * The engine thread is the only one touching the channels: it reads inbound
+ * bytes and hands them to their session, and writes what sessions have
+ * queued. Other threads submit work with execute(), which wakes the
+ * selector at most once per batch of tasks, so a burst of sends from one
+ * thread ends up in a single write.
+ *
+ * Clients in NIO mode share the engine returned by shared() unless they are
+ * given their own.
+ *
+ * Design Pattern: Reactor
+ */
+public final class NioClientEngine implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioClientEngine.class);
+
+    private static NioClientEngine shared;
+
+    private final Selector selector;
+    private final Thread thread;
+    private final ConcurrentLinkedQueue<Runnable> tasks;
+    private final AtomicBoolean wakeupPending;
+
+    private volatile boolean running;
+
+    /**
+     * Opens a selector and starts its event loop on a daemon thread.
+     *
+     * @param name Name of the event loop thread
+     * @throws IOException if the selector cannot be opened
+     */
+    public NioClientEngine(String name) throws IOException {
+        this.selector = Selector.open();
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.wakeupPending = new AtomicBoolean(false);
+        this.running = true;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Returns the engine shared by NIO clients created without one,
+     * starting it on first use.
+     */
+    public static synchronized NioClientEngine shared() throws IOException {
+        if (shared == null || !shared.running) {
+            shared = new NioClientEngine("fix-client-engine");
+        }
+        return shared;
+    }
+
+    /**
+     * Runs a task on the engine thread. From the engine thread itself the
+     * task runs before the next select.
+     */
+    void execute(Runnable task) {
+        tasks.offer(task);
+        if (!inEventLoop() && wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Registers a channel for reads. Must be called on the engine thread.
+     */
+    SelectionKey register(SocketChannel channel, NioTransport session) throws ClosedChannelException {
+        return channel.register(selector, SelectionKey.OP_READ, session);
+    }
+
+    public int getSessionCount() {
+        return selector.keys().size();
+    }
+
+    private void run() {
+        logger.debug("NIO client engine {} started", thread.getName());
+        try {
+            while (running) {
+                runTasks();
+                selector.select();
+                wakeupPending.set(false);
+
+                Set<SelectionKey> selectedKeys = selector.selectedKeys();
+                Iterator<SelectionKey> keyIterator = selectedKeys.iterator();
+
+                while (keyIterator.hasNext()) {
+                    SelectionKey key = keyIterator.next();
+                    keyIterator.remove();
+
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    NioTransport session = (NioTransport) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            session.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            session.writePending();
+                        }
+                    } catch (IOException e) {
+                        logger.debug("Session I/O error", e);
+                        session.disconnect();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error in client event loop", e);
+        } finally {
+            cleanup();
+        }
+        logger.debug("NIO client engine {} stopped", thread.getName());
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Error in client engine task", e);
+            }
+        }
+    }
+
+    /**
+     * Stops the event loop and disconnects every session still registered.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void cleanup() {
+        runTasks();
+        for (SelectionKey key : selector.keys()) {
+            ((NioTransport) key.attachment()).disconnect();
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.warn("Error closing selector", e);
+        }
+    }
+}
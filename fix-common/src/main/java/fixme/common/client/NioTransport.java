@@ -0,0 +1,375 @@
+package fixme.common.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import fixme.common.message.FixMessage;
+
+/**
+ * Transport running as a session on a NioClientEngine.
+ *
+ * Sends append to a pending buffer and return. A flushing send, flush(),
+ * or a batch growing past the batch size schedules a flush on the engine
+ * thread, and every send made before that flush runs goes out in the same
+ * write. When the socket cannot take everything, the rest is written on
+ * OP_WRITE. Senders block only once MAX_PENDING_BYTES are waiting.
+ *
+ * Inbound bytes are split on newlines by the engine thread and delivered
+ * to the listener, or queued for receive() until a listener is set.
+ */
+final class NioTransport implements ClientTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioTransport.class);
+
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int INITIAL_PENDING_SIZE = 8192;
+    private static final int INITIAL_LINE_SIZE = 256;
+    private static final int MAX_PENDING_BYTES = 1 << 20;
+    private static final long CLOSE_TIMEOUT_MS = 1000;
+
+    // Queued after the last message once the connection is closed
+    private static final String END_OF_STREAM = new String("<end of stream>");
+
+    private NioClientEngine engine;
+    private SocketChannel channel;
+
+    // Engine thread only
+    private SelectionKey key;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private byte[] line = new byte[INITIAL_LINE_SIZE];
+    private int lineLength;
+
+    private final BlockingQueue<String> inbox = new LinkedBlockingQueue<>();
+    private volatile MessageListener listener;
+
+    // Pending outbound bytes, in write mode; guarded by writeLock
+    private final Object writeLock = new Object();
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_PENDING_SIZE);
+    private boolean flushScheduled;
+    private int batchSize = FixClient.DEFAULT_SEND_BUFFER_SIZE;
+
+    private volatile boolean connected;
+
+    /**
+     * @param engine Engine running the session, or null for NioClientEngine.shared()
+     */
+    NioTransport(NioClientEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public void connect(String host, int port) throws IOException {
+        if (engine == null) {
+            engine = NioClientEngine.shared();
+        }
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.configureBlocking(false);
+        connected = true;
+        engine.execute(this::register);
+    }
+
+    private void register() {
+        try {
+            key = engine.register(channel, this);
+        } catch (IOException e) {
+            logger.error("Error registering client channel", e);
+            disconnect();
+        }
+    }
+
+    @Override
+    public void send(byte[] data, int offset, int length, boolean flush) throws IOException {
+        synchronized (writeLock) {
+            awaitSpace(length);
+            ensureCapacity(length);
+            pending.put(data, offset, length);
+            afterSend(flush);
+        }
+    }
+
+    @Override
+    public void send(FixMessage message, boolean flush) throws IOException {
+        synchronized (writeLock) {
+            int length = message.encodedLength() + 1;
+            awaitSpace(length);
+            ensureCapacity(length);
+            message.encodeTo(pending);
+            pending.put((byte) '\n');
+            afterSend(flush);
+        }
+    }
+
+    private void afterSend(boolean flush) {
+        if (flush || pending.position() >= batchSize) {
+            scheduleFlush();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            checkConnected();
+            if (pending.position() > 0) {
+                scheduleFlush();
+            }
+        }
+    }
+
+    @Override
+    public void setBatchSize(int bytes) {
+        synchronized (writeLock) {
+            batchSize = bytes;
+        }
+    }
+
+    /**
+     * Blocks while the pending buffer is full, except on the engine thread,
+     * which must not wait for itself. Caller holds writeLock.
+     */
+    private void awaitSpace(int length) throws IOException {
+        checkConnected();
+        while (pending.position() > 0 && pending.position() + length > MAX_PENDING_BYTES
+               && !engine.inEventLoop()) {
+            scheduleFlush();
+            try {
+                writeLock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to send");
+            }
+            checkConnected();
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (pending.remaining() < length) {
+            int capacity = Math.max(pending.capacity() * 2, pending.position() + length);
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            engine.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            writePending();
+        } catch (IOException e) {
+            logger.debug("Error writing to router", e);
+            disconnect();
+        }
+    }
+
+    /**
+     * Writes as much pending data as the socket takes, and keeps OP_WRITE
+     * interest until everything is written. Engine thread only.
+     */
+    void writePending() throws IOException {
+        synchronized (writeLock) {
+            if (!connected || key == null) {
+                return;
+            }
+            pending.flip();
+            try {
+                int written = channel.write(pending);
+                logger.debug("Wrote {} bytes", written);
+            } finally {
+                pending.compact();
+            }
+
+            boolean done = pending.position() == 0;
+            flushScheduled = !done;
+            key.interestOps(done ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            writeLock.notifyAll();
+        }
+    }
+
+    /**
+     * Reads available bytes and emits each complete line. Engine thread only.
+     */
+    void onReadable() throws IOException {
+        readBuffer.clear();
+        int bytesRead = channel.read(readBuffer);
+        if (bytesRead < 0) {
+            disconnect();
+            return;
+        }
+
+        byte[] bytes = readBuffer.array();
+        for (int i = 0; i < bytesRead; i++) {
+            byte b = bytes[i];
+            if (b == '\n') {
+                emitLine();
+            } else {
+                if (lineLength == line.length) {
+                    byte[] grown = new byte[line.length * 2];
+                    System.arraycopy(line, 0, grown, 0, lineLength);
+                    line = grown;
+                }
+                line[lineLength++] = b;
+            }
+        }
+    }
+
+    private void emitLine() {
+        int length = lineLength;
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        lineLength = 0;
+
+        String message = new String(line, 0, length, StandardCharsets.UTF_8);
+        logger.debug("Received: {}", message);
+        deliver(message);
+    }
+
+    private void deliver(String message) {
+        MessageListener current = listener;
+        if (current == null) {
+            inbox.offer(message);
+            return;
+        }
+        try {
+            current.onMessage(message);
+        } catch (RuntimeException e) {
+            logger.error("Error in message listener", e);
+        }
+    }
+
+    @Override
+    public String receive() throws IOException {
+        if (channel == null) {
+            throw new IOException("Not connected");
+        }
+        String message;
+        try {
+            message = inbox.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a message");
+        }
+        if (message == END_OF_STREAM) {
+            inbox.offer(END_OF_STREAM);
+            return null;
+        }
+        return message;
+    }
+
+    @Override
+    public boolean hasPendingInput() {
+        return !inbox.isEmpty();
+    }
+
+    /**
+     * Hands the messages already queued to the listener, then switches
+     * delivery to it; done on the engine thread so that order is kept.
+     */
+    @Override
+    public void setListener(MessageListener newListener) {
+        engine.execute(() -> {
+            String message;
+            while ((message = inbox.poll()) != null) {
+                if (message == END_OF_STREAM) {
+                    newListener.onDisconnect();
+                    return;
+                }
+                newListener.onMessage(message);
+            }
+            listener = newListener;
+        });
+    }
+
+    @Override
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Writes what is still pending, then closes the channel. Waits for the
+     * engine thread to do it, at most CLOSE_TIMEOUT_MS.
+     */
+    @Override
+    public void close() {
+        if (!connected) {
+            return;
+        }
+        if (engine.inEventLoop()) {
+            closeGracefully();
+            return;
+        }
+        CountDownLatch closed = new CountDownLatch(1);
+        engine.execute(() -> {
+            closeGracefully();
+            closed.countDown();
+        });
+        try {
+            if (!closed.await(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                logger.warn("Timed out closing connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeGracefully() {
+        try {
+            writePending();
+        } catch (IOException e) {
+            logger.debug("Error writing pending data on close", e);
+        }
+        disconnect();
+    }
+
+    /**
+     * Closes the channel and signals the end of the stream. Engine thread only.
+     */
+    void disconnect() {
+        if (!connected) {
+            return;
+        }
+        connected = false;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Error closing channel", e);
+        }
+        synchronized (writeLock) {
+            writeLock.notifyAll();
+        }
+
+        MessageListener current = listener;
+        if (current != null) {
+            current.onDisconnect();
+        } else {
+            inbox.offer(END_OF_STREAM);
+        }
+    }
+
+    private void checkConnected() throws IOException {
+        if (!connected) {
+            throw new IOException("Not connected");
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package fixme.common.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary form of a dictionary, written at build time by
+ * DictionaryCompiler and read by FixConfig with plain DataInput calls.
+ *
+ * Layout, in DataOutput encoding:
+ * - magic "FIXD", format version, CRC32 of the JSON it was compiled from
+ * - protocol, version, description, delimiter
+ * - tag definitions, the tag name index, then message types, each as a
+ *   count followed by its entries in the JSON order
+ * Strings may be null (flag byte before the UTF), and so may lists and
+ * maps (count -1).
+ */
+final class DictionaryCodec {
+
+    /** Classpath resource holding the compiled bundled dictionary. */
+    static final String RESOURCE = "fix-tags.bin";
+
+    private static final int MAGIC = 0x46495844;   // "FIXD"
+    private static final int FORMAT_VERSION = 1;
+
+    private DictionaryCodec() {
+    }
+
+    /**
+     * Checksum of a JSON dictionary, recorded in its compiled form.
+     */
+    static long checksum(byte[] json) {
+        CRC32 crc = new CRC32();
+        crc.update(json);
+        return crc.getValue();
+    }
+
+    static void write(FixConfig config, long sourceChecksum, DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(sourceChecksum);
+
+        writeString(out, config.getProtocol());
+        writeString(out, config.getVersion());
+        writeString(out, config.getDescription());
+        writeString(out, config.getDelimiter());
+
+        Map<String, FixTagDefinition> tags = config.getAllTagDefinitions();
+        out.writeInt(tags.size());
+        for (FixTagDefinition def : tags.values()) {
+            writeString(out, def.getTag());
+            writeString(out, def.getName());
+            writeString(out, def.getType());
+            writeString(out, def.getDescription());
+            out.writeBoolean(def.isRequired());
+            writeMap(out, def.getValidValues());
+        }
+
+        writeMap(out, config.getTagNamesToNumbers());
+
+        Map<String, FixMessageType> messageTypes = config.getAllMessageTypes();
+        out.writeInt(messageTypes.size());
+        for (Map.Entry<String, FixMessageType> entry : messageTypes.entrySet()) {
+            FixMessageType type = entry.getValue();
+            writeString(out, entry.getKey());
+            writeString(out, type.getName());
+            writeString(out, type.getDescription());
+            writeList(out, type.getRequiredTags());
+            writeList(out, type.getOptionalTags());
+        }
+    }
+
+    /**
+     * @return the dictionary, or null if it was compiled from a JSON with
+     *         another checksum
+     * @throws IOException if the data is not a compiled dictionary
+     */
+    static FixConfig read(byte[] data, long expectedChecksum) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a compiled FIX dictionary");
+        }
+        int formatVersion = in.readInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported compiled dictionary format: " + formatVersion);
+        }
+        if (in.readLong() != expectedChecksum) {
+            return null;
+        }
+
+        String protocol = readString(in);
+        String version = readString(in);
+        String description = readString(in);
+        String delimiter = readString(in);
+
+        int tagCount = in.readInt();
+        Map<String, FixTagDefinition> tagDefinitions = new LinkedHashMap<>();
+        for (int i = 0; i < tagCount; i++) {
+            FixTagDefinition def = new FixTagDefinition();
+            def.setTag(readString(in));
+            def.setName(readString(in));
+            def.setType(readString(in));
+            def.setDescription(readString(in));
+            def.setRequired(in.readBoolean());
+            def.setValidValues(readMap(in));
+            tagDefinitions.put(def.getTag(), def);
+        }
+
+        Map<String, String> tagNameToNumber = readMap(in);
+
+        int typeCount = in.readInt();
+        Map<String, FixMessageType> messageTypes = new LinkedHashMap<>();
+        for (int i = 0; i < typeCount; i++) {
+            String msgType = readString(in);
+            FixMessageType type = new FixMessageType();
+            type.setName(readString(in));
+            type.setDescription(readString(in));
+            type.setRequiredTags(readList(in));
+            type.setOptionalTags(readList(in));
+            messageTypes.put(msgType, type);
+        }
+
+        return new FixConfig(RESOURCE, protocol, version, description, delimiter,
+                             tagDefinitions, tagNameToNumber, messageTypes);
+    }
+
+    // ========== ENCODING ==========
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeList(DataOutput out, List<String> values) throws IOException {
+        out.writeInt(values != null ? values.size() : -1);
+        if (values != null) {
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static List<String> readList(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeMap(DataOutput out, Map<String, String> values) throws IOException {
+        out.writeInt(values != null ? values.size() : -1);
+        if (values != null) {
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+        }
+    }
+
+    private static Map<String, String> readMap(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            values.put(readString(in), readString(in));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,69 @@
+package fixme.common.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Build step that compiles a JSON dictionary into the binary form read by
+ * FixConfig at startup (see DictionaryCodec).
+ *
+ * Run by the fix-common build in the process-classes phase:
+ *   DictionaryCompiler src/main/resources/fix-tags.json target/classes/fix-tags.bin
+ */
+public final class DictionaryCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryCompiler.class);
+
+    private DictionaryCompiler() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: DictionaryCompiler <fix-tags.json> <fix-tags.bin>");
+            System.exit(2);
+        }
+        compile(Path.of(args[0]), Path.of(args[1]));
+    }
+
+    /**
+     * Compiles a JSON dictionary file, checking that the output reads back
+     * as the same dictionary.
+     *
+     * @throws IOException if a file cannot be read or written
+     * @throws RuntimeException if the JSON is not a valid dictionary
+     */
+    public static void compile(Path json, Path output) throws IOException {
+        byte[] source = Files.readAllBytes(json);
+        long checksum = DictionaryCodec.checksum(source);
+        FixConfig config = DictionaryJson.parse(
+            new InputStreamReader(new ByteArrayInputStream(source), StandardCharsets.UTF_8), json.toString());
+
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            DictionaryCodec.write(config, checksum, out);
+        }
+
+        FixConfig compiled = DictionaryCodec.read(Files.readAllBytes(output), checksum);
+        if (compiled == null
+                || compiled.getAllTagDefinitions().size() != config.getAllTagDefinitions().size()
+                || compiled.getAllMessageTypes().size() != config.getAllMessageTypes().size()) {
+            throw new IOException("Compiled dictionary does not read back: " + output);
+        }
+
+        logger.info("Compiled {} into {} ({} bytes, {} tags, {} message types)",
+                    json, output, Files.size(output),
+                    config.getAllTagDefinitions().size(), config.getAllMessageTypes().size());
+    }
+}
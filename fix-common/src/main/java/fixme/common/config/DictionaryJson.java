@@ -0,0 +1,85 @@
+package fixme.common.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads a dictionary in the JSON format of fix-tags.json.
+ *
+ * Kept apart from FixConfig so that loading the compiled dictionary never
+ * loads Gson.
+ */
+final class DictionaryJson {
+
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryJson.class);
+
+    // Tag categories, in load order
+    private static final String[] CATEGORIES = {"system", "order", "execution"};
+
+    private DictionaryJson() {
+    }
+
+    /**
+     * @throws RuntimeException if the content is not a valid dictionary
+     */
+    static FixConfig parse(Reader reader, String source) {
+        logger.info("Loading FIX configuration from {}", source);
+
+        try {
+            Gson gson = new Gson();
+            JsonObject root = gson.fromJson(reader, JsonObject.class);
+            if (root == null) {
+                throw new IllegalArgumentException("Empty configuration: " + source);
+            }
+
+            Map<String, FixTagDefinition> tagDefinitions = new LinkedHashMap<>();
+            Map<String, String> tagNameToNumber = new LinkedHashMap<>();
+            JsonObject tagsObject = root.getAsJsonObject("tags");
+            for (String category : CATEGORIES) {
+                loadTagCategory(gson, tagsObject, category, tagDefinitions, tagNameToNumber);
+            }
+
+            Map<String, FixMessageType> messageTypes = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonElement> entry : root.getAsJsonObject("messageTypes").entrySet()) {
+                messageTypes.put(entry.getKey(), gson.fromJson(entry.getValue(), FixMessageType.class));
+            }
+
+            return new FixConfig(source,
+                root.get("protocol").getAsString(),
+                root.get("version").getAsString(),
+                root.get("description").getAsString(),
+                root.get("delimiter").getAsString(),
+                tagDefinitions, tagNameToNumber, messageTypes);
+
+        } catch (Exception e) {
+            // Logged by the caller, which knows whether a snapshot is kept
+            throw new RuntimeException("Error loading FIX configuration from " + source, e);
+        }
+    }
+
+    private static void loadTagCategory(Gson gson, JsonObject tags, String category,
+                                        Map<String, FixTagDefinition> tagDefinitions,
+                                        Map<String, String> tagNameToNumber) {
+        if (!tags.has(category)) {
+            logger.warn("No '{}' category found in tags", category);
+            return;
+        }
+
+        JsonArray categoryArray = tags.getAsJsonArray(category);
+
+        for (JsonElement element : categoryArray) {
+            FixTagDefinition tagDef = gson.fromJson(element, FixTagDefinition.class);
+            tagDefinitions.put(tagDef.getTag(), tagDef);
+            tagNameToNumber.put(tagDef.getName(), String.valueOf(tagDef.getTag()));
+        }
+    }
+}
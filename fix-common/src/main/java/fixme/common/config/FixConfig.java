@@ -2,15 +2,18 @@ package fixme.common.config;
 
 import org.slf4j.LoggerFactory;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -18,7 +21,16 @@ import org.slf4j.Logger;
 
 /**
  * Configuration FIX loaded from fix-tags.json
- *  Singleton class to hold FIX configuration data
+ *
+ * A FixConfig is an immutable snapshot of the dictionary. getInstance()
+ * returns the current one: the bundled fix-tags.json until a dictionary
+ * file is installed with reload() (see FixDictionaryWatcher). Swapping the
+ * snapshot is a single volatile write, so readers never block; code that
+ * checks one message against the dictionary should read getInstance()
+ * once and use that snapshot throughout, as FixMessageDecoder does.
+ *
+ * Required-tag bits are numbered per snapshot, so a mask computed with
+ * one snapshot must only be checked against plans of the same snapshot.
  */
 
 
@@ -26,97 +38,272 @@ public class FixConfig {
     private static final String CONFIG_FILE = "fix-tags.json";    
     private static final Logger logger = LoggerFactory.getLogger(FixConfig.class);
 
-    private static FixConfig instance;
+    // Current snapshot, loaded from the classpath on first use
+    private static final class Holder {
+        static volatile FixConfig current = loadBundled();
+    }
+
+
+    private final String source;
+    private final String protocol;
+    private final String version;
+    private final String description;
+    private final String delimiter;
 
+    // Unmodifiable copies, in the order the dictionary lists them
+    private final Map<String, FixTagDefinition> tagDefinitions;
+    private final Map<String, FixMessageType> messageTypes;
+    private final Map<String, String> tagNameToNumber;
 
-    private String protocol;
-    private String version;
-    private String description;
-    private String delimiter;
+    // Same definitions indexed by tag number, for int-keyed lookups
+    private final FixTagDefinition[] tagDefinitionsByNumber;
 
-    private Map<String, FixTagDefinition> tagDefinitions;
-    private Map<String, FixMessageType> messageTypes;
-    private Map<String, String> tagNameToNumber;
+    // Compiled at load time, see compileValidationPlans() and compileValidValues()
+    private final Map<String, ValidationPlan> validationPlans;
+    private final ValidationPlan[] validationPlansByChar;   // single-char MsgType -> plan
+    private final long[] requiredTagBits;                   // tag number -> bit in a plan mask
+    private final boolean[][] validCharsByTag;              // tag number -> valid single-char values
     
-    private FixConfig() {
-        this.tagDefinitions = new HashMap<>();
-        this.messageTypes = new HashMap<>();
-        this.tagNameToNumber = new HashMap<>();
-        loadConfiguration();
+    /**
+     * Builds a snapshot from definitions already read by DictionaryJson or
+     * DictionaryCodec, and compiles its lookup tables. The maps are copied,
+     * so the caller may go on changing them.
+     */
+    FixConfig(String source, String protocol, String version, String description, String delimiter,
+              Map<String, FixTagDefinition> tagDefinitions, Map<String, String> tagNameToNumber,
+              Map<String, FixMessageType> messageTypes) {
+        this.source = source;
+        this.protocol = protocol;
+        this.version = version;
+        this.description = description;
+        this.delimiter = delimiter;
+        this.tagDefinitions = copyOf(tagDefinitions);
+        this.tagNameToNumber = copyOf(tagNameToNumber);
+        this.messageTypes = copyOf(messageTypes);
+
+        logger.info("FIX Config - Protocol: {}, Version: {}, Description: {}, Delimiter: '{}'",
+                protocol, version, description, delimiter);
+
+        this.tagDefinitionsByNumber = indexTagDefinitionsByNumber();
+        this.validCharsByTag = compileValidValues();
+        logger.info("Loaded {} tag definitions", tagDefinitions.size());
+
+        this.requiredTagBits = numberRequiredTags();
+        this.validationPlans = compileValidationPlans();
+        this.validationPlansByChar = indexValidationPlansByChar();
+        logger.info("Loaded {} message types", messageTypes.size());
+        logger.info("FIX configuration loaded successfully from {}", source);
     }
 
+    /**
+     * The current dictionary snapshot.
+     */
     public static FixConfig getInstance() {
-        if (instance == null) {
-            instance = new FixConfig();
+        return Holder.current;
+    }
+
+    /**
+     * Parses a dictionary file into a new snapshot, without installing it.
+     *
+     * @throws IOException if the file cannot be read
+     * @throws RuntimeException if its content is not a valid dictionary
+     */
+    public static FixConfig load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return DictionaryJson.parse(reader, file.toString());
         }
-        return instance;
     }
 
-    private void loadConfiguration() {
+    /**
+     * Parses a dictionary file and makes it the current snapshot. Messages
+     * already being checked keep the snapshot they started with.
+     *
+     * @return the installed snapshot
+     * @throws IOException if the file cannot be read
+     * @throws RuntimeException if its content is not a valid dictionary
+     * @throws IllegalArgumentException if it changes the delimiter
+     */
+    public static FixConfig reload(Path file) throws IOException {
+        FixConfig config = load(file);
+        install(config);
+        return config;
+    }
 
-        logger.info("Loading FIX configuration from {}", CONFIG_FILE);
+    /**
+     * Makes a snapshot the current one. The delimiter is part of the
+     * framing already set up by parsers and dispatchers, so it cannot
+     * change.
+     *
+     * @throws IllegalArgumentException if the snapshot changes the delimiter
+     */
+    public static synchronized void install(FixConfig config) {
+        FixConfig previous = Holder.current;
+        if (!previous.delimiter.equals(config.delimiter)) {
+            throw new IllegalArgumentException(String.format(
+                "Delimiter cannot change on reload: '%s' -> '%s'", previous.delimiter, config.delimiter));
+        }
+        Holder.current = config;
+        logger.info("Installed FIX configuration from {}: {} tag definitions, {} message types",
+                    config.source, config.tagDefinitions.size(), config.messageTypes.size());
+    }
+
+    /**
+     * Loads the bundled dictionary from fix-tags.bin, compiled from
+     * fix-tags.json at build time, so that startup does not parse JSON. The
+     * JSON is parsed instead if the compiled form is missing (e.g. classes
+     * built outside Maven) or was compiled from another version of it.
+     */
+    private static FixConfig loadBundled() {
+        byte[] json = readResource(CONFIG_FILE);
+        if (json == null) {
+            throw new RuntimeException("Configuration file not found: " + CONFIG_FILE);
+        }
 
-        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(CONFIG_FILE)) {
-            if (inputStream == null) {
-                throw new RuntimeException("Configuration file not found: " + CONFIG_FILE);
+        byte[] compiled = readResource(DictionaryCodec.RESOURCE);
+        if (compiled != null) {
+            try {
+                FixConfig config = DictionaryCodec.read(compiled, DictionaryCodec.checksum(json));
+                if (config != null) {
+                    return config;
+                }
+                logger.warn("{} is out of date with {}, parsing the JSON", DictionaryCodec.RESOURCE, CONFIG_FILE);
+            } catch (IOException e) {
+                logger.warn("Cannot read {}, parsing {} instead: {}",
+                            DictionaryCodec.RESOURCE, CONFIG_FILE, e.getMessage());
             }
+        } else {
+            logger.debug("No {} on the classpath, parsing {}", DictionaryCodec.RESOURCE, CONFIG_FILE);
+        }
 
-            Gson gson = new Gson();
-            JsonObject root = gson.fromJson(
-                new InputStreamReader(inputStream, StandardCharsets.UTF_8), 
-                JsonObject.class
-            );
+        return DictionaryJson.parse(
+            new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8), CONFIG_FILE);
+    }
 
+    private static byte[] readResource(String name) {
+        try (InputStream inputStream = FixConfig.class.getClassLoader().getResourceAsStream(name)) {
+            return inputStream != null ? inputStream.readAllBytes() : null;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading " + name, e);
+        }
+    }
 
-            this.protocol = root.get("protocol").getAsString();
-            this.version = root.get("version").getAsString();
-            this.description = root.get("description").getAsString();
-            this.delimiter = root.get("delimiter").getAsString();
+    private static <K, V> Map<K, V> copyOf(Map<K, V> map) {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(map));
+    }
 
-            logger.info("FIX Config - Protocol: {}, Version: {}, Description: {}, Delimiter: '{}'",
-                    protocol, version, description, delimiter);
-        
+    private FixTagDefinition[] indexTagDefinitionsByNumber() {
+        int maxTag = 0;
+        for (String tag : tagDefinitions.keySet()) {
+            maxTag = Math.max(maxTag, Integer.parseInt(tag));
+        }
+        FixTagDefinition[] byNumber = new FixTagDefinition[maxTag + 1];
+        for (FixTagDefinition def : tagDefinitions.values()) {
+            byNumber[Integer.parseInt(def.getTag())] = def;
+        }
+        return byNumber;
+    }
 
-            JsonObject tagsObject = root.getAsJsonObject("tags");
-            loadTagCategory(gson, tagsObject, "system");
-            loadTagCategory(gson, tagsObject, "order");
-            loadTagCategory(gson, tagsObject, "execution");
+    /**
+     * Builds a lookup table for each tag whose valid values are all single
+     * ASCII characters (Side, MsgType, OrdStatus...), so checking a value is
+     * an array lookup instead of a map lookup.
+     */
+    private boolean[][] compileValidValues() {
+        boolean[][] validCharsByTag = new boolean[tagDefinitionsByNumber.length][];
+        for (FixTagDefinition def : tagDefinitions.values()) {
+            Map<String, String> validValues = def.getValidValues();
+            if (validValues == null || validValues.isEmpty()) {
+                continue;
+            }
+            boolean[] validChars = new boolean[128];
+            for (String value : validValues.keySet()) {
+                if (value.length() != 1 || value.charAt(0) >= 128) {
+                    validChars = null;
+                    break;
+                }
+                validChars[value.charAt(0)] = true;
+            }
+            validCharsByTag[Integer.parseInt(def.getTag())] = validChars;
+        }
+        return validCharsByTag;
+    }
 
-            logger.info("Loaded {} tag definitions", tagDefinitions.size());
+    /**
+     * Gives each distinct required tag one bit of a long, so at most 64
+     * distinct required tags are supported.
+     *
+     * @return the bit of each tag number, 0 for tags no type requires
+     */
+    private long[] numberRequiredTags() {
+        Map<Integer, Long> bits = new LinkedHashMap<>();
+        int maxTag = 0;
+        for (FixMessageType type : messageTypes.values()) {
+            for (String tag : requiredTagsOf(type)) {
+                int tagNumber = Integer.parseInt(tag);
+                if (!bits.containsKey(tagNumber)) {
+                    if (bits.size() == Long.SIZE) {
+                        throw new IllegalStateException(
+                            "Validation plans support at most " + Long.SIZE + " distinct required tags");
+                    }
+                    bits.put(tagNumber, 1L << bits.size());
+                }
+                maxTag = Math.max(maxTag, tagNumber);
+            }
+        }
 
-            JsonObject msgTypesObject = root.getAsJsonObject("messageTypes");
-            loadMessageTypes(gson, msgTypesObject);
+        long[] tagBitsByNumber = new long[maxTag + 1];
+        bits.forEach((tag, bit) -> tagBitsByNumber[tag] = bit);
+        logger.debug("Numbered {} required tags", bits.size());
+        return tagBitsByNumber;
+    }
 
-            logger.info("Loaded {} message types", messageTypes.size());
-            logger.info("FIX configuration loaded successfully");
+    /**
+     * Compiles one ValidationPlan per message type, over the bits of
+     * numberRequiredTags().
+     */
+    private Map<String, ValidationPlan> compileValidationPlans() {
+        Map<String, ValidationPlan> plans = new HashMap<>();
+        for (Map.Entry<String, FixMessageType> entry : messageTypes.entrySet()) {
+            List<String> required = requiredTagsOf(entry.getValue());
+            int[] tags = new int[required.size()];
+            String[] tagNames = new String[required.size()];
+            long[] tagBits = new long[required.size()];
+            for (int i = 0; i < tags.length; i++) {
+                tags[i] = Integer.parseInt(required.get(i));
+                FixTagDefinition definition = getTagDefinition(tags[i]);
+                tagNames[i] = definition != null ? definition.getName() : required.get(i);
+                tagBits[i] = requiredTagBits[tags[i]];
+            }
 
-        } catch (Exception e) {
-            logger.error("Error loading FIX configuration", e);
-            throw new RuntimeException("Error loading FIX configuration", e);
+            String msgType = entry.getKey();
+            plans.put(msgType, new ValidationPlan(msgType, entry.getValue(), tags, tagNames, tagBits));
         }
+        logger.debug("Compiled {} validation plans", plans.size());
+        return Collections.unmodifiableMap(plans);
     }
 
-    private void loadTagCategory(Gson gson, JsonObject tags, String category) {
-        if (!tags.has(category)) {
-            logger.warn("No '{}' category found in tags", category);
-            return;
-        }
-
-        JsonArray categoryArray = tags.getAsJsonArray(category);
+    /**
+     * Plans of the single-character message types, indexed by that character.
+     */
+    private ValidationPlan[] indexValidationPlansByChar() {
+        ValidationPlan[] byChar = new ValidationPlan[128];
+        validationPlans.forEach((msgType, plan) -> {
+            if (msgType.length() == 1 && msgType.charAt(0) < 128) {
+                byChar[msgType.charAt(0)] = plan;
+            }
+        });
+        return byChar;
+    }
 
-        for (JsonElement element : categoryArray) {
-            FixTagDefinition tagDef = gson.fromJson(element, FixTagDefinition.class);
-            tagDefinitions.put(tagDef.getTag(), tagDef);
-            tagNameToNumber.put(tagDef.getName(), String.valueOf(tagDef.getTag()));
-        }
+    private static List<String> requiredTagsOf(FixMessageType type) {
+        return type.getRequiredTags() != null ? type.getRequiredTags() : List.of();
     }
 
-    private void loadMessageTypes(Gson gson, JsonObject msgTypes) {
-        for (Map.Entry<String, JsonElement> entry : msgTypes.entrySet()) {
-            String msgType = entry.getKey();
-            FixMessageType type = gson.fromJson(entry.getValue(), FixMessageType.class);
-            messageTypes.put(msgType, type);
-        }
+    /**
+     * Where this snapshot was loaded from: the bundled resource or a file path.
+     */
+    public String getSource() {
+        return source;
     }
 
     public String getProtocol() {
@@ -136,6 +323,13 @@ public class FixConfig {
         return tagDefinitions.get(tag);
     }
 
+    public FixTagDefinition getTagDefinition(int tag) {
+        if (tag < 0 || tag >= tagDefinitionsByNumber.length) {
+            return null;
+        }
+        return tagDefinitionsByNumber[tag];
+    }
+
     public String getTagNumber(String tagName) {
         return tagNameToNumber.get(tagName);
     }
@@ -144,6 +338,32 @@ public class FixConfig {
         return messageTypes.get(msgType);
     }
 
+    /**
+     * Compiled validation plan for a message type, or null if the type is unknown.
+     */
+    public ValidationPlan getValidationPlan(String msgType) {
+        if (msgType != null && msgType.length() == 1) {
+            return getValidationPlan(msgType.charAt(0));
+        }
+        return validationPlans.get(msgType);
+    }
+
+    /**
+     * Compiled validation plan for a single-character message type, or null
+     * if the type is unknown.
+     */
+    public ValidationPlan getValidationPlan(char msgType) {
+        return msgType < validationPlansByChar.length ? validationPlansByChar[msgType] : null;
+    }
+
+    /**
+     * Bit of a tag in the required masks of the validation plans, or 0 if
+     * no message type requires the tag.
+     */
+    public long getRequiredTagBit(int tag) {
+        return tag >= 0 && tag < requiredTagBits.length ? requiredTagBits[tag] : 0L;
+    }
+
     public boolean isRequired(String tag) {
         FixTagDefinition def = tagDefinitions.get(tag);
         return def != null && def.isRequired();
@@ -154,6 +374,38 @@ public class FixConfig {
         return def != null && def.isValidValue(value);
     }
 
+    public boolean isValidValue(int tag, String value) {
+        FixTagDefinition def = getTagDefinition(tag);
+        if (def == null) {
+            return false;
+        }
+        boolean[] validChars = validCharsByTag[tag];
+        if (validChars != null) {
+            return value != null && value.length() == 1 && isValidChar(validChars, value.charAt(0));
+        }
+        return def.isValidValue(value);
+    }
+
+    /**
+     * Checks a single-character value, e.g. read from a decoder, without
+     * creating a String.
+     */
+    public boolean isValidValue(int tag, char value) {
+        FixTagDefinition def = getTagDefinition(tag);
+        if (def == null) {
+            return false;
+        }
+        boolean[] validChars = validCharsByTag[tag];
+        if (validChars != null) {
+            return isValidChar(validChars, value);
+        }
+        return def.isValidValue(String.valueOf(value));
+    }
+
+    private static boolean isValidChar(boolean[] validChars, char value) {
+        return value < validChars.length && validChars[value];
+    }
+
     public String getTagDescription(String tag) {
         FixTagDefinition def = tagDefinitions.get(tag);
         return def != null ? def.getDescription() : "Unknown tag";
@@ -163,6 +415,14 @@ public class FixConfig {
         return tagDefinitions;
     }
 
+    Map<String, FixMessageType> getAllMessageTypes() {
+        return messageTypes;
+    }
+
+    Map<String, String> getTagNamesToNumbers() {
+        return tagNameToNumber;
+    }
+
     public void printConfigurationSummary() {
         logger.info("FIX Configuration Summary:");
         logger.info("Protocol: {}", protocol);
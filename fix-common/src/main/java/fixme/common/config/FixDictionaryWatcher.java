@@ -0,0 +1,126 @@
+package fixme.common.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Watches an external dictionary file and installs it as the current
+ * FixConfig each time it changes.
+ *
+ * The file is parsed on the watcher's own thread and swapped in with
+ * FixConfig.reload(), so processing threads never wait for it. A file that
+ * does not parse, or changes the delimiter, is logged and ignored: the
+ * previous snapshot stays in use until a valid version is written.
+ *
+ * Editors often save in several steps; each step that leaves a valid
+ * file reloads it, which is harmless.
+ */
+public class FixDictionaryWatcher implements AutoCloseable {
+
+    /** System property naming the dictionary file to load and watch. */
+    public static final String DICTIONARY_PROPERTY = "fixme.dictionary";
+
+    private static final Logger logger = LoggerFactory.getLogger(FixDictionaryWatcher.class);
+
+    private final Path file;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private volatile int reloadCount;
+
+    /**
+     * Loads the file, installs it, and starts watching it.
+     *
+     * @throws IOException if the file cannot be read or watched
+     * @throws RuntimeException if the file is not a valid dictionary
+     */
+    public FixDictionaryWatcher(Path file) throws IOException {
+        this.file = file.toAbsolutePath().normalize();
+        FixConfig.reload(this.file);
+
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY);
+
+        this.thread = new Thread(this::watch, "fix-dictionary-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        logger.info("Watching FIX dictionary {}", this.file);
+    }
+
+    /**
+     * Starts a watcher for the file named by the fixme.dictionary system
+     * property.
+     *
+     * @return the watcher, or null if the property is not set
+     */
+    public static FixDictionaryWatcher fromSystemProperty() throws IOException {
+        String path = System.getProperty(DICTIONARY_PROPERTY);
+        if (path == null || path.isBlank()) {
+            return null;
+        }
+        return new FixDictionaryWatcher(Path.of(path));
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Number of successful reloads since the watcher started, not counting
+     * the initial load.
+     */
+    public int getReloadCount() {
+        return reloadCount;
+    }
+
+    private void watch() {
+        Path name = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (name.equals(event.context()) || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    reload();
+                }
+                if (!key.reset()) {
+                    logger.warn("Directory of FIX dictionary {} is no longer watchable", file);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.debug("Stopped watching FIX dictionary {}", file);
+        }
+    }
+
+    private void reload() {
+        try {
+            FixConfig.reload(file);
+            reloadCount++;
+        } catch (IOException | RuntimeException e) {
+            // The only log line for a bad edit, with the parse error as cause
+            logger.error("Keeping current FIX dictionary: cannot reload {}", file, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,94 @@
+package fixme.common.config;
+
+/**
+ * Validation rules of one message type, compiled from fix-tags.json when
+ * FixConfig loads.
+ *
+ * Every tag required by at least one message type owns one bit of a long
+ * (see FixConfig.getRequiredTagBit()). A plan holds the mask of the tags its
+ * message type requires, so checking a message is a single comparison
+ * against the mask of the required tags it carries.
+ *
+ * Immutable.
+ */
+public final class ValidationPlan {
+
+    private final String msgType;
+    private final FixMessageType messageType;
+    private final int[] requiredTags;
+    // Names from the dictionary the plan was compiled from
+    private final String[] requiredTagNames;
+    private final long[] requiredTagBits;
+    private final long requiredMask;
+
+    ValidationPlan(String msgType, FixMessageType messageType, int[] requiredTags, String[] requiredTagNames,
+                   long[] requiredTagBits) {
+        this.msgType = msgType;
+        this.messageType = messageType;
+        this.requiredTags = requiredTags;
+        this.requiredTagNames = requiredTagNames;
+        this.requiredTagBits = requiredTagBits;
+
+        long mask = 0L;
+        for (long bit : requiredTagBits) {
+            mask |= bit;
+        }
+        this.requiredMask = mask;
+    }
+
+    public String getMsgType() {
+        return msgType;
+    }
+
+    public String getName() {
+        return messageType.getName();
+    }
+
+    public FixMessageType getMessageType() {
+        return messageType;
+    }
+
+    public long getRequiredMask() {
+        return requiredMask;
+    }
+
+    /**
+     * @param presentMask OR of FixConfig.getRequiredTagBit() over the tags of a message
+     * @return true if every required tag is present
+     */
+    public boolean isSatisfiedBy(long presentMask) {
+        return (presentMask & requiredMask) == requiredMask;
+    }
+
+    /**
+     * Returns the first required tag, in configuration order, missing from
+     * the mask, or -1 if none is missing.
+     */
+    public int findMissingTag(long presentMask) {
+        for (int i = 0; i < requiredTags.length; i++) {
+            if ((presentMask & requiredTagBits[i]) == 0) {
+                return requiredTags[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Name of a required tag in the dictionary this plan was compiled from,
+     * or its number if the tag is not required or has no definition there.
+     */
+    public String getRequiredTagName(int tag) {
+        for (int i = 0; i < requiredTags.length; i++) {
+            if (requiredTags[i] == tag) {
+                return requiredTagNames[i];
+            }
+        }
+        return String.valueOf(tag);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ValidationPlan[%s (%s), required mask=%s]",
+            msgType, getName(), Long.toBinaryString(requiredMask));
+    }
+}
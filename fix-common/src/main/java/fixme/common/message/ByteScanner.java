@@ -0,0 +1,166 @@
+package fixme.common.message;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Innermost byte loops of parsing and framing: finding delimiters and
+ * summing bytes for the checksum.
+ *
+ * The implementation is chosen once, when the class is loaded, from the
+ * fixme.scanner system property:
+ * - auto (default): SIMD through jdk.incubator.vector for sum() and
+ *   isAscii() when the JVM was started with --add-modules
+ *   jdk.incubator.vector and the CPU has registers of at least 16 bytes,
+ *   scalar otherwise; searches stay scalar, the SIMD kernel being slower
+ *   for them (see MixedScanKernel and ScanKernelBenchmark)
+ * - vector: SIMD for everything, failing if the Vector API is not available
+ * - scalar: one byte per iteration
+ *
+ * All methods work on the slice [from, to) of an array, or of a heap or
+ * direct buffer read by absolute index, and return the same results
+ * whatever the implementation.
+ */
+public final class ByteScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ByteScanner.class);
+
+    public static final String IMPLEMENTATION_PROPERTY = "fixme.scanner";
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "fixme.common.message.VectorScanKernel";
+
+    private static final ScanKernel kernel = selectKernel();
+
+    private ByteScanner() {
+    }
+
+    private static ScanKernel selectKernel() {
+        String choice = System.getProperty(IMPLEMENTATION_PROPERTY, "auto").trim().toLowerCase(Locale.ROOT);
+        ScanKernel selected;
+        switch (choice) {
+            case "scalar":
+            case "vector":
+                selected = kernel(choice);
+                break;
+            case "auto":
+                ScanKernel vector = loadVectorKernel();
+                selected = vector != null ? new MixedScanKernel(vector) : ScalarScanKernel.INSTANCE;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown " + IMPLEMENTATION_PROPERTY + ": " + choice);
+        }
+        logger.debug("Byte scanner: {}", selected.name());
+        return selected;
+    }
+
+    /**
+     * Loads the SIMD kernel by name, so that this class still loads when
+     * the incubator module is absent.
+     *
+     * @return the kernel, or null if the Vector API is missing or its
+     *         registers are too narrow (or too wide) to pay off here
+     */
+    static ScanKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            Class<?> type = Class.forName(VECTOR_KERNEL);
+            if (!(Boolean) type.getDeclaredMethod("isSupported").invoke(null)) {
+                logger.debug("Vector byte scanning not used: registers of fewer than 16 or more than 64 bytes");
+                return null;
+            }
+            return (ScanKernel) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.warn("Vector API present but unusable, using scalar byte scanning", e);
+            return null;
+        }
+    }
+
+    /**
+     * One implementation, whatever fixme.scanner selects, for comparing
+     * them in a single JVM.
+     *
+     * @param implementation "scalar" or "vector"
+     * @throws IllegalStateException if the Vector API is not available
+     */
+    public static ScanKernel kernel(String implementation) {
+        switch (implementation) {
+            case "scalar":
+                return ScalarScanKernel.INSTANCE;
+            case "vector":
+                ScanKernel vector = loadVectorKernel();
+                if (vector == null) {
+                    throw new IllegalStateException("Vector API not available: start the JVM with --add-modules "
+                                                    + VECTOR_MODULE);
+                }
+                return vector;
+            default:
+                throw new IllegalArgumentException("Unknown " + IMPLEMENTATION_PROPERTY + ": " + implementation);
+        }
+    }
+
+    /**
+     * Name of the implementation in use: "scalar", "vector-" followed by
+     * the register width in bits, or that name followed by "+scalar" when
+     * only the reductions are vectorized.
+     */
+    public static String getImplementation() {
+        return kernel.name();
+    }
+
+    /**
+     * @return the index of the first byte equal to target, or -1
+     */
+    public static int indexOf(byte[] src, int from, int to, byte target) {
+        return kernel.indexOf(src, from, to, target);
+    }
+
+    /**
+     * @return the index of the last byte equal to target, or -1
+     */
+    public static int lastIndexOf(byte[] src, int from, int to, byte target) {
+        return kernel.lastIndexOf(src, from, to, target);
+    }
+
+    /**
+     * Finds the next byte equal to first or second in a heap or direct
+     * buffer, e.g. the next delimiter or line feed of a read buffer. The
+     * buffer's position is not used or moved.
+     *
+     * @return the index of the first such byte, or -1
+     */
+    public static int indexOfEither(ByteBuffer src, int from, int to, byte first, byte second) {
+        return kernel.indexOfEither(src, from, to, first, second);
+    }
+
+    /**
+     * Writes the index of every byte equal to first or second into
+     * positions, in ascending order, e.g. every '=' and delimiter of a
+     * message in one pass.
+     *
+     * @param positions Receives the indexes; must hold to - from entries
+     * @return the number of indexes written
+     */
+    public static int findAll(byte[] src, int from, int to, byte first, byte second, int[] positions) {
+        return kernel.findAll(src, from, to, first, second, positions);
+    }
+
+    /**
+     * Sum of the bytes read as unsigned values, as used by CheckSum(10).
+     */
+    public static int sum(byte[] src, int from, int to) {
+        return kernel.sum(src, from, to);
+    }
+
+    /**
+     * True if no byte has its high bit set.
+     */
+    public static boolean isAscii(byte[] src, int from, int to) {
+        return kernel.isAscii(src, from, to);
+    }
+}
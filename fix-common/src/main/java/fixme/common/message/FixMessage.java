@@ -1,6 +1,9 @@
 package fixme.common.message;
 
-import java.util.HashMap;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -9,150 +12,878 @@ import org.slf4j.LoggerFactory;
 
 import fixme.common.config.FixConfig;
 
+/**
+ * FIX message with fields kept in insertion order.
+ *
+ * Fields are stored as int tag numbers in two parallel arrays (tags and
+ * values). Messages hold a dozen fields at most, so a linear scan over a
+ * small int array beats hashing a String key, and each field costs one
+ * array slot instead of a map node plus a key String.
+ *
+ * The checksum is maintained incrementally: every field except CheckSum(10)
+ * contributes the sum of the chars of "tag=value|" to a running total that
+ * setField() and removeField() adjust, so calculateChecksum() is O(1).
+ * A received part whose tag is not a valid number (such as "049=") is not
+ * stored, but isChecksumValid() still counts it, as the sender did.
+ *
+ * A message started from a HeaderTemplate copies the pre-encoded header
+ * bytes as a block when encoded, as long as the header fields are not
+ * changed.
+ *
+ * A message read with wrap() is lazy: it records the tag, offset and length
+ * of each field over the original bytes, and a value becomes a String only
+ * when it is first read. As long as the message is not modified and the
+ * bytes are already in canonical form, encoding it copies those bytes as
+ * they are. The wrapped bytes must not change while the message uses them.
+ */
 public class FixMessage {
 
     private static final Logger logger = LoggerFactory.getLogger(FixMessage.class);
-    private static final FixConfig config = FixConfig.getInstance();
+    // The delimiter never changes across dictionary reloads
+    private static final String DELIMITER = FixConfig.getInstance().getDelimiter();
 
-    private final Map<String, String> fields;
+    private static final int INITIAL_CAPACITY = 12;
+    private static final int MAX_TAG_DIGITS = 9;   // keeps tag numbers within int range
+
+    private static final int DELIMITER_SUM = charSum(DELIMITER);
+    private static final byte DELIMITER_BYTE = (byte) DELIMITER.charAt(0);
+    private static final int CHECKSUM_TRAILER_LENGTH = 7;   // "10=NNN|"
+    private static final String[] CHECKSUM_STRINGS = new String[256];
+
+    static {
+        for (int i = 0; i < CHECKSUM_STRINGS.length; i++) {
+            CHECKSUM_STRINGS[i] = String.format("%03d", i);
+        }
+    }
+
+    private int[] tags;
+    private String[] values;
+    private int size;
+
+    // Running sum of the chars of every field except CheckSum(10)
+    private int checksumSum;
+
+    // Chars of the received "tag=value|" parts not stored for their tag
+    private int droppedSum;
+
+    // Pre-encoded header holding the first fields, null if none or modified
+    private HeaderTemplate header;
+
+    // Bytes of a wrapped message, and the slice of each value not read yet
+    // (offset -1 once values[i] holds the value)
+    private byte[] source;
+    private int sourceOffset;
+    private int sourceLength;
+    private int[] valueOffsets;
+    private int[] valueLengths;
+
+    // True while the wrapped bytes are exactly what encodeTo() would write
+    private boolean sourceIntact;
+
+    // Positions of '=' and delimiters found by ByteScanner, reused by wrap()
+    private int[] scanPositions = new int[0];
 
     public FixMessage() {
-        this.fields = new LinkedHashMap<>();
+        this.tags = new int[INITIAL_CAPACITY];
+        this.values = new String[INITIAL_CAPACITY];
+        this.valueOffsets = new int[INITIAL_CAPACITY];
+        this.valueLengths = new int[INITIAL_CAPACITY];
+        this.size = 0;
+        this.checksumSum = 0;
     }
 
-    public void setField(String tag, String value) {
-        if (!config.isValidValue(tag, value)) {
+    /**
+     * Sets a field by its tag number. Overwriting a tag keeps its
+     * original position.
+     */
+    public void setField(int tag, String value) {
+        if (tag <= 0) {
+            throw new IllegalArgumentException("Tag must be a positive number: " + tag);
+        }
+        if (!FixConfig.getInstance().isValidValue(tag, value)) {
             logger.warn("Invalid value '{}' for tag {}", value, tag);
         }
-        fields.put(tag, value);
+        put(tag, value, tag == FixTags.TAG_CHECKSUM ? 0 : fieldSum(tag, value));
+    }
+
+    /**
+     * Sets a field by its tag string (e.g. "49").
+     *
+     * @throws IllegalArgumentException if the tag is not a number
+     */
+    public void setField(String tag, String value) {
+        int tagNumber = parseTag(tag);
+        if (tagNumber < 0) {
+            throw new IllegalArgumentException("Tag must be numeric: " + tag);
+        }
+        setField(tagNumber, value);
+    }
+
+    /**
+     * Removes a field; the following fields keep their relative order.
+     *
+     * @return the removed value, or null if the tag was absent
+     */
+    public String removeField(int tag) {
+        int index = indexOf(tag);
+        if (index < 0) {
+            return null;
+        }
+        String removed = valueAt(index);
+        if (index < HeaderTemplate.FIELD_COUNT) {
+            header = null;
+        }
+        sourceIntact = false;
+        if (tag != FixTags.TAG_CHECKSUM) {
+            checksumSum -= fieldSum(tag, removed);
+        }
+        System.arraycopy(tags, index + 1, tags, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        System.arraycopy(valueOffsets, index + 1, valueOffsets, index, size - index - 1);
+        System.arraycopy(valueLengths, index + 1, valueLengths, index, size - index - 1);
+        size--;
+        values[size] = null;
+        return removed;
+    }
+
+    public String removeField(String tag) {
+        int tagNumber = parseTag(tag);
+        return tagNumber < 0 ? null : removeField(tagNumber);
+    }
+
+    public String getField(int tag) {
+        int index = indexOf(tag);
+        return index < 0 ? null : valueAt(index);
     }
 
     public String getField(String tag) {
-        return fields.get(tag);
+        int tagNumber = parseTag(tag);
+        return tagNumber < 0 ? null : getField(tagNumber);
     }
 
+    /**
+     * Returns a snapshot of the fields, in insertion order, keyed by tag string.
+     * Changes to the returned map are not reflected in the message.
+     */
     public Map<String, String> getAllFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            fields.put(String.valueOf(tags[i]), valueAt(i));
+        }
         return fields;
     }
 
+    public int getFieldCount() {
+        return size;
+    }
+
+    /**
+     * Mask of the required tags present, to check against a ValidationPlan
+     * of the current dictionary.
+     */
+    long getRequiredTagMask() {
+        return getRequiredTagMask(FixConfig.getInstance());
+    }
+
+    /**
+     * Mask of the required tags present, to check against a ValidationPlan
+     * of the given dictionary snapshot.
+     */
+    long getRequiredTagMask(FixConfig config) {
+        long mask = 0L;
+        for (int i = 0; i < size; i++) {
+            if (values[i] != null || isLazy(i)) {
+                mask |= config.getRequiredTagBit(tags[i]);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Removes every field so the instance can be reused. The backing arrays
+     * keep their capacity.
+     */
+    public void reset() {
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        checksumSum = 0;
+        droppedSum = 0;
+        header = null;
+        source = null;
+        sourceIntact = false;
+    }
+
+    /**
+     * Starts an empty message with the fields of a header template, without
+     * validating them again.
+     *
+     * @throws IllegalStateException if the message already has fields
+     */
+    void applyHeader(HeaderTemplate template) {
+        if (size != 0) {
+            throw new IllegalStateException("Header template must be applied to an empty message");
+        }
+        tags[0] = FixTags.TAG_SENDER_COMP_ID;
+        values[0] = template.getSenderCompId();
+        tags[1] = FixTags.TAG_TARGET_COMP_ID;
+        values[1] = template.getTargetCompId();
+        tags[2] = FixTags.TAG_MSG_TYPE;
+        values[2] = template.getMsgType();
+        Arrays.fill(valueOffsets, 0, HeaderTemplate.FIELD_COUNT, -1);
+        size = HeaderTemplate.FIELD_COUNT;
+        checksumSum = template.getChecksumSum();
+        header = template;
+        source = null;
+        sourceIntact = false;
+    }
+
+    /**
+     * Number of values held as Strings; the others are still only slices of
+     * the wrapped bytes.
+     */
+    int getMaterializedCount() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (!isLazy(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean isLazy(int index) {
+        return values[index] == null && source != null && valueOffsets[index] >= 0;
+    }
+
+    /**
+     * Value of a field, created from the wrapped bytes on first access.
+     */
+    private String valueAt(int index) {
+        if (!isLazy(index)) {
+            return values[index];
+        }
+        String value = new String(source, valueOffsets[index], valueLengths[index], StandardCharsets.ISO_8859_1);
+        if (!FixConfig.getInstance().isValidValue(tags[index], value)) {
+            logger.warn("Invalid value '{}' for tag {}", value, tags[index]);
+        }
+        values[index] = value;
+        valueOffsets[index] = -1;
+        return value;
+    }
+
+    private int indexOf(int tag) {
+        for (int i = 0; i < size; i++) {
+            if (tags[i] == tag) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Stores a field and adds its precomputed contribution to the running
+     * checksum, replacing the contribution of any previous value.
+     */
+    private void put(int tag, String value, int fieldSum) {
+        sourceIntact = false;
+        checksumSum += fieldSum;
+        int index = indexOf(tag);
+        if (index >= 0) {
+            if (tag != FixTags.TAG_CHECKSUM) {
+                checksumSum -= fieldSumAt(index);
+            }
+            if (index < HeaderTemplate.FIELD_COUNT) {
+                header = null;
+            }
+            values[index] = value;
+            valueOffsets[index] = -1;
+            return;
+        }
+        index = append(tag);
+        values[index] = value;
+        valueOffsets[index] = -1;
+    }
+
+    /**
+     * Adds a slot for a new tag at the end and returns its index.
+     */
+    private int append(int tag) {
+        if (size == tags.length) {
+            tags = Arrays.copyOf(tags, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+            valueOffsets = Arrays.copyOf(valueOffsets, size * 2);
+            valueLengths = Arrays.copyOf(valueLengths, size * 2);
+        }
+        tags[size] = tag;
+        return size++;
+    }
+
+    /**
+     * Checksum contribution of the field at an index, read from the wrapped
+     * bytes if its value was not materialized.
+     */
+    private int fieldSumAt(int index) {
+        if (!isLazy(index)) {
+            return fieldSum(tags[index], values[index]);
+        }
+        int sum = fieldSum(tags[index], null);
+        int end = valueOffsets[index] + valueLengths[index];
+        for (int i = valueOffsets[index]; i < end; i++) {
+            sum += source[i] & 0xFF;
+        }
+        return sum;
+    }
+
+    /**
+     * Parses a tag string into its number without allocating.
+     *
+     * @return the tag number, or -1 if the string is not a plain positive
+     *         number without leading zeros
+     */
+    private static int parseTag(CharSequence tag, int start, int end) {
+        int length = end - start;
+        if (length == 0 || length > MAX_TAG_DIGITS || tag.charAt(start) == '0') {
+            return -1;
+        }
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = tag.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static int parseTag(String tag) {
+        return tag == null ? -1 : parseTag(tag, 0, tag.length());
+    }
+
+    /**
+     * Checksum contribution of one field: the chars of "tag=value|".
+     */
+    static int fieldSum(int tag, String value) {
+        int sum = '=' + DELIMITER_SUM + charSum(value);
+        do {
+            sum += '0' + tag % 10;
+            tag /= 10;
+        } while (tag > 0);
+        return sum;
+    }
+
+    private static int charSum(String value) {
+        int sum = 0;
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                sum += value.charAt(i);
+            }
+        }
+        return sum;
+    }
+
     public String getSenderCompId() {
-        return getField(FixTags.SENDER_COMP_ID);
+        return getField(FixTags.TAG_SENDER_COMP_ID);
     }
 
     public void setSenderCompId(String senderCompId) {
-        setField(FixTags.SENDER_COMP_ID, senderCompId);
+        setField(FixTags.TAG_SENDER_COMP_ID, senderCompId);
     }
 
     public String getTargetCompId() {
-        return getField(FixTags.TARGET_COMP_ID);
+        return getField(FixTags.TAG_TARGET_COMP_ID);
     }
 
     public void setTargetCompId(String targetCompId) {
-        setField(FixTags.TARGET_COMP_ID, targetCompId);
+        setField(FixTags.TAG_TARGET_COMP_ID, targetCompId);
     }
 
     public String getMsgType() {
-        return getField(FixTags.MSG_TYPE);
+        return getField(FixTags.TAG_MSG_TYPE);
     }
 
     public void setMsgType(String msgType) {
-        setField(FixTags.MSG_TYPE, msgType);
+        setField(FixTags.TAG_MSG_TYPE, msgType);
     }
 
     public String getSymbol() {
-        return getField(FixTags.SYMBOL);
+        return getField(FixTags.TAG_SYMBOL);
     }
 
     public void setSymbol(String symbol) {
-        setField(FixTags.SYMBOL, symbol);
+        setField(FixTags.TAG_SYMBOL, symbol);
     }
 
     public Boolean isBuyOrder() {
         return FixTags.MSG_TYPE_NEW_ORDER.equals(getMsgType()) &&
-               FixTags.SIDE_BUY.equals(getField(FixTags.SIDE));
+               FixTags.SIDE_BUY.equals(getField(FixTags.TAG_SIDE));
     }
 
     public Boolean isSellOrder() {
         return FixTags.MSG_TYPE_NEW_ORDER.equals(getMsgType()) &&
-               FixTags.SIDE_SELL.equals(getField(FixTags.SIDE));
+               FixTags.SIDE_SELL.equals(getField(FixTags.TAG_SIDE));
     }
 
     public Boolean isExecutionReport() {
         return FixTags.MSG_TYPE_EXECUTION_REPORT.equals(getMsgType());
     }
 
-    public String calculateChecksum() {
-        StringBuilder sb = new StringBuilder();
-        String delimiter = config.getDelimiter();
-        
-        for (Map.Entry<String, String> entry : fields.entrySet()) {
-            if (!FixTags.CHECKSUM.equals(entry.getKey())) {
-                sb.append(entry.getKey())
-                  .append("=")
-                  .append(entry.getValue())
-                  .append(delimiter);
-            }
-        }
-        
-        int sum = 0;
-        for (char c : sb.toString().toCharArray()) {
-            sum += c;
-        }
-        
-        int checksum = sum % 256;
+    /**
+     * Checksum of all fields except CheckSum(10): sum of their chars modulo 256.
+     * Read from the running sum, the message is not re-serialized.
+     */
+    public int getChecksum() {
+        return checksumSum % 256;
+    }
 
-        logger.debug("⚠️ Calculated checksum: {}", String.format("%03d", checksum));
-        return String.format("%03d", checksum);
+    /**
+     * Checksum formatted as 3 digits, as expected in tag 10.
+     */
+    public String calculateChecksum() {
+        int checksum = getChecksum();
+        logger.debug("Calculated checksum: {}", checksum);
+        return CHECKSUM_STRINGS[checksum];
     }
 
     public boolean isChecksumValid() {
-        String receivedChecksum = getField(FixTags.CHECKSUM);
+        String receivedChecksum = getField(FixTags.TAG_CHECKSUM);
         if (receivedChecksum == null) {
             return false;
         }
-        String calculatedChecksum = calculateChecksum();
-        return calculatedChecksum.equals(receivedChecksum);
+        return CHECKSUM_STRINGS[(checksumSum + droppedSum) % 256].equals(receivedChecksum);
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        String delimiter = config.getDelimiter();
-        
-        for (Map.Entry<String, String> entry : fields.entrySet()) {
-            sb.append(entry.getKey())
+        String delimiter = DELIMITER;
+
+        for (int i = 0; i < size; i++) {
+            sb.append(tags[i])
               .append("=")
-              .append(entry.getValue())
+              .append(valueAt(i))
               .append(delimiter);
         }
-        
+
         return sb.toString();
     }
 
+    // ========== ENCODING ==========
+
+    /**
+     * Number of bytes written by encodeTo().
+     */
+    public int encodedLength() {
+        if (sourceIntact) {
+            return sourceLength;
+        }
+        int length = CHECKSUM_TRAILER_LENGTH;
+        int first = 0;
+        if (header != null) {
+            length += header.getLength();
+            first = HeaderTemplate.FIELD_COUNT;
+        }
+        for (int i = first; i < size; i++) {
+            if (tags[i] != FixTags.TAG_CHECKSUM) {
+                length += isLazy(i)
+                    ? digitCount(tags[i]) + valueLengths[i] + 2
+                    : fieldLength(tags[i], values[i]);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encoded length of one field: "tag=value|".
+     */
+    static int fieldLength(int tag, String value) {
+        return digitCount(tag) + value.length() + 2;
+    }
+
+    /**
+     * Encodes the message as ASCII tag=value pairs straight into a byte array,
+     * without building an intermediate String.
+     *
+     * Fields are written in insertion order, except CheckSum(10), which always
+     * terminates the frame with the value of the running checksum. Values are
+     * expected to be ASCII; other chars are written as '?'. An unmodified
+     * wrapped message in that form is copied from its bytes.
+     *
+     * @param dst The destination array
+     * @param offset Index of the first byte to write
+     * @return the number of bytes written
+     * @throws IndexOutOfBoundsException if the message does not fit; nothing is written
+     */
+    public int encodeTo(byte[] dst, int offset) {
+        int length = encodedLength();
+        if (offset < 0 || offset + length > dst.length) {
+            throw new IndexOutOfBoundsException(
+                String.format("Message of %d bytes does not fit at offset %d in array of length %d",
+                    length, offset, dst.length));
+        }
+
+        if (sourceIntact) {
+            System.arraycopy(source, sourceOffset, dst, offset, sourceLength);
+            return sourceLength;
+        }
+
+        int pos = offset;
+        int first = 0;
+        if (header != null) {
+            pos += header.copyTo(dst, pos);
+            first = HeaderTemplate.FIELD_COUNT;
+        }
+        for (int i = first; i < size; i++) {
+            if (tags[i] == FixTags.TAG_CHECKSUM) {
+                continue;
+            }
+            if (isLazy(i)) {
+                pos = writeLazyField(dst, pos, i);
+            } else {
+                pos = writeField(dst, pos, tags[i], values[i]);
+            }
+        }
+        pos = writeChecksum(dst, pos, getChecksum());
+        return pos - offset;
+    }
+
+    /**
+     * Encodes the message into a buffer at its current position and advances
+     * the position. See encodeTo(byte[], int).
+     *
+     * @return the number of bytes written
+     * @throws BufferOverflowException if the message does not fit; nothing is written
+     */
+    public int encodeTo(ByteBuffer dst) {
+        int length = encodedLength();
+        if (dst.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        if (dst.hasArray()) {
+            encodeTo(dst.array(), dst.arrayOffset() + dst.position());
+            dst.position(dst.position() + length);
+            return length;
+        }
+        if (sourceIntact) {
+            dst.put(source, sourceOffset, sourceLength);
+            return length;
+        }
+
+        int first = 0;
+        if (header != null) {
+            header.copyTo(dst);
+            first = HeaderTemplate.FIELD_COUNT;
+        }
+        for (int i = first; i < size; i++) {
+            if (tags[i] != FixTags.TAG_CHECKSUM) {
+                putInt(dst, tags[i]);
+                dst.put((byte) '=');
+                if (isLazy(i)) {
+                    int end = valueOffsets[i] + valueLengths[i];
+                    for (int j = valueOffsets[i]; j < end; j++) {
+                        dst.put(asciiByte(source[j]));
+                    }
+                } else {
+                    String value = values[i];
+                    for (int j = 0; j < value.length(); j++) {
+                        dst.put(asciiByte(value.charAt(j)));
+                    }
+                }
+                dst.put(DELIMITER_BYTE);
+            }
+        }
+        int checksum = getChecksum();
+        dst.put((byte) '1').put((byte) '0').put((byte) '=')
+           .put((byte) ('0' + checksum / 100))
+           .put((byte) ('0' + checksum / 10 % 10))
+           .put((byte) ('0' + checksum % 10))
+           .put(DELIMITER_BYTE);
+        return length;
+    }
+
+    static int writeField(byte[] dst, int pos, int tag, String value) {
+        pos += digitCount(tag);
+        int digitPos = pos;
+        do {
+            dst[--digitPos] = (byte) ('0' + tag % 10);
+            tag /= 10;
+        } while (tag > 0);
+
+        dst[pos++] = '=';
+        for (int j = 0; j < value.length(); j++) {
+            dst[pos++] = asciiByte(value.charAt(j));
+        }
+        dst[pos++] = DELIMITER_BYTE;
+        return pos;
+    }
+
+    /**
+     * Writes a field whose value is still a slice of the wrapped bytes.
+     */
+    private int writeLazyField(byte[] dst, int pos, int index) {
+        int tag = tags[index];
+        pos += digitCount(tag);
+        int digitPos = pos;
+        do {
+            dst[--digitPos] = (byte) ('0' + tag % 10);
+            tag /= 10;
+        } while (tag > 0);
+
+        dst[pos++] = '=';
+        int end = valueOffsets[index] + valueLengths[index];
+        for (int j = valueOffsets[index]; j < end; j++) {
+            dst[pos++] = asciiByte(source[j]);
+        }
+        dst[pos++] = DELIMITER_BYTE;
+        return pos;
+    }
+
+    private static int writeChecksum(byte[] dst, int pos, int checksum) {
+        dst[pos++] = '1';
+        dst[pos++] = '0';
+        dst[pos++] = '=';
+        dst[pos++] = (byte) ('0' + checksum / 100);
+        dst[pos++] = (byte) ('0' + checksum / 10 % 10);
+        dst[pos++] = (byte) ('0' + checksum % 10);
+        dst[pos++] = DELIMITER_BYTE;
+        return pos;
+    }
+
+    private static void putInt(ByteBuffer dst, int tag) {
+        int divisor = 1;
+        while (tag / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            dst.put((byte) ('0' + tag / divisor % 10));
+            divisor /= 10;
+        }
+    }
+
+    private static int digitCount(int tag) {
+        int count = 1;
+        while (tag >= 10) {
+            tag /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    private static byte asciiByte(char c) {
+        return c < 0x80 ? (byte) c : (byte) '?';
+    }
+
+    private static byte asciiByte(byte b) {
+        return b >= 0 ? b : (byte) '?';
+    }
+
+    /**
+     * Parses a raw message. Parts without '=' and fields whose tag is not
+     * a number without leading zeros are ignored, though the latter count
+     * towards isChecksumValid(). A repeated tag keeps its first position and
+     * its last value. The checksum contribution of each field is summed
+     * while its chars are scanned.
+     */
     public static FixMessage parse(String raw) {
-        FixMessage message = new FixMessage();
-        
+        return parse(raw, new FixMessage());
+    }
+
+    /**
+     * Parses a raw message into an existing instance, typically one taken
+     * from an ObjectPool. The instance is reset first.
+     *
+     * @return the message passed in
+     */
+    public static FixMessage parse(String raw, FixMessage message) {
+        message.reset();
+
         if (raw == null || raw.isEmpty()) {
             return message;
         }
-        
-        String delimiter = config.getDelimiter();
-        String delimiterRegex = delimiter.equals("|") ? "\\|" : delimiter;
-        
-        String[] parts = raw.split(delimiterRegex);
-        
-        for (String part : parts) {
-            if (part.isEmpty()) continue;
-            
-            String[] keyValue = part.split("=", 2);
-            if (keyValue.length == 2) {
-                message.setField(keyValue[0], keyValue[1]);
-            }
-        }
-        
+
+        char delimiter = DELIMITER.charAt(0);
+        int length = raw.length();
+        int pos = 0;
+
+        while (pos < length) {
+            int start = pos;
+            int sum = 0;
+            char c = 0;
+
+            while (pos < length && (c = raw.charAt(pos)) != '=' && c != delimiter) {
+                sum += c;
+                pos++;
+            }
+            if (pos == length || c == delimiter) {
+                pos++;
+                continue;
+            }
+
+            int equals = pos++;
+            sum += '=';
+            while (pos < length && (c = raw.charAt(pos)) != delimiter) {
+                sum += c;
+                pos++;
+            }
+
+            int tag = parseTag(raw, start, equals);
+            if (tag >= 0) {
+                message.setParsedField(tag, raw.substring(equals + 1, pos), sum + DELIMITER_SUM);
+            } else {
+                message.droppedSum += sum + DELIMITER_SUM;
+            }
+            pos++;
+        }
+
         return message;
     }
 
-    
-}
+    /**
+     * Reads a message lazily over a byte array, see wrap(byte[], int, int, FixMessage).
+     */
+    public static FixMessage wrap(byte[] src) {
+        return wrap(src, 0, src.length, new FixMessage());
+    }
+
+    /**
+     * Reads a message lazily: fields are indexed by tag, offset and length
+     * over the bytes, and a value becomes a String only when it is read.
+     * Parts are handled as by parse(); values are checked against the
+     * configuration when they are materialized rather than here.
+     *
+     * The bytes are not copied and must not change while the message is in
+     * use. The instance is reset first.
+     *
+     * @param src The encoded message
+     * @param offset Index of the first byte of the message
+     * @param length Number of bytes in the message
+     * @param message The instance to fill, typically one taken from an ObjectPool
+     * @return the message passed in
+     */
+    public static FixMessage wrap(byte[] src, int offset, int length, FixMessage message) {
+        if (offset < 0 || length < 0 || offset + length > src.length) {
+            throw new IndexOutOfBoundsException(
+                String.format("Invalid slice [%d, %d) for array of length %d", offset, offset + length, src.length));
+        }
+        message.reset();
+        message.source = src;
+        message.sourceOffset = offset;
+        message.sourceLength = length;
+        message.index(src, offset, offset + length);
+        return message;
+    }
+
+    /**
+     * Indexes wrapped bytes and tracks whether they are already in the form
+     * encodeTo() writes (every part a field, no repeated tag, ASCII only, a
+     * correct CheckSum(10) last).
+     *
+     * ByteScanner finds every '=' and delimiter in one pass, and sums all
+     * the bytes in another; the parts that do not count towards the
+     * checksum (malformed parts, CheckSum(10), earlier copies of a repeated
+     * tag) are then subtracted. Parts with an invalid tag go to droppedSum.
+     */
+    private void index(byte[] src, int offset, int end) {
+        byte delimiter = DELIMITER_BYTE;
+        if (scanPositions.length < end - offset) {
+            scanPositions = new int[end - offset];
+        }
+        int[] positions = scanPositions;
+        int count = ByteScanner.findAll(src, offset, end, (byte) '=', delimiter, positions);
+        int sum = ByteScanner.sum(src, offset, end);
+
+        boolean canonical = end > offset;
+        int lastTag = -1;
+        int lastValueOffset = 0;
+        int pos = offset;
+        int next = 0;
 
+        while (pos < end) {
+            int start = pos;
+            int equals = -1;
+            if (next < count && src[positions[next]] == '=') {
+                equals = positions[next++];
+                while (next < count && src[positions[next]] != delimiter) {
+                    next++;
+                }
+            }
+            int stop = next < count ? positions[next++] : end;
+            pos = stop + 1;
+
+            int tag = equals < 0 ? -1 : parseTag(src, start, equals);
+            if (tag < 0) {
+                canonical = false;
+                int partSum = ByteScanner.sum(src, start, Math.min(pos, end));
+                sum -= partSum;
+                if (equals >= 0) {
+                    droppedSum += stop == end ? partSum + DELIMITER_SUM : partSum;
+                }
+                continue;
+            }
+
+            int index = indexOf(tag);
+            if (index >= 0) {
+                canonical = false;
+                if (tag != FixTags.TAG_CHECKSUM) {
+                    sum -= fieldSumAt(index);
+                }
+                values[index] = null;
+            } else {
+                index = append(tag);
+            }
+            if (tag == FixTags.TAG_CHECKSUM) {
+                sum -= ByteScanner.sum(src, start, Math.min(pos, end));
+            } else if (stop == end) {
+                sum += DELIMITER_SUM;
+            }
+            valueOffsets[index] = equals + 1;
+            valueLengths[index] = stop - equals - 1;
+            lastTag = tag;
+            lastValueOffset = equals + 1;
+        }
+        checksumSum = sum;
+
+        sourceIntact = canonical
+            && src[end - 1] == delimiter
+            && lastTag == FixTags.TAG_CHECKSUM
+            && end - 1 - lastValueOffset == 3
+            && matchesChecksum(src, lastValueOffset, getChecksum())
+            && ByteScanner.isAscii(src, offset, end);
+    }
+
+    private static boolean matchesChecksum(byte[] src, int offset, int checksum) {
+        return src[offset] == '0' + checksum / 100
+            && src[offset + 1] == '0' + checksum / 10 % 10
+            && src[offset + 2] == '0' + checksum % 10;
+    }
+
+    /**
+     * Byte version of parseTag(CharSequence, int, int), shared with
+     * FixMessageDecoder.
+     */
+    static int parseTag(byte[] src, int start, int end) {
+        int length = end - start;
+        if (length == 0 || length > MAX_TAG_DIGITS || src[start] == '0') {
+            return -1;
+        }
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            byte b = src[i];
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            result = result * 10 + (b - '0');
+        }
+        return result;
+    }
+
+    private void setParsedField(int tag, String value, int fieldSum) {
+        if (!FixConfig.getInstance().isValidValue(tag, value)) {
+            logger.warn("Invalid value '{}' for tag {}", value, tag);
+        }
+        put(tag, value, tag == FixTags.TAG_CHECKSUM ? 0 : fieldSum);
+    }
+
+
+}
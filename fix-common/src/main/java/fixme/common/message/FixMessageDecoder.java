@@ -0,0 +1,626 @@
+package fixme.common.message;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import fixme.common.config.FixConfig;
+import fixme.common.symbol.SymbolTable;
+
+/**
+ * Zero-copy, reusable view over an encoded FIX message.
+ *
+ * wrap() indexes every tag=value pair in a single pass and records the
+ * tag number, value offset and value length of each field. Values are read
+ * straight from the wrapped bytes, so lookups never create a String unless
+ * getString() is called explicitly.
+ *
+ * The bytes are not copied: the wrapped array or buffer must not change
+ * while the decoder is in use. A decoder is not thread-safe and is meant to
+ * be reused, one instance per processing thread or context.
+ *
+ * Design Pattern: Flyweight
+ */
+public final class FixMessageDecoder {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_TAG_DIGITS = 9;   // keeps tag numbers within int range
+    private static final int CHECKSUM_LENGTH = 3;
+
+    // Dictionary snapshot of the current message, taken when it is indexed
+    private FixConfig config;
+    private final byte delimiter;
+
+    private byte[] array;
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    private int[] tags;
+    private int[] valueOffsets;
+    private int[] valueLengths;
+    private int fieldCount;
+
+    // Sum of the bytes of every tag=value part except CheckSum(10), delimiters
+    // included, each repeated tag counted once
+    private int checksumSum;
+
+    // OR of FixConfig.getRequiredTagBit() over the indexed tags
+    private long requiredTagMask;
+
+    // Positions of '=' and delimiters found by ByteScanner, reused across wraps
+    private int[] scanPositions = new int[INITIAL_CAPACITY];
+
+    // Copy of a value read from a direct buffer, reused across calls
+    private byte[] scratch = new byte[INITIAL_CAPACITY];
+
+    public FixMessageDecoder() {
+        this.config = FixConfig.getInstance();
+        // The delimiter never changes across dictionary reloads
+        this.delimiter = (byte) config.getDelimiter().charAt(0);
+        this.tags = new int[INITIAL_CAPACITY];
+        this.valueOffsets = new int[INITIAL_CAPACITY];
+        this.valueLengths = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Wraps a slice of a byte array and indexes its fields.
+     *
+     * @param array The encoded message
+     * @param offset Index of the first byte of the message
+     * @param length Number of bytes in the message
+     * @return this decoder
+     */
+    public FixMessageDecoder wrap(byte[] array, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > array.length) {
+            throw new IndexOutOfBoundsException(
+                String.format("Invalid slice [%d, %d) for array of length %d", offset, offset + length, array.length));
+        }
+        this.array = array;
+        this.buffer = null;
+        this.offset = offset;
+        this.length = length;
+        index();
+        return this;
+    }
+
+    /**
+     * Wraps the remaining bytes of a buffer (position to limit) and indexes
+     * its fields. The buffer's position and limit are left untouched.
+     *
+     * @param buffer The buffer holding the encoded message
+     * @return this decoder
+     */
+    public FixMessageDecoder wrap(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return wrap(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        this.array = null;
+        this.buffer = buffer;
+        this.offset = buffer.position();
+        this.length = buffer.remaining();
+        index();
+        return this;
+    }
+
+    /**
+     * Attaches a byte array without indexing it. Used by ValidatingParser,
+     * which fills the index itself through addField() and setChecksumSum()
+     * while it validates the message.
+     */
+    FixMessageDecoder attach(byte[] array, int offset, int length) {
+        this.array = array;
+        this.buffer = null;
+        this.offset = offset;
+        this.length = length;
+        this.fieldCount = 0;
+        this.checksumSum = 0;
+        this.requiredTagMask = 0L;
+        this.config = FixConfig.getInstance();
+        return this;
+    }
+
+    /**
+     * Dictionary snapshot the required tag mask was computed with; the
+     * message must be checked against plans of this snapshot.
+     */
+    FixConfig getConfig() {
+        return config;
+    }
+
+    void setChecksumSum(int checksumSum) {
+        this.checksumSum = checksumSum;
+    }
+
+    /**
+     * Releases the wrapped bytes so the decoder can be reused.
+     */
+    public void reset() {
+        array = null;
+        buffer = null;
+        offset = 0;
+        length = 0;
+        fieldCount = 0;
+        checksumSum = 0;
+        requiredTagMask = 0L;
+    }
+
+    /**
+     * Single pass over the message: records each field and accumulates the
+     * checksum, with the rules of FixMessage.parse(). Parts without '=' are
+     * skipped; fields whose tag is not a positive number without leading
+     * zeros are not indexed but count towards the checksum; a repeated tag
+     * keeps its first position and its last value, and is counted once.
+     */
+    private void index() {
+        fieldCount = 0;
+        checksumSum = 0;
+        requiredTagMask = 0L;
+        config = FixConfig.getInstance();
+
+        if (array != null) {
+            indexArray();
+            return;
+        }
+
+        int pos = offset;
+        int end = offset + length;
+
+        while (pos < end) {
+            int tag = 0;
+            int digits = 0;
+            boolean numeric = true;
+            int fieldSum = 0;
+            byte b = 0;
+
+            while (pos < end && (b = byteAt(pos)) != '=' && b != delimiter) {
+                fieldSum += b & 0xFF;
+                if (b >= '0' && b <= '9' && digits < MAX_TAG_DIGITS && (digits > 0 || b != '0')) {
+                    tag = tag * 10 + (b - '0');
+                    digits++;
+                } else {
+                    numeric = false;
+                }
+                pos++;
+            }
+
+            if (pos == end || b == delimiter) {
+                pos++;
+                continue;
+            }
+
+            fieldSum += '=';
+            pos++;
+
+            int valueStart = pos;
+            while (pos < end && (b = byteAt(pos)) != delimiter) {
+                fieldSum += b & 0xFF;
+                pos++;
+            }
+            int valueLength = pos - valueStart;
+            fieldSum += delimiter & 0xFF;
+            pos++;
+
+            boolean valid = digits > 0 && numeric;
+            if (!valid || tag != FixTags.TAG_CHECKSUM) {
+                checksumSum += fieldSum;
+            }
+            if (valid) {
+                checksumSum -= addField(tag, valueStart, valueLength);
+            }
+        }
+    }
+
+    /**
+     * index() over an array: ByteScanner finds every '=' and delimiter in
+     * one pass and sums all the bytes in another, and the parts that are
+     * not counted in the checksum are subtracted from that sum.
+     */
+    private void indexArray() {
+        int end = offset + length;
+        if (scanPositions.length < length) {
+            scanPositions = new int[length];
+        }
+        int[] positions = scanPositions;
+        int count = ByteScanner.findAll(array, offset, end, (byte) '=', delimiter, positions);
+        int sum = ByteScanner.sum(array, offset, end);
+
+        int pos = offset;
+        int next = 0;
+        while (pos < end) {
+            int start = pos;
+            int equals = -1;
+            if (next < count && array[positions[next]] == '=') {
+                equals = positions[next++];
+                while (next < count && array[positions[next]] != delimiter) {
+                    next++;
+                }
+            }
+            int stop = next < count ? positions[next++] : end;
+            pos = stop + 1;
+
+            int tag = equals < 0 ? -1 : FixMessage.parseTag(array, start, equals);
+            if (equals < 0 || tag == FixTags.TAG_CHECKSUM) {
+                sum -= ByteScanner.sum(array, start, Math.min(pos, end));
+            } else if (stop == end) {
+                sum += delimiter & 0xFF;
+            }
+            if (tag >= 0) {
+                sum -= addField(tag, equals + 1, stop - equals - 1);
+            }
+        }
+        checksumSum = sum;
+    }
+
+    /**
+     * Records a field. A repeated tag keeps the position of its first copy
+     * and takes the new value, as in FixMessage.
+     *
+     * @return the checksum contribution of the copy replaced, to subtract,
+     *         or 0 if the tag is new or is CheckSum(10)
+     */
+    int addField(int tag, int valueOffset, int valueLength) {
+        int index = indexOf(tag);
+        if (index >= 0) {
+            int replaced = tag == FixTags.TAG_CHECKSUM ? 0 : fieldSumAt(index);
+            valueOffsets[index] = valueOffset;
+            valueLengths[index] = valueLength;
+            return replaced;
+        }
+        if (fieldCount == tags.length) {
+            int newCapacity = tags.length * 2;
+            tags = Arrays.copyOf(tags, newCapacity);
+            valueOffsets = Arrays.copyOf(valueOffsets, newCapacity);
+            valueLengths = Arrays.copyOf(valueLengths, newCapacity);
+        }
+        tags[fieldCount] = tag;
+        valueOffsets[fieldCount] = valueOffset;
+        valueLengths[fieldCount] = valueLength;
+        fieldCount++;
+        requiredTagMask |= config.getRequiredTagBit(tag);
+        return 0;
+    }
+
+    /**
+     * Sum of the bytes of "tag=value|" for the field at an index.
+     */
+    private int fieldSumAt(int index) {
+        int sum = '=' + (delimiter & 0xFF);
+        int tag = tags[index];
+        do {
+            sum += '0' + tag % 10;
+            tag /= 10;
+        } while (tag > 0);
+        int end = valueOffsets[index] + valueLengths[index];
+        for (int i = valueOffsets[index]; i < end; i++) {
+            sum += byteAt(i) & 0xFF;
+        }
+        return sum;
+    }
+
+    private byte byteAt(int index) {
+        return array != null ? array[index] : buffer.get(index);
+    }
+
+    /**
+     * Number of bytes in the wrapped message.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Copies the wrapped message bytes, unchanged, into a byte array.
+     *
+     * @return the number of bytes copied
+     * @throws IndexOutOfBoundsException if the message does not fit
+     */
+    public int copyTo(byte[] dst, int dstOffset) {
+        if (dstOffset < 0 || dstOffset + length > dst.length) {
+            throw new IndexOutOfBoundsException(
+                String.format("Message of %d bytes does not fit at offset %d", length, dstOffset));
+        }
+        if (array != null) {
+            System.arraycopy(array, offset, dst, dstOffset, length);
+        } else if (buffer != null) {
+            buffer.get(offset, dst, dstOffset, length);
+        }
+        return length;
+    }
+
+    /**
+     * Copies the wrapped message bytes, unchanged, at the position of a
+     * buffer and moves the position past them.
+     *
+     * @return the number of bytes copied
+     * @throws BufferOverflowException if the message does not fit
+     */
+    public int copyTo(ByteBuffer dst) {
+        if (array != null) {
+            dst.put(array, offset, length);
+        } else if (buffer != null) {
+            if (dst.remaining() < length) {
+                throw new BufferOverflowException();
+            }
+            dst.put(dst.position(), buffer, offset, length);
+            dst.position(dst.position() + length);
+        }
+        return length;
+    }
+
+    // ========== FIELD INDEX ==========
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public int getTagAt(int index) {
+        return tags[index];
+    }
+
+    /**
+     * Returns the position of the first field with the given tag,
+     * or -1 if the tag is absent.
+     */
+    public int indexOf(int tag) {
+        for (int i = 0; i < fieldCount; i++) {
+            if (tags[i] == tag) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean hasField(int tag) {
+        return indexOf(tag) >= 0;
+    }
+
+    /**
+     * Mask of the required tags present, to check against a ValidationPlan.
+     */
+    long getRequiredTagMask() {
+        return requiredTagMask;
+    }
+
+    /**
+     * Returns the length of the value for the tag, or -1 if the tag is absent.
+     */
+    public int getValueLength(int tag) {
+        int index = indexOf(tag);
+        return index < 0 ? -1 : valueLengths[index];
+    }
+
+    // ========== PRIMITIVE ACCESSORS ==========
+
+    /**
+     * Parses the value of a tag as an int without creating a String.
+     *
+     * @throws IllegalArgumentException if the tag is absent
+     * @throws NumberFormatException if the value is not a valid int
+     */
+    public int getInt(int tag) {
+        long value = getLong(tag);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Value out of int range for tag " + tag);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses the value of a tag as a long without creating a String.
+     *
+     * @throws IllegalArgumentException if the tag is absent
+     * @throws NumberFormatException if the value is not a valid long
+     */
+    public long getLong(int tag) {
+        int index = requireIndex(tag);
+        int pos = valueOffsets[index];
+        int end = pos + valueLengths[index];
+
+        if (pos == end) {
+            throw new NumberFormatException("Empty value for tag " + tag);
+        }
+
+        boolean negative = byteAt(pos) == '-';
+        if (negative && ++pos == end) {
+            throw new NumberFormatException("Invalid number for tag " + tag);
+        }
+
+        long result = 0;
+        while (pos < end) {
+            int digit = byteAt(pos++) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid number for tag " + tag);
+            }
+            if (result < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("Value out of long range for tag " + tag);
+            }
+            result = result * 10 - digit;
+        }
+
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                throw new NumberFormatException("Value out of long range for tag " + tag);
+            }
+            result = -result;
+        }
+        return result;
+    }
+
+    /**
+     * Parses the value of a tag as a fixed-point decimal (see FixedPoint)
+     * without creating a String.
+     *
+     * @return the value scaled by 100, e.g. 15050 for "150.50"
+     * @throws IllegalArgumentException if the tag is absent
+     * @throws NumberFormatException if the value is not a plain decimal
+     */
+    public long getFixedPoint(int tag) {
+        int index = requireIndex(tag);
+        int pos = valueOffsets[index];
+        int valueLength = valueLengths[index];
+        if (array != null) {
+            return FixedPoint.parse(array, pos, valueLength);
+        }
+        if (scratch.length < valueLength) {
+            scratch = new byte[valueLength];
+        }
+        buffer.get(pos, scratch, 0, valueLength);
+        return FixedPoint.parse(scratch, 0, valueLength);
+    }
+
+    /**
+     * Reads a single-character value, such as MsgType or Side.
+     *
+     * @return the char, or -1 if the tag is absent or its value is not
+     *         exactly one byte long
+     */
+    public int getCharValue(int tag) {
+        int index = indexOf(tag);
+        if (index < 0 || valueLengths[index] != 1) {
+            return -1;
+        }
+        return byteAt(valueOffsets[index]) & 0xFF;
+    }
+
+    /**
+     * Copies the value of a tag into a char array, one char per byte.
+     *
+     * @return the number of chars copied, or -1 if the tag is absent
+     * @throws IndexOutOfBoundsException if the value does not fit in dst
+     */
+    public int getChars(int tag, char[] dst, int dstOffset) {
+        int index = indexOf(tag);
+        if (index < 0) {
+            return -1;
+        }
+        int pos = valueOffsets[index];
+        int valueLength = valueLengths[index];
+        if (dstOffset < 0 || dstOffset + valueLength > dst.length) {
+            throw new IndexOutOfBoundsException(
+                String.format("Value of tag %d (%d chars) does not fit at offset %d", tag, valueLength, dstOffset));
+        }
+        for (int i = 0; i < valueLength; i++) {
+            dst[dstOffset + i] = (char) (byteAt(pos + i) & 0xFF);
+        }
+        return valueLength;
+    }
+
+    /**
+     * Compares the value of a tag with a string, char by char, without
+     * allocating. Returns false if the tag is absent.
+     */
+    public boolean valueEquals(int tag, String expected) {
+        int index = indexOf(tag);
+        if (index < 0 || expected == null || valueLengths[index] != expected.length()) {
+            return false;
+        }
+        int pos = valueOffsets[index];
+        for (int i = 0; i < expected.length(); i++) {
+            if ((byteAt(pos + i) & 0xFF) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Looks the value of a tag up in a SymbolTable, e.g. Symbol(55),
+     * without creating a String.
+     *
+     * @return the symbol ID, or SymbolTable.NOT_FOUND if the tag is absent
+     *         or its value was never interned
+     */
+    public int getSymbolId(int tag, SymbolTable symbols) {
+        int index = indexOf(tag);
+        if (index < 0) {
+            return SymbolTable.NOT_FOUND;
+        }
+        int pos = valueOffsets[index];
+        int valueLength = valueLengths[index];
+        if (array != null) {
+            return symbols.lookup(array, pos, valueLength);
+        }
+        if (scratch.length < valueLength) {
+            scratch = new byte[valueLength];
+        }
+        buffer.get(pos, scratch, 0, valueLength);
+        return symbols.lookup(scratch, 0, valueLength);
+    }
+
+    /**
+     * Materializes the value of a tag as a String.
+     * Allocates: prefer the primitive accessors on hot paths.
+     *
+     * @return the value, or null if the tag is absent
+     */
+    public String getString(int tag) {
+        int index = indexOf(tag);
+        if (index < 0) {
+            return null;
+        }
+        int pos = valueOffsets[index];
+        int valueLength = valueLengths[index];
+        if (array != null) {
+            return new String(array, pos, valueLength, StandardCharsets.ISO_8859_1);
+        }
+        byte[] bytes = new byte[valueLength];
+        buffer.get(pos, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private int requireIndex(int tag) {
+        int index = indexOf(tag);
+        if (index < 0) {
+            throw new IllegalArgumentException("Tag " + tag + " is not present");
+        }
+        return index;
+    }
+
+    // ========== CHECKSUM ==========
+
+    /**
+     * Checksum of the message as computed during wrap(): sum of the bytes
+     * of every tag=value part except CheckSum(10), modulo 256, each
+     * repeated tag counted once as in FixMessage.
+     */
+    public int calculateChecksum() {
+        return checksumSum & 0xFF;
+    }
+
+    /**
+     * Checks the received CheckSum(10) against the computed one.
+     * The received value must be exactly three digits, as produced by
+     * FixMessage.calculateChecksum().
+     */
+    public boolean isChecksumValid() {
+        int index = indexOf(FixTags.TAG_CHECKSUM);
+        if (index < 0 || valueLengths[index] != CHECKSUM_LENGTH) {
+            return false;
+        }
+        int pos = valueOffsets[index];
+        int received = 0;
+        for (int i = 0; i < CHECKSUM_LENGTH; i++) {
+            int digit = byteAt(pos + i) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            received = received * 10 + digit;
+        }
+        return received == calculateChecksum();
+    }
+
+    @Override
+    public String toString() {
+        if (array != null) {
+            return new String(array, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        if (buffer != null) {
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+        return "";
+    }
+}
@@ -4,7 +4,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import fixme.common.config.FixConfig;
-import fixme.common.config.FixMessageType;
+import fixme.common.config.ValidationPlan;
+import fixme.common.validation.ValidationError;
+import fixme.common.validation.ValidationResult;
 
 /**
  * Factory class for creating FIX messages following the Factory design pattern.
@@ -13,7 +15,10 @@ import fixme.common.config.FixMessageType;
 public class FixMessageFactory {
     
     private static final Logger logger = LoggerFactory.getLogger(FixMessageFactory.class);
-    private static final FixConfig config = FixConfig.getInstance();
+    
+    
+    /** Order quantity argument meaning "no OrderQty(38) field". */
+    public static final int NO_QUANTITY = -1;
     
     private FixMessageFactory() {
         throw new UnsupportedOperationException("This is a factory class and cannot be instantiated");
@@ -64,6 +69,25 @@ public class FixMessageFactory {
             int orderQty,
             Double price) {
         
+        return createNewOrderSingle(senderCompId, targetCompId, symbol, side, orderQty,
+                price != null ? FixedPoint.fromDouble(price) : FixedPoint.NONE);
+    }
+    
+    /**
+     * Creates a new NewOrderSingle (Buy/Sell) message with a fixed-point price.
+     * 
+     * @param price The price as a FixedPoint value (scaled by 100),
+     *              or FixedPoint.NONE for no price
+     * @see #createNewOrderSingle(String, String, String, String, int, Double)
+     */
+    public static FixMessage createNewOrderSingle(
+            String senderCompId, 
+            String targetCompId,
+            String symbol,
+            String side,
+            int orderQty,
+            long price) {
+        
         logger.debug("Creating NewOrderSingle: sender={}, target={}, symbol={}, side={}, qty={}, price={}",
                 senderCompId, targetCompId, symbol, side, orderQty, price);
         
@@ -73,21 +97,51 @@ public class FixMessageFactory {
         message.setTargetCompId(targetCompId);
         message.setMsgType(FixTags.MSG_TYPE_NEW_ORDER);
 
+        return completeNewOrderSingle(message, symbol, side, orderQty, price);
+    }
+    
+    /**
+     * Creates a new NewOrderSingle (Buy/Sell) message from a header template,
+     * which supplies the sender, target and message type.
+     * 
+     * @param header Template created for MsgType D
+     * @param price The price as a FixedPoint value (scaled by 100),
+     *              or FixedPoint.NONE for no price
+     * @throws IllegalArgumentException if the template is for another message type
+     */
+    public static FixMessage createNewOrderSingle(
+            HeaderTemplate header,
+            String symbol,
+            String side,
+            int orderQty,
+            long price) {
+        
+        FixMessage message = fromTemplate(header, FixTags.MSG_TYPE_NEW_ORDER);
+        return completeNewOrderSingle(message, symbol, side, orderQty, price);
+    }
+    
+    private static FixMessage completeNewOrderSingle(
+            FixMessage message,
+            String symbol,
+            String side,
+            int orderQty,
+            long price) {
+        
         message.setSymbol(symbol);
-        message.setField(FixTags.SIDE, side);
-        message.setField(FixTags.ORDER_QTY, String.valueOf(orderQty));
+        message.setField(FixTags.TAG_SIDE, side);
+        message.setField(FixTags.TAG_ORDER_QTY, String.valueOf(orderQty));
         
-        if (price != null) {
-            message.setField(FixTags.PRICE, String.format("%.2f", price));
+        if (price != FixedPoint.NONE) {
+            message.setField(FixTags.TAG_PRICE, FixedPoint.toString(price));
         }
         
         // Calculate and set checksum
         String checksum = message.calculateChecksum();
-        message.setField(FixTags.CHECKSUM, checksum);
+        message.setField(FixTags.TAG_CHECKSUM, checksum);
         
         validateMessage(message);
         
-        logger.info("Created NewOrderSingle message: {}", message);
+        logger.debug("Created NewOrderSingle message: {}", message);
         return message;
     }
     
@@ -152,6 +206,29 @@ public class FixMessageFactory {
             Double price,
             String text) {
         
+        return createExecutionReport(senderCompId, targetCompId, symbol, ordStatus,
+                orderQty != null ? orderQty : NO_QUANTITY,
+                price != null ? FixedPoint.fromDouble(price) : FixedPoint.NONE,
+                text);
+    }
+    
+    /**
+     * Creates an ExecutionReport message with a fixed-point price.
+     * 
+     * @param orderQty The quantity, or a negative value for no quantity
+     * @param price The execution price as a FixedPoint value (scaled by 100),
+     *              or FixedPoint.NONE for no price
+     * @see #createExecutionReport(String, String, String, String, Integer, Double, String)
+     */
+    public static FixMessage createExecutionReport(
+            String senderCompId,
+            String targetCompId,
+            String symbol,
+            String ordStatus,
+            int orderQty,
+            long price,
+            String text) {
+        
         logger.debug("Creating ExecutionReport: sender={}, target={}, symbol={}, status={}, qty={}, price={}, text={}",
                 senderCompId, targetCompId, symbol, ordStatus, orderQty, price, text);
         
@@ -161,27 +238,92 @@ public class FixMessageFactory {
         message.setTargetCompId(targetCompId);
         message.setMsgType(FixTags.MSG_TYPE_EXECUTION_REPORT);
         
+        return completeExecutionReport(message, symbol, ordStatus, orderQty, price, text);
+    }
+    
+    /**
+     * Creates an ExecutionReport message from a header template, which
+     * supplies the sender, target and message type.
+     * 
+     * @param header Template created for MsgType 8
+     * @param orderQty The quantity, or a negative value for no quantity
+     * @param price The execution price as a FixedPoint value (scaled by 100),
+     *              or FixedPoint.NONE for no price
+     * @throws IllegalArgumentException if the template is for another message type
+     */
+    public static FixMessage createExecutionReport(
+            HeaderTemplate header,
+            String symbol,
+            String ordStatus,
+            int orderQty,
+            long price,
+            String text) {
+        
+        FixMessage message = fromTemplate(header, FixTags.MSG_TYPE_EXECUTION_REPORT);
+        return completeExecutionReport(message, symbol, ordStatus, orderQty, price, text);
+    }
+    
+    private static FixMessage completeExecutionReport(
+            FixMessage message,
+            String symbol,
+            String ordStatus,
+            int orderQty,
+            long price,
+            String text) {
+        
         message.setSymbol(symbol);
-        message.setField(FixTags.ORD_STATUS, ordStatus);
+        message.setField(FixTags.TAG_ORD_STATUS, ordStatus);
         
-        if (orderQty != null) {
-            message.setField(FixTags.ORDER_QTY, String.valueOf(orderQty));
+        if (orderQty >= 0) {
+            message.setField(FixTags.TAG_ORDER_QTY, String.valueOf(orderQty));
         }
         
-        if (price != null) {
-            message.setField(FixTags.PRICE, String.format("%.2f", price));
+        if (price != FixedPoint.NONE) {
+            message.setField(FixTags.TAG_PRICE, FixedPoint.toString(price));
         }
         
         if (text != null && !text.trim().isEmpty()) {
-            message.setField(FixTags.TEXT, text);
+            message.setField(FixTags.TAG_TEXT, text);
         }
         
         String checksum = message.calculateChecksum();
-        message.setField(FixTags.CHECKSUM, checksum);
+        message.setField(FixTags.TAG_CHECKSUM, checksum);
         
         validateMessage(message);
         
-        logger.info("Created ExecutionReport message: {}", message);
+        logger.debug("Created ExecutionReport message: {}", message);
+        return message;
+    }
+    
+    /**
+     * Pre-encodes the header fields shared by every message sent from one
+     * sender to one target with one message type. The values are validated
+     * once here instead of on every message.
+     * 
+     * @param senderCompId The sender company ID
+     * @param targetCompId The target company ID
+     * @param msgType The message type (e.g. D or 8)
+     * @return A reusable, immutable header template
+     * @throws IllegalArgumentException if a value is missing or the message type is unknown
+     */
+    public static HeaderTemplate createHeaderTemplate(String senderCompId, String targetCompId, String msgType) {
+        if (senderCompId == null || senderCompId.isEmpty() || targetCompId == null || targetCompId.isEmpty()) {
+            throw new IllegalArgumentException("Sender and target IDs are required");
+        }
+        requireValidationPlan(FixConfig.getInstance(), msgType);
+        
+        HeaderTemplate header = new HeaderTemplate(senderCompId, targetCompId, msgType);
+        logger.debug("Created {}", header);
+        return header;
+    }
+    
+    private static FixMessage fromTemplate(HeaderTemplate header, String msgType) {
+        if (!msgType.equals(header.getMsgType())) {
+            throw new IllegalArgumentException(
+                String.format("Header template is for message type %s, expected %s", header.getMsgType(), msgType));
+        }
+        FixMessage message = new FixMessage();
+        message.applyHeader(header);
         return message;
     }
     
@@ -201,7 +343,7 @@ public class FixMessageFactory {
                 symbol,
                 FixTags.ORD_STATUS_FILLED,
                 orderQty,
-                price,
+                FixedPoint.fromDouble(price),
                 null
         );
     }
@@ -220,44 +362,95 @@ public class FixMessageFactory {
                 targetCompId,
                 symbol,
                 FixTags.ORD_STATUS_REJECTED,
-                null,
-                null,
+                NO_QUANTITY,
+                FixedPoint.NONE,
                 rejectionReason
         );
     }
     
+    /**
+     * Validates a decoded message in place, without materializing its fields.
+     * Applies the same checks as fromString(): checksum first, then the
+     * required tags for the message type.
+     * 
+     * @param message The decoded message
+     * @throws IllegalArgumentException if validation fails
+     */
+    public static void validate(FixMessageDecoder message) {
+        checkProtocol(message).throwIfInvalid();
+    }
+    
+    /**
+     * Runs the checks of validate(FixMessageDecoder) without throwing.
+     * 
+     * @return the first failed check, or success if the message is valid
+     */
+    static ValidationResult checkProtocol(FixMessageDecoder message) {
+        if (!message.isChecksumValid()) {
+            logger.warn("Invalid checksum for message: {}", message);
+            return ValidationResult.fail(ValidationError.INVALID_CHECKSUM);
+        }
+        
+        if (!message.hasField(FixTags.TAG_MSG_TYPE)) {
+            return ValidationResult.fail(ValidationError.MISSING_MSG_TYPE);
+        }
+        
+        // Plans of the snapshot the required tag mask was computed with
+        FixConfig config = message.getConfig();
+        int msgTypeChar = message.getCharValue(FixTags.TAG_MSG_TYPE);
+        ValidationPlan plan = msgTypeChar >= 0
+            ? config.getValidationPlan((char) msgTypeChar)
+            : config.getValidationPlan(message.getString(FixTags.TAG_MSG_TYPE));
+        if (plan == null) {
+            return ValidationResult.fail(ValidationError.UNKNOWN_MSG_TYPE, message.getString(FixTags.TAG_MSG_TYPE));
+        }
+        
+        long present = message.getRequiredTagMask();
+        if (!plan.isSatisfiedBy(present)) {
+            return missingRequiredTag(plan.findMissingTag(present), plan);
+        }
+        
+        logger.debug("Message validation successful for type: {}", plan.getName());
+        return ValidationResult.success();
+    }
+    
     /**
      * Validates a FIX message against the configuration.
-     * Checks for required tags based on message type.
+     * Checks for required tags based on message type, using the
+     * validation plan compiled by FixConfig.
      * 
      * @param message The message to validate
      * @throws IllegalArgumentException if validation fails
      */
     private static void validateMessage(FixMessage message) {
-        String msgType = message.getMsgType();
+        // One snapshot for both the plan and the required tag mask
+        FixConfig config = FixConfig.getInstance();
+        ValidationPlan plan = requireValidationPlan(config, message.getMsgType());
         
-        if (msgType == null) {
-            throw new IllegalArgumentException("Message type (tag 35) is required");
+        long present = message.getRequiredTagMask(config);
+        if (!plan.isSatisfiedBy(present)) {
+            throw new IllegalArgumentException(
+                missingRequiredTag(plan.findMissingTag(present), plan).getErrorMessage());
         }
         
-        FixMessageType messageTypeDef = config.getMessageType(msgType);
-        
-        if (messageTypeDef == null) {
-            throw new IllegalArgumentException("Unknown message type: " + msgType);
+        logger.debug("Message validation successful for type: {}", plan.getName());
+    }
+    
+    private static ValidationPlan requireValidationPlan(FixConfig config, String msgType) {
+        if (msgType == null) {
+            throw new IllegalArgumentException(ValidationError.MISSING_MSG_TYPE.getDescription());
         }
         
-        for (String requiredTag : messageTypeDef.getRequiredTags()) {
-            if (message.getField(requiredTag) == null) {
-                String tagName = config.getTagDefinition(requiredTag) != null 
-                    ? config.getTagDefinition(requiredTag).getName() 
-                    : requiredTag;
-                throw new IllegalArgumentException(
-                    String.format("Required tag %s (%s) is missing for message type %s",
-                        requiredTag, tagName, messageTypeDef.getName())
-                );
-            }
-        }
+        ValidationPlan plan = config.getValidationPlan(msgType);
         
-        logger.debug("Message validation successful for type: {}", messageTypeDef.getName());
+        if (plan == null) {
+            throw new IllegalArgumentException(
+                ValidationResult.fail(ValidationError.UNKNOWN_MSG_TYPE, msgType).getErrorMessage());
+        }
+        return plan;
+    }
+    
+    private static ValidationResult missingRequiredTag(int requiredTag, ValidationPlan plan) {
+        return ValidationResult.fail(ValidationError.MISSING_REQUIRED_TAG, plan, requiredTag);
     }
-}
\ No newline at end of file
+}
@@ -30,6 +30,18 @@ public final class FixTags {
     public static final String ORD_STATUS_FILLED = "2";
     public static final String ORD_STATUS_REJECTED = "8";
 
+    // Numeric tag numbers (for int-keyed lookups)
+    public static final int TAG_SENDER_COMP_ID = 49;
+    public static final int TAG_TARGET_COMP_ID = 56;
+    public static final int TAG_MSG_TYPE = 35;
+    public static final int TAG_CHECKSUM = 10;
+    public static final int TAG_SYMBOL = 55;
+    public static final int TAG_SIDE = 54;
+    public static final int TAG_ORDER_QTY = 38;
+    public static final int TAG_PRICE = 44;
+    public static final int TAG_ORD_STATUS = 39;
+    public static final int TAG_TEXT = 58;
+
     private FixTags() {
         throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
     }
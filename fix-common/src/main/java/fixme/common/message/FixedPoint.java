@@ -0,0 +1,311 @@
+package fixme.common.message;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decimal values, such as prices, held as longs scaled by 100:
+ * 150.50 is stored as 15050.
+ *
+ * Scaled longs give exact arithmetic and are encoded to and decoded from
+ * ASCII digits directly, so the message path needs neither double parsing
+ * nor String.format(). Encoding always uses '.' as the decimal separator,
+ * whatever the default locale.
+ *
+ * Rounding follows String.format("%.2f"): half-up on the shortest decimal
+ * representation of a double.
+ */
+public final class FixedPoint {
+
+    public static final int SCALE = 2;
+    public static final long ONE = 100;
+
+    /**
+     * Marker for an absent value; not a valid scaled value.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final double MAX_DOUBLE = Long.MAX_VALUE / (double) ONE;
+    private static final double TIE_EPSILON = 1e-6;
+    private static final int MAX_LENGTH = 21;   // sign, 19 digits and '.'
+
+    private FixedPoint() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    // ========== CONVERSION ==========
+
+    /**
+     * Converts a double, rounded half-up to 2 decimals like "%.2f".
+     *
+     * @throws IllegalArgumentException if the value is NaN, infinite or out of range
+     */
+    public static long fromDouble(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= MAX_DOUBLE) {
+            throw new IllegalArgumentException("Value cannot be represented as fixed point: " + value);
+        }
+        double scaled = value * ONE;
+        double fraction = Math.abs(scaled - (long) scaled);
+        double epsilon = Math.max(TIE_EPSILON, 4 * Math.ulp(scaled));
+        if (Math.abs(fraction - 0.5) < epsilon) {
+            // Close to a tie: round the shortest decimal representation of
+            // the double (1.005 rounds up), as "%.2f" does
+            return BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+        return Math.round(scaled);
+    }
+
+    public static double toDouble(long value) {
+        return (double) value / ONE;
+    }
+
+    public static long fromInt(int value) {
+        return value * ONE;
+    }
+
+    /**
+     * Multiplies a scaled value by a whole quantity, e.g. price x shares.
+     *
+     * @throws ArithmeticException if the result overflows
+     */
+    public static long multiply(long value, long quantity) {
+        return Math.multiplyExact(value, quantity);
+    }
+
+    // ========== ENCODING ==========
+
+    /**
+     * Number of ASCII chars needed to encode a value.
+     */
+    public static int encodedLength(long value) {
+        checkPresent(value);
+        long magnitude = Math.abs(value);
+        int digits = 1;
+        while (magnitude >= 10) {
+            magnitude /= 10;
+            digits++;
+        }
+        return Math.max(digits, SCALE + 1) + 1 + (value < 0 ? 1 : 0);
+    }
+
+    /**
+     * Encodes a value as ASCII, e.g. "150.50", into a byte array.
+     *
+     * @return the number of bytes written
+     * @throws IndexOutOfBoundsException if the value does not fit
+     */
+    public static int encode(long value, byte[] dst, int offset) {
+        int length = encodedLength(value);
+        if (offset < 0 || offset + length > dst.length) {
+            throw new IndexOutOfBoundsException(
+                String.format("Value of %d chars does not fit at offset %d", length, offset));
+        }
+        long magnitude = Math.abs(value);
+        int pos = offset + length;
+        for (int i = 0; i < SCALE; i++) {
+            dst[--pos] = (byte) ('0' + magnitude % 10);
+            magnitude /= 10;
+        }
+        dst[--pos] = '.';
+        do {
+            dst[--pos] = (byte) ('0' + magnitude % 10);
+            magnitude /= 10;
+        } while (magnitude > 0);
+        if (value < 0) {
+            dst[--pos] = '-';
+        }
+        return length;
+    }
+
+    /**
+     * Appends a value as ASCII, e.g. "150.50".
+     */
+    public static StringBuilder appendTo(StringBuilder sb, long value) {
+        checkPresent(value);
+        if (value < 0) {
+            sb.append('-');
+        }
+        long magnitude = Math.abs(value);
+        int fraction = (int) (magnitude % ONE);
+        sb.append(magnitude / ONE).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+
+    /**
+     * Formats a value with 2 decimals, e.g. "150.50".
+     */
+    public static String toString(long value) {
+        char[] chars = new char[MAX_LENGTH];
+        int start = fill(value, chars);
+        return new String(chars, start, chars.length - start);
+    }
+
+    /**
+     * Writes a value right-aligned into a char array.
+     *
+     * @return the index of the first char written
+     */
+    private static int fill(long value, char[] chars) {
+        checkPresent(value);
+        long magnitude = Math.abs(value);
+        int pos = chars.length;
+        for (int i = 0; i < SCALE; i++) {
+            chars[--pos] = (char) ('0' + magnitude % 10);
+            magnitude /= 10;
+        }
+        chars[--pos] = '.';
+        do {
+            chars[--pos] = (char) ('0' + magnitude % 10);
+            magnitude /= 10;
+        } while (magnitude > 0);
+        if (value < 0) {
+            chars[--pos] = '-';
+        }
+        return pos;
+    }
+
+    private static void checkPresent(long value) {
+        if (value == NONE) {
+            throw new IllegalArgumentException("No value to encode");
+        }
+    }
+
+    // ========== DECODING ==========
+
+    /**
+     * Parses a plain decimal such as "150", "150.5" or "-0.25". Digits past
+     * the second decimal are rounded half-up.
+     *
+     * @throws NumberFormatException if the text is not a plain decimal or overflows
+     */
+    public static long parse(CharSequence text) {
+        if (text == null) {
+            throw new NumberFormatException("Null decimal");
+        }
+        return parse(text, 0, text.length());
+    }
+
+    public static long parse(CharSequence text, int start, int end) {
+        int pos = start;
+        boolean negative = pos < end && text.charAt(pos) == '-';
+        if (negative || (pos < end && text.charAt(pos) == '+')) {
+            pos++;
+        }
+
+        long magnitude = 0;
+        int fractionDigits = -1;   // -1 until the decimal point
+        boolean roundUp = false;
+        boolean digits = false;
+
+        for (; pos < end; pos++) {
+            char c = text.charAt(pos);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw invalid(text.subSequence(start, end));
+            }
+            digits = true;
+            if (fractionDigits < SCALE) {
+                magnitude = appendDigit(magnitude, c - '0');
+                if (magnitude < 0) {
+                    throw invalid(text.subSequence(start, end));
+                }
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (fractionDigits++ == SCALE) {
+                roundUp = c >= '5';
+            }
+        }
+        if (!digits) {
+            throw invalid(text.subSequence(start, end));
+        }
+        return scale(negative, magnitude, fractionDigits, roundUp);
+    }
+
+    /**
+     * Parses ASCII bytes, see parse(CharSequence).
+     */
+    public static long parse(byte[] src, int offset, int length) {
+        int end = offset + length;
+        int pos = offset;
+        boolean negative = pos < end && src[pos] == '-';
+        if (negative || (pos < end && src[pos] == '+')) {
+            pos++;
+        }
+
+        long magnitude = 0;
+        int fractionDigits = -1;   // -1 until the decimal point
+        boolean roundUp = false;
+        boolean digits = false;
+
+        for (; pos < end; pos++) {
+            byte b = src[pos];
+            if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (b < '0' || b > '9') {
+                throw invalid(src, offset, length);
+            }
+            digits = true;
+            if (fractionDigits < SCALE) {
+                magnitude = appendDigit(magnitude, b - '0');
+                if (magnitude < 0) {
+                    throw invalid(src, offset, length);
+                }
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (fractionDigits++ == SCALE) {
+                roundUp = b >= '5';
+            }
+        }
+        if (!digits) {
+            throw invalid(src, offset, length);
+        }
+        return scale(negative, magnitude, fractionDigits, roundUp);
+    }
+
+    /**
+     * @return magnitude * 10 + digit, or -1 on overflow
+     */
+    private static long appendDigit(long magnitude, int digit) {
+        if (magnitude > (Long.MAX_VALUE - digit) / 10) {
+            return -1;
+        }
+        return magnitude * 10 + digit;
+    }
+
+    /**
+     * Scales the digits read to 2 decimals and applies the rounding digit.
+     *
+     * @throws NumberFormatException if the result overflows
+     */
+    private static long scale(boolean negative, long magnitude, int fractionDigits, boolean roundUp) {
+        for (int i = Math.max(fractionDigits, 0); i < SCALE; i++) {
+            magnitude = appendDigit(magnitude, 0);
+        }
+        if (roundUp && magnitude >= 0) {
+            magnitude = magnitude == Long.MAX_VALUE ? -1 : magnitude + 1;
+        }
+        if (magnitude < 0) {
+            throw new NumberFormatException("Decimal out of range");
+        }
+        return negative ? -magnitude : magnitude;
+    }
+
+    private static NumberFormatException invalid(CharSequence text) {
+        return new NumberFormatException("Invalid decimal: '" + text + "'");
+    }
+
+    private static NumberFormatException invalid(byte[] src, int offset, int length) {
+        return invalid(new String(src, offset, length, StandardCharsets.ISO_8859_1));
+    }
+}
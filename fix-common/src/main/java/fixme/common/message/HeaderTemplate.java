@@ -0,0 +1,94 @@
+package fixme.common.message;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Pre-encoded header of a message: SenderCompID(49), TargetCompID(56) and
+ * MsgType(35) for a fixed sender/target/type combination.
+ *
+ * The header bytes and their checksum contribution are computed once.
+ * A message built from a template starts with these fields already set
+ * and copies the header bytes as a block when encoded, so only the body
+ * fields are encoded per message. Overwriting or removing a header field
+ * of such a message makes it fall back to field-by-field encoding.
+ *
+ * Create templates with FixMessageFactory.createHeaderTemplate() and keep
+ * one per counterparty. Immutable and thread-safe.
+ */
+public final class HeaderTemplate {
+
+    static final int FIELD_COUNT = 3;
+
+    private final String senderCompId;
+    private final String targetCompId;
+    private final String msgType;
+
+    private final byte[] bytes;
+    private final int checksumSum;
+
+    HeaderTemplate(String senderCompId, String targetCompId, String msgType) {
+        this.senderCompId = senderCompId;
+        this.targetCompId = targetCompId;
+        this.msgType = msgType;
+
+        this.checksumSum = FixMessage.fieldSum(FixTags.TAG_SENDER_COMP_ID, senderCompId)
+                         + FixMessage.fieldSum(FixTags.TAG_TARGET_COMP_ID, targetCompId)
+                         + FixMessage.fieldSum(FixTags.TAG_MSG_TYPE, msgType);
+
+        byte[] buffer = new byte[FixMessage.fieldLength(FixTags.TAG_SENDER_COMP_ID, senderCompId)
+                               + FixMessage.fieldLength(FixTags.TAG_TARGET_COMP_ID, targetCompId)
+                               + FixMessage.fieldLength(FixTags.TAG_MSG_TYPE, msgType)];
+        int pos = FixMessage.writeField(buffer, 0, FixTags.TAG_SENDER_COMP_ID, senderCompId);
+        pos = FixMessage.writeField(buffer, pos, FixTags.TAG_TARGET_COMP_ID, targetCompId);
+        FixMessage.writeField(buffer, pos, FixTags.TAG_MSG_TYPE, msgType);
+        this.bytes = buffer;
+    }
+
+    public String getSenderCompId() {
+        return senderCompId;
+    }
+
+    public String getTargetCompId() {
+        return targetCompId;
+    }
+
+    public String getMsgType() {
+        return msgType;
+    }
+
+    /**
+     * Number of encoded header bytes.
+     */
+    public int getLength() {
+        return bytes.length;
+    }
+
+    /**
+     * Sum of the encoded header bytes, as counted by the message checksum.
+     */
+    int getChecksumSum() {
+        return checksumSum;
+    }
+
+    int copyTo(byte[] dst, int offset) {
+        System.arraycopy(bytes, 0, dst, offset, bytes.length);
+        return bytes.length;
+    }
+
+    void copyTo(ByteBuffer dst) {
+        dst.put(bytes);
+    }
+
+    /**
+     * Returns the encoded header, e.g. "49=200001|56=100001|35=8|".
+     */
+    public byte[] toBytes() {
+        return Arrays.copyOf(bytes, bytes.length);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HeaderTemplate[%s → %s, type=%s]", senderCompId, targetCompId, msgType);
+    }
+}
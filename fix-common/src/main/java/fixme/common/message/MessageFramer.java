@@ -0,0 +1,205 @@
+package fixme.common.message;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cuts a stream of bytes into FIX messages, without decoding them.
+ *
+ * A message ends with its checksum trailer "10=NNN|", the checksum field
+ * being at the start of the message or right after a delimiter. When the
+ * message starts with BodyLength(9), possibly after BeginString(8), the
+ * trailer is expected right after the body and a "10=NNN|" inside the body
+ * does not end it. A line feed also ends a message, so that a line typed
+ * without a checksum is handed over, to be rejected by validation, instead
+ * of waiting forever; line feeds and carriage returns between messages are
+ * skipped.
+ *
+ * Works on a heap or direct buffer in read mode, for instance a read buffer
+ * flipped after channel.read(): nextFrame() is called until it returns -1,
+ * then the buffer is compacted so that the partial message left moves to
+ * its start.
+ * Data that reaches the maximum frame length without an end is handed over
+ * as one frame, for validation to reject.
+ * Delimiters and line feeds are searched with ByteScanner, which reads
+ * direct buffers in place.
+ *
+ * One instance per stream: it remembers how much of the partial message it
+ * has already searched. Not thread-safe.
+ */
+public final class MessageFramer {
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final int CHECKSUM_FIELD_LENGTH = 6;   // "10=NNN" before the delimiter
+    private static final int MAX_BODY_LENGTH_DIGITS = 9;
+
+    private final byte delimiter;
+    private final int maxFrameLength;
+
+    // Bytes of the partial message at the buffer position already searched
+    private int scanned;
+    private int frameOffset;
+
+    /**
+     * @param delimiter      field delimiter
+     * @param maxFrameLength length after which data without an end is handed
+     *                       over anyway, at most the buffer capacity
+     */
+    public MessageFramer(byte delimiter, int maxFrameLength) {
+        if (maxFrameLength <= CHECKSUM_FIELD_LENGTH) {
+            throw new IllegalArgumentException("maxFrameLength too small: " + maxFrameLength);
+        }
+        this.delimiter = delimiter;
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    /**
+     * Finds the next complete message in the buffer. On success the message
+     * is at index frameOffset() of the buffer and the buffer position is
+     * moved past it.
+     *
+     * @return the length of the message, or -1 if the buffer holds no
+     *         complete message; the position is then at the partial message
+     */
+    public int nextFrame(ByteBuffer buffer) {
+        int start = buffer.position();
+        int end = buffer.limit();
+
+        if (scanned == 0) {
+            while (start < end && (buffer.get(start) == LF || buffer.get(start) == CR)) {
+                start++;
+            }
+            buffer.position(start);
+        }
+        if (start == end) {
+            return -1;
+        }
+
+        int frameEnd = -1;      // exclusive end of the message
+        int next = -1;          // where the following message starts
+
+        int trailerStart = expectedTrailer(buffer, start, end);
+        if (trailerStart >= 0) {
+            int trailerEnd = trailerStart + CHECKSUM_FIELD_LENGTH;
+            if (trailerEnd < end) {
+                if (buffer.get(trailerEnd) == delimiter && isChecksumField(buffer, trailerStart, start)) {
+                    frameEnd = trailerEnd + 1;
+                    next = frameEnd;
+                }
+                // Otherwise BodyLength is wrong: fall back to the trailer search
+            } else if (trailerEnd + 1 - start <= maxFrameLength) {
+                // Wait for the whole body
+                return -1;
+            }
+        }
+
+        if (frameEnd < 0) {
+            // Only delimiters and line feeds can end a message
+            int i = start + scanned;
+            while ((i = ByteScanner.indexOfEither(buffer, i, end, delimiter, LF)) >= 0) {
+                if (buffer.get(i) == LF) {
+                    frameEnd = i > start && buffer.get(i - 1) == CR ? i - 1 : i;
+                    next = i + 1;
+                    break;
+                }
+                if (i - start >= CHECKSUM_FIELD_LENGTH && isChecksumField(buffer, i - CHECKSUM_FIELD_LENGTH, start)) {
+                    frameEnd = i + 1;
+                    next = frameEnd;
+                    break;
+                }
+                i++;
+            }
+        }
+
+        if (frameEnd < 0) {
+            if (end - start < maxFrameLength) {
+                scanned = end - start;
+                return -1;
+            }
+            frameEnd = end;
+            next = end;
+        }
+
+        scanned = 0;
+        frameOffset = start;
+        buffer.position(next);
+        return frameEnd - start;
+    }
+
+    /**
+     * Index in the buffer of the message found by the last successful
+     * nextFrame().
+     */
+    public int frameOffset() {
+        return frameOffset;
+    }
+
+    /**
+     * Forgets the partial message, when the buffer is cleared.
+     */
+    public void reset() {
+        scanned = 0;
+    }
+
+    /**
+     * Where the checksum field should start according to a leading
+     * BodyLength(9) field, or -1 if the message does not start with one
+     * or it is not complete yet.
+     */
+    private int expectedTrailer(ByteBuffer buffer, int start, int end) {
+        int pos = start;
+        if (startsWithTag(buffer, pos, end, '8')) {
+            pos = indexOf(buffer, pos + 2, end);
+            if (pos < 0) {
+                return -1;
+            }
+            pos++;
+        }
+        if (!startsWithTag(buffer, pos, end, '9')) {
+            return -1;
+        }
+
+        long bodyLength = 0;
+        int digits = 0;
+        int i = pos + 2;
+        for (; i < end && buffer.get(i) != delimiter; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9' || ++digits > MAX_BODY_LENGTH_DIGITS) {
+                return -1;
+            }
+            bodyLength = bodyLength * 10 + (b - '0');
+        }
+        if (i == end || digits == 0) {
+            return -1;
+        }
+        long trailerStart = i + 1 + bodyLength;
+        return trailerStart <= Integer.MAX_VALUE ? (int) trailerStart : -1;
+    }
+
+    private boolean startsWithTag(ByteBuffer buffer, int pos, int end, char tag) {
+        return end - pos >= 2 && buffer.get(pos) == tag && buffer.get(pos + 1) == '=';
+    }
+
+    private int indexOf(ByteBuffer buffer, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == delimiter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks for "10=NNN" at pos, starting a field of the message that
+     * starts at frameStart.
+     */
+    private boolean isChecksumField(ByteBuffer buffer, int pos, int frameStart) {
+        return buffer.get(pos) == '1' && buffer.get(pos + 1) == '0' && buffer.get(pos + 2) == '='
+            && isDigit(buffer.get(pos + 3)) && isDigit(buffer.get(pos + 4)) && isDigit(buffer.get(pos + 5))
+            && (pos == frameStart || buffer.get(pos - 1) == delimiter);
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -0,0 +1,60 @@
+package fixme.common.message;
+
+import java.nio.ByteBuffer;
+
+/**
+ * ScanKernel of the auto mode: the vector kernel for the reductions it
+ * speeds up, the scalar kernel for the searches.
+ *
+ * ScanKernelBenchmark, 100 to 400 byte slices on JDK 17 with AVX-512:
+ * - sum and isAscii: 1.3 to 8 times faster with the vector kernel, the
+ *   gap growing with the length
+ * - findAll and the framing search: 1.3 to 8 times slower, each match
+ *   costing a VectorMask.toLong(), which JDK 17 does not compile to a
+ *   single instruction
+ * Worth measuring again on newer JDKs, which compile it to one.
+ */
+final class MixedScanKernel implements ScanKernel {
+
+    private final ScanKernel vector;
+    private final ScanKernel scalar = ScalarScanKernel.INSTANCE;
+
+    MixedScanKernel(ScanKernel vector) {
+        this.vector = vector;
+    }
+
+    @Override
+    public String name() {
+        return vector.name() + "+scalar";
+    }
+
+    @Override
+    public int indexOf(byte[] src, int from, int to, byte target) {
+        return scalar.indexOf(src, from, to, target);
+    }
+
+    @Override
+    public int lastIndexOf(byte[] src, int from, int to, byte target) {
+        return scalar.lastIndexOf(src, from, to, target);
+    }
+
+    @Override
+    public int indexOfEither(ByteBuffer src, int from, int to, byte first, byte second) {
+        return scalar.indexOfEither(src, from, to, first, second);
+    }
+
+    @Override
+    public int findAll(byte[] src, int from, int to, byte first, byte second, int[] positions) {
+        return scalar.findAll(src, from, to, first, second, positions);
+    }
+
+    @Override
+    public int sum(byte[] src, int from, int to) {
+        return vector.sum(src, from, to);
+    }
+
+    @Override
+    public boolean isAscii(byte[] src, int from, int to) {
+        return vector.isAscii(src, from, to);
+    }
+}
@@ -0,0 +1,88 @@
+package fixme.common.message;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Portable ScanKernel, one byte per iteration. Used when the Vector API is
+ * not available, and for the tails the vector kernel leaves.
+ */
+final class ScalarScanKernel implements ScanKernel {
+
+    static final ScalarScanKernel INSTANCE = new ScalarScanKernel();
+
+    private ScalarScanKernel() {
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public int indexOf(byte[] src, int from, int to, byte target) {
+        for (int i = from; i < to; i++) {
+            if (src[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(byte[] src, int from, int to, byte target) {
+        for (int i = to - 1; i >= from; i--) {
+            if (src[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int indexOfEither(ByteBuffer src, int from, int to, byte first, byte second) {
+        for (int i = from; i < to; i++) {
+            byte b = src.get(i);
+            if (b == first || b == second) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int findAll(byte[] src, int from, int to, byte first, byte second, int[] positions) {
+        return findAll(src, from, to, first, second, positions, 0);
+    }
+
+    /**
+     * findAll() appending after the count positions already written.
+     */
+    int findAll(byte[] src, int from, int to, byte first, byte second, int[] positions, int count) {
+        for (int i = from; i < to; i++) {
+            byte b = src[i];
+            if (b == first || b == second) {
+                positions[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int sum(byte[] src, int from, int to) {
+        int sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += src[i] & 0xFF;
+        }
+        return sum;
+    }
+
+    @Override
+    public boolean isAscii(byte[] src, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (src[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
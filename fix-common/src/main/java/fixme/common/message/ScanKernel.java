@@ -0,0 +1,45 @@
+package fixme.common.message;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Byte loops behind ByteScanner. Every method works on the slice
+ * [from, to) of an array or buffer and must give the same result in every
+ * implementation.
+ *
+ * Implementations:
+ * - ScalarScanKernel: one byte per iteration, runs everywhere
+ * - VectorScanKernel: jdk.incubator.vector, one SIMD register per iteration
+ *
+ * Public only so that benchmarks can compare the implementations through
+ * ByteScanner.kernel(); parsing code calls the ByteScanner methods.
+ */
+public interface ScanKernel {
+
+    String name();
+
+    int indexOf(byte[] src, int from, int to, byte target);
+
+    int lastIndexOf(byte[] src, int from, int to, byte target);
+
+    /**
+     * Index of the first byte equal to first or second, read by absolute
+     * index from a heap or direct buffer, or -1.
+     */
+    int indexOfEither(ByteBuffer src, int from, int to, byte first, byte second);
+
+    /**
+     * Writes the index of every byte equal to first or second into
+     * positions, in ascending order.
+     *
+     * @return the number of indexes written
+     */
+    int findAll(byte[] src, int from, int to, byte first, byte second, int[] positions);
+
+    /**
+     * Sum of the bytes read as unsigned values.
+     */
+    int sum(byte[] src, int from, int to);
+
+    boolean isAscii(byte[] src, int from, int to);
+}
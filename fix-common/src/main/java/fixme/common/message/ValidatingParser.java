@@ -0,0 +1,264 @@
+package fixme.common.message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import fixme.common.config.FixConfig;
+import fixme.common.validation.MessageValidator;
+import fixme.common.validation.ValidationError;
+import fixme.common.validation.ValidationResult;
+
+/**
+ * Validates and decodes a raw FIX message in a single pass over its bytes.
+ *
+ * Replaces the sequence MessageValidator.validateSingleMessage(),
+ * MessageValidator.validate() and FixMessageFactory.validate(decoder), which
+ * scanned the message once per check. While walking the bytes, the parser:
+ * - counts "10=NNN|" patterns for framing (single message, nothing after it)
+ * - tracks length, double delimiters and the number of parts
+ * - checks each part: one '=', numeric non-empty tag, non-empty value within
+ *   the length limit, no duplicate tag, no dangerous characters
+ * - indexes the fields into a FixMessageDecoder and sums the checksum
+ * The checksum value and the required tags are then checked on the decoder.
+ *
+ * Errors are reported with the same messages and the same priority as the
+ * three stages it replaces: a framing error wins over a format error, which
+ * wins over a protocol error, and within the format stage the first
+ * offending part wins. A failure refers to the message bytes for its
+ * detail (a tag, trailing data) instead of copying them, so the array must
+ * not be reused before its error message has been rendered.
+ *
+ * A parser keeps scratch state and is not thread-safe; reuse one instance
+ * per processing thread or context.
+ */
+public final class ValidatingParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValidatingParser.class);
+
+    private static final int MAX_MESSAGE_LENGTH = MessageValidator.MAX_MESSAGE_LENGTH;
+    private static final int MAX_TAG_VALUE_LENGTH = MessageValidator.MAX_TAG_VALUE_LENGTH;
+    private static final int MAX_TAGS_PER_MESSAGE = MessageValidator.MAX_TAGS_PER_MESSAGE;
+    private static final int MAX_TAG_DIGITS = 9;   // same rule as FixMessageDecoder
+    private static final int CHECKSUM_FIELD_LENGTH = 6;   // "10=NNN" before the delimiter
+
+    // Characters rejected in values (injection protection): < > ' " ; \
+    private static final boolean[] DANGEROUS = new boolean[256];
+
+    static {
+        for (char c : "<>'\";\\".toCharArray()) {
+            DANGEROUS[c] = true;
+        }
+    }
+
+    private final byte delimiter;
+
+    // Tags of the parts validated so far, for duplicate detection
+    private final int[] seenTagOffsets = new int[MAX_TAGS_PER_MESSAGE];
+    private final int[] seenTagLengths = new int[MAX_TAGS_PER_MESSAGE];
+
+    public ValidatingParser() {
+        this.delimiter = (byte) FixConfig.getInstance().getDelimiter().charAt(0);
+    }
+
+    /**
+     * Validates a message and indexes it into a decoder.
+     *
+     * The decoder is indexed exactly as FixMessageDecoder.wrap() would index
+     * it, whatever the outcome; its content is only meaningful to the caller
+     * when the result is valid.
+     *
+     * @param array The raw message bytes
+     * @param offset Index of the first byte of the message
+     * @param length Number of bytes in the message
+     * @param decoder Decoder that receives the fields
+     * @return the validation result, with the stage that rejected the message
+     */
+    public ValidationResult parse(byte[] array, int offset, int length, FixMessageDecoder decoder) {
+        decoder.attach(array, offset, length);
+        if (length == 0) {
+            return ValidationResult.fail(ValidationError.EMPTY_MESSAGE);
+        }
+
+        int end = offset + length;
+        int pos = offset;
+
+        int checksumCount = 0;
+        int lastChecksumEnd = offset;
+        boolean doubleDelimiter = false;
+        int delimiterCount = 0;
+        int seenCount = 0;
+        ValidationResult partError = null;
+        int checksumSum = 0;
+
+        while (pos < end) {
+            int partStart = pos;
+            int firstEquals = -1;
+            int equalsCount = 0;
+            boolean allDigits = true;
+            boolean dangerous = false;
+            int fieldSum = 0;
+
+            // Decoder tag rules: digits only, no leading zero, at most 9 digits
+            int tag = 0;
+            int digits = 0;
+            boolean numeric = true;
+
+            byte b;
+            while (pos < end && (b = array[pos]) != delimiter) {
+                fieldSum += b & 0xFF;
+                if (b == '=') {
+                    if (equalsCount++ == 0) {
+                        firstEquals = pos;
+                    }
+                } else if (firstEquals < 0) {
+                    if (b < '0' || b > '9') {
+                        allDigits = false;
+                        numeric = false;
+                    } else if (digits < MAX_TAG_DIGITS && (digits > 0 || b != '0')) {
+                        tag = tag * 10 + (b - '0');
+                        digits++;
+                    } else {
+                        numeric = false;
+                    }
+                } else if (DANGEROUS[b & 0xFF]) {
+                    dangerous = true;
+                }
+                pos++;
+            }
+
+            if (pos < end) {
+                delimiterCount++;
+                if (pos > offset && array[pos - 1] == delimiter) {
+                    doubleDelimiter = true;
+                }
+                if (endsWithChecksum(array, offset, pos)) {
+                    checksumCount++;
+                    lastChecksumEnd = pos + 1;
+                }
+            }
+
+            if (firstEquals >= 0) {
+                boolean valid = digits > 0 && numeric;
+                if (!valid || tag != FixTags.TAG_CHECKSUM) {
+                    checksumSum += fieldSum + (delimiter & 0xFF);
+                }
+                if (valid) {
+                    checksumSum -= decoder.addField(tag, firstEquals + 1, pos - firstEquals - 1);
+                }
+            }
+
+            if (partError == null && pos > partStart && seenCount < MAX_TAGS_PER_MESSAGE) {
+                partError = checkPart(array, partStart, pos, firstEquals, equalsCount, allDigits, dangerous, seenCount);
+                if (partError == null) {
+                    seenTagOffsets[seenCount] = partStart;
+                    seenTagLengths[seenCount] = firstEquals - partStart;
+                    seenCount++;
+                }
+            }
+
+            pos++;
+        }
+
+        decoder.setChecksumSum(checksumSum);
+
+        // Framing
+        if (checksumCount == 0) {
+            return ValidationResult.fail(ValidationError.MISSING_CHECKSUM);
+        }
+        if (checksumCount > 1) {
+            return ValidationResult.fail(ValidationError.MULTIPLE_MESSAGES, checksumCount);
+        }
+        if (lastChecksumEnd < end) {
+            return ValidationResult.fail(ValidationError.DATA_AFTER_CHECKSUM, array, lastChecksumEnd, end);
+        }
+
+        // Format. A message that passed framing contains '=' and ends with
+        // the delimiter, so those checks of MessageValidator cannot fail here.
+        if (length > MAX_MESSAGE_LENGTH) {
+            logger.warn("Message too long: {} > {}", length, MAX_MESSAGE_LENGTH);
+            return ValidationResult.fail(ValidationError.MESSAGE_TOO_LONG, length, MAX_MESSAGE_LENGTH);
+        }
+        if (doubleDelimiter) {
+            return ValidationResult.fail(ValidationError.DOUBLE_DELIMITER);
+        }
+        if (delimiterCount > MAX_TAGS_PER_MESSAGE) {
+            return ValidationResult.fail(ValidationError.TOO_MANY_TAGS, delimiterCount, MAX_TAGS_PER_MESSAGE);
+        }
+        if (partError != null) {
+            return partError;
+        }
+
+        // Protocol
+        return FixMessageFactory.checkProtocol(decoder);
+    }
+
+    /**
+     * Format checks of one non-empty part, in MessageValidator's order.
+     *
+     * @return the failure, or null if the part is valid
+     */
+    private ValidationResult checkPart(byte[] array, int start, int end, int firstEquals, int equalsCount,
+                             boolean allDigits, boolean dangerous, int seenCount) {
+        if (equalsCount != 1) {
+            return ValidationResult.fail(ValidationError.INVALID_TAG_FORMAT, array, start, end);
+        }
+        if (firstEquals == start) {
+            return ValidationResult.fail(ValidationError.EMPTY_TAG);
+        }
+        if (!allDigits) {
+            return ValidationResult.fail(ValidationError.NON_NUMERIC_TAG, array, start, firstEquals);
+        }
+
+        int valueLength = end - firstEquals - 1;
+        if (valueLength == 0) {
+            return ValidationResult.fail(ValidationError.EMPTY_VALUE, array, start, firstEquals);
+        }
+        if (valueLength > MAX_TAG_VALUE_LENGTH) {
+            String tag = text(array, start, firstEquals);
+            logger.warn("Value too long for tag {}: {} > {}", tag, valueLength, MAX_TAG_VALUE_LENGTH);
+            return ValidationResult.fail(ValidationError.VALUE_TOO_LONG, tag, valueLength, MAX_TAG_VALUE_LENGTH);
+        }
+
+        for (int i = 0; i < seenCount; i++) {
+            int seenOffset = seenTagOffsets[i];
+            if (Arrays.equals(array, seenOffset, seenOffset + seenTagLengths[i], array, start, firstEquals)) {
+                return ValidationResult.fail(ValidationError.DUPLICATE_TAG, array, start, firstEquals);
+            }
+        }
+
+        if (dangerous) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("Dangerous characters in tag {}: {}",
+                            text(array, start, firstEquals), text(array, firstEquals + 1, end));
+            }
+            return ValidationResult.fail(ValidationError.DANGEROUS_CHARACTERS, array, start, firstEquals);
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the bytes just before a delimiter read "10=NNN",
+     * wherever they start: the same matches as the pattern "10=\d{3}\|".
+     */
+    private static boolean endsWithChecksum(byte[] array, int offset, int delimiterPos) {
+        int start = delimiterPos - CHECKSUM_FIELD_LENGTH;
+        return start >= offset
+            && array[start] == '1'
+            && array[start + 1] == '0'
+            && array[start + 2] == '='
+            && isDigit(array[start + 3])
+            && isDigit(array[start + 4])
+            && isDigit(array[start + 5]);
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static String text(byte[] array, int start, int end) {
+        return new String(array, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,147 @@
+package fixme.common.message;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * ScanKernel on the Vector API: compares or sums a full register of bytes
+ * per iteration (64 bytes with AVX-512, 32 with AVX2).
+ *
+ * Lane masks are handled as a long, one bit per byte, so the species must
+ * have at most 64 lanes; below 16 lanes the scalar loop is as fast.
+ * The last partial register is read past the end of the slice when the
+ * array (or the buffer, up to its limit) is long enough, with the extra
+ * lanes masked off, so a 100 to 400 byte message rarely falls back to the
+ * scalar loop.
+ *
+ * Loading this class requires the jdk.incubator.vector module
+ * (--add-modules jdk.incubator.vector).
+ */
+final class VectorScanKernel implements ScanKernel {
+
+    static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private static final VectorSpecies<Integer> INT_SPECIES =
+        VectorSpecies.of(int.class, SPECIES.vectorShape());
+    private static final int LANES = SPECIES.length();
+
+    private static final int MIN_LANES = 16;
+
+    private static final ScalarScanKernel scalar = ScalarScanKernel.INSTANCE;
+
+    /**
+     * Create only if isSupported().
+     */
+    VectorScanKernel() {
+    }
+
+    /**
+     * True if the CPU registers hold 16 to 64 bytes: fewer and the scalar
+     * loop is as fast, more and the lane masks no longer fit a long.
+     */
+    static boolean isSupported() {
+        return LANES >= MIN_LANES && LANES <= Long.SIZE;
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+
+    /**
+     * Bits of the lanes of the register at i that fall before to.
+     */
+    private static long inRange(int i, int to) {
+        int remaining = to - i;
+        return remaining >= Long.SIZE ? -1L : (1L << remaining) - 1;
+    }
+
+    @Override
+    public int indexOf(byte[] src, int from, int to, byte target) {
+        int i = from;
+        for (; i < to && i + LANES <= src.length; i += LANES) {
+            long bits = ByteVector.fromArray(SPECIES, src, i).eq(target).toLong() & inRange(i, to);
+            if (bits != 0) {
+                return i + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return i < to ? scalar.indexOf(src, i, to, target) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(byte[] src, int from, int to, byte target) {
+        int i = to - LANES;
+        for (; i >= from; i -= LANES) {
+            long bits = ByteVector.fromArray(SPECIES, src, i).eq(target).toLong();
+            if (bits != 0) {
+                return i + (Long.SIZE - 1 - Long.numberOfLeadingZeros(bits));
+            }
+        }
+        return scalar.lastIndexOf(src, from, i + LANES, target);
+    }
+
+    @Override
+    public int indexOfEither(ByteBuffer src, int from, int to, byte first, byte second) {
+        int i = from;
+        for (; i < to && i + LANES <= src.limit(); i += LANES) {
+            // Byte lanes: the order only matters for wider elements
+            ByteVector v = ByteVector.fromByteBuffer(SPECIES, src, i, ByteOrder.nativeOrder());
+            long bits = v.eq(first).or(v.eq(second)).toLong() & inRange(i, to);
+            if (bits != 0) {
+                return i + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return i < to ? scalar.indexOfEither(src, i, to, first, second) : -1;
+    }
+
+    @Override
+    public int findAll(byte[] src, int from, int to, byte first, byte second, int[] positions) {
+        int count = 0;
+        int i = from;
+        for (; i < to && i + LANES <= src.length; i += LANES) {
+            ByteVector v = ByteVector.fromArray(SPECIES, src, i);
+            long bits = v.eq(first).or(v.eq(second)).toLong() & inRange(i, to);
+            while (bits != 0) {
+                positions[count++] = i + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return i < to ? scalar.findAll(src, i, to, first, second, positions, count) : count;
+    }
+
+    @Override
+    public int sum(byte[] src, int from, int to) {
+        IntVector total = IntVector.zero(INT_SPECIES);
+        int i = from;
+        for (; i < to && i + LANES <= src.length; i += LANES) {
+            ByteVector v = ByteVector.fromArray(SPECIES, src, i);
+            if (i + LANES > to) {
+                v = ByteVector.zero(SPECIES).blend(v, SPECIES.indexInRange(i, to));
+            }
+            // Four bytes per int lane, each masked out as an unsigned value
+            // (convertShape(ZERO_EXTEND_B2I) fails on JDK 17)
+            IntVector x = v.reinterpretAsInts();
+            total = total.add(x.and(0xFF))
+                .add(x.lanewise(VectorOperators.LSHR, 8).and(0xFF))
+                .add(x.lanewise(VectorOperators.LSHR, 16).and(0xFF))
+                .add(x.lanewise(VectorOperators.LSHR, 24));
+        }
+        int sum = total.reduceLanes(VectorOperators.ADD);
+        return i < to ? sum + scalar.sum(src, i, to) : sum;
+    }
+
+    @Override
+    public boolean isAscii(byte[] src, int from, int to) {
+        ByteVector any = ByteVector.zero(SPECIES);
+        int i = from;
+        for (; i + LANES <= to; i += LANES) {
+            any = any.or(ByteVector.fromArray(SPECIES, src, i));
+        }
+        return !any.lt((byte) 0).anyTrue() && scalar.isAscii(src, i, to);
+    }
+}
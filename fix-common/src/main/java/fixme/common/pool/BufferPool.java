@@ -0,0 +1,216 @@
+package fixme.common.pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared pool of direct ByteBuffers in a few size classes, for socket I/O.
+ *
+ * Direct buffers are read and written by channels without the copy to a
+ * temporary direct buffer that heap buffers cost, but they are expensive
+ * to allocate. The pool carves them out of slabs, one large direct
+ * allocation split into buffers of one size class, and recycles them.
+ *
+ * Unlike ObjectPool, the free lists are shared: a buffer may be acquired
+ * on one thread and released on another (a frame encoded by a worker and
+ * written by a reactor). Ownership rules:
+ * - acquire() hands a cleared buffer to the caller, who owns it exclusively.
+ * - The owner calls release() exactly once, once nothing references the
+ *   buffer any more, and must not use it afterwards.
+ * Requests larger than the largest class get an unpooled direct buffer,
+ * which release() leaves to the garbage collector; heap and read-only
+ * buffers are ignored by release() too.
+ *
+ * Idle buffers beyond the limit of their class are dropped. A slab is only
+ * freed once none of its buffers is referenced.
+ *
+ * Debug mode (-Dfixme.pool.debug=true, as for ObjectPool) tracks the
+ * outstanding buffers and reports double releases.
+ */
+public final class BufferPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(BufferPool.class);
+
+    private final String name;
+    private final int[] sizeClasses;
+    private final int buffersPerSlab;
+    private final int maxIdlePerClass;
+
+    private final ConcurrentLinkedQueue<ByteBuffer>[] freeLists;
+    private final AtomicInteger[] idleCounts;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder slabs = new LongAdder();
+    private final LongAdder unpooled = new LongAdder();
+
+    private final boolean debug;
+    private final Set<ByteBuffer> outstanding;
+
+    /**
+     * @param name Name used in log messages
+     * @param sizeClasses Buffer capacities, in increasing order
+     * @param buffersPerSlab Number of buffers carved out of each slab
+     * @param maxIdlePerClass Maximum number of idle buffers kept per class
+     */
+    public BufferPool(String name, int[] sizeClasses, int buffersPerSlab, int maxIdlePerClass) {
+        this(name, sizeClasses, buffersPerSlab, maxIdlePerClass, Boolean.getBoolean(ObjectPool.DEBUG_PROPERTY));
+    }
+
+    @SuppressWarnings("unchecked")
+    public BufferPool(String name, int[] sizeClasses, int buffersPerSlab, int maxIdlePerClass, boolean debug) {
+        if (sizeClasses.length == 0 || buffersPerSlab < 1) {
+            throw new IllegalArgumentException("Pool '" + name + "' needs size classes and buffers per slab");
+        }
+        for (int i = 0; i < sizeClasses.length; i++) {
+            if (sizeClasses[i] <= 0 || (i > 0 && sizeClasses[i] <= sizeClasses[i - 1])) {
+                throw new IllegalArgumentException("Size classes must be positive and increasing: "
+                                                   + Arrays.toString(sizeClasses));
+            }
+        }
+        this.name = name;
+        this.sizeClasses = sizeClasses.clone();
+        this.buffersPerSlab = buffersPerSlab;
+        this.maxIdlePerClass = maxIdlePerClass;
+        this.freeLists = new ConcurrentLinkedQueue[sizeClasses.length];
+        this.idleCounts = new AtomicInteger[sizeClasses.length];
+        for (int i = 0; i < sizeClasses.length; i++) {
+            freeLists[i] = new ConcurrentLinkedQueue<>();
+            idleCounts[i] = new AtomicInteger();
+        }
+        this.debug = debug;
+        this.outstanding = debug ? Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>())) : null;
+
+        if (debug) {
+            logger.info("Pool '{}' running in debug mode (leak detection enabled)", name);
+        }
+    }
+
+    /**
+     * Takes an idle buffer of the smallest class holding minCapacity bytes,
+     * carving a new slab if the class has none.
+     *
+     * @return a cleared direct buffer with at least minCapacity bytes
+     */
+    public ByteBuffer acquire(int minCapacity) {
+        acquired.increment();
+        int sizeClass = classFor(minCapacity);
+        ByteBuffer buffer;
+        if (sizeClass < 0) {
+            unpooled.increment();
+            buffer = ByteBuffer.allocateDirect(minCapacity);
+        } else {
+            buffer = freeLists[sizeClass].poll();
+            if (buffer != null) {
+                idleCounts[sizeClass].decrementAndGet();
+            } else {
+                buffer = carveSlab(sizeClass);
+            }
+        }
+        if (debug) {
+            outstanding.add(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Clears a buffer and returns it to the free list of its class.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.isReadOnly()) {
+            return;
+        }
+        if (debug && !outstanding.remove(buffer)) {
+            logger.error("Pool '{}': release of a buffer that is not outstanding (double release?)",
+                        name, new IllegalStateException("Released here"));
+            return;
+        }
+        int sizeClass = Arrays.binarySearch(sizeClasses, buffer.capacity());
+        if (sizeClass < 0) {
+            return;
+        }
+        if (idleCounts[sizeClass].incrementAndGet() > maxIdlePerClass) {
+            idleCounts[sizeClass].decrementAndGet();
+            return;
+        }
+        buffer.clear();
+        freeLists[sizeClass].offer(buffer);
+    }
+
+    private int classFor(int capacity) {
+        for (int i = 0; i < sizeClasses.length; i++) {
+            if (capacity <= sizeClasses[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Allocates a slab for the class, keeps all but one of its buffers
+     * idle and returns that one.
+     */
+    private ByteBuffer carveSlab(int sizeClass) {
+        int size = sizeClasses[sizeClass];
+        ByteBuffer slab = ByteBuffer.allocateDirect(size * buffersPerSlab);
+        slabs.increment();
+        logger.debug("Pool '{}': new slab of {} x {} bytes", name, buffersPerSlab, size);
+
+        ByteBuffer first = slab.slice(0, size);
+        for (int i = 1; i < buffersPerSlab; i++) {
+            if (idleCounts[sizeClass].incrementAndGet() > maxIdlePerClass) {
+                idleCounts[sizeClass].decrementAndGet();
+                break;
+            }
+            freeLists[sizeClass].offer(slab.slice(i * size, size));
+        }
+        return first;
+    }
+
+    public long getAcquireCount() {
+        return acquired.sum();
+    }
+
+    /**
+     * Number of slabs allocated since the pool was built.
+     */
+    public long getSlabCount() {
+        return slabs.sum();
+    }
+
+    /**
+     * Number of acquisitions too large for any class, served unpooled.
+     */
+    public long getUnpooledCount() {
+        return unpooled.sum();
+    }
+
+    /**
+     * Number of idle buffers of the class holding capacity bytes.
+     */
+    public int getIdleCount(int capacity) {
+        int sizeClass = classFor(capacity);
+        return sizeClass < 0 ? 0 : idleCounts[sizeClass].get();
+    }
+
+    /**
+     * Number of buffers acquired and not yet released (debug mode only, -1 otherwise).
+     */
+    public int getOutstandingCount() {
+        return debug ? outstanding.size() : -1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BufferPool[%s: %d acquired, %d slabs, %d unpooled]",
+            name, getAcquireCount(), getSlabCount(), getUnpooledCount());
+    }
+}
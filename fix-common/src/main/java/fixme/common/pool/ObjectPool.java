@@ -0,0 +1,178 @@
+package fixme.common.pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-local pool of reusable objects.
+ *
+ * Each thread keeps its own free list, so acquire() and release() never
+ * contend. Ownership rules:
+ * - acquire() hands the object to the caller, who owns it exclusively.
+ * - The owner must call release() exactly once, on the thread that acquired
+ *   it, once nothing references the object any more.
+ * - release() resets the object; it must not be used afterwards.
+ *
+ * Debug mode (-Dfixme.pool.debug=true) tracks every outstanding object with
+ * the stack trace of its acquisition, reports double and cross-thread
+ * releases, and lists unreleased objects in logLeaks().
+ *
+ * Design Pattern: Object Pool
+ */
+public final class ObjectPool<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObjectPool.class);
+
+    public static final String DEBUG_PROPERTY = "fixme.pool.debug";
+
+    private final String name;
+    private final Supplier<T> factory;
+    private final Consumer<T> resetter;
+    private final int maxIdlePerThread;
+    private final ThreadLocal<ArrayDeque<T>> freeLists;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder acquired = new LongAdder();
+
+    private final boolean debug;
+    private final Map<T, Acquisition> outstanding;
+
+    /**
+     * @param name Name used in log messages
+     * @param factory Creates a new object when the thread's free list is empty
+     * @param resetter Clears an object's state on release
+     * @param maxIdlePerThread Maximum number of idle objects kept per thread
+     */
+    public ObjectPool(String name, Supplier<T> factory, Consumer<T> resetter, int maxIdlePerThread) {
+        this(name, factory, resetter, maxIdlePerThread, Boolean.getBoolean(DEBUG_PROPERTY));
+    }
+
+    public ObjectPool(String name, Supplier<T> factory, Consumer<T> resetter, int maxIdlePerThread, boolean debug) {
+        this.name = name;
+        this.factory = factory;
+        this.resetter = resetter;
+        this.maxIdlePerThread = maxIdlePerThread;
+        this.freeLists = ThreadLocal.withInitial(ArrayDeque::new);
+        this.debug = debug;
+        this.outstanding = debug ? Collections.synchronizedMap(new IdentityHashMap<>()) : null;
+
+        if (debug) {
+            logger.info("Pool '{}' running in debug mode (leak detection enabled)", name);
+        }
+    }
+
+    /**
+     * Takes an idle object from the current thread's free list,
+     * or creates one if the list is empty.
+     */
+    public T acquire() {
+        acquired.increment();
+        T object = freeLists.get().pollFirst();
+        if (object == null) {
+            created.increment();
+            object = factory.get();
+        }
+        if (debug) {
+            outstanding.put(object, new Acquisition(Thread.currentThread()));
+        }
+        return object;
+    }
+
+    /**
+     * Resets an object and returns it to the current thread's free list.
+     * Objects beyond the idle limit are left to the garbage collector.
+     */
+    public void release(T object) {
+        if (object == null) {
+            return;
+        }
+        if (debug && !checkRelease(object)) {
+            return;
+        }
+        resetter.accept(object);
+        ArrayDeque<T> freeList = freeLists.get();
+        if (freeList.size() < maxIdlePerThread) {
+            freeList.offerFirst(object);
+        }
+    }
+
+    private boolean checkRelease(T object) {
+        Acquisition acquisition = outstanding.remove(object);
+        if (acquisition == null) {
+            logger.error("Pool '{}': release of an object that is not outstanding (double release?)",
+                        name, new IllegalStateException("Released here"));
+            return false;
+        }
+        if (acquisition.thread != Thread.currentThread()) {
+            logger.warn("Pool '{}': object acquired on {} released on {}",
+                       name, acquisition.thread.getName(), Thread.currentThread().getName());
+        }
+        return true;
+    }
+
+    /**
+     * Number of objects created since the pool was built. Compared with
+     * getAcquireCount(), it shows how many acquisitions actually allocated.
+     */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    public long getAcquireCount() {
+        return acquired.sum();
+    }
+
+    /**
+     * Number of objects acquired and not yet released (debug mode only, -1 otherwise).
+     */
+    public int getOutstandingCount() {
+        return debug ? outstanding.size() : -1;
+    }
+
+    public boolean isDebug() {
+        return debug;
+    }
+
+    /**
+     * Logs every unreleased object with the stack trace of its acquisition.
+     * Only meaningful in debug mode.
+     *
+     * @return the number of leaked objects found
+     */
+    public int logLeaks() {
+        if (!debug) {
+            return 0;
+        }
+        synchronized (outstanding) {
+            for (Acquisition acquisition : outstanding.values()) {
+                logger.warn("Pool '{}': object acquired on {} was never released",
+                           name, acquisition.thread.getName(), acquisition.stackTrace);
+            }
+            return outstanding.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ObjectPool[%s: %d acquired, %d created]",
+            name, getAcquireCount(), getCreatedCount());
+    }
+
+    private static final class Acquisition {
+        private final Thread thread;
+        private final Throwable stackTrace;
+
+        private Acquisition(Thread thread) {
+            this.thread = thread;
+            this.stackTrace = new Throwable("Acquired here");
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package fixme.common.symbol;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Interning table that gives every instrument symbol a dense int ID:
+ * 0 for the first symbol interned, 1 for the next, and so on. Per-symbol
+ * state can then live in arrays indexed by ID instead of a map keyed by
+ * String.
+ *
+ * Lookups take the symbol as bytes straight from a message, or as any
+ * CharSequence, and never allocate. Symbols are ASCII.
+ *
+ * Thread-safety:
+ * - lookup() and getSymbol() are lock-free
+ * - intern() takes a lock only to add a symbol that is not yet present
+ * An ID, once given, never changes.
+ *
+ * Storage is an open-addressing hash table kept at most half full, so it
+ * holds tens of thousands of symbols with short probe sequences.
+ */
+public final class SymbolTable {
+
+    /** Returned by lookup() for a symbol that was never interned. */
+    public static final int NOT_FOUND = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final SymbolTable SHARED = new SymbolTable();
+
+    /**
+     * Storage for up to capacity symbols. Entries are only ever added; a
+     * full table is replaced by a copy twice its size.
+     */
+    private static final class Table {
+        // Symbol ID + 1 per hash slot, 0 for an empty slot
+        final AtomicIntegerArray slots;
+        final int mask;
+
+        // Indexed by symbol ID
+        final byte[][] keys;
+        final int[] hashes;
+        final String[] names;
+
+        Table(int capacity) {
+            this.slots = new AtomicIntegerArray(capacity * 2);
+            this.mask = capacity * 2 - 1;
+            this.keys = new byte[capacity][];
+            this.hashes = new int[capacity];
+            this.names = new String[capacity];
+        }
+
+        int capacity() {
+            return keys.length;
+        }
+    }
+
+    private volatile Table table;
+    private volatile int size;
+
+    public SymbolTable() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param expectedSymbols Number of symbols to make room for up front
+     */
+    public SymbolTable(int expectedSymbols) {
+        if (expectedSymbols < 0) {
+            throw new IllegalArgumentException("Negative expected size: " + expectedSymbols);
+        }
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < expectedSymbols) {
+            capacity <<= 1;
+        }
+        this.table = new Table(capacity);
+    }
+
+    /**
+     * Table shared by every component in the JVM, so that an ID means the
+     * same symbol everywhere.
+     */
+    public static SymbolTable getInstance() {
+        return SHARED;
+    }
+
+    /**
+     * Number of symbols interned; IDs run from 0 to size() - 1.
+     */
+    public int size() {
+        return size;
+    }
+
+    // ========== LOOKUP ==========
+
+    /**
+     * @return the ID of the symbol held in src[offset, offset + length),
+     *         or NOT_FOUND
+     */
+    public int lookup(byte[] src, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, src.length);
+        Table t = table;
+        int hash = hash(src, offset, length);
+        for (int i = hash & t.mask; ; i = (i + 1) & t.mask) {
+            int slot = t.slots.getAcquire(i);
+            if (slot == 0) {
+                return NOT_FOUND;
+            }
+            int id = slot - 1;
+            byte[] key = t.keys[id];
+            if (t.hashes[id] == hash && Arrays.equals(key, 0, key.length, src, offset, offset + length)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * @return the ID of the symbol, or NOT_FOUND (also for null)
+     */
+    public int lookup(CharSequence symbol) {
+        if (symbol == null) {
+            return NOT_FOUND;
+        }
+        Table t = table;
+        int hash = hash(symbol);
+        for (int i = hash & t.mask; ; i = (i + 1) & t.mask) {
+            int slot = t.slots.getAcquire(i);
+            if (slot == 0) {
+                return NOT_FOUND;
+            }
+            int id = slot - 1;
+            if (t.hashes[id] == hash && matches(t.keys[id], symbol)) {
+                return id;
+            }
+        }
+    }
+
+    // ========== INTERNING ==========
+
+    /**
+     * Returns the ID of the symbol held in src[offset, offset + length),
+     * giving it the next free ID if it is new.
+     *
+     * @throws IllegalArgumentException if the symbol is empty or not ASCII
+     */
+    public int intern(byte[] src, int offset, int length) {
+        int id = lookup(src, offset, length);
+        if (id != NOT_FOUND) {
+            return id;
+        }
+        return add(Arrays.copyOfRange(src, offset, offset + length));
+    }
+
+    /**
+     * Returns the ID of the symbol, giving it the next free ID if it is new.
+     *
+     * @throws IllegalArgumentException if the symbol is null, empty or not ASCII
+     */
+    public int intern(CharSequence symbol) {
+        if (symbol == null) {
+            throw new IllegalArgumentException("Symbol is null");
+        }
+        int id = lookup(symbol);
+        if (id != NOT_FOUND) {
+            return id;
+        }
+        return add(symbol.toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private synchronized int add(byte[] key) {
+        if (key.length == 0) {
+            throw new IllegalArgumentException("Symbol is empty");
+        }
+        for (byte b : key) {
+            if (b < 0) {
+                throw new IllegalArgumentException("Symbol is not ASCII: " + new String(key, StandardCharsets.ISO_8859_1));
+            }
+        }
+
+        // Another thread may have added it since the lock-free lookup
+        int existing = lookup(key, 0, key.length);
+        if (existing != NOT_FOUND) {
+            return existing;
+        }
+
+        int id = size;
+        Table t = table;
+        if (id == t.capacity()) {
+            t = grow(t);
+        }
+        int hash = hash(key, 0, key.length);
+        t.keys[id] = key;
+        t.hashes[id] = hash;
+        t.names[id] = new String(key, StandardCharsets.ISO_8859_1);
+        // Publishes the entry: readers that see the slot see the key
+        t.slots.setRelease(freeSlot(t, hash), id + 1);
+        size = id + 1;
+        return id;
+    }
+
+    private Table grow(Table old) {
+        int count = old.capacity();
+        Table t = new Table(count * 2);
+        System.arraycopy(old.keys, 0, t.keys, 0, count);
+        System.arraycopy(old.hashes, 0, t.hashes, 0, count);
+        System.arraycopy(old.names, 0, t.names, 0, count);
+        for (int id = 0; id < count; id++) {
+            t.slots.setPlain(freeSlot(t, t.hashes[id]), id + 1);
+        }
+        table = t;
+        return t;
+    }
+
+    private static int freeSlot(Table t, int hash) {
+        int i = hash & t.mask;
+        while (t.slots.getPlain(i) != 0) {
+            i = (i + 1) & t.mask;
+        }
+        return i;
+    }
+
+    // ========== REVERSE LOOKUP ==========
+
+    /**
+     * @return the symbol with this ID
+     * @throws IndexOutOfBoundsException if no symbol has this ID
+     */
+    public String getSymbol(int id) {
+        Objects.checkIndex(id, size);
+        return table.names[id];
+    }
+
+    // ========== HASHING ==========
+
+    private static int hash(byte[] src, int offset, int length) {
+        int h = 0;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + (src[i] & 0xFF);
+        }
+        return spread(h);
+    }
+
+    /**
+     * Same hash as for the bytes of an ASCII symbol.
+     */
+    private static int hash(CharSequence symbol) {
+        int h = 0;
+        for (int i = 0; i < symbol.length(); i++) {
+            h = 31 * h + symbol.charAt(i);
+        }
+        return spread(h);
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(byte[] key, CharSequence symbol) {
+        if (key.length != symbol.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != symbol.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -3,29 +3,41 @@ package fixme.common.validation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
 /**
  * Validates raw FIX messages for format correctness and security.
  * Protects against malformed messages, DOS attacks, and injection attempts.
- * 
+ *
+ * Character checks go through a 128-entry class table and digits are
+ * compared as integers: no regex and no String splitting. validate() makes
+ * one pass for the format flags and one over the tags.
+ *
  * Design Pattern: Strategy + Fail-Fast
  */
 public class MessageValidator {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(MessageValidator.class);
-    
-    // Security limits
-    private static final int MAX_MESSAGE_LENGTH = 4096;      // 4KB max per message
-    private static final int MAX_TAG_VALUE_LENGTH = 512;     // 512 bytes max per value
-    private static final int MAX_TAGS_PER_MESSAGE = 50;      // Max 50 tags
-    private static final Pattern TAG_PATTERN = Pattern.compile("^\\d+$");  // Tags must be numeric
-    
-    // Dangerous characters (for injection protection)
-    private static final Pattern DANGEROUS_CHARS = Pattern.compile("[<>'\";\\\\]");
-    private static final Pattern CHECKSUM_PATTERN = Pattern.compile("10=\\d{3}\\|");
+
+    // Security limits (shared with ValidatingParser)
+    public static final int MAX_MESSAGE_LENGTH = 4096;       // 4KB max per message
+    public static final int MAX_TAG_VALUE_LENGTH = 512;      // 512 bytes max per value
+    public static final int MAX_TAGS_PER_MESSAGE = 50;       // Max 50 tags
+
+    private static final char DELIMITER = '|';
+    private static final int CHECKSUM_FIELD_LENGTH = 6;      // "10=NNN" before the delimiter
+
+    // Character classes of ASCII; anything above 127 has none
+    private static final byte DIGIT = 1;
+    private static final byte DANGEROUS = 2;                 // injection protection: < > ' " ; \
+    private static final byte[] CHAR_CLASS = new byte[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_CLASS[c] = DIGIT;
+        }
+        for (char c : "<>'\";\\".toCharArray()) {
+            CHAR_CLASS[c] = DANGEROUS;
+        }
+    }
 
     private MessageValidator() {
         throw new UnsupportedOperationException("Utility class");
@@ -33,192 +45,240 @@ public class MessageValidator {
 
     public static ValidationResult validateSingleMessage(String rawMessage) {
         if (rawMessage == null || rawMessage.isEmpty()) {
-            return ValidationResult.fail("Message is null or empty");
+            return ValidationResult.fail(ValidationError.EMPTY_MESSAGE);
         }
-        
-        java.util.regex.Matcher matcher = CHECKSUM_PATTERN.matcher(rawMessage);
-        
+
+        // Every "10=NNN|": a match ends at a delimiter, so matches never overlap
         int checksumCount = 0;
         int lastChecksumEnd = 0;
-        
-        while (matcher.find()) {
-            checksumCount++;
-            lastChecksumEnd = matcher.end();
+
+        for (int i = CHECKSUM_FIELD_LENGTH; i < rawMessage.length(); i++) {
+            if (rawMessage.charAt(i) == DELIMITER && endsWithChecksum(rawMessage, i)) {
+                checksumCount++;
+                lastChecksumEnd = i + 1;
+            }
         }
-        logger.debug("Checksum count found: {}", checksumCount);        
+        logger.debug("Checksum count found: {}", checksumCount);
         if (checksumCount == 0) {
             logger.debug("No checksum found in message");
-            return ValidationResult.fail(
-                "Incomplete message: missing checksum (tag 10)"
-            );
+            return ValidationResult.fail(ValidationError.MISSING_CHECKSUM);
         }
-        
+
         if (checksumCount > 1) {
             logger.debug("Multiple checksums found: {}", checksumCount);
-            return ValidationResult.fail(
-                String.format("Multiple messages detected (%d messages in buffer). " +
-                             "Send one message at a time.", checksumCount)
-            );
+            return ValidationResult.fail(ValidationError.MULTIPLE_MESSAGES, checksumCount);
         }
-        
+
         if (lastChecksumEnd < rawMessage.length()) {
             String trailingData = rawMessage.substring(lastChecksumEnd);
             logger.debug("Trailing data after checksum: '{}'", trailingData);
-            return ValidationResult.fail(
-                String.format("Data after checksum: '%s'. Message must end with checksum.", 
-                             trailingData)
-            );
+            return ValidationResult.fail(ValidationError.DATA_AFTER_CHECKSUM, trailingData);
         }
-        
+
         logger.debug("Single message validation passed");
         return ValidationResult.success();
     }
 
-    
-    
+
+
     /**
      * Validates a raw FIX message before parsing.
      * Checks format, length limits, and security constraints.
-     * 
+     *
      * @param rawMessage The raw message to validate
      * @return ValidationResult with success/failure and error message
      */
     public static ValidationResult validate(String rawMessage) {
         logger.debug("Validating message: {} chars", rawMessage != null ? rawMessage.length() : 0);
-        
+
         // 1. Null/empty check
         if (rawMessage == null || rawMessage.isEmpty()) {
-            return ValidationResult.fail("Message is null or empty");
+            return ValidationResult.fail(ValidationError.EMPTY_MESSAGE);
         }
-        
+
         // 2. Length check (DOS protection)
-        if (rawMessage.length() > MAX_MESSAGE_LENGTH) {
-            logger.warn("Message too long: {} > {}", rawMessage.length(), MAX_MESSAGE_LENGTH);
-            return ValidationResult.fail(
-                String.format("Message too long: %d bytes (max: %d)", 
-                             rawMessage.length(), MAX_MESSAGE_LENGTH)
-            );
-        }
-        
-        // 3. Basic format check
-        if (!rawMessage.contains("=")) {
-            return ValidationResult.fail("Invalid format: missing '='");
-        }
-        
-        if (!rawMessage.contains("|")) {
-            return ValidationResult.fail("Invalid format: missing delimiter '|'");
-        }
-        
+        int length = rawMessage.length();
+        if (length > MAX_MESSAGE_LENGTH) {
+            logger.warn("Message too long: {} > {}", length, MAX_MESSAGE_LENGTH);
+            return ValidationResult.fail(ValidationError.MESSAGE_TOO_LONG, length, MAX_MESSAGE_LENGTH);
+        }
+
+        // 3. Basic format flags, in one pass
+        boolean hasEquals = false;
+        boolean doubleDelimiter = false;
+        int delimiterCount = 0;
+        char previous = 0;
+        for (int i = 0; i < length; i++) {
+            char c = rawMessage.charAt(i);
+            if (c == '=') {
+                hasEquals = true;
+            } else if (c == DELIMITER) {
+                delimiterCount++;
+                if (previous == DELIMITER) {
+                    doubleDelimiter = true;
+                }
+            }
+            previous = c;
+        }
+
+        if (!hasEquals) {
+            return ValidationResult.fail(ValidationError.MISSING_EQUALS);
+        }
+
+        if (delimiterCount == 0) {
+            return ValidationResult.fail(ValidationError.MISSING_DELIMITER);
+        }
+
         // 4. Check for double delimiters (||)
-        if (rawMessage.contains("||")) {
-            return ValidationResult.fail("Invalid format: double delimiter '||'");
+        if (doubleDelimiter) {
+            return ValidationResult.fail(ValidationError.DOUBLE_DELIMITER);
         }
-        
+
         // 5. Must end with delimiter
-        if (!rawMessage.endsWith("|")) {
-            return ValidationResult.fail("Invalid format: message must end with '|'");
-        }
-        
-        // 6. Parse and validate each tag
-        String[] parts = rawMessage.split("\\|");
-        
-        if (parts.length > MAX_TAGS_PER_MESSAGE) {
-            return ValidationResult.fail(
-                String.format("Too many tags: %d (max: %d)", 
-                             parts.length, MAX_TAGS_PER_MESSAGE)
-            );
-        }
-        
-        Set<String> seenTags = new HashSet<>();
-        
-        for (String part : parts) {
-            if (part.isEmpty()) {
-                continue;  // Last part after final | is empty
-            }
+        if (previous != DELIMITER) {
+            return ValidationResult.fail(ValidationError.MISSING_TRAILING_DELIMITER);
+        }
 
-            long equalsCount = part.chars().filter(ch -> ch == '=').count();
-            if (equalsCount != 1) {
-                return ValidationResult.fail(
-                    String.format("Invalid tag format: '%s' (expected exactly one '=' per tag)", part)
-                );
+        // 6. One part per delimiter: the message ends with one and has no
+        // empty part but, possibly, a leading one
+        if (delimiterCount > MAX_TAGS_PER_MESSAGE) {
+            return ValidationResult.fail(ValidationError.TOO_MANY_TAGS,
+                                         delimiterCount, MAX_TAGS_PER_MESSAGE);
+        }
+
+        // Tags seen so far, as (offset << 16 | length); both fit in 12 bits
+        int[] seenTags = new int[delimiterCount];
+        int seenCount = 0;
+
+        int partStart = 0;
+        for (int pos = 0; pos < length; pos++) {
+            if (rawMessage.charAt(pos) != DELIMITER) {
+                continue;
             }
-            
-            
+            int partEnd = pos;
+            int start = partStart;
+            partStart = pos + 1;
+            if (partEnd == start) {
+                continue;  // Leading delimiter
+            }
+
             // 7. Each part must have exactly one '='
-            String[] keyValue = part.split("=", 2);
-            if (keyValue.length != 2) {
-                return ValidationResult.fail(
-                    String.format("Invalid tag format: '%s' (expected 'tag=value')", part)
-                );
+            int equalsPos = -1;
+            int equalsCount = 0;
+            for (int i = start; i < partEnd; i++) {
+                if (rawMessage.charAt(i) == '=') {
+                    if (equalsCount++ == 0) {
+                        equalsPos = i;
+                    }
+                }
+            }
+            if (equalsCount != 1) {
+                return ValidationResult.fail(ValidationError.INVALID_TAG_FORMAT,
+                                             rawMessage.substring(start, partEnd));
             }
-            
-            String tag = keyValue[0];
-            String value = keyValue[1];
-            
+
+            int tagLength = equalsPos - start;
+            int valueStart = equalsPos + 1;
+            int valueLength = partEnd - valueStart;
+
             // 8. Tag must not be empty
-            if (tag.isEmpty()) {
-                return ValidationResult.fail("Empty tag found");
+            if (tagLength == 0) {
+                return ValidationResult.fail(ValidationError.EMPTY_TAG);
             }
-            
+
             // 9. Tag must be numeric
-            if (!TAG_PATTERN.matcher(tag).matches()) {
-                return ValidationResult.fail(
-                    String.format("Non-numeric tag: '%s' (tags must be numbers)", tag)
-                );
+            if (!allDigits(rawMessage, start, equalsPos)) {
+                return ValidationResult.fail(ValidationError.NON_NUMERIC_TAG,
+                                             rawMessage.substring(start, equalsPos));
             }
-            
+
             // 10. Value must not be empty (except for specific cases)
-            if (value.isEmpty()) {
-                return ValidationResult.fail(
-                    String.format("Empty value for tag %s", tag)
-                );
+            if (valueLength == 0) {
+                return ValidationResult.fail(ValidationError.EMPTY_VALUE,
+                                             rawMessage.substring(start, equalsPos));
             }
-            
+
             // 11. Value length check
-            if (value.length() > MAX_TAG_VALUE_LENGTH) {
-                logger.warn("Value too long for tag {}: {} > {}", 
-                           tag, value.length(), MAX_TAG_VALUE_LENGTH);
-                return ValidationResult.fail(
-                    String.format("Value too long for tag %s: %d bytes (max: %d)", 
-                                 tag, value.length(), MAX_TAG_VALUE_LENGTH)
-                );
+            if (valueLength > MAX_TAG_VALUE_LENGTH) {
+                String tag = rawMessage.substring(start, equalsPos);
+                logger.warn("Value too long for tag {}: {} > {}",
+                           tag, valueLength, MAX_TAG_VALUE_LENGTH);
+                return ValidationResult.fail(ValidationError.VALUE_TOO_LONG,
+                                             tag, valueLength, MAX_TAG_VALUE_LENGTH);
             }
-            
+
             // 12. Check for duplicate tags
-            if (seenTags.contains(tag)) {
-                return ValidationResult.fail(
-                    String.format("Duplicate tag: %s", tag)
-                );
+            for (int i = 0; i < seenCount; i++) {
+                int seenOffset = seenTags[i] >>> 16;
+                int seenLength = seenTags[i] & 0xFFFF;
+                if (seenLength == tagLength
+                        && rawMessage.regionMatches(seenOffset, rawMessage, start, tagLength)) {
+                    return ValidationResult.fail(ValidationError.DUPLICATE_TAG,
+                                                 rawMessage.substring(start, equalsPos));
+                }
             }
-            seenTags.add(tag);
-            
+            seenTags[seenCount++] = start << 16 | tagLength;
+
             // 13. Check for dangerous characters (injection protection)
-            if (DANGEROUS_CHARS.matcher(value).find()) {
-                logger.warn("Dangerous characters in tag {}: {}", tag, value);
-                return ValidationResult.fail(
-                    String.format("Invalid characters in tag %s value", tag)
-                );
+            if (hasDangerous(rawMessage, valueStart, partEnd)) {
+                String tag = rawMessage.substring(start, equalsPos);
+                logger.warn("Dangerous characters in tag {}: {}", tag, rawMessage.substring(valueStart, partEnd));
+                return ValidationResult.fail(ValidationError.DANGEROUS_CHARACTERS, tag);
             }
         }
-        
-        logger.debug("Message validation successful: {} tags", seenTags.size());
+
+        logger.debug("Message validation successful: {} tags", seenCount);
         return ValidationResult.success();
     }
-    
+
     /**
      * Quick validation for high-throughput scenarios.
      * Only checks critical security constraints.
      */
     public static boolean isValidQuick(String rawMessage) {
-        return rawMessage != null && 
+        return rawMessage != null &&
                rawMessage.length() <= MAX_MESSAGE_LENGTH &&
-               rawMessage.contains("=") &&
-               rawMessage.contains("|") &&
-               rawMessage.endsWith("|");
+               rawMessage.indexOf('=') >= 0 &&
+               rawMessage.indexOf(DELIMITER) >= 0 &&
+               rawMessage.charAt(rawMessage.length() - 1) == DELIMITER;
     }
 
-    
+    // ========== CHARACTER CLASSES ==========
+
+    private static boolean isDigit(char c) {
+        return c < 128 && CHAR_CLASS[c] == DIGIT;
+    }
+
+    private static boolean allDigits(String s, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
 
+    private static boolean hasDangerous(String s, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < 128 && CHAR_CLASS[c] == DANGEROUS) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-    
-}
\ No newline at end of file
+    /**
+     * Checks whether the chars just before a delimiter read "10=NNN",
+     * the same matches as the pattern "10=\d{3}\|".
+     */
+    private static boolean endsWithChecksum(String s, int delimiterPos) {
+        int start = delimiterPos - CHECKSUM_FIELD_LENGTH;
+        return s.charAt(start) == '1'
+            && s.charAt(start + 1) == '0'
+            && s.charAt(start + 2) == '='
+            && isDigit(s.charAt(start + 3))
+            && isDigit(s.charAt(start + 4))
+            && isDigit(s.charAt(start + 5));
+    }
+}
@@ -0,0 +1,128 @@
+package fixme.common.validation;
+
+import fixme.common.config.ValidationPlan;
+import fixme.common.validation.ValidationResult.Stage;
+
+/**
+ * Reasons a message fails validation.
+ *
+ * Each code has a fixed description, suitable for a reply to the client,
+ * and a template for the full error message. The template's arguments are
+ * kept by the ValidationResult and only rendered when getErrorMessage() is
+ * called, so rejecting a message does not format any text.
+ */
+public enum ValidationError {
+
+    // Framing
+    EMPTY_MESSAGE(Stage.FRAMING, Args.NONE, "Message is null or empty",
+        "Message is null or empty"),
+    MISSING_CHECKSUM(Stage.FRAMING, Args.NONE, "Incomplete message: missing checksum (tag 10)",
+        "Incomplete message: missing checksum (tag 10)"),
+    MULTIPLE_MESSAGES(Stage.FRAMING, Args.INT, "Multiple messages detected",
+        "Multiple messages detected (%d messages in buffer). Send one message at a time."),
+    DATA_AFTER_CHECKSUM(Stage.FRAMING, Args.TEXT, "Data after checksum",
+        "Data after checksum: '%s'. Message must end with checksum."),
+
+    // Format
+    MESSAGE_TOO_LONG(Stage.FORMAT, Args.INT_INT, "Message too long",
+        "Message too long: %d bytes (max: %d)"),
+    MISSING_EQUALS(Stage.FORMAT, Args.NONE, "Invalid format: missing '='",
+        "Invalid format: missing '='"),
+    MISSING_DELIMITER(Stage.FORMAT, Args.NONE, "Invalid format: missing delimiter '|'",
+        "Invalid format: missing delimiter '|'"),
+    DOUBLE_DELIMITER(Stage.FORMAT, Args.NONE, "Invalid format: double delimiter '||'",
+        "Invalid format: double delimiter '||'"),
+    MISSING_TRAILING_DELIMITER(Stage.FORMAT, Args.NONE, "Invalid format: message must end with '|'",
+        "Invalid format: message must end with '|'"),
+    TOO_MANY_TAGS(Stage.FORMAT, Args.INT_INT, "Too many tags",
+        "Too many tags: %d (max: %d)"),
+    INVALID_TAG_FORMAT(Stage.FORMAT, Args.TEXT, "Invalid tag format (expected exactly one '=' per tag)",
+        "Invalid tag format: '%s' (expected exactly one '=' per tag)"),
+    EMPTY_TAG(Stage.FORMAT, Args.NONE, "Empty tag found",
+        "Empty tag found"),
+    NON_NUMERIC_TAG(Stage.FORMAT, Args.TEXT, "Non-numeric tag (tags must be numbers)",
+        "Non-numeric tag: '%s' (tags must be numbers)"),
+    EMPTY_VALUE(Stage.FORMAT, Args.TEXT, "Empty tag value",
+        "Empty value for tag %s"),
+    VALUE_TOO_LONG(Stage.FORMAT, Args.TEXT_INT_INT, "Tag value too long",
+        "Value too long for tag %s: %d bytes (max: %d)"),
+    DUPLICATE_TAG(Stage.FORMAT, Args.TEXT, "Duplicate tag",
+        "Duplicate tag: %s"),
+    DANGEROUS_CHARACTERS(Stage.FORMAT, Args.TEXT, "Invalid characters in tag value",
+        "Invalid characters in tag %s value"),
+
+    // FIX protocol
+    INVALID_CHECKSUM(Stage.PROTOCOL, Args.NONE, "Invalid message checksum",
+        "Invalid message checksum"),
+    MISSING_MSG_TYPE(Stage.PROTOCOL, Args.NONE, "Message type (tag 35) is required",
+        "Message type (tag 35) is required"),
+    UNKNOWN_MSG_TYPE(Stage.PROTOCOL, Args.TEXT, "Unknown message type",
+        "Unknown message type: %s"),
+    // Arguments: the tag number and the validation plan, which names the
+    // message type and the tag as in the dictionary snapshot checked against
+    MISSING_REQUIRED_TAG(Stage.PROTOCOL, Args.REQUIRED_TAG, "Required tag is missing",
+        "Required tag %d (%s) is missing for message type %s"),
+
+    // Free-form message given to ValidationResult.fail(String)
+    OTHER(null, Args.TEXT, "Invalid message", "%s");
+
+    /**
+     * Arguments a template takes, in order.
+     */
+    enum Args {
+        NONE, TEXT, INT, INT_INT, TEXT_INT_INT, REQUIRED_TAG
+    }
+
+    private final Stage stage;
+    private final Args args;
+    private final String description;
+    private final String template;
+
+    ValidationError(Stage stage, Args args, String description, String template) {
+        this.stage = stage;
+        this.args = args;
+        this.description = description;
+        this.template = template;
+    }
+
+    /**
+     * Stage that reports this error, or null for OTHER.
+     */
+    public Stage getStage() {
+        return stage;
+    }
+
+    /**
+     * Fixed text without the per-message detail.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    Args getArgs() {
+        return args;
+    }
+
+    /**
+     * Renders the full error message from the arguments kept by a
+     * ValidationResult.
+     */
+    String render(CharSequence text, int first, int second, ValidationPlan plan) {
+        switch (args) {
+            case NONE:
+                return template;
+            case TEXT:
+                return this == OTHER ? text.toString() : String.format(template, text);
+            case INT:
+                return String.format(template, first);
+            case INT_INT:
+                return String.format(template, first, second);
+            case TEXT_INT_INT:
+                return String.format(template, text, first, second);
+            case REQUIRED_TAG:
+                return String.format(template, first, plan.getRequiredTagName(first), plan.getName());
+            default:
+                throw new IllegalStateException("Unknown arguments: " + args);
+        }
+    }
+}
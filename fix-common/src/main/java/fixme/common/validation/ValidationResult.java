@@ -1,65 +1,221 @@
 package fixme.common.validation;
 
+import fixme.common.config.ValidationPlan;
+import fixme.common.validation.ValidationError.Args;
+
+import java.nio.charset.StandardCharsets;
+
 /**
  * Result of message validation.
  * Immutable value object representing success or failure.
- * 
+ *
+ * success() is a shared instance, and so is fail() for every error code
+ * that takes no argument. A failure with arguments keeps them, copying
+ * any taken from the message bytes, and renders its message the first
+ * time getErrorMessage() is called.
+ *
  * Design Pattern: Value Object
  */
 public class ValidationResult {
-    
-    private final boolean valid;
-    private final String errorMessage;
-    
-    private ValidationResult(boolean valid, String errorMessage) {
-        this.valid = valid;
-        this.errorMessage = errorMessage;
+
+    /**
+     * Validation stage that rejected a message.
+     */
+    public enum Stage {
+        /** Framing: exactly one complete message ending with its checksum */
+        FRAMING,
+        /** Format: syntax, limits, duplicate tags and character classes */
+        FORMAT,
+        /** FIX protocol: checksum value and required tags */
+        PROTOCOL
     }
-    
+
+    private static final ValidationResult SUCCESS = new ValidationResult(null, null, null, 0, 0, null);
+
+    // Failures without arguments, indexed by ValidationError ordinal
+    private static final ValidationResult[] FAILURES = new ValidationResult[ValidationError.values().length];
+
+    static {
+        for (ValidationError error : ValidationError.values()) {
+            if (error.getArgs() == Args.NONE) {
+                FAILURES[error.ordinal()] = new ValidationResult(error, error.getStage(), null, 0, 0, null);
+            }
+        }
+    }
+
+    private final ValidationError error;
+    private final Stage stage;
+    // A String, so a StringBuilder argument cannot change afterwards
+    private final String text;
+    private final int first;
+    private final int second;
+    // Plan checked against, for MISSING_REQUIRED_TAG
+    private final ValidationPlan plan;
+
+    // Rendered on first use; racy but idempotent
+    private String errorMessage;
+
+    private ValidationResult(ValidationError error, Stage stage, CharSequence text, int first, int second,
+                             ValidationPlan plan) {
+        this.error = error;
+        this.stage = stage;
+        this.text = text != null ? text.toString() : null;
+        this.first = first;
+        this.second = second;
+        this.plan = plan;
+    }
+
     /**
-     * Create a successful validation result.
+     * The successful validation result.
      */
     public static ValidationResult success() {
-        return new ValidationResult(true, null);
+        return SUCCESS;
     }
-    
+
     /**
      * Create a failed validation result with error message.
      */
     public static ValidationResult fail(String errorMessage) {
+        return fail((Stage) null, errorMessage);
+    }
+
+    /**
+     * Create a failed validation result with error message, rejected at
+     * the given stage.
+     */
+    public static ValidationResult fail(Stage stage, String errorMessage) {
         if (errorMessage == null || errorMessage.isEmpty()) {
             throw new IllegalArgumentException("Error message cannot be null or empty");
         }
-        return new ValidationResult(false, errorMessage);
+        return new ValidationResult(ValidationError.OTHER, stage, errorMessage, 0, 0, null);
+    }
+
+    /**
+     * Failed validation result for an error code that takes no argument.
+     */
+    public static ValidationResult fail(ValidationError error) {
+        return failure(error, Args.NONE, null, 0, 0);
+    }
+
+    /**
+     * Failed validation result for an error code that takes a text
+     * argument, e.g. a tag.
+     */
+    public static ValidationResult fail(ValidationError error, CharSequence text) {
+        return failure(error, Args.TEXT, text, 0, 0);
+    }
+
+    /**
+     * Failed validation result whose text argument is a slice of the
+     * message bytes, read as ISO-8859-1. The slice is copied: the array,
+     * such as a reused receive buffer, may change before the message is
+     * rendered. Failures with a text argument are rare, so the copy only
+     * costs on bad input.
+     */
+    public static ValidationResult fail(ValidationError error, byte[] src, int start, int end) {
+        return failure(error, Args.TEXT, new String(src, start, end - start, StandardCharsets.ISO_8859_1), 0, 0);
+    }
+
+    /**
+     * Failed validation result for an error code that takes one int
+     * argument, e.g. a count.
+     */
+    public static ValidationResult fail(ValidationError error, int value) {
+        return failure(error, Args.INT, null, value, 0);
+    }
+
+    /**
+     * Failed validation result for an error code that takes two int
+     * arguments, e.g. a count and a limit.
+     */
+    public static ValidationResult fail(ValidationError error, int first, int second) {
+        return failure(error, Args.INT_INT, null, first, second);
+    }
+
+    /**
+     * Failed validation result for an error code that takes a text and two
+     * int arguments (VALUE_TOO_LONG).
+     */
+    public static ValidationResult fail(ValidationError error, CharSequence text, int first, int second) {
+        return failure(error, Args.TEXT_INT_INT, text, first, second);
+    }
+
+    /**
+     * Failed validation result for MISSING_REQUIRED_TAG. The plan belongs
+     * to the dictionary snapshot the message was checked against, so the
+     * tag keeps the name it had there even if a reload happens before the
+     * message is rendered.
+     */
+    public static ValidationResult fail(ValidationError error, ValidationPlan plan, int tag) {
+        return failure(error, Args.REQUIRED_TAG, null, tag, 0, plan);
+    }
+
+    private static ValidationResult failure(ValidationError error, Args given, CharSequence text,
+                                            int first, int second) {
+        return failure(error, given, text, first, second, null);
+    }
+
+    private static ValidationResult failure(ValidationError error, Args given, CharSequence text,
+                                            int first, int second, ValidationPlan plan) {
+        if (error.getArgs() != given) {
+            throw new IllegalArgumentException(error + " takes " + error.getArgs() + " arguments, not " + given);
+        }
+        if (given == Args.NONE) {
+            return FAILURES[error.ordinal()];
+        }
+        return new ValidationResult(error, error.getStage(), text, first, second, plan);
     }
-    
+
     /**
      * Check if validation was successful.
      */
     public boolean isValid() {
-        return valid;
+        return error == null;
     }
-    
+
+    /**
+     * Error code (null if validation succeeded).
+     */
+    public ValidationError getError() {
+        return error;
+    }
+
     /**
      * Get error message (null if validation succeeded).
      */
     public String getErrorMessage() {
-        return errorMessage;
+        if (error == null) {
+            return null;
+        }
+        String message = errorMessage;
+        if (message == null) {
+            message = error.render(text, first, second, plan);
+            errorMessage = message;
+        }
+        return message;
+    }
+
+    /**
+     * Get the stage that rejected the message (null if validation succeeded
+     * or the stage is not known).
+     */
+    public Stage getStage() {
+        return stage;
     }
-    
+
     /**
      * Throw exception if validation failed.
      * Useful for fail-fast error handling.
      */
     public void throwIfInvalid() {
-        if (!valid) {
-            throw new IllegalArgumentException(errorMessage);
+        if (error != null) {
+            throw new IllegalArgumentException(getErrorMessage());
         }
     }
-    
+
     @Override
     public String toString() {
-        return valid ? "ValidationResult[VALID]" : 
-                      "ValidationResult[INVALID: " + errorMessage + "]";
+        return error == null ? "ValidationResult[VALID]" :
+                      "ValidationResult[INVALID: " + getErrorMessage() + "]";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,339 @@
+package fixme.common.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import fixme.common.message.FixMessage;
+import fixme.common.message.FixMessageFactory;
+import fixme.common.message.FixTags;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FixClient in both transport modes, against an in-process
+ * stand-in for the router.
+ */
+class FixClientTest {
+
+    private ServerSocket server;
+    private final List<Socket> accepted = new CopyOnWriteArrayList<>();
+    private int nextId = 100001;
+
+    private static class TestClient extends FixClient {
+        private final int port;
+
+        TestClient(int port, Mode mode) {
+            super(mode);
+            this.port = port;
+        }
+
+        TestClient(int port, NioClientEngine engine) {
+            super(engine);
+            this.port = port;
+        }
+
+        @Override
+        protected int getRouterPort() {
+            return port;
+        }
+
+        @Override
+        protected String getClientType() {
+            return "Test";
+        }
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new ServerSocket(0);
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        for (Socket socket : accepted) {
+            socket.close();
+        }
+        server.close();
+    }
+
+    /**
+     * Connects a client while accepting its connection and sending it an ID.
+     */
+    private Socket connect(FixClient client) throws Exception {
+        Thread connector = new Thread(() -> {
+            try {
+                client.connect();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        connector.start();
+
+        Socket socket = server.accept();
+        socket.setSoTimeout(5000);
+        accepted.add(socket);
+        write(socket, "ID=" + nextId++ + "|\n");
+
+        connector.join(5000);
+        assertNotNull(client.getClientId(), "Client should have received its ID");
+        return socket;
+    }
+
+    private static void write(Socket socket, String data) throws IOException {
+        OutputStream output = socket.getOutputStream();
+        output.write(data.getBytes(StandardCharsets.UTF_8));
+        output.flush();
+    }
+
+    private static List<String> readLines(Socket socket, int count) throws IOException {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add(reader.readLine());
+        }
+        return lines;
+    }
+
+    private static FixMessage order(int qty) {
+        return FixMessageFactory.createNewOrderSingle("100001", "200001", "AAPL", FixTags.SIDE_BUY, qty, 15050L);
+    }
+
+    @Test
+    @DisplayName("NIO client should deliver a burst of sends in order")
+    void testNioPipelinedSends() throws Exception {
+        TestClient client = new TestClient(server.getLocalPort(), FixClient.Mode.NIO);
+        Socket socket = connect(client);
+        assertEquals("100001", client.getClientId());
+
+        int count = 1000;
+        for (int i = 1; i <= count; i++) {
+            client.sendMessage(order(i));
+        }
+        client.sendMessage("plain text");
+
+        List<String> lines = readLines(socket, count + 1);
+        for (int i = 1; i <= count; i++) {
+            assertEquals(order(i).toString(), lines.get(i - 1), "Message " + i + " should arrive intact and in order");
+        }
+        assertEquals("plain text", lines.get(count));
+        client.close();
+    }
+
+    @Test
+    @DisplayName("NIO client should call the listener for each inbound message")
+    void testNioListener() throws Exception {
+        TestClient client = new TestClient(server.getLocalPort(), FixClient.Mode.NIO);
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch disconnected = new CountDownLatch(1);
+        client.setMessageListener(new MessageListener() {
+            @Override
+            public void onMessage(String message) {
+                received.add(message);
+            }
+
+            @Override
+            public void onDisconnect() {
+                disconnected.countDown();
+            }
+        });
+
+        Socket socket = connect(client);
+        // Split across writes and with CRLF, as the router's socket may deliver it
+        write(socket, "[100001 → 200001] 49=1|");
+        write(socket, "56=2|\r\nsecond\nthird\n");
+        socket.close();
+
+        assertTrue(disconnected.await(5, TimeUnit.SECONDS), "Listener should be told of the disconnect");
+        assertEquals(List.of("[100001 → 200001] 49=1|56=2|", "second", "third"), received);
+        assertFalse(client.isConnected(), "Client should be disconnected");
+    }
+
+    @Test
+    @DisplayName("NIO client should return messages and end of stream from receiveMessage()")
+    void testNioReceive() throws Exception {
+        TestClient client = new TestClient(server.getLocalPort(), FixClient.Mode.NIO);
+        Socket socket = connect(client);
+
+        write(socket, "first\nsecond\n");
+        socket.close();
+
+        assertEquals("first", client.receiveMessage());
+        assertEquals("second", client.receiveMessage());
+        assertNull(client.receiveMessage(), "End of stream should read as null");
+        assertNull(client.receiveMessage(), "End of stream should stay null");
+        assertThrows(IOException.class, () -> client.sendMessage("late"), "Send after disconnect should fail");
+    }
+
+    @Test
+    @DisplayName("Several NIO clients should share one engine")
+    void testSharedEngine() throws Exception {
+        try (NioClientEngine engine = new NioClientEngine("test-engine")) {
+            TestClient first = new TestClient(server.getLocalPort(), engine);
+            TestClient second = new TestClient(server.getLocalPort(), engine);
+            Socket firstSocket = connect(first);
+            Socket secondSocket = connect(second);
+
+            first.sendMessage("from first");
+            second.sendMessage("from second");
+
+            assertEquals(List.of("from first"), readLines(firstSocket, 1));
+            assertEquals(List.of("from second"), readLines(secondSocket, 1));
+            assertEquals(2, engine.getSessionCount(), "Both sessions should be on one selector");
+
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Blocking client should send, receive and call a listener")
+    void testBlockingMode() throws Exception {
+        TestClient client = new TestClient(server.getLocalPort(), FixClient.Mode.BLOCKING);
+        Socket socket = connect(client);
+
+        client.sendMessage(order(5));
+        assertEquals(List.of(order(5).toString()), readLines(socket, 1));
+
+        write(socket, "hello\n");
+        assertEquals("hello", client.receiveMessage());
+
+        CountDownLatch received = new CountDownLatch(1);
+        client.setMessageListener(message -> received.countDown());
+        write(socket, "via listener\n");
+        assertTrue(received.await(5, TimeUnit.SECONDS), "Listener should receive the message");
+        client.close();
+    }
+
+    /**
+     * Waits briefly and reports whether the peer has sent anything.
+     */
+    private static boolean hasData(Socket socket) throws Exception {
+        Thread.sleep(200);
+        return socket.getInputStream().available() > 0;
+    }
+
+    @Test
+    @DisplayName("Batched sends should wait for flush() in both modes")
+    void testSendAndFlush() throws Exception {
+        for (FixClient.Mode mode : FixClient.Mode.values()) {
+            TestClient client = new TestClient(server.getLocalPort(), mode);
+            Socket socket = connect(client);
+
+            client.send(order(1));
+            client.send("batched text");
+            assertFalse(hasData(socket), mode + ": batched messages should not be sent before flush()");
+
+            client.flush();
+            assertEquals(List.of(order(1).toString(), "batched text"), readLines(socket, 2), mode + ": batch should be sent");
+
+            client.send(order(2));
+            client.sendMessage(order(3));
+            assertEquals(List.of(order(2).toString(), order(3).toString()), readLines(socket, 2),
+                mode + ": sendMessage() should also send the batch");
+            client.close();
+        }
+    }
+
+    @Test
+    @DisplayName("sendAll() should send every message")
+    void testSendAll() throws Exception {
+        for (FixClient.Mode mode : FixClient.Mode.values()) {
+            TestClient client = new TestClient(server.getLocalPort(), mode);
+            Socket socket = connect(client);
+
+            List<FixMessage> orders = new ArrayList<>();
+            for (int i = 1; i <= 500; i++) {
+                orders.add(order(i));
+            }
+            client.sendAll(orders);
+
+            List<String> lines = readLines(socket, orders.size());
+            for (int i = 0; i < orders.size(); i++) {
+                assertEquals(orders.get(i).toString(), lines.get(i), mode + ": message " + i);
+            }
+            client.close();
+        }
+    }
+
+    @Test
+    @DisplayName("A full send buffer should be sent without flush()")
+    void testSendBufferSize() throws Exception {
+        for (FixClient.Mode mode : FixClient.Mode.values()) {
+            TestClient client = new TestClient(server.getLocalPort(), mode);
+            client.setSendBufferSize(order(1).encodedLength() * 3);
+            Socket socket = connect(client);
+
+            for (int i = 1; i <= 4; i++) {
+                client.send(order(i));
+            }
+            assertEquals(List.of(order(1).toString(), order(2).toString(), order(3).toString()),
+                readLines(socket, 3), mode + ": the messages that filled the buffer should be sent");
+            client.close();
+        }
+        assertThrows(IllegalArgumentException.class,
+            () -> new TestClient(server.getLocalPort(), FixClient.Mode.NIO).setSendBufferSize(0));
+    }
+
+    @Test
+    @DisplayName("Max send latency should flush batched messages on its own")
+    void testMaxSendLatency() throws Exception {
+        for (FixClient.Mode mode : FixClient.Mode.values()) {
+            TestClient client = new TestClient(server.getLocalPort(), mode);
+            client.setMaxSendLatency(20);
+            Socket socket = connect(client);
+
+            client.send(order(7));
+            assertEquals(List.of(order(7).toString()), readLines(socket, 1),
+                mode + ": batch should be sent after the max latency");
+            client.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should report input already received")
+    void testHasPendingInput() throws Exception {
+        TestClient client = new TestClient(server.getLocalPort(), FixClient.Mode.NIO);
+        Socket socket = connect(client);
+
+        assertFalse(client.hasPendingInput(), "Nothing should be pending after the ID");
+        write(socket, "one\n");
+        Thread.sleep(200);
+        assertTrue(client.hasPendingInput(), "Received message should be pending");
+        assertEquals("one", client.receiveMessage());
+        assertFalse(client.hasPendingInput());
+        client.close();
+    }
+
+    @Test
+    @DisplayName("Should read the mode from the system property")
+    void testDefaultMode() {
+        String previous = System.getProperty(FixClient.MODE_PROPERTY);
+        try {
+            System.clearProperty(FixClient.MODE_PROPERTY);
+            assertEquals(FixClient.Mode.BLOCKING, FixClient.defaultMode());
+            System.setProperty(FixClient.MODE_PROPERTY, "nio");
+            assertEquals(FixClient.Mode.NIO, FixClient.defaultMode());
+            System.setProperty(FixClient.MODE_PROPERTY, "carrier-pigeon");
+            assertThrows(IllegalArgumentException.class, FixClient::defaultMode);
+        } finally {
+            if (previous == null) {
+                System.clearProperty(FixClient.MODE_PROPERTY);
+            } else {
+                System.setProperty(FixClient.MODE_PROPERTY, previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package fixme.common.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the dictionary compiled at build time
+ */
+class DictionaryCodecTest {
+
+    @TempDir
+    Path dir;
+
+    private Path bundledJson() throws IOException {
+        Path json = dir.resolve("fix-tags.json");
+        try (InputStream in = FixConfig.class.getClassLoader().getResourceAsStream("fix-tags.json")) {
+            Files.write(json, in.readAllBytes());
+        }
+        return json;
+    }
+
+    @Test
+    @DisplayName("Compiled dictionary should read back as the JSON one")
+    void testRoundTrip() throws IOException {
+        Path json = bundledJson();
+        Path compiled = dir.resolve("fix-tags.bin");
+        DictionaryCompiler.compile(json, compiled);
+
+        FixConfig expected = FixConfig.load(json);
+        FixConfig actual = DictionaryCodec.read(Files.readAllBytes(compiled),
+                                                DictionaryCodec.checksum(Files.readAllBytes(json)));
+
+        assertNotNull(actual);
+        assertEquals(expected.getProtocol(), actual.getProtocol());
+        assertEquals(expected.getDelimiter(), actual.getDelimiter());
+        assertEquals(expected.getTagNamesToNumbers(), actual.getTagNamesToNumbers());
+        assertEquals(expected.getAllTagDefinitions().keySet(), actual.getAllTagDefinitions().keySet());
+        for (FixTagDefinition def : expected.getAllTagDefinitions().values()) {
+            FixTagDefinition read = actual.getTagDefinition(def.getTag());
+            assertEquals(def.toString(), read.toString());
+            assertEquals(def.getValidValues(), read.getValidValues());
+        }
+        for (String msgType : expected.getAllMessageTypes().keySet()) {
+            assertEquals(expected.getMessageType(msgType).getRequiredTags(),
+                         actual.getMessageType(msgType).getRequiredTags());
+            assertEquals(expected.getValidationPlan(msgType).toString(),
+                         actual.getValidationPlan(msgType).toString());
+        }
+        assertTrue(actual.isValidValue(54, '1'));
+        assertFalse(actual.isValidValue(54, '9'));
+    }
+
+    @Test
+    @DisplayName("Stale or truncated compiled dictionaries should not be used")
+    void testStaleChecksum() throws IOException {
+        Path json = bundledJson();
+        Path compiled = dir.resolve("fix-tags.bin");
+        DictionaryCompiler.compile(json, compiled);
+
+        long checksum = DictionaryCodec.checksum(Files.readAllBytes(json));
+        assertNull(DictionaryCodec.read(Files.readAllBytes(compiled), checksum + 1));
+
+        byte[] truncated = Arrays.copyOf(Files.readAllBytes(compiled), 40);
+        assertThrows(IOException.class, () -> DictionaryCodec.read(truncated, checksum));
+    }
+
+    @Test
+    @DisplayName("The bundled dictionary should come from its compiled form when the build produced it")
+    void testBundledSource() {
+        boolean compiledOnClasspath = FixConfig.class.getClassLoader().getResource(DictionaryCodec.RESOURCE) != null;
+        String expectedSource = compiledOnClasspath ? DictionaryCodec.RESOURCE : "fix-tags.json";
+
+        // Only meaningful for the bundled snapshot, not one installed by another test
+        FixConfig config = FixConfig.getInstance();
+        if (config.getSource().startsWith("fix-tags.")) {
+            assertEquals(expectedSource, config.getSource());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package fixme.common.config;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import fixme.common.message.FixMessageDecoder;
+import fixme.common.message.FixMessageFactory;
+import fixme.common.validation.ValidationError;
+import fixme.common.validation.ValidationResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for dictionary snapshots and hot reload
+ */
+class FixConfigReloadTest {
+
+    private static final Gson GSON = new Gson();
+
+    private final FixConfig original = FixConfig.getInstance();
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void restoreBundledDictionary() {
+        FixConfig.install(original);
+    }
+
+    private static JsonObject bundledDictionary() throws IOException {
+        try (InputStream in = FixConfig.class.getClassLoader().getResourceAsStream("fix-tags.json")) {
+            return GSON.fromJson(new InputStreamReader(in, StandardCharsets.UTF_8), JsonObject.class);
+        }
+    }
+
+    private static JsonObject withOrderCancelRequest(JsonObject dictionary) {
+        JsonObject type = new JsonObject();
+        type.addProperty("name", "OrderCancelRequest");
+        JsonArray required = new JsonArray();
+        for (String tag : new String[] {"49", "56", "35", "41", "10"}) {
+            required.add(tag);
+        }
+        type.add("requiredTags", required);
+        dictionary.getAsJsonObject("messageTypes").add("F", type);
+        return dictionary;
+    }
+
+    private Path write(String name, JsonObject dictionary) throws IOException {
+        Path file = dir.resolve(name);
+        Files.writeString(file, GSON.toJson(dictionary), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static byte[] withChecksum(String body) {
+        int sum = 0;
+        for (byte b : body.getBytes(StandardCharsets.ISO_8859_1)) {
+            sum += b & 0xFF;
+        }
+        return String.format("%s10=%03d|", body, sum % 256).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static void await(BooleanSupplier condition, String description) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for " + description);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    @DisplayName("Reload should install a new snapshot and leave the old one unchanged")
+    void testReload() throws IOException {
+        Path file = write("dictionary.json", withOrderCancelRequest(bundledDictionary()));
+
+        FixConfig reloaded = FixConfig.reload(file);
+
+        assertSame(reloaded, FixConfig.getInstance());
+        assertNotNull(reloaded.getValidationPlan('F'));
+        assertEquals(file.toString(), reloaded.getSource());
+        assertNull(original.getValidationPlan('F'), "Previous snapshot should not change");
+    }
+
+    @Test
+    @DisplayName("A message should be checked against the snapshot it was decoded with")
+    void testInFlightMessageKeepsSnapshot() throws IOException {
+        byte[] order = withChecksum("49=100001|56=200001|35=D|55=AAPL|54=1|38=10|");
+        FixMessageDecoder decoder = new FixMessageDecoder().wrap(order, 0, order.length);
+
+        // The new dictionary also requires Price(44) on orders
+        JsonObject dictionary = bundledDictionary();
+        dictionary.getAsJsonObject("messageTypes").getAsJsonObject("D")
+                  .getAsJsonArray("requiredTags").add("44");
+        FixConfig.reload(write("dictionary.json", dictionary));
+
+        assertDoesNotThrow(() -> FixMessageFactory.validate(decoder));
+
+        decoder.wrap(order, 0, order.length);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                                                  () -> FixMessageFactory.validate(decoder));
+        assertTrue(e.getMessage().contains("Required tag 44"), e.getMessage());
+    }
+
+    @Test
+    @DisplayName("A snapshot should not change with the maps it was built from")
+    void testSnapshotCopiesMaps() {
+        Map<String, FixTagDefinition> tags = new LinkedHashMap<>(original.getAllTagDefinitions());
+        Map<String, String> names = new LinkedHashMap<>(original.getTagNamesToNumbers());
+        Map<String, FixMessageType> types = new LinkedHashMap<>(original.getAllMessageTypes());
+        FixConfig config = new FixConfig("test", original.getProtocol(), original.getVersion(),
+                                         original.getDescription(), original.getDelimiter(), tags, names, types);
+
+        tags.remove("55");
+        names.remove("Symbol");
+        types.remove("D");
+
+        assertNotNull(config.getTagDefinition("55"));
+        assertEquals("55", config.getTagNumber("Symbol"));
+        assertNotNull(config.getMessageType("D"));
+        assertEquals(original.getAllTagDefinitions().keySet().stream().toList(),
+                     config.getAllTagDefinitions().keySet().stream().toList(), "Order should be kept");
+        assertThrows(UnsupportedOperationException.class, () -> config.getAllTagDefinitions().remove("55"));
+        assertThrows(UnsupportedOperationException.class, () -> config.getAllMessageTypes().clear());
+    }
+
+    @Test
+    @DisplayName("A rejection rendered after a reload should name the tag as its snapshot did")
+    void testRejectionKeepsSnapshotTagName() throws IOException {
+        ValidationPlan plan = FixConfig.getInstance().getValidationPlan('D');
+        ValidationResult result = ValidationResult.fail(ValidationError.MISSING_REQUIRED_TAG, plan, 55);
+
+        JsonObject dictionary = bundledDictionary();
+        for (var tag : dictionary.getAsJsonObject("tags").getAsJsonArray("order")) {
+            if (tag.getAsJsonObject().get("tag").getAsString().equals("55")) {
+                tag.getAsJsonObject().addProperty("name", "Instrument");
+            }
+        }
+        FixConfig.reload(write("dictionary.json", dictionary));
+
+        assertEquals("Instrument", FixConfig.getInstance().getValidationPlan('D').getRequiredTagName(55));
+        assertEquals("Required tag 55 (Symbol) is missing for message type NewOrderSingle",
+                     result.getErrorMessage());
+    }
+
+    @Test
+    @DisplayName("Invalid dictionaries should be rejected and keep the current snapshot")
+    void testInvalidDictionary() throws IOException {
+        JsonObject otherDelimiter = bundledDictionary();
+        otherDelimiter.addProperty("delimiter", "\u0001");
+        Path delimiterFile = write("delimiter.json", otherDelimiter);
+        Path brokenFile = dir.resolve("broken.json");
+        Files.writeString(brokenFile, "{ \"protocol\": ", StandardCharsets.UTF_8);
+
+        assertThrows(IllegalArgumentException.class, () -> FixConfig.reload(delimiterFile));
+        assertThrows(RuntimeException.class, () -> FixConfig.reload(brokenFile));
+        assertSame(original, FixConfig.getInstance());
+    }
+
+    @Test
+    @DisplayName("Watcher should reload the file when it changes and skip broken versions")
+    void testWatcher() throws Exception {
+        Path file = write("dictionary.json", bundledDictionary());
+
+        try (FixDictionaryWatcher watcher = new FixDictionaryWatcher(file)) {
+            assertEquals(file.toAbsolutePath().normalize().toString(), FixConfig.getInstance().getSource());
+            assertNull(FixConfig.getInstance().getValidationPlan('F'));
+
+            Files.writeString(file, "not json", StandardCharsets.UTF_8);
+            Thread.sleep(200);
+            assertNull(FixConfig.getInstance().getValidationPlan('F'), "Broken file should be ignored");
+
+            write("dictionary.json", withOrderCancelRequest(bundledDictionary()));
+            await(() -> FixConfig.getInstance().getValidationPlan('F') != null, "dictionary reload");
+            assertTrue(watcher.getReloadCount() >= 1);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package fixme.common.config;
+
+import fixme.common.message.FixTags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the validation plans compiled by FixConfig
+ */
+class ValidationPlanTest {
+
+    private final FixConfig config = FixConfig.getInstance();
+
+    private long maskOf(int... tags) {
+        long mask = 0L;
+        for (int tag : tags) {
+            mask |= config.getRequiredTagBit(tag);
+        }
+        return mask;
+    }
+
+    @Test
+    @DisplayName("A plan should be compiled for every message type")
+    void testPlansCompiled() {
+        ValidationPlan order = config.getValidationPlan(FixTags.MSG_TYPE_NEW_ORDER);
+        ValidationPlan report = config.getValidationPlan('8');
+
+        assertNotNull(order, "NewOrderSingle plan should exist");
+        assertNotNull(report, "ExecutionReport plan should exist");
+        assertEquals("NewOrderSingle", order.getName());
+        assertSame(report, config.getValidationPlan(FixTags.MSG_TYPE_EXECUTION_REPORT), "Char and String lookups should agree");
+        assertNull(config.getValidationPlan("Z"), "Unknown type should have no plan");
+        assertNull(config.getValidationPlan("DD"), "Unknown type should have no plan");
+    }
+
+    @Test
+    @DisplayName("Required tags should each own a distinct bit")
+    void testRequiredTagBits() {
+        int[] required = { 49, 56, 35, 55, 54, 38, 10, 39 };
+        long seen = 0L;
+        for (int tag : required) {
+            long bit = config.getRequiredTagBit(tag);
+            assertEquals(1, Long.bitCount(bit), "Tag " + tag + " should own one bit");
+            assertEquals(0L, seen & bit, "Bits should be distinct");
+            seen |= bit;
+        }
+        assertEquals(0L, config.getRequiredTagBit(44), "Optional tag should have no bit");
+        assertEquals(0L, config.getRequiredTagBit(9999), "Unknown tag should have no bit");
+    }
+
+    @Test
+    @DisplayName("Plan should report the first missing tag in configuration order")
+    void testMissingTag() {
+        ValidationPlan order = config.getValidationPlan(FixTags.MSG_TYPE_NEW_ORDER);
+
+        long complete = maskOf(49, 56, 35, 55, 54, 38, 10);
+        assertTrue(order.isSatisfiedBy(complete), "All required tags present");
+        assertEquals(-1, order.findMissingTag(complete), "Nothing should be missing");
+
+        long partial = maskOf(49, 56, 35, 10);
+        assertFalse(order.isSatisfiedBy(partial), "Symbol, Side and OrderQty are missing");
+        assertEquals(55, order.findMissingTag(partial), "Symbol comes first in configuration order");
+
+        assertTrue(order.isSatisfiedBy(complete | maskOf(39)), "Extra tags should not matter");
+    }
+
+    @Test
+    @DisplayName("Enumerated values should be checked through the compiled tables")
+    void testValidValues() {
+        assertTrue(config.isValidValue(FixTags.TAG_SIDE, "1"));
+        assertTrue(config.isValidValue(FixTags.TAG_SIDE, '2'));
+        assertFalse(config.isValidValue(FixTags.TAG_SIDE, "3"));
+        assertFalse(config.isValidValue(FixTags.TAG_SIDE, "12"), "Multi-char value is not a valid Side");
+        assertFalse(config.isValidValue(FixTags.TAG_SIDE, (String) null));
+        assertFalse(config.isValidValue(FixTags.TAG_MSG_TYPE, 'é'), "Non-ASCII char should be rejected");
+        assertTrue(config.isValidValue(FixTags.TAG_SYMBOL, "ANYTHING"), "Tag without valid values accepts any value");
+        assertFalse(config.isValidValue(9999, "x"), "Unknown tag should be rejected");
+    }
+}
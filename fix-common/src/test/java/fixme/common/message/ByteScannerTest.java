@@ -0,0 +1,182 @@
+package fixme.common.message;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for ByteScanner: the vector kernel against the scalar one, and
+ * the scanner-based indexing against the byte-by-byte loops it replaces.
+ */
+class ByteScannerTest {
+
+    private static final byte[] ALPHABET = bytes("==||0123456789ABCxyzéÿ");
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return data;
+    }
+
+    @Test
+    @DisplayName("Vector kernel should match the scalar kernel on any slice")
+    void testVectorMatchesScalar() {
+        ScanKernel vector = ByteScanner.loadVectorKernel();
+        assumeTrue(vector != null, "Vector API not available");
+        assertTrue(VectorScanKernel.isSupported());
+        ScanKernel scalar = ScalarScanKernel.INSTANCE;
+
+        Random random = new Random(13);
+        for (int round = 0; round < 5000; round++) {
+            byte[] data = randomBytes(random, random.nextInt(300));
+            int from = data.length == 0 ? 0 : random.nextInt(data.length + 1);
+            int to = from + random.nextInt(data.length - from + 1);
+            String slice = "[" + from + ", " + to + ") of " + data.length;
+
+            assertEquals(scalar.indexOf(data, from, to, (byte) '|'), vector.indexOf(data, from, to, (byte) '|'),
+                "indexOf " + slice);
+            assertEquals(scalar.lastIndexOf(data, from, to, (byte) '|'), vector.lastIndexOf(data, from, to, (byte) '|'),
+                "lastIndexOf " + slice);
+            assertEquals(scalar.sum(data, from, to), vector.sum(data, from, to), "sum " + slice);
+
+            // Limited at the end of the data, as a flipped read buffer
+            ByteBuffer direct = ByteBuffer.allocateDirect(data.length + 64).put(data).flip();
+            ByteBuffer heap = ByteBuffer.wrap(data);
+            int either = scalar.indexOfEither(heap, from, to, (byte) '|', (byte) 'x');
+            assertEquals(either, vector.indexOfEither(heap, from, to, (byte) '|', (byte) 'x'), "indexOfEither heap " + slice);
+            assertEquals(either, vector.indexOfEither(direct, from, to, (byte) '|', (byte) 'x'),
+                "indexOfEither direct " + slice);
+            assertEquals(scalar.isAscii(data, from, to), vector.isAscii(data, from, to), "isAscii " + slice);
+
+            int[] expected = new int[to - from];
+            int[] actual = new int[to - from];
+            int count = scalar.findAll(data, from, to, (byte) '=', (byte) '|', expected);
+            assertEquals(count, vector.findAll(data, from, to, (byte) '=', (byte) '|', actual), "findAll " + slice);
+            for (int i = 0; i < count; i++) {
+                assertEquals(expected[i], actual[i], "findAll position " + i + " of " + slice);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Auto mode should vectorize the reductions only")
+    void testMixedKernel() {
+        ScanKernel vector = ByteScanner.loadVectorKernel();
+        assumeTrue(vector != null, "Vector API not available");
+        ScanKernel mixed = new MixedScanKernel(vector);
+
+        byte[] data = bytes("8=FIX.4.2|35=D|58=café|10=123|");
+        assertEquals(vector.name() + "+scalar", mixed.name());
+        assertEquals(ScalarScanKernel.INSTANCE.sum(data, 0, data.length), mixed.sum(data, 0, data.length));
+        assertFalse(mixed.isAscii(data, 0, data.length));
+        assertEquals(9, mixed.indexOf(data, 0, data.length, (byte) '|'));
+        assertEquals(data.length - 1, mixed.lastIndexOf(data, 0, data.length, (byte) '|'));
+    }
+
+    @Test
+    @DisplayName("Should find bytes and sum them")
+    void testScanner() {
+        byte[] data = bytes("8=FIX.4.2|35=D|10=123|");
+
+        assertEquals(9, ByteScanner.indexOf(data, 0, data.length, (byte) '|'));
+        assertEquals(-1, ByteScanner.indexOf(data, 0, 9, (byte) '|'), "Match outside the slice should be ignored");
+        assertEquals(data.length - 1, ByteScanner.lastIndexOf(data, 0, data.length, (byte) '|'));
+        assertEquals(14, ByteScanner.lastIndexOf(data, 0, 15, (byte) '|'));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length).put(data).flip();
+        assertEquals(9, ByteScanner.indexOfEither(direct, 0, data.length, (byte) '|', (byte) '\n'));
+        assertEquals(12, ByteScanner.indexOfEither(direct, 10, data.length, (byte) '\n', (byte) '='));
+        assertEquals(-1, ByteScanner.indexOfEither(direct, 15, 17, (byte) '|', (byte) '\n'));
+        assertEquals(0, direct.position(), "Position should not move");
+
+        int[] positions = new int[data.length];
+        assertEquals(6, ByteScanner.findAll(data, 0, data.length, (byte) '=', (byte) '|', positions));
+        assertArrayEquals(new int[] {1, 9, 12, 14, 17, 21}, Arrays.copyOf(positions, 6));
+
+        int expected = 0;
+        for (byte b : data) {
+            expected += b;
+        }
+        assertEquals(expected, ByteScanner.sum(data, 0, data.length));
+        assertEquals(0xFF, ByteScanner.sum(new byte[] {(byte) 0xFF}, 0, 1), "Bytes should be summed unsigned");
+        assertTrue(ByteScanner.isAscii(data, 0, data.length));
+        assertFalse(ByteScanner.isAscii(bytes("49=café|"), 0, 8));
+        assertNotNull(ByteScanner.getImplementation());
+    }
+
+    /**
+     * A message made of fields, malformed parts, repeated tags and
+     * checksum fields, with or without a trailing delimiter.
+     */
+    private static String randomMessage(Random random) {
+        StringBuilder raw = new StringBuilder();
+        int parts = 1 + random.nextInt(30);
+        for (int i = 0; i < parts; i++) {
+            switch (random.nextInt(10)) {
+                case 0 -> raw.append("oops");
+                case 1 -> raw.append("");
+                case 2 -> raw.append("10=").append(random.nextInt(1000));
+                case 3 -> raw.append("=empty");
+                case 4 -> raw.append("049=lead");
+                case 5 -> raw.append("55=a=b");
+                case 6 -> raw.append("58=café");
+                default -> raw.append(20 + random.nextInt(40)).append('=').append("V".repeat(random.nextInt(12)));
+            }
+            if (i < parts - 1 || random.nextBoolean()) {
+                raw.append('|');
+            }
+        }
+        return raw.toString();
+    }
+
+    @Test
+    @DisplayName("FixMessage.wrap() should index like parse()")
+    void testWrapMatchesParse() {
+        Random random = new Random(7);
+        for (int round = 0; round < 2000; round++) {
+            String raw = randomMessage(random);
+            FixMessage parsed = FixMessage.parse(raw);
+            FixMessage wrapped = FixMessage.wrap(bytes(raw));
+
+            assertEquals(parsed.getChecksum(), wrapped.getChecksum(), "Checksum of " + raw);
+            assertEquals(parsed.getAllFields(), wrapped.getAllFields(), "Fields of " + raw);
+        }
+    }
+
+    @Test
+    @DisplayName("Decoder should index arrays like direct buffers")
+    void testDecoderArrayMatchesBuffer() {
+        FixMessageDecoder fromArray = new FixMessageDecoder();
+        FixMessageDecoder fromBuffer = new FixMessageDecoder();
+        Random random = new Random(11);
+        for (int round = 0; round < 2000; round++) {
+            String raw = randomMessage(random);
+            byte[] data = bytes(raw);
+            ByteBuffer direct = ByteBuffer.allocateDirect(data.length).put(data).flip();
+
+            fromArray.wrap(data, 0, data.length);
+            fromBuffer.wrap(direct);
+
+            assertEquals(fromBuffer.calculateChecksum(), fromArray.calculateChecksum(), "Checksum of " + raw);
+            assertEquals(fromBuffer.getFieldCount(), fromArray.getFieldCount(), "Field count of " + raw);
+            for (int i = 0; i < fromArray.getFieldCount(); i++) {
+                int tag = fromBuffer.getTagAt(i);
+                assertEquals(tag, fromArray.getTagAt(i), "Tag " + i + " of " + raw);
+                assertEquals(fromBuffer.getString(tag), fromArray.getString(tag), "Value of " + tag + " in " + raw);
+            }
+        }
+    }
+}
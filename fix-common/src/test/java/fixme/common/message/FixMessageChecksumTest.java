@@ -0,0 +1,107 @@
+package fixme.common.message;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the running checksum of FixMessage
+ */
+class FixMessageChecksumTest {
+
+    /**
+     * Reference implementation: sums the serialized fields except tag 10.
+     */
+    private static String referenceChecksum(FixMessage message) {
+        int sum = 0;
+        for (String field : message.toString().split("\\|")) {
+            if (!field.startsWith("10=")) {
+                for (char c : (field + "|").toCharArray()) {
+                    sum += c;
+                }
+            }
+        }
+        return String.format("%03d", sum % 256);
+    }
+
+    private static FixMessage newOrder() {
+        FixMessage message = new FixMessage();
+        message.setSenderCompId("100001");
+        message.setTargetCompId("200001");
+        message.setMsgType(FixTags.MSG_TYPE_NEW_ORDER);
+        message.setSymbol("AAPL");
+        message.setField(FixTags.TAG_SIDE, FixTags.SIDE_BUY);
+        message.setField(FixTags.TAG_ORDER_QTY, "100");
+        return message;
+    }
+
+    @Test
+    @DisplayName("Running checksum should match a full recomputation")
+    void testRunningChecksum() {
+        FixMessage message = newOrder();
+
+        assertEquals(referenceChecksum(message), message.calculateChecksum(), "Checksum should match reference");
+        assertEquals(Integer.parseInt(message.calculateChecksum()), message.getChecksum(), "Int and String forms should agree");
+    }
+
+    @Test
+    @DisplayName("Overwriting a field should adjust the checksum")
+    void testOverwriteAdjustsChecksum() {
+        FixMessage message = newOrder();
+        message.setField(FixTags.TAG_ORDER_QTY, "2500");
+        message.setSymbol("GOOGL");
+
+        assertEquals(referenceChecksum(message), message.calculateChecksum(), "Checksum should follow overwrites");
+    }
+
+    @Test
+    @DisplayName("Removing a field should adjust the checksum and keep order")
+    void testRemoveAdjustsChecksum() {
+        FixMessage message = newOrder();
+
+        assertEquals("AAPL", message.removeField(FixTags.TAG_SYMBOL), "Removed value should be returned");
+        assertNull(message.removeField(FixTags.TAG_PRICE), "Absent tag should return null");
+
+        assertEquals("49=100001|56=200001|35=D|54=1|38=100|", message.toString(), "Order should be preserved");
+        assertEquals(referenceChecksum(message), message.calculateChecksum(), "Checksum should follow removals");
+    }
+
+    @Test
+    @DisplayName("The checksum field itself should not contribute")
+    void testChecksumFieldIgnored() {
+        FixMessage message = newOrder();
+        String before = message.calculateChecksum();
+
+        message.setField(FixTags.TAG_CHECKSUM, before);
+        assertEquals(before, message.calculateChecksum(), "Setting tag 10 should not change the checksum");
+        assertTrue(message.isChecksumValid(), "Checksum should be valid");
+
+        message.setField(FixTags.TAG_CHECKSUM, "999");
+        assertFalse(message.isChecksumValid(), "Wrong checksum should be rejected");
+
+        message.removeField(FixTags.TAG_CHECKSUM);
+        assertEquals(before, message.calculateChecksum(), "Removing tag 10 should not change the checksum");
+    }
+
+    @Test
+    @DisplayName("Parsed message should keep the checksum computed while scanning")
+    void testParsedChecksum() {
+        FixMessage original = newOrder();
+        original.setField(FixTags.TAG_CHECKSUM, original.calculateChecksum());
+
+        FixMessage parsed = FixMessage.parse(original.toString());
+
+        assertTrue(parsed.isChecksumValid(), "Parsed checksum should be valid");
+        assertEquals(original.getChecksum(), parsed.getChecksum(), "Checksums should match");
+    }
+
+    @Test
+    @DisplayName("Parsed message with duplicate tags should keep the last value's contribution")
+    void testParsedDuplicateTag() {
+        FixMessage parsed = FixMessage.parse("49=100001|55=AAPL|55=MSFT|");
+
+        assertEquals("MSFT", parsed.getSymbol(), "Last value should win");
+        assertEquals(referenceChecksum(parsed), parsed.calculateChecksum(), "Checksum should match reference");
+    }
+}
@@ -0,0 +1,195 @@
+package fixme.common.message;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FixMessageDecoder
+ */
+class FixMessageDecoderTest {
+
+    private static final String ORDER = "49=100001|56=200001|35=D|55=AAPL|54=1|38=100|44=150.50|10=042|";
+
+    private static byte[] bytes(String message) {
+        return message.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    @DisplayName("Should index every field in order")
+    void testIndexFields() {
+        FixMessageDecoder decoder = new FixMessageDecoder().wrap(bytes(ORDER), 0, ORDER.length());
+
+        assertEquals(8, decoder.getFieldCount(), "All fields should be indexed");
+        assertEquals(49, decoder.getTagAt(0), "First tag should be SenderCompID");
+        assertEquals(10, decoder.getTagAt(7), "Last tag should be CheckSum");
+        assertTrue(decoder.hasField(FixTags.TAG_SYMBOL), "Symbol should be present");
+        assertFalse(decoder.hasField(FixTags.TAG_TEXT), "Text should be absent");
+        assertEquals(4, decoder.getValueLength(FixTags.TAG_SYMBOL), "Symbol length should match");
+    }
+
+    @Test
+    @DisplayName("Should read primitive values without creating strings")
+    void testPrimitiveAccessors() {
+        FixMessageDecoder decoder = new FixMessageDecoder().wrap(bytes(ORDER), 0, ORDER.length());
+
+        assertEquals(100, decoder.getInt(FixTags.TAG_ORDER_QTY), "Quantity should be parsed");
+        assertEquals(200001L, decoder.getLong(FixTags.TAG_TARGET_COMP_ID), "Target should be parsed as long");
+        assertTrue(decoder.valueEquals(FixTags.TAG_SENDER_COMP_ID, "100001"), "Sender should match");
+        assertFalse(decoder.valueEquals(FixTags.TAG_SENDER_COMP_ID, "100002"), "Sender should not match");
+        assertFalse(decoder.valueEquals(FixTags.TAG_TEXT, "anything"), "Absent tag should not match");
+
+        char[] symbol = new char[8];
+        int length = decoder.getChars(FixTags.TAG_SYMBOL, symbol, 2);
+        assertEquals(4, length, "Copied length should match");
+        assertEquals("AAPL", new String(symbol, 2, length), "Symbol chars should match");
+        assertEquals(-1, decoder.getChars(FixTags.TAG_TEXT, symbol, 0), "Absent tag should return -1");
+    }
+
+    @Test
+    @DisplayName("Should reject absent tags and non-numeric values in numeric accessors")
+    void testPrimitiveAccessorErrors() {
+        FixMessageDecoder decoder = new FixMessageDecoder().wrap(bytes(ORDER), 0, ORDER.length());
+
+        assertThrows(IllegalArgumentException.class, () -> decoder.getInt(FixTags.TAG_TEXT));
+        assertThrows(NumberFormatException.class, () -> decoder.getInt(FixTags.TAG_SYMBOL));
+        assertThrows(NumberFormatException.class, () -> decoder.getInt(FixTags.TAG_PRICE));
+    }
+
+    @Test
+    @DisplayName("Checksum should match FixMessage for a factory-built message")
+    void testChecksumMatchesFixMessage() {
+        FixMessage order = FixMessageFactory.createSellOrder("100001", "200001", "GOOGL", 50, 2800.0);
+        String raw = order.toString();
+
+        FixMessageDecoder decoder = new FixMessageDecoder().wrap(bytes(raw), 0, raw.length());
+
+        assertEquals(Integer.parseInt(order.calculateChecksum()), decoder.calculateChecksum(),
+            "Checksum should match FixMessage.calculateChecksum()");
+        assertTrue(decoder.isChecksumValid(), "Checksum should be valid");
+    }
+
+    /**
+     * Checksum as the original string-keyed FixMessage computed it: every
+     * part with '=' is a field keyed by its tag text, the last value of a
+     * repeated key wins, and every field but "10" counts.
+     */
+    private static int referenceChecksum(String message) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (String part : message.split("\\|")) {
+            String[] keyValue = part.split("=", 2);
+            if (keyValue.length == 2) {
+                fields.put(keyValue[0], keyValue[1]);
+            }
+        }
+        int sum = 0;
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (!field.getKey().equals("10")) {
+                for (char c : (field.getKey() + "=" + field.getValue() + "|").toCharArray()) {
+                    sum += c;
+                }
+            }
+        }
+        return sum % 256;
+    }
+
+    @Test
+    @DisplayName("Checksum rules should match FixMessage for repeated and leading-zero tags")
+    void testChecksumRulesMatchFixMessage() {
+        String[] bodies = {
+            "49=100001|56=200001|35=D|55=AAPL|55=MSFT|",
+            "49=100001|56=200001|35=D|049=100002|55=AAPL|",
+            "49=100001|56=200001|35=D|10=000|55=AAPL|"
+        };
+        for (String body : bodies) {
+            int checksum = referenceChecksum(body);
+            for (int received : new int[] {checksum, (checksum + 1) % 256}) {
+                String raw = body + String.format("10=%03d|", received);
+                boolean expected = received == checksum;
+
+                FixMessage parsed = FixMessage.parse(raw);
+                FixMessage wrapped = FixMessage.wrap(bytes(raw));
+                FixMessageDecoder decoder = new FixMessageDecoder().wrap(bytes(raw), 0, raw.length());
+                ByteBuffer direct = ByteBuffer.allocateDirect(raw.length()).put(bytes(raw)).flip();
+                FixMessageDecoder directDecoder = new FixMessageDecoder().wrap(direct);
+                FixMessageDecoder validated = new FixMessageDecoder();
+                new ValidatingParser().parse(bytes(raw), 0, raw.length(), validated);
+
+                assertEquals(expected, parsed.isChecksumValid(), "FixMessage.parse: " + raw);
+                assertEquals(expected, wrapped.isChecksumValid(), "FixMessage.wrap: " + raw);
+                assertEquals(expected, decoder.isChecksumValid(), "Decoder over an array: " + raw);
+                assertEquals(expected, directDecoder.isChecksumValid(), "Decoder over a direct buffer: " + raw);
+                assertEquals(expected, validated.isChecksumValid(), "ValidatingParser: " + raw);
+
+                assertEquals(parsed.getField(FixTags.TAG_SYMBOL), decoder.getString(FixTags.TAG_SYMBOL),
+                    "A repeated tag should keep its last value");
+                assertEquals(parsed.getField(FixTags.TAG_SENDER_COMP_ID), decoder.getString(FixTags.TAG_SENDER_COMP_ID),
+                    "A leading-zero tag should not be read as the tag");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should detect an invalid checksum")
+    void testInvalidChecksum() {
+        String raw = "49=100001|56=200001|35=D|10=999|";
+        FixMessageDecoder decoder = new FixMessageDecoder().wrap(bytes(raw), 0, raw.length());
+
+        assertFalse(decoder.isChecksumValid(), "Wrong checksum should be rejected");
+
+        String noChecksum = "49=100001|56=200001|";
+        decoder.wrap(bytes(noChecksum), 0, noChecksum.length());
+        assertFalse(decoder.isChecksumValid(), "Missing checksum should be rejected");
+    }
+
+    @Test
+    @DisplayName("Should decode a slice of a larger buffer")
+    void testWrapSlice() {
+        String framed = "xx" + ORDER + "yy";
+        FixMessageDecoder decoder = new FixMessageDecoder().wrap(bytes(framed), 2, ORDER.length());
+
+        assertEquals(8, decoder.getFieldCount(), "Only the slice should be indexed");
+        assertEquals("042", decoder.getString(FixTags.TAG_CHECKSUM), "Checksum value should match");
+        assertEquals(ORDER, decoder.toString(), "toString should return the slice");
+    }
+
+    @Test
+    @DisplayName("Should decode a direct ByteBuffer without copying")
+    void testWrapDirectBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(128);
+        buffer.put(bytes(ORDER)).flip();
+
+        FixMessageDecoder decoder = new FixMessageDecoder().wrap(buffer);
+
+        assertEquals(8, decoder.getFieldCount(), "All fields should be indexed");
+        assertEquals("AAPL", decoder.getString(FixTags.TAG_SYMBOL), "Symbol should match");
+        assertEquals(100, decoder.getInt(FixTags.TAG_ORDER_QTY), "Quantity should match");
+        assertEquals(0, buffer.position(), "Buffer position should be untouched");
+    }
+
+    @Test
+    @DisplayName("Should skip parts without '=' and non-numeric tags")
+    void testSkipMalformedParts() {
+        String raw = "ERROR|49=100001|ABC=x|56=200001|";
+        FixMessageDecoder decoder = new FixMessageDecoder().wrap(bytes(raw), 0, raw.length());
+
+        assertEquals(2, decoder.getFieldCount(), "Only numeric fields should be indexed");
+        assertEquals("200001", decoder.getString(FixTags.TAG_TARGET_COMP_ID), "Target should match");
+    }
+
+    @Test
+    @DisplayName("Reset should clear the index")
+    void testReset() {
+        FixMessageDecoder decoder = new FixMessageDecoder().wrap(bytes(ORDER), 0, ORDER.length());
+        decoder.reset();
+
+        assertEquals(0, decoder.getFieldCount(), "No fields after reset");
+        assertNull(decoder.getString(FixTags.TAG_SYMBOL), "No values after reset");
+    }
+}
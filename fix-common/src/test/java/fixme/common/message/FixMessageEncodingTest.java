@@ -0,0 +1,86 @@
+package fixme.common.message;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static fixme.common.message.TestMessages.encode;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FixMessage.encodeTo()
+ */
+class FixMessageEncodingTest {
+
+    @Test
+    @DisplayName("Encoded bytes should match toString() for factory-built messages")
+    void testEncodeMatchesToString() {
+        FixMessage order = FixMessageFactory.createBuyOrder("100001", "200001", "AAPL", 100, 150.50);
+        FixMessage report = FixMessageFactory.createRejectedReport("200001", "100001", "TSLA", "Insufficient quantity");
+
+        assertEquals(order.toString(), encode(order), "Order encoding should match");
+        assertEquals(report.toString(), encode(report), "Report encoding should match");
+    }
+
+    @Test
+    @DisplayName("Encoding should always end with the computed checksum")
+    void testEncodeAppendsChecksum() {
+        FixMessage message = new FixMessage();
+        message.setSenderCompId("100001");
+        message.setTargetCompId("200001");
+
+        String encoded = encode(message);
+
+        assertEquals("49=100001|56=200001|10=" + message.calculateChecksum() + "|", encoded,
+            "Checksum trailer should be appended");
+        assertTrue(FixMessage.parse(encoded).isChecksumValid(), "Encoded message should be valid");
+    }
+
+    @Test
+    @DisplayName("Should encode at an offset and report the written length")
+    void testEncodeAtOffset() {
+        FixMessage order = FixMessageFactory.createSellOrder("100001", "200001", "MSFT", 75, 380.25);
+        byte[] buffer = new byte[256];
+
+        int length = order.encodeTo(buffer, 10);
+
+        assertEquals(order.encodedLength(), length, "Written length should match encodedLength()");
+        assertEquals(order.toString(), new String(buffer, 10, length, StandardCharsets.US_ASCII));
+        assertEquals(0, buffer[9], "Bytes before the offset should be untouched");
+        assertEquals(0, buffer[10 + length], "Bytes after the message should be untouched");
+    }
+
+    @Test
+    @DisplayName("Should encode into heap and direct ByteBuffers")
+    void testEncodeToByteBuffer() {
+        FixMessage order = FixMessageFactory.createBuyOrder("100001", "200001", "GOOGL", 50, 2800.0);
+
+        for (ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(256), ByteBuffer.allocateDirect(256) }) {
+            buffer.put((byte) '#');
+            int length = order.encodeTo(buffer);
+
+            assertEquals(1 + length, buffer.position(), "Position should advance by the written length");
+            buffer.flip().get();
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            assertEquals(order.toString(), new String(bytes, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail without writing when the destination is too small")
+    void testEncodeOverflow() {
+        FixMessage order = FixMessageFactory.createBuyOrder("100001", "200001", "AAPL", 100, 150.50);
+
+        byte[] small = new byte[order.encodedLength() - 1];
+        assertThrows(IndexOutOfBoundsException.class, () -> order.encodeTo(small, 0));
+        assertEquals(0, small[0], "Nothing should be written");
+
+        ByteBuffer buffer = ByteBuffer.allocate(order.encodedLength() - 1);
+        assertThrows(BufferOverflowException.class, () -> order.encodeTo(buffer));
+        assertEquals(0, buffer.position(), "Position should be unchanged");
+    }
+}
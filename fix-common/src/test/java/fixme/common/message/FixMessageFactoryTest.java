@@ -3,6 +3,8 @@ package fixme.common.message;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.BeforeAll;
+
+import java.nio.charset.StandardCharsets;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -350,4 +352,24 @@ class FixMessageFactoryTest {
         assertEquals(original.getField(FixTags.CHECKSUM), 
                      deserialized.getField(FixTags.CHECKSUM));
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("Should validate a decoded message with the same rules as fromString")
+    void testValidateDecoded() {
+        String raw = FixMessageFactory.createBuyOrder("BROKER01", "MARKET01", "AAPL", 100, 150.50).toString();
+        byte[] bytes = raw.getBytes(StandardCharsets.ISO_8859_1);
+        FixMessageDecoder decoder = new FixMessageDecoder().wrap(bytes, 0, bytes.length);
+        
+        assertDoesNotThrow(() -> FixMessageFactory.validate(decoder));
+        
+        String invalid = "49=BROKER01|56=MARKET01|35=D|55=AAPL|54=1|38=100|44=150.50|10=999|";
+        byte[] invalidBytes = invalid.getBytes(StandardCharsets.ISO_8859_1);
+        decoder.wrap(invalidBytes, 0, invalidBytes.length);
+        
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> FixMessageFactory.validate(decoder)
+        );
+        assertEquals("Invalid message checksum", exception.getMessage());
+    }
+}
@@ -0,0 +1,77 @@
+package fixme.common.message;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the int-keyed field storage of FixMessage
+ */
+class FixMessageFieldStorageTest {
+
+    @Test
+    @DisplayName("Int and String tag accessors should address the same field")
+    void testIntAndStringAccessors() {
+        FixMessage message = new FixMessage();
+        message.setField(FixTags.TAG_SYMBOL, "AAPL");
+        message.setField(FixTags.ORDER_QTY, "100");
+
+        assertEquals("AAPL", message.getField(FixTags.SYMBOL), "String lookup should find int-set field");
+        assertEquals("100", message.getField(FixTags.TAG_ORDER_QTY), "Int lookup should find String-set field");
+        assertNull(message.getField(FixTags.TAG_PRICE), "Absent tag should return null");
+        assertNull(message.getField("ABC"), "Non-numeric tag should return null");
+    }
+
+    @Test
+    @DisplayName("Fields should keep insertion order, overwrites keep their position")
+    void testInsertionOrder() {
+        FixMessage message = new FixMessage();
+        message.setSenderCompId("100001");
+        message.setTargetCompId("200001");
+        message.setMsgType(FixTags.MSG_TYPE_NEW_ORDER);
+        message.setSenderCompId("100002");
+
+        Map<String, String> fields = message.getAllFields();
+
+        assertEquals(3, message.getFieldCount(), "Overwrite should not add a field");
+        assertEquals(List.of("49", "56", "35"), List.copyOf(fields.keySet()), "Order should be preserved");
+        assertEquals("100002", fields.get("49"), "Overwritten value should be visible");
+        assertEquals("49=100002|56=200001|35=D|", message.toString(), "Serialization should follow order");
+    }
+
+    @Test
+    @DisplayName("Should grow beyond the initial capacity")
+    void testGrowth() {
+        FixMessage message = new FixMessage();
+        for (int tag = 1; tag <= 40; tag++) {
+            message.setField(tag, "V" + tag);
+        }
+
+        assertEquals(40, message.getFieldCount(), "All fields should be stored");
+        assertEquals("V1", message.getField(1), "First field should be kept");
+        assertEquals("V40", message.getField(40), "Last field should be kept");
+    }
+
+    @Test
+    @DisplayName("Setting a non-numeric tag should fail")
+    void testNonNumericTag() {
+        FixMessage message = new FixMessage();
+
+        assertThrows(IllegalArgumentException.class, () -> message.setField("ABC", "x"));
+        assertThrows(IllegalArgumentException.class, () -> message.setField("", "x"));
+    }
+
+    @Test
+    @DisplayName("Parse should skip parts without '=' and non-numeric tags")
+    void testParseSkipsMalformedParts() {
+        FixMessage message = FixMessage.parse("ERROR|49=100001|ABC=x|56=200001|58=a=b|");
+
+        assertEquals(3, message.getFieldCount(), "Only numeric fields should be kept");
+        assertEquals("100001", message.getSenderCompId(), "Sender should be parsed");
+        assertEquals("a=b", message.getField(FixTags.TAG_TEXT), "Value may contain '='");
+    }
+}
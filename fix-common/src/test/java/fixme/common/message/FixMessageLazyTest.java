@@ -0,0 +1,147 @@
+package fixme.common.message;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static fixme.common.message.TestMessages.encode;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for lazily wrapped FixMessage instances
+ */
+class FixMessageLazyTest {
+
+    private static final String ORDER = FixMessageFactory.createNewOrderSingle(
+        "100001", "200001", "AAPL", FixTags.SIDE_BUY, 100, 15050L).toString();
+
+    private static byte[] bytes(String raw) {
+        return raw.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    @DisplayName("Should materialize only the fields that are read")
+    void testOnlyReadFieldsMaterialized() {
+        FixMessage message = FixMessage.wrap(bytes(ORDER));
+
+        assertEquals(0, message.getMaterializedCount(), "No value should be created by wrap()");
+        assertEquals("200001", message.getTargetCompId());
+        assertEquals("100001", message.getSenderCompId());
+        assertEquals(2, message.getMaterializedCount(), "Only the two routing fields should be created");
+        assertSame(message.getTargetCompId(), message.getTargetCompId(), "A value should be created once");
+    }
+
+    @Test
+    @DisplayName("Should expose the same fields and checksum as parse()")
+    void testMatchesParse() {
+        FixMessage parsed = FixMessage.parse(ORDER);
+        FixMessage wrapped = FixMessage.wrap(bytes(ORDER));
+
+        assertEquals(parsed.getFieldCount(), wrapped.getFieldCount());
+        assertEquals(parsed.getChecksum(), wrapped.getChecksum());
+        assertEquals(parsed.getRequiredTagMask(), wrapped.getRequiredTagMask());
+        assertTrue(wrapped.isChecksumValid(), "Checksum should be valid");
+        assertEquals(parsed.getAllFields(), wrapped.getAllFields());
+        assertEquals(parsed.toString(), wrapped.toString());
+    }
+
+    @Test
+    @DisplayName("Should copy the original bytes when re-encoding an unmodified message")
+    void testReencodeCopiesBytes() {
+        byte[] raw = bytes("##" + ORDER + "##");
+        FixMessage message = FixMessage.wrap(raw, 2, ORDER.length(), new FixMessage());
+
+        assertEquals(ORDER.length(), message.encodedLength());
+        assertEquals(ORDER, encode(message));
+        assertEquals(0, message.getMaterializedCount(), "Copying should not create values");
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(256);
+        assertEquals(ORDER.length(), message.encodeTo(direct));
+        direct.flip();
+        byte[] copy = new byte[direct.remaining()];
+        direct.get(copy);
+        assertEquals(ORDER, new String(copy, StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    @DisplayName("Should re-encode a modified message from its fields")
+    void testModifiedMessage() {
+        FixMessage message = FixMessage.wrap(bytes(ORDER));
+
+        message.setField(FixTags.TAG_ORDER_QTY, "250");
+        message.setField(FixTags.TAG_CHECKSUM, message.calculateChecksum());
+
+        FixMessage expected = FixMessage.parse(ORDER);
+        expected.setField(FixTags.TAG_ORDER_QTY, "250");
+        expected.setField(FixTags.TAG_CHECKSUM, expected.calculateChecksum());
+
+        assertEquals(encode(expected), encode(message));
+        assertEquals(expected.encodedLength(), message.encodedLength());
+        assertTrue(message.isChecksumValid(), "Checksum should follow the change");
+        assertEquals("150.50", message.getField(FixTags.TAG_PRICE), "Untouched fields should be intact");
+
+        assertEquals("AAPL", message.removeField(FixTags.TAG_SYMBOL));
+        assertNull(message.getSymbol());
+    }
+
+    @Test
+    @DisplayName("Should normalize non-canonical input like parse() + encodeTo()")
+    void testNonCanonicalInput() {
+        String[] inputs = {
+            "8=FIX.4.2|49=A|56=B|35=D|10=000|",            // wrong checksum
+            "49=A|56=B|35=D|",                             // no checksum
+            "10=123|49=A|56=B|",                           // checksum first
+            "49=A|56=B|49=C|35=D|10=000|",                 // repeated tag
+            "49=A|junk|56=B|35=D|10=000|",                 // part without '='
+            "49=A|56=B|35=D|10=000",                       // no trailing delimiter
+            "49=A|58=café|35=D|10=000|",                   // non-ASCII value
+            ""
+        };
+        for (String input : inputs) {
+            FixMessage parsed = FixMessage.parse(input);
+            FixMessage wrapped = FixMessage.wrap(bytes(input));
+
+            assertEquals(encode(parsed), encode(wrapped), "Encoding should match parse() for: " + input);
+            assertEquals(parsed.getChecksum(), wrapped.getChecksum(), "Checksum should match for: " + input);
+            assertEquals(parsed.toString(), wrapped.toString(), "Fields should match for: " + input);
+        }
+    }
+
+    @Test
+    @DisplayName("Should match parse() on random mutations")
+    void testRandomMutations() {
+        Random random = new Random(42);
+        String alphabet = "0123456789=|AB.";
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder sb = new StringBuilder(ORDER);
+            int edits = 1 + random.nextInt(3);
+            for (int j = 0; j < edits; j++) {
+                int pos = random.nextInt(sb.length());
+                sb.setCharAt(pos, alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String input = sb.toString();
+
+            FixMessage parsed = FixMessage.parse(input);
+            FixMessage wrapped = FixMessage.wrap(bytes(input));
+
+            assertEquals(encode(parsed), encode(wrapped), "Encoding should match parse() for: " + input);
+            assertEquals(parsed.getAllFields(), wrapped.getAllFields(), "Fields should match for: " + input);
+        }
+    }
+
+    @Test
+    @DisplayName("Should release the wrapped bytes on reset")
+    void testReset() {
+        FixMessage message = FixMessage.wrap(bytes(ORDER));
+
+        message.reset();
+        message.setField(FixTags.TAG_SYMBOL, "MSFT");
+
+        assertEquals("55=MSFT|", message.toString());
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> FixMessage.wrap(new byte[4], 2, 3, message), "Invalid slice should be rejected");
+    }
+}
@@ -0,0 +1,112 @@
+package fixme.common.message;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FixedPoint
+ */
+class FixedPointTest {
+
+    @Test
+    @DisplayName("Should format with two decimals")
+    void testToString() {
+        assertEquals("150.50", FixedPoint.toString(15050));
+        assertEquals("0.05", FixedPoint.toString(5));
+        assertEquals("0.00", FixedPoint.toString(0));
+        assertEquals("-12.30", FixedPoint.toString(-1230));
+        assertEquals("92233720368547758.07", FixedPoint.toString(Long.MAX_VALUE));
+        assertEquals("x=1.00", FixedPoint.appendTo(new StringBuilder("x="), 100).toString());
+        assertEquals("-0.07", FixedPoint.appendTo(new StringBuilder(), -7).toString());
+    }
+
+    @Test
+    @DisplayName("Should encode into a byte array")
+    void testEncode() {
+        byte[] buffer = new byte[32];
+
+        int length = FixedPoint.encode(280000, buffer, 3);
+
+        assertEquals(FixedPoint.encodedLength(280000), length, "Length should match encodedLength()");
+        assertEquals("2800.00", new String(buffer, 3, length, StandardCharsets.US_ASCII));
+        assertThrows(IndexOutOfBoundsException.class, () -> FixedPoint.encode(280000, new byte[6], 0));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.toString(FixedPoint.NONE));
+    }
+
+    @Test
+    @DisplayName("Should parse plain decimals, rounding half-up past two decimals")
+    void testParse() {
+        assertEquals(15050, FixedPoint.parse("150.50"));
+        assertEquals(15050, FixedPoint.parse("150.5"));
+        assertEquals(15000, FixedPoint.parse("150"));
+        assertEquals(15000, FixedPoint.parse("150."));
+        assertEquals(50, FixedPoint.parse(".5"));
+        assertEquals(-25, FixedPoint.parse("-0.25"));
+        assertEquals(100, FixedPoint.parse("+1"));
+        assertEquals(13, FixedPoint.parse("0.125"));
+        assertEquals(12, FixedPoint.parse("0.1249"));
+        assertEquals(-13, FixedPoint.parse("-0.125"));
+
+        byte[] bytes = "x380.25|".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(38025, FixedPoint.parse(bytes, 1, 6), "Should parse a byte slice");
+    }
+
+    @Test
+    @DisplayName("Should reject text that is not a plain decimal")
+    void testParseInvalid() {
+        for (String invalid : new String[] { "", "-", ".", "1.2.3", "1e3", "12a", " 1", "NaN", "99999999999999999999" }) {
+            assertThrows(NumberFormatException.class, () -> FixedPoint.parse(invalid), "Should reject '" + invalid + "'");
+            byte[] bytes = invalid.getBytes(StandardCharsets.US_ASCII);
+            assertThrows(NumberFormatException.class, () -> FixedPoint.parse(bytes, 0, bytes.length),
+                "Should reject bytes '" + invalid + "'");
+        }
+    }
+
+    @Test
+    @DisplayName("fromDouble() should round like String.format(\"%.2f\")")
+    void testFromDoubleMatchesFormat() {
+        Random random = new Random(7);
+        double[] samples = { 0.125, 0.375, 1.005, 1.115, 2.675, 150.5, 999999.995, 0.0, 1_000_000.0 };
+        for (double value : samples) {
+            assertEquals(String.format(Locale.ROOT, "%.2f", value), FixedPoint.toString(FixedPoint.fromDouble(value)),
+                "Rounding should match for " + value);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            double value = random.nextInt(100_000_000) / 1000.0;
+            assertEquals(String.format(Locale.ROOT, "%.2f", value), FixedPoint.toString(FixedPoint.fromDouble(value)),
+                "Rounding should match for " + value);
+        }
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.fromDouble(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.fromDouble(1e300));
+    }
+
+    @Test
+    @DisplayName("Decoder should read fixed-point values from heap and direct buffers")
+    void testDecoderAccessor() {
+        FixMessage order = FixMessageFactory.createBuyOrder("100001", "200001", "AAPL", 100, 150.5);
+        byte[] bytes = order.toString().getBytes(StandardCharsets.US_ASCII);
+        java.nio.ByteBuffer direct = java.nio.ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+
+        assertEquals(15050, new FixMessageDecoder().wrap(bytes, 0, bytes.length).getFixedPoint(FixTags.TAG_PRICE));
+        assertEquals(15050, new FixMessageDecoder().wrap(direct).getFixedPoint(FixTags.TAG_PRICE));
+        assertThrows(IllegalArgumentException.class,
+            () -> new FixMessageDecoder().wrap(bytes, 0, bytes.length).getFixedPoint(FixTags.TAG_TEXT));
+    }
+
+    @Test
+    @DisplayName("Factory should encode fixed-point prices")
+    void testFactoryPrice() {
+        FixMessage report = FixMessageFactory.createExecutionReport(
+            "200001", "100001", "MSFT", FixTags.ORD_STATUS_FILLED, 75, 38025L, null);
+
+        assertEquals("380.25", report.getField(FixTags.TAG_PRICE), "Price should have two decimals");
+        assertEquals("75", report.getField(FixTags.TAG_ORDER_QTY), "Quantity should be set");
+        assertTrue(report.isChecksumValid(), "Report should be valid");
+    }
+}
@@ -0,0 +1,120 @@
+package fixme.common.message;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static fixme.common.message.TestMessages.encode;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HeaderTemplate and the templated factory methods
+ */
+class HeaderTemplateTest {
+
+    @Test
+    @DisplayName("Should pre-encode the header fields")
+    void testHeaderBytes() {
+        HeaderTemplate header = FixMessageFactory.createHeaderTemplate("200001", "100001", FixTags.MSG_TYPE_EXECUTION_REPORT);
+
+        assertEquals("49=200001|56=100001|35=8|", new String(header.toBytes(), StandardCharsets.US_ASCII));
+        assertEquals(header.toBytes().length, header.getLength());
+        assertEquals("200001", header.getSenderCompId());
+        assertEquals("100001", header.getTargetCompId());
+        assertEquals(FixTags.MSG_TYPE_EXECUTION_REPORT, header.getMsgType());
+    }
+
+    @Test
+    @DisplayName("Templated NewOrderSingle should match the untemplated one")
+    void testNewOrderSingleMatches() {
+        HeaderTemplate header = FixMessageFactory.createHeaderTemplate("100001", "200001", FixTags.MSG_TYPE_NEW_ORDER);
+
+        FixMessage templated = FixMessageFactory.createNewOrderSingle(header, "AAPL", FixTags.SIDE_BUY, 100, 15050L);
+        FixMessage plain = FixMessageFactory.createNewOrderSingle("100001", "200001", "AAPL", FixTags.SIDE_BUY, 100, 15050L);
+
+        assertEquals(plain.toString(), templated.toString(), "String form should be identical");
+        assertEquals(encode(plain), encode(templated), "Encoded bytes should be identical");
+        assertEquals(plain.encodedLength(), templated.encodedLength());
+        assertTrue(templated.isChecksumValid(), "Checksum should be valid");
+        assertEquals("100001", templated.getSenderCompId());
+        assertEquals(FixTags.MSG_TYPE_NEW_ORDER, templated.getMsgType());
+    }
+
+    @Test
+    @DisplayName("Templated ExecutionReport should match the untemplated one")
+    void testExecutionReportMatches() {
+        HeaderTemplate header = FixMessageFactory.createHeaderTemplate("200001", "100001", FixTags.MSG_TYPE_EXECUTION_REPORT);
+
+        FixMessage filled = FixMessageFactory.createExecutionReport(
+            header, "AAPL", FixTags.ORD_STATUS_FILLED, 100, 15050L, null);
+        FixMessage rejected = FixMessageFactory.createExecutionReport(
+            header, "AAPL", FixTags.ORD_STATUS_REJECTED, FixMessageFactory.NO_QUANTITY, FixedPoint.NONE, "No stock");
+
+        assertEquals(encode(FixMessageFactory.createFilledReport("200001", "100001", "AAPL", 100, 150.50)),
+                     encode(filled), "Filled report should be identical");
+        assertEquals(encode(FixMessageFactory.createRejectedReport("200001", "100001", "AAPL", "No stock")),
+                     encode(rejected), "Rejected report should be identical");
+        assertTrue(rejected.isChecksumValid(), "Checksum should be valid");
+    }
+
+    @Test
+    @DisplayName("Should encode templated messages into a ByteBuffer")
+    void testEncodeToByteBuffer() {
+        HeaderTemplate header = FixMessageFactory.createHeaderTemplate("100001", "200001", FixTags.MSG_TYPE_NEW_ORDER);
+        FixMessage message = FixMessageFactory.createNewOrderSingle(header, "GOOGL", FixTags.SIDE_SELL, 5, 280000L);
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        buffer.put((byte) '#');
+        int length = message.encodeTo(buffer);
+
+        assertEquals(message.encodedLength(), length);
+        assertEquals(encode(message), new String(buffer.array(), 1, length, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    @DisplayName("Overwriting a header field should fall back to field encoding")
+    void testOverwriteHeaderField() {
+        HeaderTemplate header = FixMessageFactory.createHeaderTemplate("100001", "200001", FixTags.MSG_TYPE_NEW_ORDER);
+        FixMessage message = FixMessageFactory.createNewOrderSingle(header, "AAPL", FixTags.SIDE_BUY, 10, 100L);
+
+        message.setTargetCompId("200002");
+        message.setField(FixTags.TAG_CHECKSUM, message.calculateChecksum());
+
+        String encoded = encode(message);
+        assertTrue(encoded.startsWith("49=100001|56=200002|35=D|"), "Header should use the new target: " + encoded);
+        assertEquals(message.toString(), encoded);
+        assertEquals(encoded.length(), message.encodedLength());
+        assertTrue(message.isChecksumValid(), "Checksum should be recomputed from the fields");
+    }
+
+    @Test
+    @DisplayName("Should drop the template on reset")
+    void testReset() {
+        HeaderTemplate header = FixMessageFactory.createHeaderTemplate("100001", "200001", FixTags.MSG_TYPE_NEW_ORDER);
+        FixMessage message = FixMessageFactory.createNewOrderSingle(header, "AAPL", FixTags.SIDE_BUY, 10, 100L);
+
+        message.reset();
+        message.setField(FixTags.TAG_SYMBOL, "MSFT");
+
+        assertTrue(encode(message).startsWith("55=MSFT|"), "Header should not be encoded after reset");
+    }
+
+    @Test
+    @DisplayName("Should reject invalid templates")
+    void testInvalidTemplates() {
+        assertThrows(IllegalArgumentException.class,
+            () -> FixMessageFactory.createHeaderTemplate("", "200001", FixTags.MSG_TYPE_NEW_ORDER),
+            "Empty sender should be rejected");
+        assertThrows(IllegalArgumentException.class,
+            () -> FixMessageFactory.createHeaderTemplate("100001", "200001", "Z"),
+            "Unknown message type should be rejected");
+
+        HeaderTemplate report = FixMessageFactory.createHeaderTemplate("200001", "100001", FixTags.MSG_TYPE_EXECUTION_REPORT);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> FixMessageFactory.createNewOrderSingle(report, "AAPL", FixTags.SIDE_BUY, 10, 100L),
+            "Template for another message type should be rejected");
+        assertTrue(e.getMessage().contains("expected D"), "Error should name the expected type: " + e.getMessage());
+    }
+}
@@ -0,0 +1,121 @@
+package fixme.common.message;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MessageFramer, fed the way ClientConnection feeds it:
+ * a read buffer flipped after each read and compacted afterwards.
+ */
+class MessageFramerTest {
+
+    private static final String ORDER = "49=100001|56=200001|35=D|55=AAPL|54=1|38=100|44=150.50|10=123|";
+    private static final String REPORT = "49=200001|56=100001|35=8|55=AAPL|39=2|10=045|";
+
+    // Direct, like the pooled read buffers
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+    private final MessageFramer framer = new MessageFramer((byte) '|', buffer.capacity());
+
+    /**
+     * Appends the chunk as one read and returns the messages completed.
+     */
+    private List<String> feed(String chunk) {
+        buffer.put(chunk.getBytes(StandardCharsets.ISO_8859_1));
+        buffer.flip();
+        List<String> frames = new ArrayList<>();
+        int length;
+        while ((length = framer.nextFrame(buffer)) >= 0) {
+            byte[] frame = new byte[length];
+            buffer.get(framer.frameOffset(), frame);
+            frames.add(new String(frame, StandardCharsets.ISO_8859_1));
+        }
+        buffer.compact();
+        return frames;
+    }
+
+    @Test
+    @DisplayName("Messages read together should be framed one by one")
+    void testSeveralMessagesInOneRead() {
+        assertEquals(List.of(ORDER, REPORT, ORDER), feed(ORDER + REPORT + ORDER));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    @DisplayName("A partial message should be kept until its trailer arrives")
+    void testPartialMessage() {
+        int cut = ORDER.length() - 4;
+        assertEquals(List.of(REPORT), feed(REPORT + ORDER.substring(0, cut)));
+        assertEquals(List.of(), feed(ORDER.substring(cut, cut + 2)));
+        assertEquals(List.of(ORDER), feed(ORDER.substring(cut + 2)));
+    }
+
+    @Test
+    @DisplayName("Any split of the stream should give the same messages")
+    void testRandomSplits() {
+        String stream = ORDER + "\n" + REPORT + "\r\n" + ORDER + REPORT + "\n";
+        Random random = new Random(20240612L);
+
+        for (int run = 0; run < 500; run++) {
+            List<String> frames = new ArrayList<>();
+            int pos = 0;
+            while (pos < stream.length()) {
+                int next = Math.min(stream.length(), pos + 1 + random.nextInt(40));
+                frames.addAll(feed(stream.substring(pos, next)));
+                pos = next;
+            }
+            assertEquals(List.of(ORDER, REPORT, ORDER, REPORT), frames);
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test
+    @DisplayName("Only a checksum field should end a message")
+    void testChecksumLookalike() {
+        String message = "49=100001|56=200001|110=123|58=x10=456|10=001|";
+        assertEquals(List.of(message), feed(message));
+    }
+
+    @Test
+    @DisplayName("A line without checksum should be handed over for validation")
+    void testLineWithoutChecksum() {
+        assertEquals(List.of("49=100001|56=200001|35=D|"), feed("\n\n49=100001|56=200001|35=D|\r\n"));
+        assertEquals(List.of("garbage"), feed("garbage\n"));
+    }
+
+    @Test
+    @DisplayName("BodyLength should decide where the trailer is")
+    void testBodyLength() {
+        String body = "35=D|58=a|10=999|b|";
+        String message = "8=FIX.4.2|9=" + body.length() + "|" + body + "10=200|";
+        assertEquals(List.of(message, REPORT), feed(message + REPORT));
+
+        // Not in one read: the trailer lookalike in the body must not end it
+        int cut = message.indexOf("|b|");
+        assertEquals(List.of(), feed(message.substring(0, cut)));
+        assertEquals(List.of(message), feed(message.substring(cut)));
+    }
+
+    @Test
+    @DisplayName("A wrong BodyLength should fall back to the trailer search")
+    void testWrongBodyLength() {
+        String message = "9=3|35=D|55=AAPL|10=123|";
+        assertEquals(List.of(message), feed(message));
+    }
+
+    @Test
+    @DisplayName("Data reaching the maximum length without an end should be handed over")
+    void testOversizedFrame() {
+        String junk = "55=" + "X".repeat(buffer.capacity() - 3);
+        List<String> frames = feed(junk);
+        assertEquals(List.of(junk), frames);
+        assertEquals(List.of(ORDER), feed(ORDER));
+    }
+}
@@ -0,0 +1,22 @@
+package fixme.common.message;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Helpers shared by the FixMessage tests.
+ */
+final class TestMessages {
+
+    private TestMessages() {
+    }
+
+    /**
+     * Encodes a message with encodeTo(byte[], int), decoded as ISO-8859-1
+     * so that every byte maps to one char, ASCII or not.
+     */
+    static String encode(FixMessage message) {
+        byte[] buffer = new byte[message.encodedLength()];
+        int length = message.encodeTo(buffer, 0);
+        return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,170 @@
+package fixme.common.message;
+
+import fixme.common.validation.MessageValidator;
+import fixme.common.validation.ValidationResult;
+import fixme.common.validation.ValidationResult.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ValidatingParser
+ */
+class ValidatingParserTest {
+
+    private final ValidatingParser parser = new ValidatingParser();
+    private final FixMessageDecoder decoder = new FixMessageDecoder();
+
+    private ValidationResult parse(String raw) {
+        byte[] bytes = raw.getBytes(StandardCharsets.ISO_8859_1);
+        return parser.parse(bytes, 0, bytes.length, decoder);
+    }
+
+    /**
+     * The three stages ValidatingParser replaces, as ValidationHandler ran them.
+     */
+    private static String legacyError(String raw) {
+        ValidationResult single = MessageValidator.validateSingleMessage(raw);
+        if (!single.isValid()) {
+            return single.getErrorMessage();
+        }
+        ValidationResult format = MessageValidator.validate(raw);
+        if (!format.isValid()) {
+            return format.getErrorMessage();
+        }
+        try {
+            byte[] bytes = raw.getBytes(StandardCharsets.ISO_8859_1);
+            FixMessageFactory.validate(new FixMessageDecoder().wrap(bytes, 0, bytes.length));
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String withChecksum(String body) {
+        int sum = 0;
+        for (char c : body.toCharArray()) {
+            sum += c;
+        }
+        return body + "10=" + String.format("%03d", sum % 256) + "|";
+    }
+
+    private static String validOrder() {
+        return FixMessageFactory.createBuyOrder("100001", "200001", "AAPL", 100, 150.50).toString()
+            .replaceAll("10=\\d{3}\\|$", "");
+    }
+
+    @Test
+    @DisplayName("A valid message should pass and be decoded")
+    void testValidMessage() {
+        String raw = withChecksum(validOrder());
+
+        ValidationResult result = parse(raw);
+
+        assertTrue(result.isValid(), "Message should be valid: " + result);
+        assertNull(result.getStage(), "Valid result has no stage");
+        assertEquals("AAPL", decoder.getString(FixTags.TAG_SYMBOL), "Decoder should hold the fields");
+        assertTrue(decoder.isChecksumValid(), "Decoder checksum should be valid");
+    }
+
+    @Test
+    @DisplayName("Errors should be reported with the stage that rejected the message")
+    void testStages() {
+        String order = validOrder();
+
+        assertEquals(Stage.FRAMING, parse(order).getStage(), "Missing checksum is a framing error");
+        assertEquals(Stage.FRAMING, parse(withChecksum(order) + withChecksum(order)).getStage(),
+            "Two messages is a framing error");
+        assertEquals(Stage.FORMAT, parse(withChecksum(order + "58=a;b|")).getStage(),
+            "Dangerous characters are a format error");
+        assertEquals(Stage.PROTOCOL, parse(order + "10=000|").getStage(),
+            "Wrong checksum is a protocol error");
+    }
+
+    @Test
+    @DisplayName("Error messages should match the three-stage validation")
+    void testSameErrorsAsLegacy() {
+        String order = validOrder();
+        List<String> samples = new ArrayList<>(List.of(
+            "",
+            "abc",
+            order,
+            withChecksum(order),
+            withChecksum(order) + withChecksum(order),
+            withChecksum(order) + "58=x",
+            withChecksum(order + "|"),
+            withChecksum("|" + order),
+            withChecksum(order + "58=a=b|"),
+            withChecksum(order + "=x|"),
+            withChecksum(order + "5A=x|"),
+            withChecksum(order + "58=|"),
+            withChecksum(order + "58=" + "x".repeat(513) + "|"),
+            withChecksum(order + "55=MSFT|"),
+            withChecksum(order + "055=MSFT|"),
+            withChecksum(order + "58=\"quoted\"|"),
+            withChecksum(order + "58=a;b|55=MSFT|"),
+            withChecksum(order + "1234567890=x|"),
+            withChecksum(order + "58=" + "x".repeat(4100) + "|"),
+            withChecksum(order + "1=x|".repeat(60)),
+            withChecksum("49=100001|56=200001|"),
+            withChecksum("49=100001|56=200001|35=Z|"),
+            withChecksum("49=100001|56=200001|35=D|55=AAPL|"),
+            order + "10=000|",
+            order + "10=12|",
+            order + "110=123|",
+            order + "58=10=123|10=123|"
+        ));
+
+        for (String raw : samples) {
+            ValidationResult result = parse(raw);
+            assertEquals(legacyError(raw), result.getErrorMessage(), "Error should match for: " + raw);
+        }
+    }
+
+    @Test
+    @DisplayName("Randomly mutated messages should get the same result as the three-stage validation")
+    void testMutationsMatchLegacy() {
+        String base = withChecksum(validOrder());
+        char[] alphabet = "0123456789=|;<ABab \"".toCharArray();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder raw = new StringBuilder(base);
+            int mutations = 1 + random.nextInt(3);
+            for (int m = 0; m < mutations && raw.length() > 0; m++) {
+                int pos = random.nextInt(raw.length());
+                switch (random.nextInt(3)) {
+                    case 0 -> raw.setCharAt(pos, alphabet[random.nextInt(alphabet.length)]);
+                    case 1 -> raw.insert(pos, alphabet[random.nextInt(alphabet.length)]);
+                    default -> raw.deleteCharAt(pos);
+                }
+            }
+            String message = raw.toString();
+            assertEquals(legacyError(message), parse(message).getErrorMessage(), "Error should match for: " + message);
+        }
+    }
+
+    @Test
+    @DisplayName("The decoder should be indexed as wrap() indexes it")
+    void testDecoderMatchesWrap() {
+        String raw = "49=100001|055=x|ABC=y|58=a=b|56=200001|10=123|";
+        byte[] bytes = raw.getBytes(StandardCharsets.ISO_8859_1);
+        FixMessageDecoder wrapped = new FixMessageDecoder().wrap(bytes, 0, bytes.length);
+
+        parser.parse(bytes, 0, bytes.length, decoder);
+
+        assertEquals(wrapped.getFieldCount(), decoder.getFieldCount(), "Field count should match");
+        for (int i = 0; i < wrapped.getFieldCount(); i++) {
+            int tag = wrapped.getTagAt(i);
+            assertEquals(tag, decoder.getTagAt(i), "Tag order should match");
+            assertEquals(wrapped.getString(tag), decoder.getString(tag), "Value should match");
+        }
+        assertEquals(wrapped.calculateChecksum(), decoder.calculateChecksum(), "Checksum should match");
+    }
+}
@@ -0,0 +1,133 @@
+package fixme.common.pool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BufferPool
+ */
+class BufferPoolTest {
+
+    private static BufferPool newPool(boolean debug) {
+        return new BufferPool("test", new int[] {64, 256}, 4, 8, debug);
+    }
+
+    @Test
+    @DisplayName("Requests should get a direct buffer of the smallest fitting class")
+    void testSizeClasses() {
+        BufferPool pool = newPool(false);
+
+        ByteBuffer small = pool.acquire(10);
+        ByteBuffer exact = pool.acquire(64);
+        ByteBuffer large = pool.acquire(65);
+
+        assertTrue(small.isDirect());
+        assertEquals(64, small.capacity());
+        assertEquals(64, exact.capacity());
+        assertEquals(256, large.capacity());
+        assertEquals(0, small.position());
+        assertEquals(small.capacity(), small.limit());
+    }
+
+    @Test
+    @DisplayName("Buffers should be carved out of slabs and recycled cleared")
+    void testSlabsAndRecycle() {
+        BufferPool pool = newPool(false);
+
+        ByteBuffer[] held = new ByteBuffer[4];
+        for (int i = 0; i < held.length; i++) {
+            held[i] = pool.acquire(64);
+        }
+        assertEquals(1, pool.getSlabCount(), "One slab should serve a whole slab of buffers");
+        assertEquals(0, pool.getIdleCount(64));
+
+        held[0].put((byte) 1).put((byte) 2);
+        pool.release(held[0]);
+        ByteBuffer again = pool.acquire(64);
+        assertSame(held[0], again, "Released buffer should be reused");
+        assertEquals(0, again.position(), "Reused buffer should be cleared");
+
+        // Buffers of one slab do not overlap
+        held[1].put(0, (byte) 7);
+        assertEquals(0, held[2].get(0));
+
+        pool.acquire(64);
+        assertEquals(2, pool.getSlabCount(), "An empty class should carve a new slab");
+    }
+
+    @Test
+    @DisplayName("Oversized requests, heap and read-only buffers should stay out of the pool")
+    void testUnpooled() {
+        BufferPool pool = newPool(false);
+
+        ByteBuffer huge = pool.acquire(1000);
+        assertTrue(huge.isDirect());
+        assertEquals(1000, huge.capacity());
+        assertEquals(1, pool.getUnpooledCount());
+        pool.release(huge);
+
+        pool.release(ByteBuffer.allocate(64));
+        pool.release(ByteBuffer.allocateDirect(64).asReadOnlyBuffer());
+        assertEquals(0, pool.getIdleCount(64));
+        assertEquals(0, pool.getSlabCount());
+    }
+
+    @Test
+    @DisplayName("Idle buffers beyond the limit should be dropped")
+    void testMaxIdle() {
+        BufferPool pool = newPool(false);
+        ByteBuffer[] held = new ByteBuffer[12];
+
+        for (int i = 0; i < held.length; i++) {
+            held[i] = pool.acquire(256);
+        }
+        for (ByteBuffer buffer : held) {
+            pool.release(buffer);
+        }
+
+        assertEquals(8, pool.getIdleCount(256), "Idle list should be capped");
+    }
+
+    @Test
+    @DisplayName("A buffer released on another thread should be handed out again")
+    void testCrossThreadRelease() throws InterruptedException {
+        BufferPool pool = newPool(false);
+        ByteBuffer buffer = pool.acquire(64);
+        int idle = pool.getIdleCount(64);
+
+        Thread releaser = new Thread(() -> pool.release(buffer));
+        releaser.start();
+        releaser.join();
+
+        assertEquals(idle + 1, pool.getIdleCount(64));
+        AtomicReference<ByteBuffer> reacquired = new AtomicReference<>();
+        for (int i = 0; i <= idle; i++) {
+            ByteBuffer next = pool.acquire(64);
+            if (next == buffer) {
+                reacquired.set(next);
+            }
+        }
+        assertSame(buffer, reacquired.get());
+    }
+
+    @Test
+    @DisplayName("Debug mode should report double releases without pooling twice")
+    void testDebugDoubleRelease() {
+        BufferPool pool = newPool(true);
+
+        ByteBuffer buffer = pool.acquire(64);
+        assertEquals(1, pool.getOutstandingCount());
+
+        pool.release(buffer);
+        int idle = pool.getIdleCount(64);
+        pool.release(buffer);
+
+        assertEquals(0, pool.getOutstandingCount());
+        assertEquals(idle, pool.getIdleCount(64), "Double release should be ignored");
+    }
+}
@@ -0,0 +1,115 @@
+package fixme.common.pool;
+
+import fixme.common.message.FixMessage;
+import fixme.common.message.FixTags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ObjectPool
+ */
+class ObjectPoolTest {
+
+    private static ObjectPool<FixMessage> newPool(boolean debug) {
+        return new ObjectPool<>("test", FixMessage::new, FixMessage::reset, 4, debug);
+    }
+
+    @Test
+    @DisplayName("Released objects should be reset and handed out again")
+    void testRecycle() {
+        ObjectPool<FixMessage> pool = newPool(false);
+
+        FixMessage first = pool.acquire();
+        first.setSymbol("AAPL");
+        pool.release(first);
+
+        FixMessage second = pool.acquire();
+        assertSame(first, second, "Released object should be reused");
+        assertEquals(0, second.getFieldCount(), "Reused object should be reset");
+        assertEquals(0, second.getChecksum(), "Running checksum should be reset");
+    }
+
+    @Test
+    @DisplayName("Steady acquire/release should stop allocating")
+    void testNoAllocationInSteadyState() {
+        ObjectPool<FixMessage> pool = newPool(false);
+
+        for (int i = 0; i < 1000; i++) {
+            FixMessage message = pool.acquire();
+            FixMessage.parse("49=100001|56=200001|35=D|55=AAPL|", message);
+            pool.release(message);
+        }
+
+        assertEquals(1000, pool.getAcquireCount(), "Every acquisition should be counted");
+        assertEquals(1, pool.getCreatedCount(), "Only the first acquisition should allocate");
+    }
+
+    @Test
+    @DisplayName("Idle objects beyond the limit should be dropped")
+    void testMaxIdle() {
+        ObjectPool<FixMessage> pool = newPool(false);
+        FixMessage[] held = new FixMessage[6];
+
+        for (int i = 0; i < held.length; i++) {
+            held[i] = pool.acquire();
+        }
+        for (FixMessage message : held) {
+            pool.release(message);
+        }
+        for (int i = 0; i < held.length; i++) {
+            pool.acquire();
+        }
+
+        assertEquals(8, pool.getCreatedCount(), "Only 4 objects should have been kept idle");
+    }
+
+    @Test
+    @DisplayName("Each thread should keep its own free list")
+    void testThreadLocalFreeLists() throws InterruptedException {
+        ObjectPool<FixMessage> pool = newPool(false);
+        FixMessage released = pool.acquire();
+        pool.release(released);
+
+        AtomicReference<FixMessage> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(pool.acquire()));
+        thread.start();
+        thread.join();
+
+        assertNotSame(released, other.get(), "Another thread should not see this thread's free list");
+        assertSame(released, pool.acquire(), "This thread should get its released object back");
+    }
+
+    @Test
+    @DisplayName("Debug mode should track outstanding objects and ignore double releases")
+    void testDebugLeakDetection() {
+        ObjectPool<FixMessage> pool = newPool(true);
+
+        FixMessage leaked = pool.acquire();
+        FixMessage returned = pool.acquire();
+        pool.release(returned);
+
+        assertEquals(1, pool.getOutstandingCount(), "One object should be outstanding");
+        assertEquals(1, pool.logLeaks(), "Leak should be reported");
+
+        returned.setField(FixTags.TAG_SYMBOL, "MSFT");
+        pool.release(returned);
+        assertEquals("MSFT", returned.getSymbol(), "Double release should not reset the object again");
+
+        pool.release(leaked);
+        assertEquals(0, pool.getOutstandingCount(), "Nothing should be outstanding");
+    }
+
+    @Test
+    @DisplayName("Outstanding count should be unavailable outside debug mode")
+    void testNoTrackingWithoutDebug() {
+        ObjectPool<FixMessage> pool = newPool(false);
+        pool.acquire();
+
+        assertEquals(-1, pool.getOutstandingCount(), "Tracking should be disabled");
+        assertEquals(0, pool.logLeaks(), "No leaks should be reported");
+    }
+}
@@ -0,0 +1,145 @@
+package fixme.common.symbol;
+
+import fixme.common.message.FixMessageDecoder;
+import fixme.common.message.FixTags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SymbolTable
+ */
+class SymbolTableTest {
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    @DisplayName("IDs should be dense and stable")
+    void testDenseIds() {
+        SymbolTable table = new SymbolTable();
+
+        assertEquals(0, table.intern("AAPL"));
+        assertEquals(1, table.intern("GOOGL"));
+        assertEquals(0, table.intern("AAPL"), "Interning again should return the same ID");
+        assertEquals(2, table.size());
+        assertEquals("GOOGL", table.getSymbol(1));
+    }
+
+    @Test
+    @DisplayName("Byte and CharSequence lookups should agree")
+    void testBytesMatchChars() {
+        SymbolTable table = new SymbolTable();
+        byte[] message = bytes("55=MSFT|54=1|");
+
+        int id = table.intern(message, 3, 4);
+
+        assertEquals(id, table.lookup("MSFT"));
+        assertEquals(id, table.lookup(new StringBuilder("MSFT")));
+        assertEquals(id, table.intern("MSFT"));
+        assertEquals("MSFT", table.getSymbol(id));
+    }
+
+    @Test
+    @DisplayName("Unknown symbols should not be found")
+    void testLookupUnknown() {
+        SymbolTable table = new SymbolTable();
+        table.intern("AAPL");
+
+        assertEquals(SymbolTable.NOT_FOUND, table.lookup("AAP"));
+        assertEquals(SymbolTable.NOT_FOUND, table.lookup("AAPLX"));
+        assertEquals(SymbolTable.NOT_FOUND, table.lookup(bytes("TSLA"), 0, 4));
+        assertEquals(SymbolTable.NOT_FOUND, table.lookup((CharSequence) null));
+        assertEquals(1, table.size(), "Lookups should not add symbols");
+    }
+
+    @Test
+    @DisplayName("Tens of thousands of symbols should keep their IDs across growth")
+    void testGrowth() {
+        SymbolTable table = new SymbolTable();
+        int count = 50_000;
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, table.intern("SYM" + i));
+        }
+
+        assertEquals(count, table.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, table.lookup("SYM" + i));
+            assertEquals("SYM" + i, table.getSymbol(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Empty and non-ASCII symbols should be rejected")
+    void testInvalidSymbols() {
+        SymbolTable table = new SymbolTable();
+
+        assertThrows(IllegalArgumentException.class, () -> table.intern(""));
+        assertThrows(IllegalArgumentException.class, () -> table.intern("ÉDF"));
+        assertThrows(IllegalArgumentException.class, () -> table.intern((CharSequence) null));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getSymbol(0));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    @DisplayName("Concurrent interning should give each symbol a single ID")
+    void testConcurrentIntern() throws Exception {
+        SymbolTable table = new SymbolTable();
+        int symbols = 5_000;
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Callable<int[]> task = () -> {
+                    int[] ids = new int[symbols];
+                    for (int i = 0; i < symbols; i++) {
+                        ids[i] = table.intern("S" + i);
+                    }
+                    return ids;
+                };
+                results.add(executor.submit(task));
+            }
+
+            int[] expected = results.get(0).get();
+            for (Future<int[]> result : results) {
+                assertArrayEquals(expected, result.get());
+            }
+            assertEquals(symbols, table.size());
+            for (int i = 0; i < symbols; i++) {
+                assertEquals("S" + i, table.getSymbol(expected[i]));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Decoder should look symbols up from array and direct buffer")
+    void testDecoderSymbolId() {
+        SymbolTable table = new SymbolTable();
+        int id = table.intern("GOOGL");
+        byte[] message = bytes("49=100001|56=200001|35=D|55=GOOGL|54=1|38=10|10=000|");
+
+        FixMessageDecoder decoder = new FixMessageDecoder().wrap(message, 0, message.length);
+        assertEquals(id, decoder.getSymbolId(FixTags.TAG_SYMBOL, table));
+        assertEquals(SymbolTable.NOT_FOUND, decoder.getSymbolId(FixTags.TAG_PRICE, table));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(message.length).put(message).flip();
+        decoder.wrap(direct);
+        assertEquals(id, decoder.getSymbolId(FixTags.TAG_SYMBOL, table));
+    }
+}
@@ -0,0 +1,129 @@
+package fixme.common.validation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that MessageValidator and the regex-based RegexMessageValidator
+ * agree on a large fuzzed corpus
+ */
+@DisplayName("MessageValidator - Differential Tests")
+class MessageValidatorDifferentialTest {
+
+    private static final String[] SEEDS = {
+        "49=B00001|56=M00001|35=D|55=AAPL|54=1|38=100|10=105|",
+        "49=B00001|10=000|",
+        "8=FIX.4.2|9=65|35=A|49=SERVER|56=CLIENT|34=177|52=20090107-18:15:16|98=0|108=30|10=062|",
+        "49=100001|56=200001|35=8|39=2|55=MSFT|150=F|10=123|",
+        "|49=B00001|10=000|",
+    };
+
+    // Characters that drive the validator's branches, plus some it must ignore
+    private static final char[] ALPHABET = {
+        '|', '|', '=', '=', '1', '0', '3', '9', 'A', 'z', ' ', '.',
+        '<', '>', '\'', '"', ';', '\\', '\n', 'é', '٣', '１'
+    };
+
+    private static final int CORPUS_SIZE = 50_000;
+
+    @Test
+    @DisplayName("Both implementations should agree on fuzzed messages")
+    void testFuzzedCorpus() {
+        Random random = new Random(20240611L);
+        List<String> corpus = new ArrayList<>();
+
+        for (String seed : SEEDS) {
+            corpus.add(seed);
+        }
+        while (corpus.size() < CORPUS_SIZE) {
+            corpus.add(random.nextInt(4) == 0 ? randomMessage(random) : mutate(random));
+        }
+
+        int rejected = 0;
+        for (String raw : corpus) {
+            rejected += assertSameResult(raw) ? 0 : 1;
+        }
+
+        // The corpus should exercise both outcomes
+        assertTrue(rejected > CORPUS_SIZE / 10, "Too few rejected messages: " + rejected);
+        assertTrue(rejected < CORPUS_SIZE - CORPUS_SIZE / 10, "Too few accepted messages: " + rejected);
+    }
+
+    @Test
+    @DisplayName("Both implementations should agree at the size limits")
+    void testLimits() {
+        StringBuilder manyTags = new StringBuilder();
+        for (int i = 1; i <= 51; i++) {
+            manyTags.append(i).append("=x|");
+        }
+        String longValue = "58=" + "a".repeat(513) + "|10=000|";
+        String longMessage = "58=" + "a".repeat(4100) + "|";
+
+        for (String raw : new String[] {
+                manyTags.toString(),
+                manyTags.substring(manyTags.indexOf("|") + 1),
+                longValue,
+                longValue.replace("a".repeat(513), "a".repeat(512)),
+                longMessage,
+                null,
+                "" }) {
+            assertSameResult(raw);
+        }
+    }
+
+    /**
+     * @return whether the message passed validate()
+     */
+    private static boolean assertSameResult(String raw) {
+        assertAgree(RegexMessageValidator.validateSingleMessage(raw), MessageValidator.validateSingleMessage(raw), raw);
+        ValidationResult expected = RegexMessageValidator.validate(raw);
+        assertAgree(expected, MessageValidator.validate(raw), raw);
+        return expected.isValid();
+    }
+
+    private static void assertAgree(ValidationResult expected, ValidationResult actual, String raw) {
+        assertEquals(expected.isValid(), actual.isValid(), () -> "Validity differs for: " + raw);
+        assertEquals(expected.getError(), actual.getError(), () -> "Error code differs for: " + raw);
+        assertEquals(expected.getErrorMessage(), actual.getErrorMessage(), () -> "Message differs for: " + raw);
+    }
+
+    private static String mutate(Random random) {
+        StringBuilder raw = new StringBuilder(SEEDS[random.nextInt(SEEDS.length)]);
+        int mutations = 1 + random.nextInt(3);
+        for (int m = 0; m < mutations && raw.length() > 0; m++) {
+            int pos = random.nextInt(raw.length());
+            switch (random.nextInt(4)) {
+                case 0 -> raw.setCharAt(pos, ALPHABET[random.nextInt(ALPHABET.length)]);
+                case 1 -> raw.insert(pos, ALPHABET[random.nextInt(ALPHABET.length)]);
+                case 2 -> raw.deleteCharAt(pos);
+                default -> raw.insert(pos, "10=" + (100 + random.nextInt(900)) + "|");
+            }
+        }
+        return raw.toString();
+    }
+
+    private static String randomMessage(Random random) {
+        StringBuilder raw = new StringBuilder();
+        int parts = 1 + random.nextInt(8);
+        for (int p = 0; p < parts; p++) {
+            raw.append(random.nextInt(6) == 0 ? "0" : "").append(1 + random.nextInt(60)).append('=');
+            int valueLength = random.nextInt(6);
+            for (int i = 0; i < valueLength; i++) {
+                raw.append(random.nextInt(3) == 0
+                    ? ALPHABET[random.nextInt(ALPHABET.length)]
+                    : (char) ('A' + random.nextInt(26)));
+            }
+            raw.append('|');
+        }
+        if (random.nextBoolean()) {
+            raw.append("10=").append(String.format("%03d", random.nextInt(1000))).append('|');
+        }
+        return raw.toString();
+    }
+}
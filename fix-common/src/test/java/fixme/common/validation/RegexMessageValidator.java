@@ -0,0 +1,175 @@
+package fixme.common.validation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The regex and String based MessageValidator, kept as the reference the
+ * table-driven implementation is checked against.
+ */
+final class RegexMessageValidator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RegexMessageValidator.class);
+    
+    // Security limits (shared with ValidatingParser)
+    static final int MAX_MESSAGE_LENGTH = 4096;       // 4KB max per message
+    static final int MAX_TAG_VALUE_LENGTH = 512;      // 512 bytes max per value
+    static final int MAX_TAGS_PER_MESSAGE = 50;       // Max 50 tags
+    private static final Pattern TAG_PATTERN = Pattern.compile("^\\d+$");  // Tags must be numeric
+    
+    // Dangerous characters (for injection protection)
+    private static final Pattern DANGEROUS_CHARS = Pattern.compile("[<>'\";\\\\]");
+    private static final Pattern CHECKSUM_PATTERN = Pattern.compile("10=\\d{3}\\|");
+
+    private RegexMessageValidator() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static ValidationResult validateSingleMessage(String rawMessage) {
+        if (rawMessage == null || rawMessage.isEmpty()) {
+            return ValidationResult.fail(ValidationError.EMPTY_MESSAGE);
+        }
+        
+        java.util.regex.Matcher matcher = CHECKSUM_PATTERN.matcher(rawMessage);
+        
+        int checksumCount = 0;
+        int lastChecksumEnd = 0;
+        
+        while (matcher.find()) {
+            checksumCount++;
+            lastChecksumEnd = matcher.end();
+        }
+        logger.debug("Checksum count found: {}", checksumCount);        
+        if (checksumCount == 0) {
+            logger.debug("No checksum found in message");
+            return ValidationResult.fail(ValidationError.MISSING_CHECKSUM);
+        }
+        
+        if (checksumCount > 1) {
+            logger.debug("Multiple checksums found: {}", checksumCount);
+            return ValidationResult.fail(ValidationError.MULTIPLE_MESSAGES, checksumCount);
+        }
+        
+        if (lastChecksumEnd < rawMessage.length()) {
+            String trailingData = rawMessage.substring(lastChecksumEnd);
+            logger.debug("Trailing data after checksum: '{}'", trailingData);
+            return ValidationResult.fail(ValidationError.DATA_AFTER_CHECKSUM, trailingData);
+        }
+        
+        logger.debug("Single message validation passed");
+        return ValidationResult.success();
+    }
+
+    
+    
+    /**
+     * Validates a raw FIX message before parsing.
+     * Checks format, length limits, and security constraints.
+     * 
+     * @param rawMessage The raw message to validate
+     * @return ValidationResult with success/failure and error message
+     */
+    public static ValidationResult validate(String rawMessage) {
+        logger.debug("Validating message: {} chars", rawMessage != null ? rawMessage.length() : 0);
+        
+        // 1. Null/empty check
+        if (rawMessage == null || rawMessage.isEmpty()) {
+            return ValidationResult.fail(ValidationError.EMPTY_MESSAGE);
+        }
+        
+        // 2. Length check (DOS protection)
+        if (rawMessage.length() > MAX_MESSAGE_LENGTH) {
+            logger.warn("Message too long: {} > {}", rawMessage.length(), MAX_MESSAGE_LENGTH);
+            return ValidationResult.fail(ValidationError.MESSAGE_TOO_LONG,
+                                         rawMessage.length(), MAX_MESSAGE_LENGTH);
+        }
+        
+        // 3. Basic format check
+        if (!rawMessage.contains("=")) {
+            return ValidationResult.fail(ValidationError.MISSING_EQUALS);
+        }
+        
+        if (!rawMessage.contains("|")) {
+            return ValidationResult.fail(ValidationError.MISSING_DELIMITER);
+        }
+        
+        // 4. Check for double delimiters (||)
+        if (rawMessage.contains("||")) {
+            return ValidationResult.fail(ValidationError.DOUBLE_DELIMITER);
+        }
+        
+        // 5. Must end with delimiter
+        if (!rawMessage.endsWith("|")) {
+            return ValidationResult.fail(ValidationError.MISSING_TRAILING_DELIMITER);
+        }
+        
+        // 6. Parse and validate each tag
+        String[] parts = rawMessage.split("\\|");
+        
+        if (parts.length > MAX_TAGS_PER_MESSAGE) {
+            return ValidationResult.fail(ValidationError.TOO_MANY_TAGS,
+                                         parts.length, MAX_TAGS_PER_MESSAGE);
+        }
+        
+        Set<String> seenTags = new HashSet<>();
+        
+        for (String part : parts) {
+            if (part.isEmpty()) {
+                continue;  // Last part after final | is empty
+            }
+
+            long equalsCount = part.chars().filter(ch -> ch == '=').count();
+            if (equalsCount != 1) {
+                return ValidationResult.fail(ValidationError.INVALID_TAG_FORMAT, part);
+            }
+            
+            // 7. Split on the single '='
+            String[] keyValue = part.split("=", 2);
+            
+            String tag = keyValue[0];
+            String value = keyValue[1];
+            
+            // 8. Tag must not be empty
+            if (tag.isEmpty()) {
+                return ValidationResult.fail(ValidationError.EMPTY_TAG);
+            }
+            
+            // 9. Tag must be numeric
+            if (!TAG_PATTERN.matcher(tag).matches()) {
+                return ValidationResult.fail(ValidationError.NON_NUMERIC_TAG, tag);
+            }
+            
+            // 10. Value must not be empty (except for specific cases)
+            if (value.isEmpty()) {
+                return ValidationResult.fail(ValidationError.EMPTY_VALUE, tag);
+            }
+            
+            // 11. Value length check
+            if (value.length() > MAX_TAG_VALUE_LENGTH) {
+                logger.warn("Value too long for tag {}: {} > {}", 
+                           tag, value.length(), MAX_TAG_VALUE_LENGTH);
+                return ValidationResult.fail(ValidationError.VALUE_TOO_LONG,
+                                             tag, value.length(), MAX_TAG_VALUE_LENGTH);
+            }
+            
+            // 12. Check for duplicate tags
+            if (seenTags.contains(tag)) {
+                return ValidationResult.fail(ValidationError.DUPLICATE_TAG, tag);
+            }
+            seenTags.add(tag);
+            
+            // 13. Check for dangerous characters (injection protection)
+            if (DANGEROUS_CHARS.matcher(value).find()) {
+                logger.warn("Dangerous characters in tag {}: {}", tag, value);
+                return ValidationResult.fail(ValidationError.DANGEROUS_CHARACTERS, tag);
+            }
+        }
+        
+        logger.debug("Message validation successful: {} tags", seenTags.size());
+        return ValidationResult.success();
+    }
+}
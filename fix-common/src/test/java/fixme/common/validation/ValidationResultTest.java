@@ -0,0 +1,90 @@
+package fixme.common.validation;
+
+import fixme.common.config.FixConfig;
+import fixme.common.validation.ValidationResult.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ValidationResult and its error codes
+ */
+class ValidationResultTest {
+
+    @Test
+    @DisplayName("Success and argument-less failures should be shared instances")
+    void testSharedInstances() {
+        assertSame(ValidationResult.success(), ValidationResult.success());
+        assertSame(ValidationResult.fail(ValidationError.EMPTY_TAG),
+                   ValidationResult.fail(ValidationError.EMPTY_TAG));
+
+        assertTrue(ValidationResult.success().isValid());
+        assertNull(ValidationResult.success().getError());
+        assertNull(ValidationResult.success().getErrorMessage());
+    }
+
+    @Test
+    @DisplayName("Failures should render the same messages as before error codes")
+    void testRenderedMessages() {
+        assertEquals("Too many tags: 51 (max: 50)",
+                     ValidationResult.fail(ValidationError.TOO_MANY_TAGS, 51, 50).getErrorMessage());
+        assertEquals("Multiple messages detected (2 messages in buffer). Send one message at a time.",
+                     ValidationResult.fail(ValidationError.MULTIPLE_MESSAGES, 2).getErrorMessage());
+        assertEquals("Value too long for tag 58: 600 bytes (max: 512)",
+                     ValidationResult.fail(ValidationError.VALUE_TOO_LONG, "58", 600, 512).getErrorMessage());
+        assertEquals("Required tag 55 (Symbol) is missing for message type NewOrderSingle",
+                     ValidationResult.fail(ValidationError.MISSING_REQUIRED_TAG,
+                                           FixConfig.getInstance().getValidationPlan('D'), 55)
+                                     .getErrorMessage());
+    }
+
+    @Test
+    @DisplayName("Byte slice arguments should outlive the array they were taken from")
+    void testByteSliceCopied() {
+        byte[] message = "49=100001|49=100001|".getBytes(StandardCharsets.ISO_8859_1);
+
+        ValidationResult result = ValidationResult.fail(ValidationError.DUPLICATE_TAG, message, 10, 12);
+        // The receive buffer reused for the next message
+        byte[] next = "56=200001|56=200001|".getBytes(StandardCharsets.ISO_8859_1);
+        System.arraycopy(next, 0, message, 0, next.length);
+
+        assertFalse(result.isValid());
+        assertEquals(ValidationError.DUPLICATE_TAG, result.getError());
+        assertEquals(Stage.FORMAT, result.getStage());
+        assertEquals("Duplicate tag", result.getError().getDescription());
+        assertEquals("Duplicate tag: 49", result.getErrorMessage());
+        assertSame(result.getErrorMessage(), result.getErrorMessage(), "Message should be rendered once");
+    }
+
+    @Test
+    @DisplayName("Free-form failures should keep their message and stage")
+    void testFreeFormFailure() {
+        ValidationResult plain = ValidationResult.fail("Something went wrong");
+        ValidationResult staged = ValidationResult.fail(Stage.PROTOCOL, "Bad protocol");
+
+        assertEquals(ValidationError.OTHER, plain.getError());
+        assertEquals("Something went wrong", plain.getErrorMessage());
+        assertNull(plain.getStage());
+        assertEquals(Stage.PROTOCOL, staged.getStage());
+        assertThrows(IllegalArgumentException.class, staged::throwIfInvalid);
+        assertThrows(IllegalArgumentException.class, () -> ValidationResult.fail(""));
+    }
+
+    @Test
+    @DisplayName("Arguments should match the error code")
+    void testArgumentMismatch() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> ValidationResult.fail(ValidationError.DUPLICATE_TAG));
+        assertThrows(IllegalArgumentException.class,
+                     () -> ValidationResult.fail(ValidationError.EMPTY_TAG, "49"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> ValidationResult.fail(ValidationError.DUPLICATE_TAG, 1, 2));
+        assertThrows(IllegalArgumentException.class,
+                     () -> ValidationResult.fail(ValidationError.MULTIPLE_MESSAGES, 2, 0));
+        assertThrows(IllegalArgumentException.class,
+                     () -> ValidationResult.fail(ValidationError.MESSAGE_TOO_LONG, 5000));
+    }
+}
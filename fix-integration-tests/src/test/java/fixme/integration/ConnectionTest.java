@@ -97,4 +97,27 @@ public class ConnectionTest extends IntegrationTestBase {
         broker.close();
         market.close();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Router should close a broker after its 5th consecutive error")
+    public void testCloseAfterMaxErrors() throws Exception {
+        // Given: a connected broker
+        TestClient broker = createBroker();
+
+        // When: it sends 5 invalid messages, one at a time
+        for (int i = 1; i <= 5; i++) {
+            broker.send("garbage");
+            assertThat(broker.receive(2000))
+                .as("error reply %d", i)
+                .isNotNull()
+                .containsIgnoringCase("error");
+        }
+
+        // Then: the router closes the connection after the last reply
+        assertThat(broker.receive(2000)).isNull();
+
+        logger.info("✓ Router closed the connection after 5 errors");
+
+        broker.close();
+    }
+}
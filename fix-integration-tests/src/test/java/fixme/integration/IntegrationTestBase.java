@@ -2,6 +2,7 @@ package fixme.integration;
 
 import fixme.common.client.FixClient;
 import fixme.router.nio.NioServer;
+import fixme.router.nio.ReactorAssignment;
 import fixme.router.connection.ConnectionManager;
 import fixme.router.nio.MessageDispatcher;
 import fixme.router.processor.MessageProcessor;
@@ -54,12 +55,15 @@ public abstract class IntegrationTestBase {
             messageProcessor
         );
         
-        // Create and initialize router
+        // Create and initialize router, with two reactors so that Brokers
+        // and Markets also talk across reactors
         routerServer = new NioServer(
             BROKER_PORT,
             MARKET_PORT,
             connectionManager,
-            messageDispatcher
+            messageDispatcher,
+            2,
+            ReactorAssignment.LEAST_CONNECTIONS
         );
         
         routerServer.initialize();
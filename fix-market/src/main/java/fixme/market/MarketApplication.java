@@ -3,10 +3,15 @@ package fixme.market;
 import fixme.common.message.FixMessage;
 import fixme.common.message.FixMessageFactory;
 import fixme.common.message.FixTags;
+import fixme.common.message.FixedPoint;
+import fixme.common.message.HeaderTemplate;
+import fixme.common.pool.ObjectPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Market application that executes orders from brokers.
@@ -22,6 +27,13 @@ public class MarketApplication {
     
     private static final Logger logger = LoggerFactory.getLogger(MarketApplication.class);
     
+    // Inbound orders are parsed into recycled messages, released once handled
+    private static final ObjectPool<FixMessage> orderPool =
+        new ObjectPool<>("MarketOrder", FixMessage::new, FixMessage::reset, 4);
+    
+    // Pre-encoded ExecutionReport headers, one per broker (orders are handled on the main thread)
+    private static final Map<String, HeaderTemplate> reportHeaders = new HashMap<>();
+    
     public static void main(String[] args) {
         logger.info("=".repeat(60));
         logger.info("Starting FIX Market...");
@@ -48,6 +60,12 @@ public class MarketApplication {
                 }
                 
                 handleOrder(client, marketId, orderBook, message);
+                
+                // Reports are batched while orders keep arriving, and sent
+                // together once the burst is handled
+                if (!client.hasPendingInput() && !flushReports(client)) {
+                    break;
+                }
             }
             
             client.close();
@@ -61,6 +79,16 @@ public class MarketApplication {
         logger.info("Market stopped");
     }
     
+    private static boolean flushReports(MarketClient client) {
+        try {
+            client.flush();
+            return true;
+        } catch (IOException e) {
+            logger.error("Error sending execution reports: {}", e.getMessage());
+            return false;
+        }
+    }
+    
     private static void handleOrder(MarketClient client, String marketId, 
                                     OrderBook orderBook, String rawMessage) {
         if (rawMessage.startsWith("[")) {
@@ -70,8 +98,9 @@ public class MarketApplication {
             }
         }
         
+        FixMessage order = orderPool.acquire();
         try {
-            FixMessage order = FixMessage.parse(rawMessage);
+            FixMessage.parse(rawMessage, order);
             
             String msgType = order.getMsgType();
             
@@ -83,6 +112,8 @@ public class MarketApplication {
             
         } catch (Exception e) {
             logger.error("Error processing order: {}", rawMessage, e);
+        } finally {
+            orderPool.release(order);
         }
     }
     
@@ -92,9 +123,9 @@ public class MarketApplication {
         // Extract order details
         String brokerId = order.getSenderCompId();
         String symbol = order.getSymbol();
-        String side = order.getField(FixTags.SIDE);
-        String qtyStr = order.getField(FixTags.ORDER_QTY);
-        String priceStr = order.getField(FixTags.PRICE);
+        String side = order.getField(FixTags.TAG_SIDE);
+        String qtyStr = order.getField(FixTags.TAG_ORDER_QTY);
+        String priceStr = order.getField(FixTags.TAG_PRICE);
         
         if (symbol == null || side == null || qtyStr == null) {
             logger.warn("Invalid order: missing required fields");
@@ -103,11 +134,11 @@ public class MarketApplication {
         }
         
         int quantity;
-        double price;
+        long price;
         
         try {
             quantity = Integer.parseInt(qtyStr);
-            price = priceStr != null ? Double.parseDouble(priceStr) : 0.0;
+            price = priceStr != null ? FixedPoint.parse(priceStr) : 0L;
         } catch (NumberFormatException e) {
             logger.warn("Invalid order: bad number format");
             sendRejection(client, marketId, brokerId, symbol, "Invalid quantity or price");
@@ -117,50 +148,69 @@ public class MarketApplication {
         boolean isBuy = "1".equals(side);
         String sideStr = isBuy ? "BUY" : "SELL";
         
-        logger.info("Received {} order: {} x{} @ ${} from {}", 
-                   sideStr, symbol, quantity, price, brokerId);
+        if (logger.isInfoEnabled()) {
+            logger.info("Received {} order: {} x{} @ ${} from {}", 
+                       sideStr, symbol, quantity, FixedPoint.toString(price), brokerId);
+        }
+        
+        // One symbol lookup per order, the book is then indexed by ID
+        int symbolId = orderBook.getSymbolId(symbol);
         
-        if (!orderBook.isTradedSymbol(symbol)) {
+        if (!orderBook.isTradedSymbol(symbolId)) {
             String reason = String.format("Symbol %s not traded on this market", symbol);
             sendRejection(client, marketId, brokerId, symbol, reason);
             displayRejection(symbol, quantity, sideStr, reason);
             return;
         }
         
-        if (!orderBook.canExecute(symbol, quantity, isBuy)) {
-            int available = orderBook.getAvailable(symbol);
+        if (!orderBook.canExecute(symbolId, quantity, isBuy)) {
+            int available = orderBook.getAvailable(symbolId);
             String reason = String.format("Insufficient quantity (available: %d)", available);
             sendRejection(client, marketId, brokerId, symbol, reason);
             displayRejection(symbol, quantity, sideStr, reason);
             return;
         }
         
-        orderBook.execute(symbol, quantity, isBuy);
+        try {
+            orderBook.execute(symbolId, quantity, isBuy, price);
+        } catch (ArithmeticException e) {
+            // Price x quantity beyond the FixedPoint range; the book is unchanged
+            String reason = "Order value out of range";
+            sendRejection(client, marketId, brokerId, symbol, reason);
+            displayRejection(symbol, quantity, sideStr, reason);
+            return;
+        }
         
-        FixMessage report = FixMessageFactory.createFilledReport(
-            marketId, brokerId, symbol, quantity, price
+        FixMessage report = FixMessageFactory.createExecutionReport(
+            reportHeader(marketId, brokerId), symbol, FixTags.ORD_STATUS_FILLED, quantity, price, null
         );
         
-        client.sendMessage(report.toString());
+        client.send(report);
         
-        displayExecution(symbol, quantity, price, sideStr, orderBook.getAvailable(symbol));
+        displayExecution(symbol, quantity, price, sideStr, orderBook.getAvailable(symbolId));
     }
     
     private static void sendRejection(MarketClient client, String marketId, 
                                      String brokerId, String symbol, String reason) throws IOException {
-        FixMessage report = FixMessageFactory.createRejectedReport(
-            marketId, brokerId, symbol != null ? symbol : "UNKNOWN", reason
+        FixMessage report = FixMessageFactory.createExecutionReport(
+            reportHeader(marketId, brokerId), symbol != null ? symbol : "UNKNOWN",
+            FixTags.ORD_STATUS_REJECTED, FixMessageFactory.NO_QUANTITY, FixedPoint.NONE, reason
         );
         
-        client.sendMessage(report.toString());
+        client.send(report);
         logger.info("Sent rejection to {}: {}", brokerId, reason);
     }
     
-    private static void displayExecution(String symbol, int quantity, double price, 
+    private static HeaderTemplate reportHeader(String marketId, String brokerId) {
+        return reportHeaders.computeIfAbsent(brokerId, id ->
+            FixMessageFactory.createHeaderTemplate(marketId, id, FixTags.MSG_TYPE_EXECUTION_REPORT));
+    }
+    
+    private static void displayExecution(String symbol, int quantity, long price, 
                                         String side, int remaining) {
         System.out.println("\n" + "─".repeat(60));
         System.out.println("ORDER FILLED");
-        System.out.printf("   %-8s %s x%,d @ $%.2f%n", side, symbol, quantity, price);
+        System.out.printf("   %-8s %s x%,d @ $%s%n", side, symbol, quantity, FixedPoint.toString(price));
         System.out.printf("   Remaining inventory: %,d shares%n", remaining);
         System.out.println("─".repeat(60));
     }
@@ -1,6 +1,7 @@
 package fixme.market;
 
 import fixme.common.client.FixClient;
+import fixme.common.client.NioClientEngine;
 
 /**
  * Market client that connects to router on port 5001.
@@ -9,6 +10,24 @@ public class MarketClient extends FixClient {
     
     private static final int MARKET_PORT = 5001;
     
+    /**
+     * Creates a client in the mode set by the fixme.client.mode property.
+     */
+    public MarketClient() {
+        super();
+    }
+    
+    public MarketClient(Mode mode) {
+        super(mode);
+    }
+    
+    /**
+     * Creates a client in NIO mode sharing the given engine's selector thread.
+     */
+    public MarketClient(NioClientEngine engine) {
+        super(engine);
+    }
+    
     @Override
     protected int getRouterPort() {
         return MARKET_PORT;
@@ -1,49 +1,93 @@
 package fixme.market;
 
+import fixme.common.message.FixedPoint;
+import fixme.common.symbol.SymbolTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Arrays;
 
 /**
  * Order book that maintains available instruments and their quantities.
+ * Traded value is accumulated per instrument as a FixedPoint amount,
+ * so totals are exact.
+ *
+ * Instruments are identified by their SymbolTable ID and their state is
+ * kept in arrays indexed by it. Look the symbol up once per order with
+ * getSymbolId() and use the int overloads; the String methods do that
+ * lookup on every call.
  */
 public class OrderBook {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(OrderBook.class);
-    
-    private final Map<String, Integer> inventory;
-    
+
+    private final SymbolTable symbols;
+
+    // Indexed by symbol ID; only the IDs known when the book was built are traded
+    private final boolean[] traded;
+    private final int[] inventory;
+
+    // Traded value per symbol (FixedPoint)
+    private final long[] turnover;
+
     public OrderBook() {
-        this.inventory = new ConcurrentHashMap<>();
-        initializeInventory();
+        this(SymbolTable.getInstance());
     }
-    
-    private void initializeInventory() {
-        inventory.put("AAPL", 1000);
-        inventory.put("GOOGL", 500);
-        inventory.put("MSFT", 750);
-        inventory.put("AMZN", 300);
-        inventory.put("TSLA", 200);
-        
-        logger.info("Initialized inventory with {} instruments", inventory.size());
-        inventory.forEach((symbol, qty) -> 
-            logger.info("  {}: {} shares", symbol, qty)
-        );
+
+    public OrderBook(SymbolTable symbols) {
+        this.symbols = symbols;
+
+        String[] instruments = {"AAPL", "GOOGL", "MSFT", "AMZN", "TSLA"};
+        int[] quantities = {1000, 500, 750, 300, 200};
+
+        int[] ids = new int[instruments.length];
+        int maxId = -1;
+        for (int i = 0; i < instruments.length; i++) {
+            ids[i] = symbols.intern(instruments[i]);
+            maxId = Math.max(maxId, ids[i]);
+        }
+
+        this.traded = new boolean[maxId + 1];
+        this.inventory = new int[maxId + 1];
+        this.turnover = new long[maxId + 1];
+        for (int i = 0; i < instruments.length; i++) {
+            traded[ids[i]] = true;
+            inventory[ids[i]] = quantities[i];
+        }
+
+        logger.info("Initialized inventory with {} instruments", instruments.length);
+        for (int i = 0; i < instruments.length; i++) {
+            logger.info("  {}: {} shares", instruments[i], quantities[i]);
+        }
+    }
+
+    /**
+     * @return the ID of the symbol, or SymbolTable.NOT_FOUND if no
+     *         component ever interned it (it is then not traded here)
+     */
+    public int getSymbolId(String symbol) {
+        return symbols.lookup(symbol);
     }
-    
-    public synchronized boolean canExecute(String symbol, int quantity, boolean isBuy) {
-        if (!inventory.containsKey(symbol)) {
-            logger.debug("Symbol {} not traded on this market", symbol);
+
+    public boolean isTradedSymbol(int symbolId) {
+        return symbolId >= 0 && symbolId < traded.length && traded[symbolId];
+    }
+
+    public boolean isTradedSymbol(String symbol) {
+        return isTradedSymbol(getSymbolId(symbol));
+    }
+
+    public synchronized boolean canExecute(int symbolId, int quantity, boolean isBuy) {
+        if (!isTradedSymbol(symbolId)) {
+            logger.debug("Symbol {} not traded on this market", symbolId);
             return false;
         }
-        
-        int available = inventory.get(symbol);
-        
+
+        int available = inventory[symbolId];
+
         if (isBuy) {
             boolean canFill = available >= quantity;
-            logger.debug("Buy order: {} shares available, {} requested -> {}", 
+            logger.debug("Buy order: {} shares available, {} requested -> {}",
                         available, quantity, canFill ? "OK" : "REJECT");
             return canFill;
         } else {
@@ -51,45 +95,89 @@ public class OrderBook {
             return true;
         }
     }
-    
-    public synchronized void execute(String symbol, int quantity, boolean isBuy) {
-        int current = inventory.getOrDefault(symbol, 0);
+
+    public boolean canExecute(String symbol, int quantity, boolean isBuy) {
+        return canExecute(getSymbolId(symbol), quantity, isBuy);
+    }
+
+    public void execute(String symbol, int quantity, boolean isBuy) {
+        execute(getSymbolId(symbol), quantity, isBuy, 0L);
+    }
+
+    public void execute(String symbol, int quantity, boolean isBuy, long price) {
+        execute(getSymbolId(symbol), quantity, isBuy, price);
+    }
+
+    /**
+     * Executes an order and adds its value to the symbol's turnover.
+     * The book is left unchanged if the order is refused.
+     *
+     * @param price Execution price as a FixedPoint value (scaled by 100)
+     * @throws IllegalArgumentException if the symbol is not traded here
+     * @throws ArithmeticException if the order value or the turnover overflows
+     */
+    public synchronized void execute(int symbolId, int quantity, boolean isBuy, long price) {
+        if (!isTradedSymbol(symbolId)) {
+            throw new IllegalArgumentException("Symbol " + symbolId + " not traded on this market");
+        }
+        // Before any change: a price near the FixedPoint range overflows here
+        long newTurnover = Math.addExact(turnover[symbolId], FixedPoint.multiply(price, quantity));
+
+        int current = inventory[symbolId];
         int newQuantity;
-        
+
         if (isBuy) {
             // Broker buys, market sells -> reduce inventory
             newQuantity = current - quantity;
-            logger.info("Executed BUY: {} shares of {} (inventory: {} -> {})", 
-                       quantity, symbol, current, newQuantity);
+            logger.info("Executed BUY: {} shares of {} (inventory: {} -> {})",
+                       quantity, symbols.getSymbol(symbolId), current, newQuantity);
         } else {
             // Broker sells, market buys -> increase inventory
             newQuantity = current + quantity;
-            logger.info("Executed SELL: {} shares of {} (inventory: {} -> {})", 
-                       quantity, symbol, current, newQuantity);
+            logger.info("Executed SELL: {} shares of {} (inventory: {} -> {})",
+                       quantity, symbols.getSymbol(symbolId), current, newQuantity);
         }
-        
-        inventory.put(symbol, newQuantity);
+
+        inventory[symbolId] = newQuantity;
+        turnover[symbolId] = newTurnover;
     }
-    
+
+    public synchronized int getAvailable(int symbolId) {
+        return isTradedSymbol(symbolId) ? inventory[symbolId] : 0;
+    }
+
     public int getAvailable(String symbol) {
-        return inventory.getOrDefault(symbol, 0);
+        return getAvailable(getSymbolId(symbol));
     }
-    
-    public boolean isTradedSymbol(String symbol) {
-        return inventory.containsKey(symbol);
+
+    /**
+     * Total value traded on a symbol, as a FixedPoint value (scaled by 100).
+     */
+    public synchronized long getTurnover(int symbolId) {
+        return isTradedSymbol(symbolId) ? turnover[symbolId] : 0L;
+    }
+
+    public long getTurnover(String symbol) {
+        return getTurnover(getSymbolId(symbol));
     }
-    
-    public void displayInventory() {
+
+    public synchronized void displayInventory() {
         System.out.println("\n" + "=".repeat(50));
         System.out.println("           MARKET INVENTORY");
         System.out.println("=".repeat(50));
-        
-        inventory.entrySet().stream()
-            .sorted(Map.Entry.comparingByKey())
-            .forEach(entry -> 
-                System.out.printf("  %-10s %,6d shares%n", entry.getKey(), entry.getValue())
-            );
-        
+
+        String[] names = new String[traded.length];
+        int count = 0;
+        for (int id = 0; id < traded.length; id++) {
+            if (traded[id]) {
+                names[count++] = symbols.getSymbol(id);
+            }
+        }
+        Arrays.sort(names, 0, count);
+        for (int i = 0; i < count; i++) {
+            System.out.printf("  %-10s %,6d shares%n", names[i], inventory[symbols.lookup(names[i])]);
+        }
+
         System.out.println("=".repeat(50));
     }
-}
\ No newline at end of file
+}
@@ -4,9 +4,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import fixme.common.config.FixConfig;
+import fixme.common.config.FixDictionaryWatcher;
 import fixme.router.connection.ConnectionManager;
 import fixme.router.nio.MessageDispatcher;
 import fixme.router.nio.NioServer;
+import fixme.router.nio.ReactorAssignment;
 import fixme.router.processor.MessageProcessor;
 import fixme.router.routing.RoutingTable;
 
@@ -38,6 +40,7 @@ public class RouterApplication {
     private static final int MARKET_PORT = 5001;  // Port for Market connections
     
     private static final int MESSAGE_PROCESSOR_THREADS = 4; // Thread pool size
+    private static final int IO_REACTOR_THREADS = 2;        // Selector threads for client I/O
     
     public static void main(String[] args) {
         logger.info("=".repeat(60));
@@ -45,10 +48,12 @@ public class RouterApplication {
         logger.info("=".repeat(60));
         
         try {
-            // Load FIX configuration
+            // Load FIX configuration; -Dfixme.dictionary=<file> loads an
+            // external dictionary instead and reloads it when it changes
+            FixDictionaryWatcher dictionaryWatcher = FixDictionaryWatcher.fromSystemProperty();
             FixConfig config = FixConfig.getInstance();
-            logger.info("Loaded FIX configuration: {} v{}", 
-                       config.getProtocol(), config.getVersion());
+            logger.info("Loaded FIX configuration: {} v{} from {}", 
+                       config.getProtocol(), config.getVersion(), config.getSource());
             
             // Create Phase 2 components
             RoutingTable routingTable = new RoutingTable();
@@ -67,7 +72,9 @@ public class RouterApplication {
                 BROKER_PORT,
                 MARKET_PORT,
                 connectionManager,
-                messageDispatcher
+                messageDispatcher,
+                IO_REACTOR_THREADS,
+                ReactorAssignment.LEAST_CONNECTIONS
             );
             
             // Initialize the server (binds both ports)
@@ -82,6 +89,7 @@ public class RouterApplication {
             logger.info("  - Single server listening on 2 ports:");
             logger.info("    * Port {} for Brokers (assigns IDs: 100001, 100002...)", BROKER_PORT);
             logger.info("    * Port {} for Markets (assigns IDs: 200001, 200002...)", MARKET_PORT);
+            logger.info("  - {} I/O reactor threads", IO_REACTOR_THREADS);
             logger.info("");
             logger.info("Press Ctrl+C to stop...");
             logger.info("=".repeat(60));
@@ -99,6 +107,14 @@ public class RouterApplication {
                 // Shutdown MessageProcessor
                 messageProcessor.shutdown();
                 
+                if (dictionaryWatcher != null) {
+                    try {
+                        dictionaryWatcher.close();
+                    } catch (IOException e) {
+                        logger.warn("Error closing dictionary watcher", e);
+                    }
+                }
+                
                 // Wait for server thread
                 try {
                     serverThread.join(5000);
@@ -2,17 +2,19 @@ package fixme.router.nio;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import fixme.common.message.MessageFramer;
+import fixme.common.pool.BufferPool;
 import fixme.router.ComponentType;
 
 
@@ -25,23 +27,59 @@ public class ClientConnection {
     private static final Logger logger = LoggerFactory.getLogger(ClientConnection.class);
 
     private static final int BUFFER_SIZE = 8192;
+    private static final byte DELIMITER = '|';
+
+    // Router-wide direct buffers for reads and outgoing frames: forwarded
+    // messages fit the small classes, read buffers take the largest one
+    private static final int[] BUFFER_SIZE_CLASSES = {256, 1024, 4096, BUFFER_SIZE};
+    private static final int BUFFERS_PER_SLAB = 64;
+    private static final int MAX_IDLE_BUFFERS_PER_CLASS = 1024;
+    private static final BufferPool BUFFERS =
+        new BufferPool("ClientConnection", BUFFER_SIZE_CLASSES, BUFFERS_PER_SLAB, MAX_IDLE_BUFFERS_PER_CLASS);
+
+    // Frames handed to the channel in one gathering write
+    private static final int MAX_GATHER = 64;
 
     private final String clientId;
     private final SocketChannel channel;
     private final ComponentType type;
     private final Instant connectedAt;
-    private Selector selector;
+
+    // I/O reactor owning the connection, set by the acceptor and read by
+    // the threads queuing frames
+    private volatile IoReactor reactor;
+
+    // Set while a flush of this connection is queued on its reactor, so
+    // that a burst of frames posts a single command
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
     
-    private final ByteBuffer readBuffer;
+    // Leased from the pool for a read and kept only while it holds a
+    // partial message, in write mode; null while the connection is idle.
+    // Reactor thread only.
+    private ByteBuffer readBuffer;
+    private final MessageFramer framer;
+
+    // Pooled frames go back to the pool once written; shared frames are
+    // read-only heap buffers, which the pool ignores
     private final ConcurrentLinkedQueue<ByteBuffer> writeQueue;
 
-    // message accumulation buffer for partial reads
-    private final StringBuilder messageBuilder;
+    // Frames taken off the write queue for gathering writes, still to be
+    // written from gatherStart to gatherEnd. Reactor thread only.
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+    private int gatherStart;
+    private int gatherEnd;
+
+    // Written by the reactor thread only
+    private volatile long writeCalls;
+    private volatile long messagesWritten;
 
     private volatile boolean identified;
     private volatile boolean markedForClosure = false;
 
-    private static final int MAX_CONSECUTIVE_ERRORS = 5;
+    // Set by close(); frames queued by workers afterwards go straight back
+    // to the pool instead of waiting in a queue nobody drains
+    private volatile boolean closed;
+
     private final AtomicInteger consecutiveErrorCount = new AtomicInteger(0);
 
 
@@ -50,9 +88,8 @@ public class ClientConnection {
         this.channel = channel;
         this.type = componentType;
         this.connectedAt = Instant.now();
-        this.readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.framer = new MessageFramer(DELIMITER, BUFFER_SIZE);
         this.writeQueue = new ConcurrentLinkedQueue<>();
-        this.messageBuilder = new StringBuilder();
         this.identified = false;
   
 
@@ -83,27 +120,46 @@ public class ClientConnection {
         this.identified = identified;
     }
 
-    public void setSelector(Selector selector) {
-        this.selector = selector; 
+    void setReactor(IoReactor reactor) {
+        this.reactor = reactor;
     }
 
+    /**
+     * Asks the reactor owning the connection to write its queued frames.
+     * Safe from any thread: the request is posted to the reactor, which
+     * changes the interest set itself, and requests made before it ran
+     * are coalesced into one.
+     */
     public void enableWriteInterest() {
-        if (selector == null) {
-            logger.warn("Cannot enable write interest - selector not set for {}", clientId);
+        IoReactor owner = reactor;
+        if (owner == null) {
+            // Not handed over yet; the reactor flushes on registration
+            logger.debug("No reactor yet for {}, frame stays queued", clientId);
             return;
         }
-        
-        try {
-            SelectionKey key = channel.keyFor(selector);
-            if (key != null && key.isValid()) {
-                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
-                logger.debug("Enabled OP_WRITE for {}", clientId);
-            }
-        } catch (Exception e) {
-            logger.error("Error enabling write interest for {}", clientId, e);
+
+        if (requestFlush()) {
+            owner.post(this);
         }
     }
 
+    /**
+     * Marks a flush as requested.
+     *
+     * @return false if one was already pending on the reactor
+     */
+    boolean requestFlush() {
+        return flushRequested.compareAndSet(false, true);
+    }
+
+    /**
+     * Called by the reactor before it looks at the write queue, so that a
+     * frame queued afterwards posts a new request.
+     */
+    void clearFlushRequest() {
+        flushRequested.set(false);
+    }
+
     public void queueMessage(String message) {
         if (message == null || message.isEmpty()) {
             logger.warn("Attempted to queue null or empty message for client {}", clientId);
@@ -111,81 +167,245 @@ public class ClientConnection {
         }
 
         String messageToSend = message.endsWith("\n") ? message : message + "\n";
-        byte[] bytes = messageToSend.getBytes(StandardCharsets.UTF_8);
-        ByteBuffer buffer = ByteBuffer.wrap(bytes);
-        writeQueue.offer(buffer);
+        ByteBuffer buffer;
+        if (isAscii(messageToSend)) {
+            buffer = BUFFERS.acquire(messageToSend.length());
+            for (int i = 0; i < messageToSend.length(); i++) {
+                buffer.put((byte) messageToSend.charAt(i));
+            }
+        } else {
+            byte[] bytes = messageToSend.getBytes(StandardCharsets.UTF_8);
+            buffer = BUFFERS.acquire(bytes.length).put(bytes);
+        }
+        buffer.flip();
+        if (!enqueue(buffer)) {
+            return;
+        }
 
         logger.debug("Queued message for client {}: {}", clientId, messageToSend);
     }
 
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Leases a pooled buffer of at least length bytes to encode a frame
+     * into, then queue with queueFrame(ByteBuffer).
+     */
+    public ByteBuffer allocateFrame(int length) {
+        return BUFFERS.acquire(length);
+    }
+
+    /**
+     * Queues a newline-terminated frame encoded from the start of a buffer
+     * leased with allocateFrame(); the buffer is flipped here. It is owned
+     * by the connection from now on and goes back to the pool once written.
+     */
+    public void queueFrame(ByteBuffer frame) {
+        frame.flip();
+        int length = frame.remaining();
+        if (!enqueue(frame)) {
+            return;
+        }
+        logger.debug("Queued {} byte frame for client {}", length, clientId);
+    }
+
+    /**
+     * Queues a newline-terminated frame that may be queued on other
+     * connections too, such as a pre-encoded error reply. The connection
+     * only reads the array.
+     */
+    public void queueSharedFrame(byte[] frame) {
+        if (!enqueue(ByteBuffer.wrap(frame).asReadOnlyBuffer())) {
+            return;
+        }
+        logger.debug("Queued {} byte shared frame for client {}", frame.length, clientId);
+    }
+
+    /**
+     * Adds a frame to the write queue unless the connection is closed, in
+     * which case the frame goes back to the pool. A frame offered while
+     * close() runs is either drained by close() or, if the flag was set
+     * just after the check, by the caller itself: queue polls are atomic,
+     * so each frame is released once.
+     *
+     * @return false if the connection was closed and the frame dropped
+     */
+    private boolean enqueue(ByteBuffer frame) {
+        if (closed) {
+            BUFFERS.release(frame);
+            logger.debug("Dropped frame for closed client {}", clientId);
+            return false;
+        }
+        writeQueue.offer(frame);
+        if (closed) {
+            drainWriteQueue();
+            return false;
+        }
+        return true;
+    }
+
+    private void drainWriteQueue() {
+        ByteBuffer pending;
+        while ((pending = writeQueue.poll()) != null) {
+            BUFFERS.release(pending);
+        }
+    }
+
     public boolean hasDataToWrite() {
-        return !writeQueue.isEmpty();
+        return gatherEnd > gatherStart || !writeQueue.isEmpty();
     }
 
     /**
-     * Writes pending messages to the client channel.
-     * Non-blocking; may perform partial writes.
+     * Writes pending messages to the client channel, up to MAX_GATHER
+     * frames per gathering write.
+     * Non-blocking; may perform partial writes, the frames not fully
+     * written are kept, in order, for the next call.
      * @throws IOException
      */
     public void write() throws IOException {
 
-        ByteBuffer buffer = writeQueue.peek();
-        while (buffer != null) {
-            int written = channel.write(buffer);
-            if (written > 0) {
-                logger.debug("Wrote {} bytes to client {}", written, clientId);
+        while (true) {
+            fillGather();
+            if (gatherStart == gatherEnd) {
+                return;
+            }
+
+            long written = channel.write(gather, gatherStart, gatherEnd - gatherStart);
+            writeCalls++;
+
+            int completed = 0;
+            while (gatherStart < gatherEnd && !gather[gatherStart].hasRemaining()) {
+                BUFFERS.release(gather[gatherStart]);
+                gather[gatherStart++] = null;
+                completed++;
             }
+            messagesWritten += completed;
+            logger.debug("Wrote {} bytes, {} messages to client {}", written, completed, clientId);
 
-            if (!buffer.hasRemaining()) {
-                writeQueue.poll();
-                buffer = writeQueue.peek();
-                logger.debug("Completed writing message to client {}", clientId);
-            } else {
-                break;
+            if (gatherStart < gatherEnd) {
+                // Socket buffer full
+                return;
             }
         }
     }
 
-    public String read() throws IOException {
+    /**
+     * Moves the frames left by a partial write to the start of the gather
+     * array, then tops it up from the write queue.
+     */
+    private void fillGather() {
+        if (gatherStart > 0) {
+            int pending = gatherEnd - gatherStart;
+            System.arraycopy(gather, gatherStart, gather, 0, pending);
+            Arrays.fill(gather, pending, gatherEnd, null);
+            gatherStart = 0;
+            gatherEnd = pending;
+        }
+        ByteBuffer frame;
+        while (gatherEnd < MAX_GATHER && (frame = writeQueue.poll()) != null) {
+            gather[gatherEnd++] = frame;
+        }
+    }
+
+    /**
+     * Number of write calls made on the channel.
+     */
+    public long getWriteCalls() {
+        return writeCalls;
+    }
+
+    /**
+     * Number of messages (frames) fully written to the channel.
+     */
+    public long getMessagesWritten() {
+        return messagesWritten;
+    }
+
+    /**
+     * Average number of messages completed per write call, showing how
+     * much the gathering writes batch.
+     */
+    public double getMessagesPerWrite() {
+        long calls = writeCalls;
+        return calls == 0 ? 0 : (double) messagesWritten / calls;
+    }
+
+    /**
+     * Reads what the channel has and hands every complete message to the
+     * dispatcher, as a slice of the read buffer. The partial message left,
+     * if any, is kept for the next read; otherwise the read buffer goes
+     * back to the pool until data arrives again.
+     *
+     * @return the number of bytes read, -1 if the client disconnected
+     * @throws IOException
+     */
+    public int read(MessageDispatcher dispatcher) throws IOException {
+
+        if (readBuffer == null) {
+            readBuffer = BUFFERS.acquire(BUFFER_SIZE);
+        }
 
-        readBuffer.clear();
-        
         int bytesRead = channel.read(readBuffer);
-        
+
         if (bytesRead == -1) {
             logger.info("Client {} disconnected", clientId);
-            return null;
+            releaseReadBuffer();
+            return -1;
         }
-        
-        if (bytesRead == 0) {
-            return ""; // No data read
+
+        if (bytesRead > 0) {
+            readBuffer.flip();
+            int length;
+            while ((length = framer.nextFrame(readBuffer)) >= 0) {
+                logger.debug("Framed {} byte message from {}", length, clientId);
+                if (dispatcher != null) {
+                    dispatcher.dispatch(readBuffer, framer.frameOffset(), length, this);
+                }
+            }
+            readBuffer.compact();
         }
 
-        readBuffer.flip();
-        String data = StandardCharsets.UTF_8.decode(readBuffer).toString();
-        messageBuilder.append(data);
+        if (readBuffer.position() == 0) {
+            releaseReadBuffer();
+        }
 
-        String accumulated = messageBuilder.toString();
+        return bytesRead;
+    }
 
-        if (accumulated.contains("|")) {
-            int lastDelimiter = accumulated.lastIndexOf('|');
-            String completeMessages = accumulated.substring(0, lastDelimiter + 1);
-            String remainder = accumulated.substring(lastDelimiter + 1);
-            
-            messageBuilder.setLength(0);
-            messageBuilder.append(remainder);
-            
-            logger.debug("Extracted complete message(s) from {}", clientId);
-            
-            return completeMessages;
+    private void releaseReadBuffer() {
+        if (readBuffer != null) {
+            BUFFERS.release(readBuffer);
+            readBuffer = null;
+            framer.reset();
         }
-        return "";
     }
 
+    /**
+     * Closes the channel and returns the connection's buffers to the pool.
+     * Called on the reactor thread; frames queued by other threads from
+     * then on are released instead of queued.
+     */
     public void close() {
+        closed = true;
+        releaseReadBuffer();
+        for (int i = gatherStart; i < gatherEnd; i++) {
+            BUFFERS.release(gather[i]);
+            gather[i] = null;
+        }
+        gatherStart = gatherEnd = 0;
+        drainWriteQueue();
+
         try {
             channel.close();
-            logger.info("Closed connection for client {}", clientId);
+            logger.info("Closed connection for client {} ({} messages in {} writes)",
+                        clientId, messagesWritten, writeCalls);
         } catch (IOException e) {
             logger.error("Error closing connection for client {}", clientId, e);
         }
@@ -200,10 +420,16 @@ public class ClientConnection {
         return markedForClosure && !hasDataToWrite();
     }
 
-    public boolean incrementErrorCount() {
+    /**
+     * Counts one more consecutive error; the handlers decide what the
+     * count allows.
+     *
+     * @return the number of consecutive errors, this one included
+     */
+    public int incrementErrorCount() {
         int errorsCount = consecutiveErrorCount.incrementAndGet();
-        logger.debug("Error count for client {}: {}/{}", clientId, errorsCount, MAX_CONSECUTIVE_ERRORS);
-        return errorsCount >= MAX_CONSECUTIVE_ERRORS;
+        logger.debug("Error count for client {}: {}", clientId, errorsCount);
+        return errorsCount;
     }
 
     public void resetErrorCount() {
@@ -219,6 +445,13 @@ public class ClientConnection {
 
 
 
+    /**
+     * Pool of the direct buffers used by all connections.
+     */
+    public static BufferPool getBufferPool() {
+        return BUFFERS;
+    }
+
     @Override
     public String toString() {
         return String.format("ClientConnection{id=%s, type=%s, connectedAt=%s}", 
@@ -0,0 +1,281 @@
+package fixme.router.nio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import fixme.router.connection.ConnectionManager;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * I/O event loop for a shard of the client connections, with its own
+ * Selector and thread.
+ *
+ * NioServer accepts the connections and hands them over with assign(); the
+ * reactor does all their registrations, interest changes, reads, writes
+ * and disconnects on its own thread. Other threads (the acceptor, the
+ * MessageProcessor workers forwarding from any reactor) only post
+ * commands: a connection on the command queue means "register it if new,
+ * then write what it has queued". Posting wakes the selector up at most
+ * once per loop, and the loop blocks in select() with no timeout.
+ */
+final class IoReactor implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IoReactor.class);
+
+    private final String name;
+    private final Selector selector;
+    private final ConnectionManager connectionManager;
+    private final MessageDispatcher messageDispatcher;
+
+    // Commands posted from other threads, consumed by the reactor thread only
+    private final Queue<ClientConnection> commands;
+
+    // Set once the selector has been woken up for the commands posted since
+    // the reactor last drained them
+    private final AtomicBoolean wakeupPending;
+
+    // Assigned connections not yet disconnected, read by the acceptor
+    private final AtomicInteger connectionCount;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    IoReactor(String name, ConnectionManager connectionManager,
+              MessageDispatcher messageDispatcher) throws IOException {
+        this.name = name;
+        this.selector = Selector.open();
+        this.connectionManager = connectionManager;
+        this.messageDispatcher = messageDispatcher;
+        this.commands = new ConcurrentLinkedQueue<>();
+        this.wakeupPending = new AtomicBoolean(false);
+        this.connectionCount = new AtomicInteger(0);
+        this.running = true;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * Hands an accepted connection over to this reactor. Called from the
+     * acceptor thread; the registration itself happens on the reactor thread.
+     */
+    void assign(ClientConnection connection) {
+        connectionCount.incrementAndGet();
+        connection.setReactor(this);
+        // A worker may already have posted the connection for a frame
+        if (connection.requestFlush()) {
+            post(connection);
+        }
+    }
+
+    /**
+     * Queues a command for the connection, see ClientConnection.requestFlush().
+     * Safe from any thread.
+     */
+    void post(ClientConnection connection) {
+        commands.offer(connection);
+
+        // The reactor thread drains the queue before it selects again
+        if (Thread.currentThread() != thread && wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        logger.info("I/O reactor {} started", name);
+
+        try {
+            while (running) {
+                // Cleared before draining: a command posted after the drain
+                // wakes the next select() up
+                wakeupPending.set(false);
+                processCommands();
+
+                int readyChannels = selector.select();
+
+                if (readyChannels == 0) {
+                    continue;
+                }
+
+                Set<SelectionKey> selectedKeys = selector.selectedKeys();
+                Iterator<SelectionKey> keyIterator = selectedKeys.iterator();
+
+                while (keyIterator.hasNext()) {
+                    SelectionKey key = keyIterator.next();
+                    keyIterator.remove();
+
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    try {
+                        if (key.isReadable()) {
+                            handleRead(key);
+                        } else if (key.isWritable()) {
+                            handleWrite(key);
+                        }
+                    } catch (Exception e) {
+                        logger.error("Error handling key event", e);
+                        handleError(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error in I/O reactor {} event loop", name, e);
+        } finally {
+            cleanup();
+        }
+
+        logger.info("I/O reactor {} stopped", name);
+    }
+
+    private void processCommands() {
+        ClientConnection connection;
+        while ((connection = commands.poll()) != null) {
+            connection.clearFlushRequest();
+
+            SelectionKey key = connection.getChannel().keyFor(selector);
+            if (key == null) {
+                register(connection);
+            } else if (key.isValid() && connection.hasDataToWrite()) {
+                try {
+                    handleWrite(key);
+                } catch (Exception e) {
+                    logger.error("Error flushing {}", connection.getClientId(), e);
+                    handleError(key);
+                }
+            } else if (connection.shouldClose()) {
+                // Marked after an earlier flush already wrote its last frame
+                logger.info("Closing connection for {} after sending all data", connection.getClientId());
+                handleDisconnect(key, connection);
+            }
+        }
+    }
+
+    private void register(ClientConnection connection) {
+        if (!connection.getChannel().isOpen()) {
+            // Already disconnected, a late command
+            return;
+        }
+
+        try {
+            // The ID message is queued before the handover, so the
+            // connection starts with write interest
+            int ops = SelectionKey.OP_READ;
+            if (connection.hasDataToWrite()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            connection.getChannel().register(selector, ops, connection);
+            logger.debug("Registered {} with I/O reactor {}", connection.getClientId(), name);
+        } catch (ClosedChannelException e) {
+            logger.info("{} closed before registration: {}", connection.getType(), connection.getClientId());
+            connectionCount.decrementAndGet();
+            connectionManager.unregisterConnection(connection.getClientId());
+            connection.close();
+        }
+    }
+
+    private void handleRead(SelectionKey key) throws IOException {
+        ClientConnection connection = (ClientConnection) key.attachment();
+
+        // Dispatches every complete message read
+        int bytesRead = connection.read(messageDispatcher);
+
+        if (bytesRead == -1) {
+            handleDisconnect(key, connection);
+        }
+    }
+
+    private void handleWrite(SelectionKey key) throws IOException {
+        ClientConnection connection = (ClientConnection) key.attachment();
+
+        connection.write();
+
+        // Keep WRITE interest only while the socket buffer is full; frames
+        // queued later come with a new flush command
+        int ops = key.interestOps();
+        int newOps = connection.hasDataToWrite() ? ops | SelectionKey.OP_WRITE : ops & ~SelectionKey.OP_WRITE;
+        if (newOps != ops) {
+            key.interestOps(newOps);
+        }
+
+        if (connection.shouldClose()) {
+            logger.info("Closing connection for {} after sending all data", connection.getClientId());
+            handleDisconnect(key, connection);
+        }
+    }
+
+    private void handleDisconnect(SelectionKey key, ClientConnection connection) {
+        if (!key.isValid()) {
+            return;
+        }
+
+        logger.info("{} disconnected: {}", connection.getType(), connection.getClientId());
+
+        key.cancel();
+        connectionCount.decrementAndGet();
+        connectionManager.unregisterConnection(connection.getClientId());
+        connection.close();
+    }
+
+    private void handleError(SelectionKey key) {
+        ClientConnection connection = (ClientConnection) key.attachment();
+
+        if (connection != null) {
+            handleDisconnect(key, connection);
+        } else {
+            key.cancel();
+        }
+    }
+
+    void stop() {
+        running = false;
+
+        if (selector.isOpen()) {
+            selector.wakeup();
+        }
+    }
+
+    private void cleanup() {
+        // Connections handed over but never registered
+        ClientConnection pending;
+        while ((pending = commands.poll()) != null) {
+            if (pending.getChannel().keyFor(selector) == null) {
+                pending.close();
+            }
+        }
+
+        try {
+            if (selector.isOpen()) {
+                for (SelectionKey key : selector.keys()) {
+                    try {
+                        key.channel().close();
+                    } catch (IOException e) {
+                        logger.warn("Error closing channel", e);
+                    }
+                }
+                selector.close();
+                logger.info("Closed selector of I/O reactor {}", name);
+            }
+        } catch (IOException e) {
+            logger.error("Error during cleanup of I/O reactor {}", name, e);
+        }
+    }
+}
@@ -5,12 +5,15 @@ import org.slf4j.LoggerFactory;
 
 import fixme.router.processor.MessageProcessor;
 
-import java.util.regex.Pattern;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Dispatches received messages for processing.
- * Handles message boundary detection (delimiter-based).
- * TODO: Integrate with MessageProcessor for actual message handling.
+ * Message boundaries are found by the connection's MessageFramer; each
+ * message arrives here alone, as bytes, and is copied out of the read
+ * buffer into a buffer leased from the connections' pool, which the
+ * MessageProcessor releases once the message is handled.
  */
 public class MessageDispatcher {
     private final MessageProcessor messageProcessor;
@@ -22,21 +25,27 @@ public class MessageDispatcher {
         this.messageProcessor = messageProcessor;
     }
     
-    public void dispatch(String data, ClientConnection source) {
-        if (data == null || data.isEmpty()) {
+    /**
+     * Dispatches one framed message, at index offset of the buffer. The
+     * bytes are only read during the call, the read buffer is reused
+     * afterwards.
+     */
+    public void dispatch(ByteBuffer buffer, int offset, int length, ClientConnection source) {
+        if (length <= 0) {
             return;
         }
-        String cleanedData = data.replaceAll("[\\r\\n]+", "");
-        
-        if (!cleanedData.isEmpty()) {
-            processMessage(cleanedData, source);
-        }
-
+        ByteBuffer message = ClientConnection.getBufferPool().acquire(length);
+        message.put(0, buffer, offset, length).limit(length);
+        processMessage(message, source);
     }
     
-    private void processMessage(String message, ClientConnection source) {
-        logger.info("Received message from {}: {}", source.getClientId(), message);
+    private void processMessage(ByteBuffer message, ClientConnection source) {
+        // Per message: DEBUG only, decoding it costs a String
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received message from {}: {}", source.getClientId(),
+                         StandardCharsets.ISO_8859_1.decode(message.duplicate()));
+        }
         
         messageProcessor.processMessage(message, source);
     }
-}
\ No newline at end of file
+}
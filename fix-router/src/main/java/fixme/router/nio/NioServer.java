@@ -15,41 +15,54 @@ import java.nio.channels.SocketChannel;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
  * Non-blocking NIO Router server that accepts connections on multiple ports.
- * Implements the Reactor pattern with a single-threaded event loop.
+ * Implements the Reactor pattern with one acceptor and N I/O reactors.
  * 
  * The Router listens on:
  * - Port 5000 for Broker connections
  * - Port 5001 for Market connections
  * 
- * This single server manages both types of connections with ONE Selector.
+ * The server thread accepts on both ports with ONE Selector, assigns the
+ * client ID, then hands the connection over to one of its I/O reactors
+ * (see IoReactor), picked round-robin or by least connections. Each reactor
+ * owns a Selector and a thread and does all the reads and writes of its
+ * connections, so a Broker and the Market it talks to may live on
+ * different reactors.
  * 
- * Design Pattern: Reactor
+ * Design Pattern: Reactor (multi-reactor)
  */
 public class NioServer implements Runnable {
     
     private static final Logger logger = LoggerFactory.getLogger(NioServer.class);
-    private static final int SELECT_TIMEOUT = 10; // 10 milliseconds
+    private static final long REACTOR_JOIN_TIMEOUT = 2000; // milliseconds
     
     private final int brokerPort;
     private final int marketPort;
     private final ConnectionManager connectionManager;
     private final MessageDispatcher messageDispatcher;
+    private final int reactorCount;
+    private final ReactorAssignment assignment;
     
     private Selector selector;
     private ServerSocketChannel brokerServerChannel;
     private ServerSocketChannel marketServerChannel;
     
+    private IoReactor[] reactors;
+    private Thread[] reactorThreads;
+    private int nextReactor; // round-robin cursor, acceptor thread only
+    
     // Map to identify component type by ServerSocketChannel
     private final Map<ServerSocketChannel, ComponentType> channelTypeMap;
     
     private volatile boolean running;
     
     /**
-     * Create a Router server that listens on two ports.
+     * Create a Router server that listens on two ports, with a single I/O
+     * reactor.
      * 
      * @param brokerPort Port for Broker connections (5000)
      * @param marketPort Port for Market connections (5001)
@@ -59,16 +72,41 @@ public class NioServer implements Runnable {
     public NioServer(int brokerPort, int marketPort,
                      ConnectionManager connectionManager,
                      MessageDispatcher messageDispatcher) {
+        this(brokerPort, marketPort, connectionManager, messageDispatcher,
+             1, ReactorAssignment.LEAST_CONNECTIONS);
+    }
+    
+    /**
+     * Create a Router server that listens on two ports and shards its
+     * connections over several I/O reactors.
+     * 
+     * @param brokerPort Port for Broker connections (5000)
+     * @param marketPort Port for Market connections (5001)
+     * @param connectionManager Manager for all connections
+     * @param messageDispatcher Dispatcher for received messages
+     * @param reactorCount Number of I/O reactor threads (at least 1)
+     * @param assignment How new connections are assigned to reactors
+     */
+    public NioServer(int brokerPort, int marketPort,
+                     ConnectionManager connectionManager,
+                     MessageDispatcher messageDispatcher,
+                     int reactorCount, ReactorAssignment assignment) {
+        if (reactorCount < 1) {
+            throw new IllegalArgumentException("reactorCount must be at least 1: " + reactorCount);
+        }
         this.brokerPort = brokerPort;
         this.marketPort = marketPort;
         this.connectionManager = connectionManager;
         this.messageDispatcher = messageDispatcher;
+        this.reactorCount = reactorCount;
+        this.assignment = Objects.requireNonNull(assignment, "assignment");
         this.channelTypeMap = new HashMap<>();
         this.running = false;
     }
     
     /**
-     * Initialize the server: create selector and server socket channels for both ports.
+     * Initialize the server: create the acceptor selector, the I/O reactors
+     * and server socket channels for both ports.
      * 
      * @throws IOException if initialization fails
      */
@@ -79,6 +117,11 @@ public class NioServer implements Runnable {
         
         selector = Selector.open();
         
+        reactors = new IoReactor[reactorCount];
+        for (int i = 0; i < reactorCount; i++) {
+            reactors[i] = new IoReactor("RouterReactor-" + i, connectionManager, messageDispatcher);
+        }
+        
         brokerServerChannel = ServerSocketChannel.open();
         brokerServerChannel.configureBlocking(false);
         brokerServerChannel.socket().bind(new InetSocketAddress(brokerPort));
@@ -94,18 +137,27 @@ public class NioServer implements Runnable {
         logger.info("Market server channel bound to port {}", marketPort);
         
         logger.info("Router server initialized successfully");
-        logger.info("  - Using single Selector for both ports");
+        logger.info("  - Using one acceptor Selector for both ports");
+        logger.info("  - Using {} I/O reactor(s), {} assignment", reactorCount, assignment);
     }
     
     @Override
     public void run() {
         running = true;
+        
+        reactorThreads = new Thread[reactors.length];
+        for (int i = 0; i < reactors.length; i++) {
+            reactorThreads[i] = new Thread(reactors[i], reactors[i].getName());
+            reactorThreads[i].start();
+        }
+        
         logger.info("Router server started - listening on ports {} and {}", 
                    brokerPort, marketPort);
         
         try {
             while (running) {
-                int readyChannels = selector.select(SELECT_TIMEOUT);
+                // Only accept events here, stop() wakes the selector up
+                int readyChannels = selector.select();
                 
                 if (readyChannels == 0) {
                     continue;
@@ -126,14 +178,9 @@ public class NioServer implements Runnable {
                     try {
                         if (key.isAcceptable()) {
                             handleAccept(key);
-                        } else if (key.isReadable()) {
-                            handleRead(key);
-                        } else if (key.isWritable()) {
-                            handleWrite(key);
                         }
                     } catch (Exception e) {
-                        logger.error("Error handling key event", e);
-                        handleError(key);
+                        logger.error("Error accepting connection", e);
                     }
                 }
             }
@@ -161,96 +208,58 @@ public class NioServer implements Runnable {
         
         clientChannel.configureBlocking(false);
         
+        // IDs are given in accept order, before the handover
         ClientConnection connection = connectionManager.registerConnection(
             clientChannel, componentType
         );
-
-        connection.setSelector(selector);
-        
-        SelectionKey clientKey = clientChannel.register(selector, SelectionKey.OP_READ);
-        clientKey.attach(connection);
         
         sendIdToClient(connection);
         
-        logger.info("Assigned ID {} to new {} connection", 
-                   connection.getClientId(), componentType);
+        IoReactor reactor = selectReactor();
+        reactor.assign(connection);
+        
+        logger.info("Assigned ID {} to new {} connection on {}", 
+                   connection.getClientId(), componentType, reactor.getName());
     }
     
+    /**
+     * Queues the ID message; the reactor enables write interest when it
+     * registers the connection.
+     */
     private void sendIdToClient(ClientConnection connection) {
         String idMessage = "ID=" + connection.getClientId() + "|";
         connection.queueMessage(idMessage);
         connection.setIdentified(true);
-        try {
-            SelectionKey key = connection.getChannel().keyFor(selector);
-            if (key != null && key.isValid()) {
-                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
-            }
-        } catch (Exception e) {
-            logger.error("Error registering write interest for ID message", e);
-        }
-    }
-    
-    private void handleRead(SelectionKey key) throws IOException {
-        ClientConnection connection = (ClientConnection) key.attachment();
-        
-        String data = connection.read();
-        
-        if (data == null) {
-            handleDisconnect(key, connection);
-            return;
-        }
-        
-        if (data.isEmpty()) {
-            // No complete message yet
-            return;
-        }
-        
-        logger.debug("Received data from {}: {} chars", 
-                    connection.getClientId(), data.length());
-        
-        if (messageDispatcher != null) {
-            messageDispatcher.dispatch(data, connection);
-        }
     }
     
-    private void handleWrite(SelectionKey key) throws IOException {
-        ClientConnection connection = (ClientConnection) key.attachment();
-        
-        connection.write();
-        
-        // If no more data to write, remove WRITE interest
-        if (!connection.hasDataToWrite()) {
-            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
-        }
-
-        if (connection.shouldClose()) {
-            logger.info("Closing connection for {} after sending all data", connection.getClientId());
-            handleDisconnect(key, connection);
+    private IoReactor selectReactor() {
+        if (assignment == ReactorAssignment.ROUND_ROBIN) {
+            IoReactor reactor = reactors[nextReactor];
+            nextReactor = (nextReactor + 1) % reactors.length;
+            return reactor;
         }
-    }
-    
-    private void handleDisconnect(SelectionKey key, ClientConnection connection) {
-        logger.info("{} disconnected: {}", connection.getType(), connection.getClientId());
-        
-        key.cancel();
-        connectionManager.unregisterConnection(connection.getClientId());
-        connection.close();
-    }
-    
-    private void handleError(SelectionKey key) {
-        ClientConnection connection = (ClientConnection) key.attachment();
         
-        if (connection != null) {
-            handleDisconnect(key, connection);
-        } else {
-            key.cancel();
+        IoReactor least = reactors[0];
+        for (int i = 1; i < reactors.length; i++) {
+            if (reactors[i].getConnectionCount() < least.getConnectionCount()) {
+                least = reactors[i];
+            }
         }
+        return least;
     }
     
     public void stop() {
         logger.info("Stopping Router server...");
         running = false;
         
+        if (reactors != null) {
+            for (IoReactor reactor : reactors) {
+                if (reactor != null) {
+                    reactor.stop();
+                }
+            }
+        }
+        
         if (selector != null && selector.isOpen()) {
             selector.wakeup();
         }
@@ -271,19 +280,24 @@ public class NioServer implements Runnable {
             }
             
             if (selector != null && selector.isOpen()) {
-                for (SelectionKey key : selector.keys()) {
-                    try {
-                        key.channel().close();
-                    } catch (IOException e) {
-                        logger.warn("Error closing channel", e);
-                    }
-                }
                 selector.close();
-                logger.info("Closed selector");
+                logger.info("Closed acceptor selector");
             }
         } catch (IOException e) {
             logger.error("Error during cleanup", e);
         }
+        
+        // Reactors close the client channels they own
+        for (int i = 0; i < reactors.length; i++) {
+            reactors[i].stop();
+            try {
+                reactorThreads[i].join(REACTOR_JOIN_TIMEOUT);
+            } catch (InterruptedException e) {
+                logger.warn("Interrupted while waiting for {} to stop", reactors[i].getName());
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
     }
     
     public boolean isRunning() {
@@ -297,4 +311,8 @@ public class NioServer implements Runnable {
     public int getMarketPort() {
         return marketPort;
     }
+    
+    public int getReactorCount() {
+        return reactorCount;
+    }
 }
\ No newline at end of file
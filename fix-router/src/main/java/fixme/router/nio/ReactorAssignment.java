@@ -0,0 +1,13 @@
+package fixme.router.nio;
+
+/**
+ * How NioServer spreads accepted connections over its I/O reactors.
+ */
+public enum ReactorAssignment {
+
+    /** Reactors in turn, whatever their load. */
+    ROUND_ROBIN,
+
+    /** The reactor with the fewest open connections, the first one on ties. */
+    LEAST_CONNECTIONS
+}
@@ -1,39 +1,110 @@
 package fixme.router.processor;
 
-import fixme.common.message.FixMessage;
+import java.nio.ByteBuffer;
+
+import fixme.common.message.FixMessageDecoder;
+import fixme.common.message.ValidatingParser;
+import fixme.common.validation.ValidationResult;
 import fixme.router.nio.ClientConnection;
 
 /**
  * Holds context information for processing a FIX message.
- * Includes the raw message, parsed FIX message, source connection,
+ * Includes the raw message bytes, its decoded view, source connection,
  * target connection, and validation status.
+ *
+ * Instances are recycled through an ObjectPool: init() binds a context to
+ * a message and reset() clears it before it goes back to the pool.
 */
 
 public class MessageContext {
-    private final String rawMessage;
-    private final ClientConnection source;
+    private static final int INITIAL_MESSAGE_CAPACITY = 256;
+
+    private ByteBuffer rawMessage;
+    private ClientConnection source;
+
+    // Copy of the message for the array-based parser, reused across messages
+    private byte[] messageArray = new byte[INITIAL_MESSAGE_CAPACITY];
 
-    private FixMessage fixMessage;
+    private final FixMessageDecoder decoder;
+    private final ValidatingParser parser;
     private ClientConnection target;
     private boolean valid;
     private String errorMessage;
+    // Failed validation whose message is rendered by getErrorMessage()
+    private ValidationResult validationError;
+
+    public MessageContext() {
+        this.decoder = new FixMessageDecoder();
+        this.parser = new ValidatingParser();
+        this.valid = true;
+    }
+
+    public MessageContext(ByteBuffer rawMessage, ClientConnection source) {
+        this();
+        init(rawMessage, source);
+    }
 
-    public MessageContext(String rawMessage, ClientConnection source) {
+    /**
+     * Binds a pooled context to a new message.
+     */
+    public MessageContext init(ByteBuffer rawMessage, ClientConnection source) {
         this.rawMessage = rawMessage;
         this.source = source;
-        this.valid = true;
+        return this;
+    }
+
+    /**
+     * Clears every reference so the context can go back to the pool.
+     */
+    public void reset() {
+        rawMessage = null;
+        source = null;
+        target = null;
+        valid = true;
+        errorMessage = null;
+        validationError = null;
+        decoder.reset();
     }
 
-    public String getRawMessage() {
+    /**
+     * The message as framed from the wire, undecoded, in read mode. The
+     * buffer belongs to the MessageProcessor, which releases it once the
+     * handler chain has run.
+     */
+    public ByteBuffer getRawMessage() {
         return rawMessage;
     }
 
+    /**
+     * Copies the raw message to the start of an array kept by the context,
+     * for the parsers that work on arrays; the copy holds
+     * getRawMessage().remaining() bytes and lasts until the next copy.
+     */
+    public byte[] copyRawMessage() {
+        int length = rawMessage.remaining();
+        if (length > messageArray.length) {
+            messageArray = new byte[Math.max(length, messageArray.length * 2)];
+        }
+        rawMessage.get(rawMessage.position(), messageArray, 0, length);
+        return messageArray;
+    }
+
     public ClientConnection getSource() {
         return source;
     }
 
-    public FixMessage getFixMessage() {
-        return fixMessage;
+    /**
+     * Decoder holding the message once ValidationHandler has wrapped it.
+     */
+    public FixMessageDecoder getDecoder() {
+        return decoder;
+    }
+
+    /**
+     * Parser that validates the raw message and fills the decoder.
+     */
+    public ValidatingParser getParser() {
+        return parser;
     }
 
     public ClientConnection getTarget() {
@@ -45,11 +116,18 @@ public class MessageContext {
     }
 
     public String getErrorMessage() {
+        if (errorMessage == null && validationError != null) {
+            errorMessage = describe(validationError);
+        }
         return errorMessage;
     }
 
-    public void setFixMessage(FixMessage fixMessage) {
-        this.fixMessage = fixMessage;
+    /**
+     * Failed validation result, or null if the message did not fail
+     * validation.
+     */
+    public ValidationResult getValidationError() {
+        return validationError;
     }
 
     public void setTarget(ClientConnection target) {
@@ -70,13 +148,37 @@ public class MessageContext {
         this.errorMessage = error;
     }
 
+    /**
+     * Marks the message as rejected by validation. The error message is
+     * only rendered if getErrorMessage() is called.
+     */
+    public void fail(ValidationResult result) {
+        this.valid = false;
+        this.errorMessage = null;
+        this.validationError = result;
+    }
+
+    private static String describe(ValidationResult result) {
+        if (result.getStage() == null) {
+            return result.getErrorMessage();
+        }
+        switch (result.getStage()) {
+            case FORMAT:
+                return "Format validation failed: " + result.getErrorMessage();
+            case PROTOCOL:
+                return "FIX validation failed: " + result.getErrorMessage();
+            default:
+                return result.getErrorMessage();
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("MessageContext[source=%s, target=%s, valid=%s, error=%s]",
             source != null ? source.getClientId() : "null",
             target != null ? target.getClientId() : "null",
             valid,
-            errorMessage
+            getErrorMessage()
         );
     }
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package fixme.router.processor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import fixme.common.pool.BufferPool;
+import fixme.common.pool.ObjectPool;
 import fixme.router.nio.ClientConnection;
 import fixme.router.processor.handler.MessageHandler;
 import fixme.router.processor.handler.ValidationHandler;
@@ -10,8 +12,10 @@ import fixme.router.processor.handler.RoutingHandler;
 import fixme.router.processor.handler.ForwardingHandler;
 import fixme.router.routing.RoutingTable;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -21,38 +25,75 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class MessageProcessor {
     private static final Logger logger = LoggerFactory.getLogger(MessageProcessor.class);
     private static final int THREAD_POOL_SIZE = 4;
+    private static final int MAX_IDLE_CONTEXTS_PER_THREAD = 64;
 
+    // Pool the dispatched messages are leased from
+    private static final BufferPool BUFFERS = ClientConnection.getBufferPool();
+
+    private final Executor executor;
+    // Pool created by this processor, null when the executor was supplied
     private final ExecutorService executorService;
     private final List<MessageHandler> handlerChain;
 
+    // Contexts are acquired and released on the same worker thread,
+    // so each worker recycles its own set without contention.
+    private final ObjectPool<MessageContext> contextPool =
+        new ObjectPool<>("MessageContext", MessageContext::new, MessageContext::reset, MAX_IDLE_CONTEXTS_PER_THREAD);
+
     public MessageProcessor(RoutingTable routingTable) {
         this(routingTable, THREAD_POOL_SIZE);
     }
 
     public MessageProcessor(RoutingTable routingTable, int threadPoolSize) {
-        this.executorService = Executors.newFixedThreadPool(threadPoolSize, new MessageProcessorThreadFactory());
+        this(routingTable, Executors.newFixedThreadPool(threadPoolSize, new MessageProcessorThreadFactory()), true);
+        logger.info("Initialized MessageProcessor with {} threads and {} handlers", threadPoolSize, handlerChain.size());
+    }
+
+    /**
+     * Runs the handler chain on a caller-supplied executor, e.g. Runnable::run
+     * to process each message on the thread that dispatches it.
+     * shutdown() leaves that executor running.
+     */
+    public MessageProcessor(RoutingTable routingTable, Executor executor) {
+        this(routingTable, executor, false);
+        logger.info("Initialized MessageProcessor on {} with {} handlers", executor, handlerChain.size());
+    }
+
+    private MessageProcessor(RoutingTable routingTable, Executor executor, boolean owned) {
+        this.executor = executor;
+        this.executorService = owned ? (ExecutorService) executor : null;
 
         this.handlerChain = new ArrayList<>();
         this.handlerChain.add(new ValidationHandler());
         this.handlerChain.add(new RoutingHandler(routingTable));
         this.handlerChain.add(new ForwardingHandler());
-        
-        logger.info("Initialized MessageProcessor with {} threads and {} handlers", threadPoolSize, handlerChain.size());
     }
 
-    public void processMessage(String rawMessage, ClientConnection source){
+    /**
+     * Processes one message on the executor. The buffer, in read mode, is
+     * leased from ClientConnection.getBufferPool() and owned by the
+     * processor from now on: it goes back to the pool once the handler
+     * chain has run.
+     */
+    public void processMessage(ByteBuffer rawMessage, ClientConnection source){
         logger.debug("Submitting message from {} for processing", source.getClientId());
-        executorService.submit(() -> {
-            processMessageSync(rawMessage, source);
-        });
+        try {
+            executor.execute(() -> {
+                processMessageSync(rawMessage, source);
+            });
+        } catch (RuntimeException e) {
+            // Rejected, e.g. after shutdown: the task will never release it
+            BUFFERS.release(rawMessage);
+            throw e;
+        }
     }
 
-    private void processMessageSync(String rawMessage, ClientConnection source) {
+    private void processMessageSync(ByteBuffer rawMessage, ClientConnection source) {
         logger.debug("[{}] Processing message from {}", 
                     Thread.currentThread().getName(), 
                     source.getClientId());
         
-        MessageContext context = new MessageContext(rawMessage, source);
+        MessageContext context = contextPool.acquire().init(rawMessage, source);
         
         try {
             for (MessageHandler handler : handlerChain) {
@@ -63,20 +104,27 @@ public class MessageProcessor {
                 boolean continueProcessing = handler.handle(context);
                 
                 if (!continueProcessing) {
-                    logger.warn("Handler {} stopped processing: {}", 
-                               handler.getName(), 
-                               context.getErrorMessage());
+                    // The handler logged the failure; rendering it again
+                    // costs a String per rejected message
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Handler {} stopped processing: {}",
+                                   handler.getName(),
+                                   context.getErrorMessage());
+                    }
                     break;
                 }
             }
             
             if (context.isValid()) {
-                logger.info("[{}] Message processed successfully: {} → {}", 
-                           Thread.currentThread().getName(),
-                           source.getClientId(),
-                           context.getTarget().getClientId());
-            } else {
-                logger.warn("[{}] Message processing failed: {}", 
+                // Per message: DEBUG only, the varargs array included
+                if (logger.isDebugEnabled()) {
+                    logger.debug("[{}] Message processed successfully: {} → {}",
+                               Thread.currentThread().getName(),
+                               source.getClientId(),
+                               context.getTarget().getClientId());
+                }
+            } else if (logger.isDebugEnabled()) {
+                logger.debug("[{}] Message processing failed: {}",
                            Thread.currentThread().getName(),
                            context.getErrorMessage());
             }
@@ -84,12 +132,26 @@ public class MessageProcessor {
         } catch (Exception e) {
             logger.error("Error processing message from {}: {}", 
                         source.getClientId(), e.getMessage(), e);
+        } finally {
+            // ForwardingHandler copies what it needs into the outgoing frame,
+            // nothing references the context or the message once the chain
+            // has run
+            contextPool.release(context);
+            BUFFERS.release(rawMessage);
         }
     }
 
+    public ObjectPool<MessageContext> getContextPool() {
+        return contextPool;
+    }
+
     public void shutdown() {
         logger.info("Shutting down MessageProcessor...");
-        executorService.shutdown();
+        if (executorService != null) {
+            executorService.shutdown();
+        }
+        logger.info("Context pool: {} acquired, {} created", contextPool.getAcquireCount(), contextPool.getCreatedCount());
+        contextPool.logLeaks();
         logger.info("MessageProcessor shut down complete.");
     }
 
@@ -10,55 +10,79 @@ import fixme.router.nio.ClientConnection;
  * Provides common error reporting with severity levels.
  */
 public abstract class BaseMessageHandler implements MessageHandler {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(BaseMessageHandler.class);
-    
+
+    // Consecutive recoverable errors after which a connection is closed;
+    // ErrorReply encodes its replies against the same limit
+    static final int MAX_ERRORS = 5;
+
+    /**
+     * Reports an error whose reply is the error message itself, encoded
+     * for this call.
+     */
     protected void handleError(ClientConnection connection, String errorMessage, ErrorSeverity severity) {
+        handleError(connection, null, errorMessage, severity);
+    }
+
+    /**
+     * Reports an error with a pre-encoded reply. The detail only goes to
+     * the log; the client gets the reply's fixed description.
+     *
+     * @param reply Pre-encoded reply, or null to reply with the detail
+     * @param detail Error logged through its toString(), which only runs
+     *               if a log line is written, e.g. a ValidationResult
+     */
+    protected void handleError(ClientConnection connection, ErrorReply reply, Object detail,
+                               ErrorSeverity severity) {
         String clientId = connection.getClientId();
-        
+
         switch (severity) {
             case SECURITY:
-                logger.warn("SECURITY error for {}: {}", clientId, errorMessage);
-                sendErrorAndClose(connection, errorMessage);
+                logger.warn("SECURITY error for {}: {}", clientId, detail);
+                sendErrorAndClose(connection, reply != null ? reply.plain() : ErrorReply.frame(String.valueOf(detail)),
+                                  detail);
                 break;
-                
+
             case RECOVERABLE:
-                boolean maxReached = connection.incrementErrorCount();
-                int errorCount = connection.getErrorCount();
-                
-                if (maxReached) {
-                    logger.warn("Max errors reached for {}: {}/5", clientId, errorCount);
-                    sendErrorAndClose(connection, 
-                        String.format("%s (error limit reached: %d/5)", errorMessage, errorCount));
+                int errorCount = connection.incrementErrorCount();
+
+                if (errorCount >= MAX_ERRORS) {
+                    logger.warn("Max errors reached for {}: {}/{}", clientId, errorCount, MAX_ERRORS);
+                    sendErrorAndClose(connection, reply != null
+                        ? reply.limitReached(errorCount)
+                        : ErrorReply.limitReachedFrame(String.valueOf(detail), errorCount), detail);
                 } else {
-                    logger.warn("Recoverable error for {}: {} ({}/5)", 
-                               clientId, errorMessage, errorCount);
-                    sendError(connection, 
-                        String.format("%s (error %d/5)", errorMessage, errorCount));
+                    if (logger.isWarnEnabled()) {
+                        logger.warn("Recoverable error for {}: {} ({}/{})",
+                                   clientId, detail, errorCount, MAX_ERRORS);
+                    }
+                    sendError(connection, reply != null
+                        ? reply.counted(errorCount)
+                        : ErrorReply.countedFrame(String.valueOf(detail), errorCount));
                 }
                 break;
-                
+
             case ROUTING:
-                logger.warn("Routing error for {}: {}", clientId, errorMessage);
-                sendError(connection, errorMessage);
+                logger.warn("Routing error for {}: {}", clientId, detail);
+                sendError(connection, reply != null ? reply.plain() : ErrorReply.frame(String.valueOf(detail)));
                 break;
         }
     }
-    
-    private void sendError(ClientConnection connection, String errorMessage) {
-        String errorMsg = String.format("ERROR|%s|", errorMessage);
-        connection.queueMessage(errorMsg);
+
+    private void sendError(ClientConnection connection, byte[] frame) {
+        connection.queueSharedFrame(frame);
         connection.enableWriteInterest();
     }
-    
-    private void sendErrorAndClose(ClientConnection connection, String errorMessage) {
-        String errorMsg = String.format("ERROR|%s|", errorMessage);
-        
-        logger.info("Closing connection {} due to: {}", 
-                   connection.getClientId(), errorMessage);
-        
-        connection.queueMessage(errorMsg);
-        connection.enableWriteInterest();
+
+    private void sendErrorAndClose(ClientConnection connection, byte[] frame, Object detail) {
+        logger.info("Closing connection {} due to: {}",
+                   connection.getClientId(), detail);
+
+        // Marked before the flush is requested: a reactor that drains the
+        // frame first must already see the mark, or nothing closes it
+        connection.queueSharedFrame(frame);
         connection.markForClosure();
+        connection.enableWriteInterest();
     }
-}
\ No newline at end of file
+}
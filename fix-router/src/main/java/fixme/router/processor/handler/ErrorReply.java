@@ -0,0 +1,98 @@
+package fixme.router.processor.handler;
+
+import java.nio.charset.StandardCharsets;
+
+import fixme.common.validation.ValidationError;
+
+/**
+ * Pre-encoded "ERROR|...|" replies for an error with a fixed description.
+ *
+ * Every variant a handler can send is encoded once: the plain reply, the
+ * counted replies "(error n/5)" and the "(error limit reached: 5/5)" one.
+ * The frames are shared between connections and must never be modified;
+ * queue them with ClientConnection.queueSharedFrame().
+ *
+ * The static frame methods encode the same replies for a description only
+ * known at run time.
+ */
+public final class ErrorReply {
+
+    private static final int MAX_ERRORS = BaseMessageHandler.MAX_ERRORS;
+
+    // One reply per validation error code, indexed by ordinal
+    private static final ErrorReply[] VALIDATION_REPLIES;
+
+    static {
+        ValidationError[] errors = ValidationError.values();
+        VALIDATION_REPLIES = new ErrorReply[errors.length];
+        for (ValidationError error : errors) {
+            VALIDATION_REPLIES[error.ordinal()] = new ErrorReply(error.getDescription());
+        }
+    }
+
+    private final String description;
+    private final byte[] plain;
+    // Indexed by error count, from 1 to MAX_ERRORS - 1
+    private final byte[][] counted;
+    private final byte[] limitReached;
+
+    public ErrorReply(String description) {
+        if (description == null || description.isEmpty()) {
+            throw new IllegalArgumentException("Description cannot be null or empty");
+        }
+        this.description = description;
+        this.plain = frame(description);
+        this.counted = new byte[MAX_ERRORS][];
+        for (int count = 1; count < MAX_ERRORS; count++) {
+            counted[count] = countedFrame(description, count);
+        }
+        this.limitReached = limitReachedFrame(description, MAX_ERRORS);
+    }
+
+    /**
+     * Reply for a validation error: its fixed description, without the
+     * per-message detail.
+     */
+    public static ErrorReply forError(ValidationError error) {
+        return VALIDATION_REPLIES[error.ordinal()];
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * "ERROR|description|"
+     */
+    public byte[] plain() {
+        return plain;
+    }
+
+    /**
+     * "ERROR|description (error n/5)|"
+     */
+    public byte[] counted(int count) {
+        return count > 0 && count < MAX_ERRORS ? counted[count] : countedFrame(description, count);
+    }
+
+    /**
+     * "ERROR|description (error limit reached: n/5)|"
+     */
+    public byte[] limitReached(int count) {
+        return count == MAX_ERRORS ? limitReached : limitReachedFrame(description, count);
+    }
+
+    // ========== ENCODING ==========
+
+    public static byte[] frame(String text) {
+        return ("ERROR|" + text + "|\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static byte[] countedFrame(String text, int count) {
+        return frame(text + " (error " + count + "/" + MAX_ERRORS + ")");
+    }
+
+    public static byte[] limitReachedFrame(String text, int count) {
+        return frame(text + " (error limit reached: " + count + "/" + MAX_ERRORS + ")");
+    }
+}
@@ -3,44 +3,68 @@ package fixme.router.processor.handler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import fixme.common.message.FixMessageDecoder;
 import fixme.router.nio.ClientConnection;
 import fixme.router.processor.MessageContext;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Forwards the message to the target client connection.
  * 
  * Steps:
  * 1. Retrieve the target connection from the context.
- * 2. Queue the raw FIX message for sending on the target connection.
- * 3. The NIO server will handle the actual sending asynchronously.
+ * 2. Encode "[sender → target] raw\n" straight into a pooled direct
+ *    buffer of the target, copying the raw message bytes from the decoder.
+ * 3. Queue the frame; the NIO server will handle the actual sending asynchronously.
  */
 public class ForwardingHandler implements MessageHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(ForwardingHandler.class);
 
+    private static final byte[] ARROW = " → ".getBytes(StandardCharsets.UTF_8);
+
     @Override
     public boolean handle(MessageContext context) {
         ClientConnection target = context.getTarget();
         ClientConnection source = context.getSource();
+        FixMessageDecoder message = context.getDecoder();
 
-        String rawMessage = context.getRawMessage();
-        String senderId = source.getClientId();
-    
-        String formatted = String.format("[%s → %s] %s", 
-            senderId, target.getClientId(), rawMessage);
-
-        target.queueMessage(formatted);
+        target.queueFrame(encodeFrame(source.getClientId(), target, message));
 
         target.enableWriteInterest();
 
         source.resetErrorCount();
         
-        logger.info("Forwarded message from {} to {} ({} bytes)", 
-                    source.getClientId(), 
-                    target.getClientId(), 
-                    rawMessage.length());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Forwarded message from {} to {} ({} bytes)",
+                        source.getClientId(),
+                        target.getClientId(),
+                        message.getLength());
+        }
 
         return true;
     }
+
+    private static ByteBuffer encodeFrame(String senderId, ClientConnection target, FixMessageDecoder message) {
+        String targetId = target.getClientId();
+        ByteBuffer frame = target.allocateFrame(
+            senderId.length() + targetId.length() + ARROW.length + message.getLength() + 4);
+        frame.put((byte) '[');
+        putAscii(frame, senderId);
+        frame.put(ARROW);
+        putAscii(frame, targetId);
+        frame.put((byte) ']').put((byte) ' ');
+        message.copyTo(frame);
+        frame.put((byte) '\n');
+        return frame;
+    }
+
+    private static void putAscii(ByteBuffer dst, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            dst.put((byte) value.charAt(i));
+        }
+    }
     
 }
@@ -3,7 +3,7 @@ package fixme.router.processor.handler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import fixme.common.message.FixMessage;
+import fixme.common.message.FixMessageDecoder;
 import fixme.common.message.FixTags;
 import fixme.router.nio.ClientConnection;
 import fixme.router.processor.MessageContext;
@@ -27,13 +27,13 @@ public class RoutingHandler extends BaseMessageHandler {
 
     @Override
     public boolean handle(MessageContext context) {
-        FixMessage message = context.getFixMessage();
+        FixMessageDecoder message = context.getDecoder();
         ClientConnection source = context.getSource();
         String sourceId = source.getClientId();
 
         // check si sender ID matches assigned ID
-        String senderId = message.getSenderCompId();
-        if (!sourceId.equals(senderId)) {
+        if (!message.valueEquals(FixTags.TAG_SENDER_COMP_ID, sourceId)) {
+            String senderId = message.getString(FixTags.TAG_SENDER_COMP_ID);
             String error = String.format("SenderCompID (%s) does not match connection ID (%s)", 
                                          senderId, sourceId);
             context.fail(error);
@@ -42,7 +42,7 @@ public class RoutingHandler extends BaseMessageHandler {
         }
 
         // Get target from message
-        String targetId = message.getTargetCompId();
+        String targetId = message.getString(FixTags.TAG_TARGET_COMP_ID);
 
         if (targetId == null || targetId.isEmpty()) {
             String error = "Missing TargetCompID (tag 56)";
@@ -77,7 +77,7 @@ public class RoutingHandler extends BaseMessageHandler {
 
         // Success: set target in context
         context.setTarget(target);
-        logger.info("Routing message from {} to {}", sourceId, targetId);
+        logger.debug("Routing message from {} to {}", sourceId, targetId);
         
         return true;
     }
@@ -3,9 +3,8 @@ package fixme.router.processor.handler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import fixme.common.message.FixMessage;
-import fixme.common.message.FixMessageFactory;
-import fixme.common.validation.MessageValidator;
+import java.nio.ByteBuffer;
+
 import fixme.common.validation.ValidationResult;
 import fixme.router.nio.ClientConnection;
 import fixme.router.processor.MessageContext;
@@ -14,62 +13,47 @@ import fixme.router.processor.MessageContext;
  * Validates FIX messages before routing.
  * Uses error severity levels for better UX.
  * 
- * Validation stages:
- * 1. Format validation - RECOVERABLE (counted)
- * 2. Business validation - RECOVERABLE (counted)
+ * A single pass of ValidatingParser covers every stage and leaves the
+ * decoded message in the context:
+ * 1. Framing validation - RECOVERABLE (counted)
+ * 2. Format validation - RECOVERABLE (counted)
+ * 3. Business validation - RECOVERABLE (counted)
+ * 
+ * The client gets the pre-encoded reply of the error code (ErrorReply), so
+ * rejecting a message formats nothing but its log line, and that only when
+ * WARN is enabled.
  * 
  * Design Pattern: Chain of Responsibility + Fail-Fast
  */
 public class ValidationHandler extends BaseMessageHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(ValidationHandler.class);
+    private static final byte[] EMPTY = new byte[0];
     
     @Override
     public boolean handle(MessageContext context) {
-        String rawMessage = context.getRawMessage();
+        ByteBuffer rawMessage = context.getRawMessage();
         ClientConnection source = context.getSource();
         String clientId = source.getClientId();
         
         logger.debug("Validating message from {}", clientId);
         
-        // Preliminary check: Ensure it's a single complete message
-        ValidationResult singleMessageCheck = MessageValidator.validateSingleMessage(rawMessage);
-
-        if (!singleMessageCheck.isValid()) {
-            context.fail(singleMessageCheck.getErrorMessage());
-            handleError(source, singleMessageCheck.getErrorMessage(), ErrorSeverity.RECOVERABLE);
-            return false;
-        }
-
-        // Format Validation
-        ValidationResult formatValidation = MessageValidator.validate(rawMessage);
+        // The parser and the decoder it fills work on the context's copy
+        byte[] bytes = rawMessage != null ? context.copyRawMessage() : EMPTY;
+        int length = rawMessage != null ? rawMessage.remaining() : 0;
+        ValidationResult result = context.getParser().parse(bytes, 0, length, context.getDecoder());
         
-        if (!formatValidation.isValid()) {
-            String error = "Format validation failed: " + formatValidation.getErrorMessage();
-            context.fail(error);
-            
-            // RECOVERABLE: Bad format, but user can fix it
-            handleError(source, formatValidation.getErrorMessage(), ErrorSeverity.RECOVERABLE);
-            return false;
+        if (result.isValid()) {
+            logger.debug("Message validation passed for {}", clientId);
+            return true;
         }
         
-        logger.debug("Format validation passed for {}", clientId);
+        context.fail(result);
         
-        // Business Validation (FIX Protocol)
-        try {
-            FixMessage message = FixMessageFactory.fromString(rawMessage);
-            context.setFixMessage(message);
-            
-            logger.info("Message validation passed for {}", clientId);
-            return true;
-            
-        } catch (IllegalArgumentException e) {
-            String error = "FIX validation failed: " + e.getMessage();
-            context.fail(error);
-            
-            // RECOVERABLE: Bad FIX message, but user can fix it
-            handleError(source, e.getMessage(), ErrorSeverity.RECOVERABLE);
-            return false;
-        }
+        // RECOVERABLE: Bad message, but user can fix it. The reply is the
+        // error code's pre-encoded description; the detail is only rendered
+        // by the log line, if it is written.
+        handleError(source, ErrorReply.forError(result.getError()), result, ErrorSeverity.RECOVERABLE);
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,251 @@
+package fixme.router.nio;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import fixme.common.message.FixMessageFactory;
+import fixme.common.pool.BufferPool;
+import fixme.router.ComponentType;
+import fixme.router.processor.MessageProcessor;
+import fixme.router.routing.RoutingTable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the write path of ClientConnection: gathering writes,
+ * partial writes, and the pooled buffers going back to the pool.
+ *
+ * The router tests run with -Dfixme.pool.debug=true, so the shared pool
+ * counts the buffers leased and not yet released.
+ */
+class ClientConnectionTest {
+
+    private static final BufferPool POOL = ClientConnection.getBufferPool();
+
+    // Frames handed to the channel in one gathering write
+    private static final int MAX_GATHER = 64;
+
+    private StubSocketChannel channel;
+    private ClientConnection connection;
+    private ByteArrayOutputStream expected;
+    private int outstandingBefore;
+
+    @BeforeAll
+    static void requireDebugPool() {
+        assertTrue(POOL.getOutstandingCount() >= 0, "run with -Dfixme.pool.debug=true");
+    }
+
+    @BeforeEach
+    void setUp() {
+        outstandingBefore = POOL.getOutstandingCount();
+        channel = new StubSocketChannel(Integer.MAX_VALUE);
+        connection = new ClientConnection("100001", channel, ComponentType.BROKER);
+        expected = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Queues a pooled frame, as ForwardingHandler does.
+     */
+    private void queueFrame(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        connection.queueFrame(connection.allocateFrame(bytes.length).put(bytes));
+        expected.writeBytes(bytes);
+    }
+
+    private void queueFrames(int count) {
+        for (int i = 0; i < count; i++) {
+            queueFrame(String.format("frame-%03d\n", i));
+        }
+    }
+
+    private void assertWrittenInOrder() {
+        assertArrayEquals(expected.toByteArray(), channel.getWritten());
+    }
+
+    private void assertBuffersReturned() {
+        assertEquals(outstandingBefore, POOL.getOutstandingCount(), "pooled buffers still leased");
+    }
+
+    @Test
+    @DisplayName("Partial writes inside a batch should keep the bytes in order")
+    void testPartialWrites() throws IOException {
+        channel.setBytesPerCall(7);
+        queueFrame("8=FIX.4.2|35=D|10=001|\n");
+        connection.queueSharedFrame("ERROR: shared\n".getBytes(StandardCharsets.US_ASCII));
+        expected.writeBytes("ERROR: shared\n".getBytes(StandardCharsets.US_ASCII));
+        connection.queueMessage("queued message");
+        expected.writeBytes("queued message\n".getBytes(StandardCharsets.US_ASCII));
+        queueFrames(7);
+
+        int calls = 0;
+        while (connection.hasDataToWrite()) {
+            connection.write();
+            calls++;
+        }
+
+        assertWrittenInOrder();
+        int length = expected.size();
+        assertEquals((length + 6) / 7, channel.getWriteCalls());
+        assertEquals(channel.getWriteCalls(), connection.getWriteCalls());
+        assertEquals(channel.getWriteCalls(), calls, "one channel write per call while the socket is full");
+        assertEquals(10, connection.getMessagesWritten());
+        assertBuffersReturned();
+    }
+
+    @Test
+    @DisplayName("A backlog larger than a gather should take several writes in one call")
+    void testBacklogLargerThanGather() throws IOException {
+        queueFrames(2 * MAX_GATHER + 22);
+
+        connection.write();
+
+        assertFalse(connection.hasDataToWrite());
+        assertWrittenInOrder();
+        assertEquals(3, channel.getWriteCalls());
+        assertEquals(3, connection.getWriteCalls());
+        assertEquals(2 * MAX_GATHER + 22, connection.getMessagesWritten());
+        assertBuffersReturned();
+    }
+
+    @Test
+    @DisplayName("Frames left by a partial write should be written first, then topped up")
+    void testGatherCompaction() throws IOException {
+        // 10 byte frames: the first write stops 5 bytes into frame 61
+        queueFrames(100);
+        channel.setBytesPerCall(605);
+
+        connection.write();
+
+        assertTrue(connection.hasDataToWrite());
+        assertEquals(1, connection.getWriteCalls());
+        assertEquals(60, connection.getMessagesWritten());
+
+        // 4 frames left in the gather, 36 still queued: one write for all
+        channel.setBytesPerCall(Integer.MAX_VALUE);
+        connection.write();
+
+        assertFalse(connection.hasDataToWrite());
+        assertWrittenInOrder();
+        assertEquals(2, connection.getWriteCalls());
+        assertEquals(100, connection.getMessagesWritten());
+        assertBuffersReturned();
+    }
+
+    @Test
+    @DisplayName("close() should release gathered and queued frames")
+    void testCloseReleasesFrames() throws IOException {
+        queueFrames(MAX_GATHER + 10);
+        channel.setBytesPerCall(25);
+        connection.write();
+        assertTrue(POOL.getOutstandingCount() > outstandingBefore);
+
+        connection.close();
+
+        assertFalse(channel.isOpen());
+        assertFalse(connection.hasDataToWrite());
+        assertBuffersReturned();
+    }
+
+    @Test
+    @DisplayName("Frames queued after close() should go straight back to the pool")
+    void testQueueAfterClose() {
+        connection.close();
+
+        queueFrame("late\n");
+        connection.queueMessage("late message");
+
+        assertFalse(connection.hasDataToWrite());
+        assertBuffersReturned();
+    }
+
+    @Test
+    @DisplayName("Frames queued while close() runs should all be released")
+    void testCloseWhileQueuing() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            ClientConnection target = new ClientConnection("100002", new StubSocketChannel(0), ComponentType.MARKET);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> workers = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                Thread worker = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < 50; i++) {
+                        target.queueFrame(target.allocateFrame(16).put((byte) '\n'));
+                    }
+                });
+                worker.start();
+                workers.add(worker);
+            }
+
+            start.countDown();
+            Thread.yield();
+            target.close();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            assertFalse(target.hasDataToWrite(), "round " + round);
+            assertBuffersReturned();
+        }
+    }
+
+    @Test
+    @DisplayName("Dispatched messages and forwarded frames should go back to the pool")
+    void testForwardReleasesBuffers() throws IOException {
+        StubSocketChannel marketChannel = new StubSocketChannel(Integer.MAX_VALUE);
+        ClientConnection market = new ClientConnection("200001", marketChannel, ComponentType.MARKET);
+        RoutingTable routingTable = new RoutingTable();
+        routingTable.addRoute("100001", connection);
+        routingTable.addRoute("200001", market);
+        MessageDispatcher dispatcher = new MessageDispatcher("|", new MessageProcessor(routingTable, Runnable::run));
+
+        String order = FixMessageFactory.createBuyOrder("100001", "200001", "AAPL", 100, 150.0).toString();
+        channel.addInbound((order + "\n" + order + "\n").getBytes(StandardCharsets.US_ASCII));
+
+        connection.read(dispatcher);
+        assertTrue(market.hasDataToWrite());
+        market.write();
+
+        String frame = "[100001 → 200001] " + order + "\n";
+        assertEquals(frame + frame, new String(marketChannel.getWritten(), StandardCharsets.UTF_8));
+        assertEquals(2, market.getMessagesWritten());
+        assertBuffersReturned();
+    }
+
+    @Test
+    @DisplayName("Flush requests made before the handover should post the connection once")
+    void testFlushBeforeHandover() throws IOException {
+        IoReactor reactor = new IoReactor("test-reactor", null, null);
+        queueFrames(3);
+
+        // No reactor yet: the frames stay queued
+        connection.enableWriteInterest();
+        assertTrue(connection.hasDataToWrite());
+
+        reactor.assign(connection);
+        assertFalse(connection.requestFlush(), "assign() should have posted a flush");
+        connection.clearFlushRequest();
+        connection.enableWriteInterest();
+        assertFalse(connection.requestFlush(), "enableWriteInterest() should have posted a flush");
+
+        // Stopped before it registered the connection: the reactor closes it
+        reactor.stop();
+        reactor.run();
+
+        assertFalse(channel.isOpen());
+        assertBuffersReturned();
+    }
+}
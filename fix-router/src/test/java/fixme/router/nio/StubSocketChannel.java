@@ -0,0 +1,164 @@
+package fixme.router.nio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.Set;
+
+/**
+ * SocketChannel stand-in for driving a ClientConnection without TCP.
+ * Each write call accepts at most bytesPerCall bytes, across all the
+ * buffers of a gathering write, like a socket whose send buffer fills up;
+ * the bytes accepted are kept in order. Reads return the bytes added with
+ * addInbound(), as many as fit, then find no data.
+ */
+public class StubSocketChannel extends SocketChannel {
+
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+    private ByteBuffer inbound = ByteBuffer.allocate(0);
+    private int bytesPerCall;
+    private int writeCalls;
+
+    public StubSocketChannel(int bytesPerCall) {
+        super(SelectorProvider.provider());
+        this.bytesPerCall = bytesPerCall;
+    }
+
+    public void setBytesPerCall(int bytesPerCall) {
+        this.bytesPerCall = bytesPerCall;
+    }
+
+    /**
+     * Bytes accepted so far, in the order they were written.
+     */
+    public byte[] getWritten() {
+        return written.toByteArray();
+    }
+
+    public int getWriteCalls() {
+        return writeCalls;
+    }
+
+    /**
+     * Appends bytes for the next reads to return.
+     */
+    public void addInbound(byte[] bytes) {
+        ByteBuffer pending = ByteBuffer.allocate(inbound.remaining() + bytes.length);
+        pending.put(inbound).put(bytes).flip();
+        inbound = pending;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        return (int) write(new ByteBuffer[] {src}, 0, 1);
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) {
+        writeCalls++;
+        int budget = bytesPerCall;
+        long total = 0;
+        for (int i = offset; i < offset + length && budget > 0; i++) {
+            ByteBuffer src = srcs[i];
+            int count = Math.min(budget, src.remaining());
+            for (int j = 0; j < count; j++) {
+                written.write(src.get());
+            }
+            budget -= count;
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) {
+        int count = Math.min(dst.remaining(), inbound.remaining());
+        dst.put(dst.position(), inbound, inbound.position(), count);
+        dst.position(dst.position() + count);
+        inbound.position(inbound.position() + count);
+        return count;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) {
+        return 0;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return true;
+    }
+
+    @Override
+    public boolean isConnectionPending() {
+        return false;
+    }
+
+    @Override
+    public boolean connect(SocketAddress remote) {
+        throw new UnsupportedOperationException("Stub channel");
+    }
+
+    @Override
+    public boolean finishConnect() {
+        return true;
+    }
+
+    @Override
+    public SocketChannel bind(SocketAddress local) {
+        throw new UnsupportedOperationException("Stub channel");
+    }
+
+    @Override
+    public <T> SocketChannel setOption(SocketOption<T> name, T value) {
+        return this;
+    }
+
+    @Override
+    public <T> T getOption(SocketOption<T> name) {
+        return null;
+    }
+
+    @Override
+    public Set<SocketOption<?>> supportedOptions() {
+        return Set.of();
+    }
+
+    @Override
+    public SocketChannel shutdownInput() {
+        return this;
+    }
+
+    @Override
+    public SocketChannel shutdownOutput() {
+        return this;
+    }
+
+    @Override
+    public Socket socket() {
+        throw new UnsupportedOperationException("Stub channel");
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+        return null;
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+        return null;
+    }
+
+    @Override
+    protected void implCloseSelectableChannel() throws IOException {
+    }
+
+    @Override
+    protected void implConfigureBlocking(boolean block) throws IOException {
+    }
+}
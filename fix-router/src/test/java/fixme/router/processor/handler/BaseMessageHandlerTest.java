@@ -0,0 +1,62 @@
+package fixme.router.processor.handler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import fixme.router.ComponentType;
+import fixme.router.nio.ClientConnection;
+import fixme.router.nio.StubSocketChannel;
+import fixme.router.processor.MessageContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the error handling of BaseMessageHandler, through
+ * ValidationHandler.
+ */
+class BaseMessageHandlerTest {
+
+    /**
+     * Connection flushed as soon as a flush is requested, like a reactor
+     * that drains the reply before the worker returns.
+     */
+    private static class EagerlyFlushedConnection extends ClientConnection {
+        private boolean closableAfterFlush;
+
+        EagerlyFlushedConnection() {
+            super("100001", new StubSocketChannel(Integer.MAX_VALUE), ComponentType.BROKER);
+        }
+
+        @Override
+        public void enableWriteInterest() {
+            try {
+                while (hasDataToWrite()) {
+                    write();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            closableAfterFlush = shouldClose();
+        }
+    }
+
+    @Test
+    @DisplayName("The last error reply should leave the connection closable once flushed")
+    void testClosableAfterMaxErrors() {
+        EagerlyFlushedConnection connection = new EagerlyFlushedConnection();
+        ValidationHandler handler = new ValidationHandler();
+
+        for (int i = 1; i <= BaseMessageHandler.MAX_ERRORS; i++) {
+            ByteBuffer message = ByteBuffer.wrap("garbage".getBytes(StandardCharsets.ISO_8859_1));
+            assertFalse(handler.handle(new MessageContext(message, connection)));
+            assertEquals(i == BaseMessageHandler.MAX_ERRORS, connection.closableAfterFlush,
+                         "after error " + i);
+        }
+        assertEquals(BaseMessageHandler.MAX_ERRORS, connection.getMessagesWritten());
+    }
+}